@@ -0,0 +1,77 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.codait.stf4j.util.ArrayUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks ArrayUtil.convertArrayType for 1-dimensional to 4-dimensional arrays with about 65536 elements.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArrayConversionBenchmark {
+
+	/**
+	 * Number of dimensions of the array.
+	 */
+	@Param({ "1", "2", "3", "4" })
+	public int rank;
+
+	/**
+	 * Primitive type of the original array.
+	 */
+	@Param({ "float", "int", "long" })
+	public String sourceType;
+
+	/**
+	 * Primitive type of the converted array.
+	 */
+	@Param({ "float", "double", "int", "long" })
+	public String destType;
+
+	private Object array;
+	private Class<?> destClass;
+
+	@Setup
+	public void setup() {
+		array = BenchmarkData.array(sourceType, BenchmarkData.dimensions(rank, 65536));
+		destClass = BenchmarkData.primitiveType(destType);
+	}
+
+	@Benchmark
+	public Object convertArrayType() {
+		return ArrayUtil.convertArrayType(array, destClass);
+	}
+}
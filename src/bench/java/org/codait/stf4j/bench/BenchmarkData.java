@@ -0,0 +1,121 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.bench;
+
+import java.lang.reflect.Array;
+import java.util.Random;
+
+/**
+ * Creates the Java arrays used as benchmark inputs. Values are generated with a fixed seed so that runs are
+ * comparable.
+ *
+ */
+public class BenchmarkData {
+
+	/**
+	 * Obtain the primitive class corresponding to a primitive type name.
+	 *
+	 * @param type
+	 *            The primitive type name ("float", "double", "int", "long", "byte", or "boolean")
+	 * @return The primitive class
+	 */
+	public static Class<?> primitiveType(String type) {
+		if ("float".equals(type)) {
+			return float.class;
+		} else if ("double".equals(type)) {
+			return double.class;
+		} else if ("int".equals(type)) {
+			return int.class;
+		} else if ("long".equals(type)) {
+			return long.class;
+		} else if ("byte".equals(type)) {
+			return byte.class;
+		} else if ("boolean".equals(type)) {
+			return boolean.class;
+		}
+		throw new IllegalArgumentException("Unsupported primitive type: " + type);
+	}
+
+	/**
+	 * Create a primitive array with the specified dimensions, filled with random values.
+	 *
+	 * @param type
+	 *            The primitive type name
+	 * @param dimensions
+	 *            The array dimensions
+	 * @return The array
+	 */
+	public static Object array(String type, int... dimensions) {
+		Object array = Array.newInstance(primitiveType(type), dimensions);
+		fill(array, new Random(42));
+		return array;
+	}
+
+	/**
+	 * Obtain the dimensions of an array of the specified rank that has approximately the specified number of elements.
+	 *
+	 * @param rank
+	 *            The number of dimensions (1 to 4)
+	 * @param numElements
+	 *            The approximate number of elements
+	 * @return The dimensions
+	 */
+	public static int[] dimensions(int rank, int numElements) {
+		int side = (int) Math.round(Math.pow(numElements, 1.0 / rank));
+		int[] dimensions = new int[rank];
+		for (int i = 0; i < rank; i++) {
+			dimensions[i] = side;
+		}
+		return dimensions;
+	}
+
+	private static void fill(Object array, Random random) {
+		Class<?> componentType = array.getClass().getComponentType();
+		if (componentType.isArray()) {
+			for (int i = 0; i < Array.getLength(array); i++) {
+				fill(Array.get(array, i), random);
+			}
+		} else if (componentType == float.class) {
+			float[] a = (float[]) array;
+			for (int i = 0; i < a.length; i++) {
+				a[i] = random.nextFloat() * 100.0f;
+			}
+		} else if (componentType == double.class) {
+			double[] a = (double[]) array;
+			for (int i = 0; i < a.length; i++) {
+				a[i] = random.nextDouble() * 100.0d;
+			}
+		} else if (componentType == int.class) {
+			int[] a = (int[]) array;
+			for (int i = 0; i < a.length; i++) {
+				a[i] = random.nextInt(100);
+			}
+		} else if (componentType == long.class) {
+			long[] a = (long[]) array;
+			for (int i = 0; i < a.length; i++) {
+				a[i] = random.nextInt(100);
+			}
+		} else if (componentType == byte.class) {
+			random.nextBytes((byte[]) array);
+		} else if (componentType == boolean.class) {
+			boolean[] a = (boolean[]) array;
+			for (int i = 0; i < a.length; i++) {
+				a[i] = random.nextBoolean();
+			}
+		}
+	}
+}
@@ -0,0 +1,106 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.codait.stf4j.util.CIFAR10Util;
+import org.codait.stf4j.util.CIFAR10Util.DimOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks decoding and preprocessing of a CIFAR-10 binary data file with random pixel values, sequentially and
+ * with ForkJoinPools of different parallelism, to show how the parallel variants scale.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CIFAR10PreprocessBenchmark {
+
+	/**
+	 * Parallelism of the ForkJoinPool.
+	 */
+	@Param({ "1", "2", "4", "8" })
+	public int parallelism;
+
+	/**
+	 * Number of images in the data file.
+	 */
+	@Param({ "2000" })
+	public int numImages;
+
+	private String batchBinFile;
+	private ForkJoinPool pool;
+	private float[][][][] images;
+
+	@Setup
+	public void setup() throws IOException {
+		byte[] b = new byte[numImages * 3073];
+		new Random(42).nextBytes(b);
+		File file = File.createTempFile("cifar", ".bin");
+		file.deleteOnExit();
+		Files.write(file.toPath(), b);
+		batchBinFile = file.getPath();
+		pool = new ForkJoinPool(parallelism);
+		images = CIFAR10Util.getImages(batchBinFile, DimOrder.ROWS_COLS_CHANNELS);
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public float[][][][] sequentialPreprocessedImages() throws IOException {
+		return CIFAR10Util.getPreprocessedImages(batchBinFile, DimOrder.ROWS_COLS_CHANNELS);
+	}
+
+	@Benchmark
+	public float[][][][] parallelPreprocessedImages() throws IOException {
+		return CIFAR10Util.getPreprocessedImages(batchBinFile, DimOrder.ROWS_COLS_CHANNELS, pool);
+	}
+
+	@Benchmark
+	public float[][][][] parallelGetImages() throws IOException {
+		return CIFAR10Util.getImages(batchBinFile, DimOrder.CHANNELS_ROWS_COLS, pool);
+	}
+
+	@Benchmark
+	public float[][][][] parallelPreprocessImages() {
+		return CIFAR10Util.preprocessImages(images, pool);
+	}
+}
@@ -0,0 +1,86 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.codait.stf4j.TestSavedModels;
+import org.codait.stf4j.util.TFUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tensorflow.Tensor;
+import org.tensorflow.framework.DataType;
+import org.tensorflow.framework.TensorInfo;
+import org.tensorflow.framework.TensorShapeProto;
+
+/**
+ * Benchmarks TFUtil.convertToTensor for 2-dimensional Java arrays of one primitive type converted to Tensors of the
+ * same or another data type.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversionBenchmark {
+
+	/**
+	 * Primitive type of the Java array.
+	 */
+	@Param({ "float", "double", "int", "long" })
+	public String sourceType;
+
+	/**
+	 * Data type of the Tensor.
+	 */
+	@Param({ "DT_FLOAT", "DT_DOUBLE", "DT_INT32", "DT_INT64" })
+	public String dtype;
+
+	/**
+	 * Number of rows and columns of the Java array.
+	 */
+	@Param({ "16", "256" })
+	public int size;
+
+	private Object value;
+	private TensorInfo tensorInfo;
+
+	@Setup
+	public void setup() {
+		value = BenchmarkData.array(sourceType, size, size);
+		TensorShapeProto unknownShape = TensorShapeProto.newBuilder().setUnknownRank(true).build();
+		tensorInfo = TestSavedModels.tensorInfo("input:0", DataType.valueOf(dtype), unknownShape);
+	}
+
+	@Benchmark
+	public long convertToTensor() {
+		try (Tensor<?> tensor = TFUtil.convertToTensor("input", "input:0", value, tensorInfo)) {
+			return tensor.numElements();
+		}
+	}
+}
@@ -0,0 +1,102 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.bench;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.codait.stf4j.TFModel;
+import org.codait.stf4j.TFResults;
+import org.codait.stf4j.TestSavedModels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tensorflow.framework.DataType;
+
+/**
+ * Benchmarks the TFResults getters on the float output of a model that adds two inputs. The model is run once during
+ * setup, so only the extraction of the output values is measured.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultsBenchmark {
+
+	/**
+	 * Number of rows and columns of the output.
+	 */
+	@Param({ "16", "256" })
+	public int size;
+
+	private TFModel model;
+	private TFResults results;
+	private FloatBuffer buffer;
+
+	@Setup
+	public void setup() {
+		model = new TFModel(TestSavedModels.addModelDir(DataType.DT_FLOAT));
+		Object input = BenchmarkData.array("float", size, size);
+		results = model.sig("serving_default").in("input1", input).in("input2", input).out("output").run();
+		buffer = ByteBuffer.allocateDirect(size * size * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+	}
+
+	@TearDown
+	public void tearDown() {
+		model.close();
+	}
+
+	@Benchmark
+	public Object getFloatArrayMultidimensional() {
+		return results.getFloatArrayMultidimensional("output");
+	}
+
+	@Benchmark
+	public float[] getFloatArray() {
+		return results.getFloatArray("output");
+	}
+
+	@Benchmark
+	public Object getDoubleArrayMultidimensional() {
+		return results.getDoubleArrayMultidimensional("output");
+	}
+
+	@Benchmark
+	public Object getIntArrayMultidimensional() {
+		return results.getIntArrayMultidimensional("output");
+	}
+
+	@Benchmark
+	public long[] getFloatsIntoBuffer() {
+		buffer.clear();
+		return results.getFloats("output", buffer);
+	}
+}
@@ -0,0 +1,105 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.codait.stf4j.TFModel;
+import org.codait.stf4j.TestSavedModels;
+import org.codait.stf4j.graph.TFGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tensorflow.Graph;
+import org.tensorflow.Output;
+import org.tensorflow.Tensor;
+import org.tensorflow.framework.DataType;
+
+/**
+ * End-to-end benchmarks of TFModel.run() and TFGraph.run() on a graph that adds two float inputs. The graph is built
+ * in-process with Graph.opBuilder (for TFModel, it is written to a temporary SavedModel), so no external model files
+ * are needed.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RunBenchmark {
+
+	/**
+	 * Number of elements of each input.
+	 */
+	@Param({ "1", "1024", "65536" })
+	public int size;
+
+	private TFModel model;
+	private Graph graph;
+	private TFGraph tfGraph;
+	private float[] input;
+	private Tensor<Float> inputTensor;
+
+	@Setup
+	public void setup() {
+		input = (float[]) BenchmarkData.array("float", size);
+		model = new TFModel(TestSavedModels.addModelDir(DataType.DT_FLOAT)).sig("serving_default");
+
+		graph = new Graph();
+		Output<?> input1 = graph.opBuilder("Placeholder", "input1").setAttr("dtype", org.tensorflow.DataType.FLOAT)
+				.build().output(0);
+		Output<?> input2 = graph.opBuilder("Placeholder", "input2").setAttr("dtype", org.tensorflow.DataType.FLOAT)
+				.build().output(0);
+		graph.opBuilder("Add", "add").addInput(input1).addInput(input2).build();
+		inputTensor = Tensor.create(input, Float.class);
+		tfGraph = new TFGraph(graph).input("input1", inputTensor).input("input2", inputTensor).output("add");
+	}
+
+	@TearDown
+	public void tearDown() {
+		model.close();
+		tfGraph.close();
+		inputTensor.close();
+		graph.close();
+	}
+
+	/**
+	 * Converts the Java inputs to Tensors, runs the model, and converts the output back to a Java array.
+	 */
+	@Benchmark
+	public float[] modelRun() {
+		return model.in("input1", input).in("input2", input).out("output").run().getFloatArray("output");
+	}
+
+	/**
+	 * Runs the graph with Tensor inputs that are created once.
+	 */
+	@Benchmark
+	public long graphRun() {
+		return tfGraph.run().getTensor("add").numElements();
+	}
+}
@@ -0,0 +1,337 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.codait.stf4j.async.InferenceExecutor;
+import org.codait.stf4j.cache.ResultCache;
+import org.codait.stf4j.metrics.MetricsListener;
+import org.codait.stf4j.metrics.StepProfiler;
+import org.codait.stf4j.util.InputConverter;
+import org.codait.stf4j.util.TFUtil;
+import org.tensorflow.Session.Runner;
+import org.tensorflow.Tensor;
+import org.tensorflow.framework.TensorInfo;
+
+/**
+ * Immutable, reusable execution plan for a TFModel. The input and output keys are resolved to their names and
+ * TensorInfo objects once, when the PreparedRun is created by the TFModel prepare() method. The PreparedRun run()
+ * method does not modify any shared state, so a single PreparedRun (and the single underlying TensorFlow Session of
+ * the TFModel) can be used concurrently by multiple threads.
+ *
+ * <pre>
+ * PreparedRun pr = model.prepare("serving_default", new String[] { "input1", "input2" }, new String[] { "output" });
+ * long result = pr.run(1L, 2L).getLong("output");
+ * </pre>
+ */
+public class PreparedRun {
+
+	/**
+	 * Logger for PreparedRun
+	 */
+	protected static Logger log = LogManager.getLogger(PreparedRun.class);
+
+	/**
+	 * The TensorFlow model.
+	 */
+	final TFModel model;
+	/**
+	 * SignatureDef key for the inputs and outputs.
+	 */
+	final String signatureDefKey;
+	/**
+	 * The input keys, in the order that input values are passed to run().
+	 */
+	final String[] inputKeys;
+	/**
+	 * The input names corresponding to the input keys.
+	 */
+	final String[] inputNames;
+	/**
+	 * The TensorInfo objects corresponding to the input keys.
+	 */
+	final TensorInfo[] inputTensorInfos;
+	/**
+	 * The converters last used for the values of each input, so that the converter of an input only needs to be looked
+	 * up when the class of its values changes.
+	 */
+	final AtomicReferenceArray<InputConverter> inputConverters;
+	/**
+	 * The output keys.
+	 */
+	final String[] outputKeys;
+	/**
+	 * The output names corresponding to the output keys.
+	 */
+	final String[] outputNames;
+	/**
+	 * Unmodifiable mapping of output keys to names, shared by all results.
+	 */
+	final Map<String, String> outputKeyToName;
+
+	/**
+	 * Create a PreparedRun by resolving the input keys and output keys of a SignatureDef.
+	 *
+	 * @param model
+	 *            The TensorFlow model
+	 * @param signatureDefKey
+	 *            The SignatureDef key (can be null, but this is not recommended)
+	 * @param inputKeys
+	 *            The input keys
+	 * @param outputKeys
+	 *            The output keys
+	 */
+	PreparedRun(TFModel model, String signatureDefKey, String[] inputKeys, String[] outputKeys) {
+		if (inputKeys == null) {
+			throw new TFException("Input keys cannot be null");
+		}
+		if (outputKeys == null || outputKeys.length == 0) {
+			throw new TFException("At least one output key needs to be specified");
+		}
+		this.model = model;
+		this.signatureDefKey = signatureDefKey;
+		this.inputKeys = inputKeys.clone();
+		this.outputKeys = outputKeys.clone();
+
+		if (signatureDefKey != null) {
+			checkInputKeys(model.signatureIndex().signatureInputs(signatureDefKey).keySet());
+		}
+
+		inputNames = new String[inputKeys.length];
+		inputTensorInfos = new TensorInfo[inputKeys.length];
+		inputConverters = new AtomicReferenceArray<InputConverter>(inputKeys.length);
+		for (int i = 0; i < inputKeys.length; i++) {
+			TensorInfo ti = model.signatureIndex().inputTensorInfo(signatureDefKey, inputKeys[i]);
+			inputTensorInfos[i] = ti;
+			inputNames[i] = ti.getName();
+		}
+
+		outputNames = new String[outputKeys.length];
+		Map<String, String> keyToName = new LinkedHashMap<String, String>();
+		for (int i = 0; i < outputKeys.length; i++) {
+			outputNames[i] = model.signatureIndex().outputName(signatureDefKey, outputKeys[i]);
+			keyToName.put(outputKeys[i], outputNames[i]);
+		}
+		outputKeyToName = Collections.unmodifiableMap(keyToName);
+		log.debug("Prepared run with input keys " + Arrays.toString(inputKeys) + " and output keys "
+				+ Arrays.toString(outputKeys));
+	}
+
+	/**
+	 * Check that the required input keys of the SignatureDef are included in the input keys. If not, throw a
+	 * TFException specifying the missing input keys.
+	 *
+	 * @param requiredInputKeys
+	 *            The input keys of the SignatureDef
+	 */
+	protected void checkInputKeys(Set<String> requiredInputKeys) {
+		List<String> keys = Arrays.asList(inputKeys);
+		List<String> missingReqInputKeys = new ArrayList<String>();
+		for (String reqInputKey : requiredInputKeys) {
+			if (!keys.contains(reqInputKey)) {
+				missingReqInputKeys.add(reqInputKey);
+			}
+		}
+		if (missingReqInputKeys.size() > 0) {
+			throw new TFException("The following '" + signatureDefKey + "' required input keys are missing: "
+					+ missingReqInputKeys.toString());
+		}
+	}
+
+	/**
+	 * Execute the model graph operations with the specified input values. Input values are given in the same order as
+	 * the input keys of this PreparedRun. Values that are Tensors are fed directly. Other values are converted to
+	 * Tensors, which are released once the graph has been executed. This method can be called concurrently from
+	 * multiple threads. The output Tensors belong to the returned TFResults object, which should be closed when the
+	 * values have been obtained.
+	 *
+	 * @param inputValues
+	 *            The input values
+	 * @return The results as a TFResults object.
+	 */
+	public TFResults run(Object... inputValues) {
+		if (inputValues == null || inputValues.length != inputKeys.length) {
+			throw new TFException("Expected " + inputKeys.length + " input values for input keys "
+					+ Arrays.toString(inputKeys) + " but received "
+					+ (inputValues == null ? "null" : String.valueOf(inputValues.length)));
+		}
+		List<Tensor<?>> createdTensors = new ArrayList<Tensor<?>>(inputValues.length);
+		try {
+			MetricsListener listener = model.metrics();
+			ResultCache cache = model.cacheFor(signatureDefKey);
+			Map<String, Tensor<?>> inputTensors = cache == null ? null : new LinkedHashMap<String, Tensor<?>>();
+			Runner runner = model.session().runner();
+			long bytesFed = 0;
+			for (int i = 0; i < inputValues.length; i++) {
+				Object value = inputValues[i];
+				if (value == null) {
+					throw new TFException("Input value for input key '" + inputKeys[i] + "' cannot be null");
+				}
+				Tensor<?> tensor;
+				if (value instanceof Tensor) {
+					tensor = (Tensor<?>) value;
+				} else {
+					long start = listener == null ? 0 : System.nanoTime();
+					InputConverter cached = inputConverters.get(i);
+					InputConverter converter = InputConverter.forValue(cached, inputKeys[i], inputNames[i], value,
+							inputTensorInfos[i]);
+					if (converter != cached) {
+						inputConverters.set(i, converter);
+					}
+					tensor = converter.convert(value);
+					createdTensors.add(tensor);
+					if (listener != null) {
+						listener.inputConverted(signatureDefKey, inputKeys[i], System.nanoTime() - start,
+								tensor.numBytes());
+					}
+				}
+				if (listener != null) {
+					bytesFed += tensor.numBytes();
+				}
+				runner.feed(inputNames[i], tensor);
+				if (inputTensors != null) {
+					inputTensors.put(inputNames[i], tensor);
+				}
+			}
+			ResultCache.Key cacheKey = cache == null ? null
+					: cache.key(model, signatureDefKey, inputTensors, Arrays.asList(outputNames));
+			List<Tensor<?>> res = cacheKey == null ? null : cache.get(cacheKey);
+			if (res == null) {
+				for (String outputName : outputNames) {
+					runner.fetch(outputName);
+				}
+				StepProfiler profiler = model.profile();
+				long start = listener == null ? 0 : System.nanoTime();
+				try {
+					res = (profiler == null) ? runner.run() : profiler.run(runner, model.graph());
+				} catch (Exception e) {
+					throw new TFException("Problem executing TensorFlow graph: " + e.getMessage(), e);
+				}
+				if (listener != null) {
+					listener.sessionRun(signatureDefKey, System.nanoTime() - start, bytesFed, TFUtil.numBytes(res));
+				}
+				if (cacheKey != null) {
+					cache.put(cacheKey, res);
+				}
+			}
+			Map<String, Object> outputNameToValue = new LinkedHashMap<String, Object>();
+			for (int i = 0; i < outputNames.length; i++) {
+				outputNameToValue.put(outputNames[i], res.get(i));
+			}
+			return new TFResults(model, signatureDefKey, outputKeyToName, outputNameToValue);
+		} finally {
+			for (Tensor<?> tensor : createdTensors) {
+				tensor.close();
+			}
+		}
+	}
+
+	/**
+	 * Execute the model graph operations asynchronously on an InferenceExecutor. The calling thread does not wait for
+	 * the input conversion or the Session run. The input values should not be modified until the returned future has
+	 * completed, and the TFResults should be closed when the values have been obtained.
+	 *
+	 * @param executor
+	 *            The InferenceExecutor
+	 * @param inputValues
+	 *            The input values
+	 * @return A future that completes with the results of the run
+	 */
+	public CompletableFuture<TFResults> runAsync(InferenceExecutor executor, Object... inputValues) {
+		return executor.submit(this, inputValues);
+	}
+
+	/**
+	 * Obtain the SignatureDef key.
+	 *
+	 * @return The SignatureDef key
+	 */
+	public String signatureDefKey() {
+		return signatureDefKey;
+	}
+
+	/**
+	 * Obtain the input keys, in the order that input values are passed to run().
+	 *
+	 * @return The input keys
+	 */
+	public String[] inputKeys() {
+		return inputKeys.clone();
+	}
+
+	/**
+	 * Obtain the output keys.
+	 *
+	 * @return The output keys
+	 */
+	public String[] outputKeys() {
+		return outputKeys.clone();
+	}
+
+	/**
+	 * Obtain the TensorFlow model.
+	 *
+	 * @return The TensorFlow model
+	 */
+	public TFModel model() {
+		return model;
+	}
+
+	/**
+	 * Display information about the prepared run, such as the SignatureDef key, the inputs, and the outputs.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("SignatureDef Key: ");
+		sb.append(signatureDefKey == null ? "None" : signatureDefKey);
+		sb.append("\nInputs:\n");
+		for (int i = 0; i < inputKeys.length; i++) {
+			sb.append("  [");
+			sb.append(i + 1);
+			sb.append("] ");
+			sb.append(inputKeys[i]);
+			sb.append(" (");
+			sb.append(inputNames[i]);
+			sb.append("): ");
+			sb.append(inputTensorInfos[i].getDtype());
+			sb.append("\n");
+		}
+		sb.append("Outputs:\n");
+		for (int i = 0; i < outputKeys.length; i++) {
+			sb.append("  [");
+			sb.append(i + 1);
+			sb.append("] ");
+			sb.append(outputKeys[i]);
+			sb.append(" (");
+			sb.append(outputNames[i]);
+			sb.append(")\n");
+		}
+		return sb.toString();
+	}
+}
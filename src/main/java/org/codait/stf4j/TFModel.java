@@ -17,35 +17,58 @@
 package org.codait.stf4j;
 
 import java.io.File;
+import java.nio.Buffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
+import org.codait.stf4j.async.InferenceExecutor;
+import org.codait.stf4j.cache.ResultCache;
 import org.codait.stf4j.graph.TFGraph;
+import org.codait.stf4j.metrics.MetricsListener;
+import org.codait.stf4j.metrics.StepProfiler;
+import org.codait.stf4j.metrics.WarmUpReport;
+import org.codait.stf4j.util.InputConverter;
+import org.codait.stf4j.util.SignatureIndex;
 import org.codait.stf4j.util.TFUtil;
 import org.tensorflow.Graph;
 import org.tensorflow.SavedModelBundle;
 import org.tensorflow.Session;
 import org.tensorflow.Session.Runner;
 import org.tensorflow.Tensor;
+import org.tensorflow.framework.AssetFileDef;
+import org.tensorflow.framework.CollectionDef;
+import org.tensorflow.framework.ConfigProto;
 import org.tensorflow.framework.MetaGraphDef;
 import org.tensorflow.framework.SignatureDef;
 import org.tensorflow.framework.TensorInfo;
+import org.tensorflow.util.SaverDef;
 
+import com.google.protobuf.Any;
 import com.google.protobuf.InvalidProtocolBufferException;
 
 /**
  * Encapsulation of a TensorFlow model for simplified TensorFlow execution from Java using SavedModels.
  *
+ * The input Tensors created by the TFModel and the output Tensors of a run hold native memory. Output Tensors are
+ * closed when the next run starts, input Tensors are closed when they are replaced, and both are closed by clear() and
+ * close(). Input Tensors that are passed to in() by the caller are never closed by the TFModel.
+ *
  */
-public class TFModel {
+public class TFModel implements AutoCloseable {
 
 	/**
 	 * Logger for TFModel
@@ -60,10 +83,22 @@ public class TFModel {
 	 * model metadata description
 	 */
 	MetaGraphDef metaGraphDef;
+	/**
+	 * Index of the SignatureDef input and output keys
+	 */
+	SignatureIndex signatureIndex;
 	/**
 	 * SavedModel directory
 	 */
 	String savedModelDir;
+	/**
+	 * Session configuration, or null if the default configuration is used
+	 */
+	ConfigProto config;
+	/**
+	 * Session to the model graph
+	 */
+	Session session;
 
 	/**
 	 * SignatureDef key that allows a particular set of input keys and output keys to be mapped to the desired input
@@ -98,6 +133,37 @@ public class TFModel {
 	 * The possible output keys.
 	 */
 	Set<String> possibleOutputKeys = new LinkedHashSet<String>();
+	/**
+	 * Names of the inputs whose Tensors were created by this TFModel (and are therefore closed by it).
+	 */
+	Set<String> ownedInputNames = new HashSet<String>();
+	/**
+	 * Mapping of input names to the converters last used for their values, so that the converter of an input only
+	 * needs to be looked up when the class of its values changes.
+	 */
+	Map<String, InputConverter> inputConverters = new HashMap<String, InputConverter>();
+	/**
+	 * Listener notified of input conversion, Session.run, and output extraction times, or null if metrics are
+	 * disabled.
+	 */
+	MetricsListener metricsListener;
+	/**
+	 * Profiler that traces sampled runs, or null if profiling is disabled.
+	 */
+	StepProfiler profiler;
+	/**
+	 * Cache of run outputs, or null if outputs are not cached.
+	 */
+	ResultCache resultCache;
+	/**
+	 * SignatureDef keys whose outputs are cached, or an empty set if the outputs of all SignatureDefs are cached.
+	 */
+	Set<String> cachedSignatureDefKeys = Collections.emptySet();
+
+	/**
+	 * Default number of warm-up iterations per SignatureDef.
+	 */
+	public static final int DEFAULT_WARM_UP_ITERATIONS = 5;
 
 	/**
 	 * Load TensorFlow model located at modelDir with tag "serve".
@@ -118,6 +184,34 @@ public class TFModel {
 	 *            The MetaGraphDef tags
 	 */
 	public TFModel(String modelDir, String... metaGraphDefTags) {
+		this(modelDir, null, metaGraphDefTags);
+	}
+
+	/**
+	 * Load TensorFlow model located at modelDir with tag "serve" and create its Session with the specified
+	 * configuration, such as intra-op and inter-op thread pool sizes.
+	 * 
+	 * @param modelDir
+	 *            SavedModel directory
+	 * @param config
+	 *            Session configuration, or null for the default configuration
+	 */
+	public TFModel(String modelDir, ConfigProto config) {
+		this(modelDir, config, "serve");
+	}
+
+	/**
+	 * Load TensorFlow model located at modelDir with specified MetaGraphDef tags and create its Session with the
+	 * specified configuration, such as intra-op and inter-op thread pool sizes.
+	 * 
+	 * @param modelDir
+	 *            SavedModel directory
+	 * @param config
+	 *            Session configuration, or null for the default configuration
+	 * @param metaGraphDefTags
+	 *            The MetaGraphDef tags
+	 */
+	public TFModel(String modelDir, ConfigProto config, String... metaGraphDefTags) {
 		if (modelDir == null) {
 			throw new TFException("Model directory is null");
 		}
@@ -129,10 +223,85 @@ public class TFModel {
 		savedModelDir = modelDir;
 		long start = new Date().getTime();
 		savedModel = SavedModelBundle.load(modelDir, metaGraphDefTags);
+		if (config == null) {
+			session = savedModel.session();
+		} else {
+			this.config = config;
+			session = createSession(config);
+		}
 		long end = new Date().getTime();
 		log.debug("Model loaded from '" + modelDir + "' in " + (end - start) + " milliseconds");
 	}
 
+	/**
+	 * Create a Session to the model graph with the specified configuration, and replace the Session created by
+	 * SavedModelBundle, which always uses the default configuration. The variables are restored from the SavedModel
+	 * variables directory and the main op (or legacy init op) is run, as is done when the SavedModel is loaded.
+	 * 
+	 * @param config
+	 *            Session configuration
+	 * @return The Session
+	 */
+	protected Session createSession(ConfigProto config) {
+		Session s = new Session(savedModel.graph(), config.toByteArray());
+		try {
+			MetaGraphDef mgd = metaGraphDef();
+			Map<String, CollectionDef> collections = mgd.getCollectionDefMap();
+
+			SaverDef saverDef = mgd.getSaverDef();
+			File variablesIndex = new File(new File(savedModelDir, "variables"), "variables.index");
+			if (!saverDef.getRestoreOpName().isEmpty() && variablesIndex.exists()) {
+				String variablesPath = new File(new File(savedModelDir, "variables"), "variables").getPath();
+				try (Tensor<String> path = Tensor.create(variablesPath.getBytes(StandardCharsets.UTF_8),
+						String.class)) {
+					s.runner().feed(saverDef.getFilenameTensorName(), path).addTarget(saverDef.getRestoreOpName())
+							.run();
+				}
+				log.debug("Restored variables from '" + variablesPath + "'");
+			}
+
+			String initOp = null;
+			if (collections.containsKey("saved_model_main_op")) {
+				initOp = collections.get("saved_model_main_op").getNodeList().getValue(0);
+			} else if (collections.containsKey("legacy_init_op")) {
+				initOp = collections.get("legacy_init_op").getNodeList().getValue(0);
+			}
+			if (initOp != null) {
+				List<Tensor<?>> assets = new ArrayList<Tensor<?>>();
+				try {
+					Runner runner = s.runner();
+					if (collections.containsKey("saved_model_assets")) {
+						for (Any any : collections.get("saved_model_assets").getAnyList().getValueList()) {
+							AssetFileDef asset = any.unpack(AssetFileDef.class);
+							String assetPath = new File(new File(savedModelDir, "assets"), asset.getFilename())
+									.getPath();
+							Tensor<String> t = Tensor.create(assetPath.getBytes(StandardCharsets.UTF_8),
+									String.class);
+							assets.add(t);
+							runner.feed(asset.getTensorInfo().getName(), t);
+						}
+					}
+					runner.addTarget(initOp).run();
+				} finally {
+					for (Tensor<?> t : assets) {
+						t.close();
+					}
+				}
+				log.debug("Ran init op '" + initOp + "'");
+			}
+		} catch (InvalidProtocolBufferException e) {
+			s.close();
+			savedModel.close();
+			throw new TFException("Exception obtaining SavedModel assets", e);
+		} catch (RuntimeException e) {
+			s.close();
+			savedModel.close();
+			throw new TFException("Exception creating configured Session: " + e.getMessage(), e);
+		}
+		savedModel.session().close();
+		return s;
+	}
+
 	/**
 	 * Check that the required input keys have been provided. If not, throw a TFException specifying the missing input
 	 * keys.
@@ -171,9 +340,12 @@ public class TFModel {
 	}
 
 	/**
-	 * Clear the SignatureDef key, the input and output key-to-name-to-value mappings, and the results.
+	 * Clear the SignatureDef key, the input and output key-to-name-to-value mappings, and the results. The input
+	 * Tensors created by this TFModel and the output Tensors are closed.
 	 */
 	public void clear() {
+		closeInputs();
+		closeOutputs();
 		inputKeyToName.clear();
 		inputNameToValue.clear();
 		outputKeyToName.clear();
@@ -186,10 +358,71 @@ public class TFModel {
 		signatureDefKey = null;
 	}
 
+	/**
+	 * Clear the model inputs, outputs, and results, closing their Tensors, and close the SavedModel, which releases
+	 * the TensorFlow graph and session.
+	 */
+	@Override
+	public void close() {
+		clear();
+		if (resultCache != null) {
+			resultCache.invalidate(this);
+		}
+		if (session != savedModel.session()) {
+			session.close();
+		}
+		savedModel.close();
+		log.debug("Closed model '" + savedModelDir + "'");
+	}
+
+	/**
+	 * Close the Tensor of an input if the Tensor was created by this TFModel.
+	 * 
+	 * @param inputName
+	 *            The input name
+	 */
+	protected void closeInput(String inputName) {
+		if (ownedInputNames.remove(inputName)) {
+			Object value = inputNameToValue.get(inputName);
+			if (value instanceof Tensor) {
+				((Tensor<?>) value).close();
+			}
+		}
+	}
+
+	/**
+	 * Close the input Tensors that were created by this TFModel.
+	 */
+	protected void closeInputs() {
+		for (String inputName : ownedInputNames) {
+			Object value = inputNameToValue.get(inputName);
+			if (value instanceof Tensor) {
+				((Tensor<?>) value).close();
+			}
+		}
+		ownedInputNames.clear();
+	}
+
+	/**
+	 * Close the output Tensors of the previous run.
+	 */
+	protected void closeOutputs() {
+		for (Entry<String, Object> entry : outputNameToValue.entrySet()) {
+			Object value = entry.getValue();
+			if (value instanceof Tensor) {
+				((Tensor<?>) value).close();
+			}
+			entry.setValue(null);
+		}
+	}
+
 	/**
 	 * Add an input to the model by specifying an input key and the corresponding value. If a SignatureDef key has been
 	 * specified using the TFModel sig() method, the input key will be specific to the SignatureDef key.
 	 * 
+	 * If the value is not a Tensor, it is converted to a Tensor that is owned by this TFModel and closed when the input
+	 * is replaced or the TFModel is cleared. A Tensor value is used as is and remains the responsibility of the caller.
+	 * 
 	 * @param inputKey
 	 *            The input key
 	 * @param inputValue
@@ -202,19 +435,69 @@ public class TFModel {
 		}
 		log.debug("Register input key '" + inputKey + "' with object type " + inputValue.getClass().getName());
 		if (inputValue instanceof Tensor) {
-			String inputName = TFUtil.inputKeyToName(signatureDefKey, inputKey, metaGraphDef());
+			String inputName = signatureIndex().inputName(signatureDefKey, inputKey);
+			closeInput(inputName);
 			inputNameToValue.put(inputName, inputValue);
 			inputKeyToName.put(inputKey, inputName);
 		} else {
-			TensorInfo ti = TFUtil.inputKeyToTensorInfo(signatureDefKey, inputKey, metaGraphDef());
+			TensorInfo ti = signatureIndex().inputTensorInfo(signatureDefKey, inputKey);
 			String inputName = ti.getName();
-			Tensor<?> tensor = TFUtil.convertToTensor(inputKey, inputName, inputValue, ti);
+			MetricsListener listener = metricsListener;
+			long start = listener == null ? 0 : System.nanoTime();
+			InputConverter converter = InputConverter.forValue(inputConverters.get(inputName), inputKey, inputName,
+					inputValue, ti);
+			inputConverters.put(inputName, converter);
+			Tensor<?> tensor = converter.convert(inputValue);
+			if (listener != null) {
+				listener.inputConverted(signatureDefKey, inputKey, System.nanoTime() - start, tensor.numBytes());
+			}
+			closeInput(inputName);
 			inputNameToValue.put(inputName, tensor);
+			ownedInputNames.add(inputName);
 			inputKeyToName.put(inputKey, inputName);
 		}
 		return this;
 	}
 
+	/**
+	 * Add an input to the model by specifying an input key, a buffer containing the input values, and the shape of
+	 * the input. The values are copied directly from the buffer (which can be a direct buffer) to a Tensor without
+	 * building a multidimensional Java array. A FloatBuffer, IntBuffer, LongBuffer, or DoubleBuffer needs to match the
+	 * data type of the input. A ByteBuffer contains the raw values in native byte order and can be used for any data
+	 * type, such as DT_UINT8 images. The remaining values of the buffer are used, and the buffer position is not
+	 * changed.
+	 * 
+	 * @param inputKey
+	 *            The input key
+	 * @param inputValue
+	 *            The buffer containing the input values
+	 * @param shape
+	 *            The shape of the input
+	 * @return {@code this} TFModel object to allow chaining of methods
+	 */
+	public TFModel in(String inputKey, Buffer inputValue, long[] shape) {
+		if (inputValue == null) {
+			throw new TFException("Input value cannot be null");
+		}
+		if (shape == null) {
+			throw new TFException("Shape cannot be null");
+		}
+		log.debug("Register input key '" + inputKey + "' with buffer type " + inputValue.getClass().getName());
+		TensorInfo ti = signatureIndex().inputTensorInfo(signatureDefKey, inputKey);
+		String inputName = ti.getName();
+		MetricsListener listener = metricsListener;
+		long start = listener == null ? 0 : System.nanoTime();
+		Tensor<?> tensor = TFUtil.convertBufferToTensor(inputKey, inputName, inputValue, shape, ti);
+		if (listener != null) {
+			listener.inputConverted(signatureDefKey, inputKey, System.nanoTime() - start, tensor.numBytes());
+		}
+		closeInput(inputName);
+		inputNameToValue.put(inputName, tensor);
+		ownedInputNames.add(inputName);
+		inputKeyToName.put(inputKey, inputName);
+		return this;
+	}
+
 	/**
 	 * Obtain the model metadata description.
 	 * 
@@ -233,6 +516,19 @@ public class TFModel {
 		}
 	}
 
+	/**
+	 * Obtain the index of the SignatureDef input and output keys, which is created from the MetaGraphDef when first
+	 * needed.
+	 * 
+	 * @return The SignatureIndex
+	 */
+	public SignatureIndex signatureIndex() {
+		if (signatureIndex == null) {
+			signatureIndex = new SignatureIndex(metaGraphDef());
+		}
+		return signatureIndex;
+	}
+
 	/**
 	 * Obtain the SavedModel.
 	 * 
@@ -266,7 +562,7 @@ public class TFModel {
 	 * @return A TFGraph object.
 	 */
 	public TFGraph tfGraph() {
-		return new TFGraph(model().graph());
+		return new TFGraph(model().graph(), config);
 	}
 
 	/**
@@ -279,9 +575,12 @@ public class TFModel {
 	 */
 	public TFModel out(String outputKey) {
 		log.debug("Register output key '" + outputKey + "'");
-		String outputName = TFUtil.outputKeyToName(signatureDefKey, outputKey, metaGraphDef());
+		String outputName = signatureIndex().outputName(signatureDefKey, outputKey);
 		outputKeyToName.put(outputKey, outputName);
-		outputNameToValue.put(outputName, null);
+		Object previous = outputNameToValue.put(outputName, null);
+		if (previous instanceof Tensor) {
+			((Tensor<?>) previous).close();
+		}
 		return this;
 	}
 
@@ -300,10 +599,110 @@ public class TFModel {
 		return this;
 	}
 
+	/**
+	 * Create an immutable, thread-safe PreparedRun for a particular SignatureDef key, input keys, and output keys. The
+	 * input and output names and TensorInfo objects are resolved once. The PreparedRun does not depend on the inputs,
+	 * outputs, or results of this TFModel object, so a single loaded model can serve concurrent requests.
+	 * 
+	 * @param signatureDefKey
+	 *            The SignatureDef key
+	 * @param inputKeys
+	 *            The input keys, in the order that input values will be passed to the PreparedRun run() method
+	 * @param outputKeys
+	 *            The output keys
+	 * @return The PreparedRun
+	 */
+	public PreparedRun prepare(String signatureDefKey, String[] inputKeys, String[] outputKeys) {
+		return new PreparedRun(this, signatureDefKey, inputKeys, outputKeys);
+	}
+
+	/**
+	 * Warm up the model by running each SignatureDef DEFAULT_WARM_UP_ITERATIONS times with synthetic inputs, in which
+	 * dimensions of unknown size have size 1.
+	 * 
+	 * @return The warm-up latencies
+	 */
+	public WarmUpReport warmUp() {
+		return warmUp(DEFAULT_WARM_UP_ITERATIONS, 1);
+	}
+
+	/**
+	 * Warm up the model after it has been loaded, so that graph optimization and allocator growth do not slow down
+	 * the first runs that serve real requests. Each SignatureDef is run the specified number of times with synthetic
+	 * inputs of zeros (or empty strings) that have the data types and shapes of the SignatureDef TensorInfo objects,
+	 * with unknownDimSize substituted for dimensions of unknown size, and all of its outputs are fetched. A SignatureDef
+	 * that cannot be run with synthetic inputs is reported as failed rather than throwing an exception.
+	 * 
+	 * The warm-up does not change the inputs, outputs, or results of this TFModel and is not reported to the
+	 * MetricsListener or StepProfiler.
+	 * 
+	 * @param iterations
+	 *            The number of runs per SignatureDef
+	 * @param unknownDimSize
+	 *            The size of dimensions of unknown size, such as the batch dimension
+	 * @return The warm-up latencies
+	 */
+	public WarmUpReport warmUp(int iterations, int unknownDimSize) {
+		if (iterations < 1) {
+			throw new TFException("Number of warm-up iterations must be at least 1: " + iterations);
+		}
+		if (unknownDimSize < 0) {
+			throw new TFException("Unknown dimension size cannot be negative: " + unknownDimSize);
+		}
+		WarmUpReport report = new WarmUpReport();
+		long start = System.nanoTime();
+		SignatureIndex index = signatureIndex();
+		for (String key : index.signatureDefKeys()) {
+			Map<String, TensorInfo> outputs = index.signatureOutputs(key);
+			if (outputs.isEmpty()) {
+				continue;
+			}
+			List<Tensor<?>> inputs = new ArrayList<Tensor<?>>();
+			try {
+				Map<String, Tensor<?>> feeds = new LinkedHashMap<String, Tensor<?>>();
+				for (TensorInfo ti : index.signatureInputs(key).values()) {
+					Tensor<?> tensor = TFUtil.syntheticTensor(ti, unknownDimSize);
+					inputs.add(tensor);
+					feeds.put(ti.getName(), tensor);
+				}
+				long[] nanos = new long[iterations];
+				for (int i = 0; i < iterations; i++) {
+					Runner runner = runner();
+					for (Entry<String, Tensor<?>> feed : feeds.entrySet()) {
+						runner.feed(feed.getKey(), feed.getValue());
+					}
+					for (TensorInfo ti : outputs.values()) {
+						runner.fetch(ti.getName());
+					}
+					long runStart = System.nanoTime();
+					List<Tensor<?>> res = runner.run();
+					nanos[i] = System.nanoTime() - runStart;
+					for (Tensor<?> tensor : res) {
+						tensor.close();
+					}
+				}
+				report.succeeded(key, nanos);
+			} catch (RuntimeException e) {
+				log.warn("Could not warm up SignatureDef '" + key + "': " + e.getMessage());
+				report.failed(key, e.getMessage());
+			} finally {
+				for (Tensor<?> tensor : inputs) {
+					tensor.close();
+				}
+			}
+		}
+		report.totalNanos(System.nanoTime() - start);
+		log.debug("Model '" + savedModelDir + "' warm-up:\n" + report);
+		return report;
+	}
+
 	/**
 	 * Execute the model graph operations. The results will be returned as a TFResults object, which is a mapping of
 	 * output keys to output names to output values. Specific outputs are retrieved by output keys.
 	 * 
+	 * The output Tensors of the previous run are closed when this run starts, so values should be obtained from the
+	 * previous TFResults object before the model is run again.
+	 * 
 	 * @return The results as a TFResults object.
 	 */
 	public TFResults run() {
@@ -314,6 +713,22 @@ public class TFModel {
 		checkInputKeys();
 		checkOutputKeys();
 
+		closeOutputs();
+
+		Set<String> oNames = outputNameToValue.keySet();
+		ResultCache cache = cacheFor(signatureDefKey);
+		ResultCache.Key cacheKey = cache == null ? null : cache.key(this, signatureDefKey, inputNameToValue, oNames);
+		List<Tensor<?>> cached = cacheKey == null ? null : cache.get(cacheKey);
+		if (cached != null) {
+			int i = 0;
+			for (String oName : oNames) {
+				outputNameToValue.put(oName, cached.get(i++));
+			}
+			results = new TFResults(this);
+			log.debug("Cached model results:\n" + results);
+			return results;
+		}
+
 		log.debug("Running model");
 		Runner runner = runner();
 		Set<Entry<String, Object>> iEntries = inputNameToValue.entrySet();
@@ -322,25 +737,59 @@ public class TFModel {
 			Object value = iEntry.getValue();
 			runner.feed(name, (Tensor<?>) value);
 		}
-		Set<String> oNames = outputNameToValue.keySet();
 		for (String oName : oNames) {
 			runner.fetch(oName);
 		}
+		MetricsListener listener = metricsListener;
+		long start = listener == null ? 0 : System.nanoTime();
+		StepProfiler stepProfiler = profiler;
 		List<Tensor<?>> res = null;
 		try {
-			res = runner.run();
+			res = (stepProfiler == null) ? runner.run() : stepProfiler.run(runner, graph());
 		} catch (Exception e) {
 			throw new TFException("Problem executing TensorFlow graph: " + e.getMessage(), e);
 		}
+		if (listener != null) {
+			long nanos = System.nanoTime() - start;
+			long bytesFed = 0;
+			for (Object value : inputNameToValue.values()) {
+				bytesFed += ((Tensor<?>) value).numBytes();
+			}
+			listener.sessionRun(signatureDefKey, nanos, bytesFed, TFUtil.numBytes(res));
+		}
 		int i = 0;
 		for (String oName : oNames) {
 			outputNameToValue.put(oName, res.get(i++));
 		}
+		if (cacheKey != null) {
+			cache.put(cacheKey, res);
+		}
 		results = new TFResults(this);
 		log.debug("Model results:\n" + results);
 		return results;
 	}
 
+	/**
+	 * Execute the model graph operations asynchronously on an InferenceExecutor with the specified input values, using
+	 * the SignatureDef key specified by the sig() method. Unlike run(), this method does not use or change the inputs
+	 * and outputs registered with in() and out(), so it can be called from multiple threads. The returned TFResults
+	 * are not tracked by this TFModel and should be closed when the values have been obtained.
+	 * 
+	 * @param executor
+	 *            The InferenceExecutor
+	 * @param inputs
+	 *            Mapping of input keys to input values
+	 * @param outputKeys
+	 *            The output keys
+	 * @return A future that completes with the results of the run
+	 */
+	public CompletableFuture<TFResults> runAsync(InferenceExecutor executor, Map<String, Object> inputs,
+			String... outputKeys) {
+		String[] inputKeys = inputs.keySet().toArray(new String[inputs.size()]);
+		PreparedRun preparedRun = prepare(signatureDefKey, inputKeys, outputKeys);
+		return preparedRun.runAsync(executor, inputs.values().toArray());
+	}
+
 	/**
 	 * Obtain a Runner to run the TensorFlow model graph operations and retrieve the results.
 	 * 
@@ -351,12 +800,115 @@ public class TFModel {
 	}
 
 	/**
-	 * Obtain a Session to allow computations to be performed on the SavedModel.
+	 * Obtain a Session to allow computations to be performed on the SavedModel. If a Session configuration was
+	 * specified, the Session has this configuration.
 	 * 
 	 * @return A Session to the SavedModel.
 	 */
 	public Session session() {
-		return savedModel.session();
+		return session;
+	}
+
+	/**
+	 * Register a MetricsListener that is notified of the time taken to convert each input value to a Tensor, to
+	 * execute Session.run, and to extract each output value from the TFResults. When no listener is registered (the
+	 * default), no times are measured. A ModelMetrics object can be used to accumulate latency histograms and byte
+	 * counts per SignatureDef key.
+	 * 
+	 * @param listener
+	 *            The MetricsListener, or null to disable metrics
+	 * @return {@code this} TFModel object to allow chaining of methods
+	 */
+	public TFModel metrics(MetricsListener listener) {
+		this.metricsListener = listener;
+		return this;
+	}
+
+	/**
+	 * Obtain the registered MetricsListener.
+	 * 
+	 * @return The MetricsListener, or null if metrics are disabled
+	 */
+	public MetricsListener metrics() {
+		return metricsListener;
+	}
+
+	/**
+	 * Register a StepProfiler that runs sampled Session runs with FULL_TRACE RunOptions and accumulates the execution
+	 * time and memory of each operation from the returned RunMetadata step stats. When no profiler is registered (the
+	 * default), runs are not traced. The profiler is also used by the PreparedRun objects of this TFModel.
+	 * 
+	 * @param profiler
+	 *            The StepProfiler, or null to disable profiling
+	 * @return {@code this} TFModel object to allow chaining of methods
+	 */
+	public TFModel profile(StepProfiler profiler) {
+		this.profiler = profiler;
+		return this;
+	}
+
+	/**
+	 * Obtain the registered StepProfiler.
+	 * 
+	 * @return The StepProfiler, or null if profiling is disabled
+	 */
+	public StepProfiler profile() {
+		return profiler;
+	}
+
+	/**
+	 * Register a ResultCache for the outputs of deterministic SignatureDefs. A run whose inputs, SignatureDef key, and
+	 * outputs have been cached returns new Tensors created from the cached values without running the Session. The
+	 * cache is also used by the PreparedRun objects of this TFModel. Its entries for this model are removed when the
+	 * model is closed.
+	 * 
+	 * @param cache
+	 *            The ResultCache, or null to disable caching
+	 * @param signatureDefKeys
+	 *            The SignatureDef keys whose outputs are cached (all SignatureDefs if none are specified)
+	 * @return {@code this} TFModel object to allow chaining of methods
+	 */
+	public TFModel cache(ResultCache cache, String... signatureDefKeys) {
+		if (resultCache != null && resultCache != cache) {
+			resultCache.invalidate(this);
+		}
+		cachedSignatureDefKeys = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(signatureDefKeys)));
+		resultCache = cache;
+		return this;
+	}
+
+	/**
+	 * Obtain the registered ResultCache.
+	 * 
+	 * @return The ResultCache, or null if outputs are not cached
+	 */
+	public ResultCache cache() {
+		return resultCache;
+	}
+
+	/**
+	 * Obtain the ResultCache to use for a SignatureDef.
+	 * 
+	 * @param signatureDefKey
+	 *            The SignatureDef key
+	 * @return The ResultCache, or null if the outputs of the SignatureDef are not cached
+	 */
+	ResultCache cacheFor(String signatureDefKey) {
+		ResultCache cache = resultCache;
+		if (cache == null) {
+			return null;
+		}
+		Set<String> keys = cachedSignatureDefKeys;
+		return keys.isEmpty() || keys.contains(signatureDefKey) ? cache : null;
+	}
+
+	/**
+	 * Obtain the Session configuration.
+	 * 
+	 * @return The Session configuration, or null if the default configuration is used
+	 */
+	public ConfigProto config() {
+		return config;
 	}
 
 	/**
@@ -373,28 +925,9 @@ public class TFModel {
 			return this;
 		}
 
-		MetaGraphDef mgd = metaGraphDef();
-		Map<String, SignatureDef> sdm = mgd.getSignatureDefMap();
-		SignatureDef signatureDef = sdm.get(signatureDefKey);
-
-		if (signatureDef == null) {
-			Set<String> signatureDefKeys = sdm.keySet();
-			throw new TFException("SignatureDef key '" + signatureDefKey + "' not found. Possible keys: "
-					+ signatureDefKeys.toString());
-		}
-		Map<String, TensorInfo> inputsMap = signatureDef.getInputsMap();
-		Set<Entry<String, TensorInfo>> inputEntries = inputsMap.entrySet();
-		for (Entry<String, TensorInfo> inputEntry : inputEntries) {
-			String requiredInputKey = inputEntry.getKey();
-			requiredInputKeys.add(requiredInputKey);
-		}
-
-		Map<String, TensorInfo> outputsMap = signatureDef.getOutputsMap();
-		Set<Entry<String, TensorInfo>> outputEntries = outputsMap.entrySet();
-		for (Entry<String, TensorInfo> outputEntry : outputEntries) {
-			String possibleOutputKey = outputEntry.getKey();
-			possibleOutputKeys.add(possibleOutputKey);
-		}
+		SignatureIndex index = signatureIndex();
+		requiredInputKeys.addAll(index.signatureInputs(signatureDefKey).keySet());
+		possibleOutputKeys.addAll(index.signatureOutputs(signatureDefKey).keySet());
 
 		return this;
 	}
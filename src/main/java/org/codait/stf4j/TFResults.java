@@ -18,9 +18,17 @@ package org.codait.stf4j;
 
 import static org.codait.stf4j.util.TypeUtil.*;
 
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import org.codait.stf4j.metrics.MetricsListener;
 import org.codait.stf4j.util.ArrayUtil;
 import org.codait.stf4j.util.TFUtil;
 import org.tensorflow.Tensor;
@@ -32,8 +40,18 @@ import org.tensorflow.types.UInt8;
  * Representation of the results of running a TensorFlow model, which primarily consists of a map of Tensor values. An
  * individual result is obtained by specifying the output key.
  *
+ * The output Tensors hold native memory, which is released by close(). TFResults objects can therefore be used in
+ * try-with-resources statements. The results returned by the TFModel run() method share their Tensors with the
+ * TFModel, which also closes them when it is run again or cleared.
+ *
+ * The arrays returned by the array and multidimensional array get methods are decoded once per output key and type.
+ * The first call returns the decoded array, which is kept, and later calls return copies of it, which is cheaper than
+ * decoding the Tensor again. An array returned by the first call should therefore not be modified if the output is
+ * obtained again. Scalar get methods read the first value directly from the Tensor without decoding the whole
+ * output.
+ *
  */
-public class TFResults {
+public class TFResults implements AutoCloseable {
 
 	/**
 	 * The TensorFlow model.
@@ -47,6 +65,33 @@ public class TFResults {
 	 * Mapping of output names to values.
 	 */
 	Map<String, Object> outputNameToValue;
+	/**
+	 * SignatureDef key that was used to produce the results.
+	 */
+	String signatureDefKey;
+	/**
+	 * Nesting depth of get method calls while metrics are recorded, so that a get method that calls another get
+	 * method is measured once.
+	 */
+	int extractionDepth = 0;
+	/**
+	 * Arrays decoded by the array get methods, by get method name and output key, or null if nothing has been decoded.
+	 */
+	Map<String, Decoded> decoded;
+
+	/**
+	 * An array decoded from an output Tensor. The Tensor is kept so that a value is not reused if the output has been
+	 * replaced, such as by clearing the results of a TFModel.
+	 */
+	private static final class Decoded {
+		final Object tensor;
+		final Object value;
+
+		Decoded(Object tensor, Object value) {
+			this.tensor = tensor;
+			this.value = value;
+		}
+	}
 
 	/**
 	 * Create TFResults object with TFModel. Obtain the output key-to-name and name-to-value mappings from the TFModel
@@ -56,9 +101,28 @@ public class TFResults {
 	 *            The TensorFlow model
 	 */
 	public TFResults(TFModel model) {
+		this(model, model.signatureDefKey, model.outputKeyToName, model.outputNameToValue);
+	}
+
+	/**
+	 * Create TFResults object with TFModel and the specified output key-to-name and name-to-value mappings. This allows
+	 * results to be obtained independently of the mutable state of the TFModel object.
+	 * 
+	 * @param model
+	 *            The TensorFlow model
+	 * @param signatureDefKey
+	 *            The SignatureDef key
+	 * @param outputKeyToName
+	 *            Mapping of output keys to names
+	 * @param outputNameToValue
+	 *            Mapping of output names to values
+	 */
+	public TFResults(TFModel model, String signatureDefKey, Map<String, String> outputKeyToName,
+			Map<String, Object> outputNameToValue) {
 		this.model = model;
-		this.outputKeyToName = model.outputKeyToName;
-		this.outputNameToValue = model.outputNameToValue;
+		this.signatureDefKey = signatureDefKey;
+		this.outputKeyToName = outputKeyToName;
+		this.outputNameToValue = outputNameToValue;
 	}
 
 	/**
@@ -73,6 +137,105 @@ public class TFResults {
 		}
 	}
 
+	/**
+	 * Start measuring the extraction of an output value, if a MetricsListener is registered with the model.
+	 * 
+	 * @return The start time in nanoseconds, or a negative value if the extraction is not measured
+	 */
+	protected long startExtraction() {
+		if (model == null || model.metrics() == null) {
+			return -1;
+		}
+		return extractionDepth++ == 0 ? System.nanoTime() : -2;
+	}
+
+	/**
+	 * Finish measuring the extraction of an output value and report it to the MetricsListener of the model.
+	 * 
+	 * @param key
+	 *            The output key
+	 * @param start
+	 *            The value returned by startExtraction()
+	 */
+	protected void endExtraction(String key, long start) {
+		if (start == -1) {
+			return;
+		}
+		extractionDepth--;
+		MetricsListener listener = model.metrics();
+		if (start >= 0 && listener != null) {
+			listener.outputExtracted(signatureDefKey, key, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Obtain an array previously decoded by a get method for an output key.
+	 * 
+	 * @param key
+	 *            The output key
+	 * @param getter
+	 *            The name of the get method
+	 * @return A copy of the decoded array, or null if the output has not been decoded by the get method
+	 */
+	protected Object cached(String key, String getter) {
+		if (decoded == null) {
+			return null;
+		}
+		Decoded d = decoded.get(getter + ':' + key);
+		if (d == null || d.tensor != keyToOutput(key)) {
+			return null;
+		}
+		return copyArray(d.value);
+	}
+
+	/**
+	 * Keep an array decoded by a get method for an output key, so that later calls of the get method return a copy
+	 * of the array instead of decoding the output again.
+	 * 
+	 * @param <T>
+	 *            The array type
+	 * @param key
+	 *            The output key
+	 * @param getter
+	 *            The name of the get method
+	 * @param value
+	 *            The decoded array
+	 * @return The decoded array
+	 */
+	protected <T> T cache(String key, String getter, T value) {
+		if (decoded == null) {
+			decoded = new HashMap<String, Decoded>();
+		}
+		decoded.put(getter + ':' + key, new Decoded(keyToOutput(key), value));
+		return value;
+	}
+
+	/**
+	 * Copy an array, including the arrays nested in a multidimensional array. Values that are not arrays, such as
+	 * the value of a scalar output, are returned unchanged.
+	 * 
+	 * @param value
+	 *            The array
+	 * @return The copy
+	 */
+	static Object copyArray(Object value) {
+		if (value == null || !value.getClass().isArray()) {
+			return value;
+		}
+		Class<?> componentType = value.getClass().getComponentType();
+		if (!componentType.isArray()) {
+			int length = Array.getLength(value);
+			Object copy = Array.newInstance(componentType, length);
+			System.arraycopy(value, 0, copy, 0, length);
+			return copy;
+		}
+		Object[] copy = ((Object[]) value).clone();
+		for (int i = 0; i < copy.length; i++) {
+			copy[i] = copyArray(copy[i]);
+		}
+		return copy;
+	}
+
 	/**
 	 * Obtain the boolean value corresponding to the output key.
 	 * 
@@ -81,95 +244,93 @@ public class TFResults {
 	 * @return The boolean value
 	 */
 	public boolean getBoolean(String key) {
-		checkKey(key);
-		TensorInfo ti = TFUtil.outputKeyToTensorInfo(key, model);
-		DataType dtype = ti.getDtype();
-		if (dtype == DataType.DT_BOOL) {
-			@SuppressWarnings("unchecked")
-			Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				boolean b = tensor.booleanValue();
-				return b;
-			} else {
-				Object bArray = getBooleanArrayMultidimensional(key);
-				boolean b = (boolean) ArrayUtil.firstElementValueOfMultidimArray(bArray);
-				return b;
-			}
-		} else if (dtype == DataType.DT_UINT8) {
-			@SuppressWarnings("unchecked")
-			Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				byte b = TFUtil.byteScalarFromUInt8Tensor(tensor);
-				return byte_to_boolean(b);
-			} else {
-				Object bArray = getByteArrayMultidimensional(key);
-				byte b = (byte) ArrayUtil.firstElementValueOfMultidimArray(bArray);
-				return byte_to_boolean(b);
-			}
-		} else if (dtype == DataType.DT_INT32) {
-			@SuppressWarnings("unchecked")
-			Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				int i = ((Integer) tensor.intValue());
-				return int_to_boolean(i);
-			} else {
-				Object iArray = getIntArrayMultidimensional(key);
-				int i = (int) ArrayUtil.firstElementValueOfMultidimArray(iArray);
-				return int_to_boolean(i);
-			}
-		} else if (dtype == DataType.DT_INT64) {
-			@SuppressWarnings("unchecked")
-			Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				long l = ((Long) tensor.longValue());
-				return long_to_boolean(l);
-			} else {
-				Object lArray = getLongArrayMultidimensional(key);
-				long l = (long) ArrayUtil.firstElementValueOfMultidimArray(lArray);
-				return long_to_boolean(l);
-			}
-		} else if (dtype == DataType.DT_FLOAT) {
-			@SuppressWarnings("unchecked")
-			Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				float f = ((Float) tensor.floatValue());
-				return float_to_boolean(f);
-			} else {
-				Object fArray = getFloatArrayMultidimensional(key);
-				float f = (float) ArrayUtil.firstElementValueOfMultidimArray(fArray);
-				return float_to_boolean(f);
-			}
-		} else if (dtype == DataType.DT_DOUBLE) {
-			@SuppressWarnings("unchecked")
-			Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				double d = ((Double) tensor.doubleValue());
-				return double_to_boolean(d);
-			} else {
-				Object dArray = getDoubleArrayMultidimensional(key);
-				double d = (double) ArrayUtil.firstElementValueOfMultidimArray(dArray);
-				return double_to_boolean(d);
-			}
-		} else if (dtype == DataType.DT_STRING) {
-			@SuppressWarnings("unchecked")
-			Tensor<String> tensor = (Tensor<String>) keyToOutput(key);
-			if (tensor.shape().length == 0) {
-				String s = new String(tensor.bytesValue());
-				return String_to_boolean(s);
+		long start = startExtraction();
+		try {
+			checkKey(key);
+			TensorInfo ti = tensorInfo(key);
+			DataType dtype = ti.getDtype();
+			if (dtype == DataType.DT_BOOL) {
+				@SuppressWarnings("unchecked")
+				Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					boolean b = tensor.booleanValue();
+					return b;
+				} else {
+					boolean b = (boolean) TFUtil.firstElement(tensor);
+					return b;
+				}
+			} else if (dtype == DataType.DT_UINT8) {
+				@SuppressWarnings("unchecked")
+				Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					byte b = TFUtil.byteScalarFromUInt8Tensor(tensor);
+					return byte_to_boolean(b);
+				} else {
+					byte b = (byte) TFUtil.firstElement(tensor);
+					return byte_to_boolean(b);
+				}
+			} else if (dtype == DataType.DT_INT32) {
+				@SuppressWarnings("unchecked")
+				Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					int i = ((Integer) tensor.intValue());
+					return int_to_boolean(i);
+				} else {
+					int i = (int) TFUtil.firstElement(tensor);
+					return int_to_boolean(i);
+				}
+			} else if (dtype == DataType.DT_INT64) {
+				@SuppressWarnings("unchecked")
+				Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					long l = ((Long) tensor.longValue());
+					return long_to_boolean(l);
+				} else {
+					long l = (long) TFUtil.firstElement(tensor);
+					return long_to_boolean(l);
+				}
+			} else if (dtype == DataType.DT_FLOAT) {
+				@SuppressWarnings("unchecked")
+				Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					float f = ((Float) tensor.floatValue());
+					return float_to_boolean(f);
+				} else {
+					float f = (float) TFUtil.firstElement(tensor);
+					return float_to_boolean(f);
+				}
+			} else if (dtype == DataType.DT_DOUBLE) {
+				@SuppressWarnings("unchecked")
+				Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					double d = ((Double) tensor.doubleValue());
+					return double_to_boolean(d);
+				} else {
+					double d = (double) TFUtil.firstElement(tensor);
+					return double_to_boolean(d);
+				}
+			} else if (dtype == DataType.DT_STRING) {
+				@SuppressWarnings("unchecked")
+				Tensor<String> tensor = (Tensor<String>) keyToOutput(key);
+				if (tensor.shape().length == 0) {
+					String s = new String(tensor.bytesValue());
+					return String_to_boolean(s);
+				} else {
+					String s = (String) TFUtil.firstElement(tensor);
+					return String_to_boolean(s);
+				}
+
 			} else {
-				Object sArray = getStringArrayMultidimensional(key);
-				String s = (String) ArrayUtil.firstElementValueOfMultidimArray(sArray);
-				return String_to_boolean(s);
+				throw new TFException("getBoolean not implemented for '" + key + "' data type: " + dtype);
 			}
-
-		} else {
-			throw new TFException("getBoolean not implemented for '" + key + "' data type: " + dtype);
+		} finally {
+			endExtraction(key, start);
 		}
 	}
 
@@ -181,50 +342,59 @@ public class TFResults {
 	 * @return The boolean array
 	 */
 	public boolean[] getBooleanArray(String key) {
-		checkKey(key);
-		TensorInfo ti = TFUtil.outputKeyToTensorInfo(key, model);
-		DataType dtype = ti.getDtype();
-		if (dtype == DataType.DT_BOOL) {
-			@SuppressWarnings("unchecked")
-			Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
-			boolean[] b = ArrayUtil.booleanTensorToBooleanArray(tensor);
-			return b;
-		} else if (dtype == DataType.DT_UINT8) {
-			@SuppressWarnings("unchecked")
-			Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
-			byte[] byteArray = ArrayUtil.uint8TensorToByteArray(tensor);
-			boolean[] boolArray = (boolean[]) ArrayUtil.convertArrayType(byteArray, boolean.class);
-			return boolArray;
-		} else if (dtype == DataType.DT_INT32) {
-			@SuppressWarnings("unchecked")
-			Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
-			int[] i = ArrayUtil.intTensorToIntArray(tensor);
-			boolean[] b = (boolean[]) ArrayUtil.convertArrayType(i, boolean.class);
-			return b;
-		} else if (dtype == DataType.DT_INT64) {
-			@SuppressWarnings("unchecked")
-			Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
-			long[] l = ArrayUtil.longTensorToLongArray(tensor);
-			boolean[] b = (boolean[]) ArrayUtil.convertArrayType(l, boolean.class);
-			return b;
-		} else if (dtype == DataType.DT_FLOAT) {
-			@SuppressWarnings("unchecked")
-			Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
-			float[] f = ArrayUtil.floatTensorToFloatArray(tensor);
-			boolean[] b = (boolean[]) ArrayUtil.convertArrayType(f, boolean.class);
-			return b;
-		} else if (dtype == DataType.DT_DOUBLE) {
-			@SuppressWarnings("unchecked")
-			Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
-			double[] d = ArrayUtil.doubleTensorToDoubleArray(tensor);
-			boolean[] b = (boolean[]) ArrayUtil.convertArrayType(d, boolean.class);
-			return b;
-		} else if (dtype == DataType.DT_STRING) {
-			String[] s = getStringArray(key);
-			boolean[] b = (boolean[]) ArrayUtil.convertArrayType(s, boolean.class);
-			return b;
-		} else {
-			throw new TFException("getBooleanArray not implemented for '" + key + "' data type: " + dtype);
+		long start = startExtraction();
+		try {
+			checkKey(key);
+			Object cached = cached(key, "getBooleanArray");
+			if (cached != null) {
+				return (boolean[]) cached;
+			}
+			TensorInfo ti = tensorInfo(key);
+			DataType dtype = ti.getDtype();
+			if (dtype == DataType.DT_BOOL) {
+				@SuppressWarnings("unchecked")
+				Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
+				boolean[] b = ArrayUtil.booleanTensorToBooleanArray(tensor);
+				return cache(key, "getBooleanArray", b);
+			} else if (dtype == DataType.DT_UINT8) {
+				@SuppressWarnings("unchecked")
+				Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
+				byte[] byteArray = ArrayUtil.uint8TensorToByteArray(tensor);
+				boolean[] boolArray = (boolean[]) ArrayUtil.convertArrayType(byteArray, boolean.class);
+				return cache(key, "getBooleanArray", boolArray);
+			} else if (dtype == DataType.DT_INT32) {
+				@SuppressWarnings("unchecked")
+				Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
+				int[] i = ArrayUtil.intTensorToIntArray(tensor);
+				boolean[] b = (boolean[]) ArrayUtil.convertArrayType(i, boolean.class);
+				return cache(key, "getBooleanArray", b);
+			} else if (dtype == DataType.DT_INT64) {
+				@SuppressWarnings("unchecked")
+				Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
+				long[] l = ArrayUtil.longTensorToLongArray(tensor);
+				boolean[] b = (boolean[]) ArrayUtil.convertArrayType(l, boolean.class);
+				return cache(key, "getBooleanArray", b);
+			} else if (dtype == DataType.DT_FLOAT) {
+				@SuppressWarnings("unchecked")
+				Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
+				float[] f = ArrayUtil.floatTensorToFloatArray(tensor);
+				boolean[] b = (boolean[]) ArrayUtil.convertArrayType(f, boolean.class);
+				return cache(key, "getBooleanArray", b);
+			} else if (dtype == DataType.DT_DOUBLE) {
+				@SuppressWarnings("unchecked")
+				Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
+				double[] d = ArrayUtil.doubleTensorToDoubleArray(tensor);
+				boolean[] b = (boolean[]) ArrayUtil.convertArrayType(d, boolean.class);
+				return cache(key, "getBooleanArray", b);
+			} else if (dtype == DataType.DT_STRING) {
+				String[] s = getStringArray(key);
+				boolean[] b = (boolean[]) ArrayUtil.convertArrayType(s, boolean.class);
+				return cache(key, "getBooleanArray", b);
+			} else {
+				throw new TFException("getBooleanArray not implemented for '" + key + "' data type: " + dtype);
+			}
+		} finally {
+			endExtraction(key, start);
 		}
 	}
 
@@ -236,53 +406,62 @@ public class TFResults {
 	 * @return The multidimensional boolean array
 	 */
 	public Object getBooleanArrayMultidimensional(String key) {
-		checkKey(key);
-		TensorInfo ti = TFUtil.outputKeyToTensorInfo(key, model.metaGraphDef());
-		DataType dtype = ti.getDtype();
-		if (dtype == DataType.DT_BOOL) {
-			@SuppressWarnings("unchecked")
-			Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
-			Object b = ArrayUtil.booleanTensorToMultidimensionalBooleanArray(tensor);
-			return b;
-		} else if (dtype == DataType.DT_UINT8) {
-			@SuppressWarnings("unchecked")
-			Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
-			Object byteArray = ArrayUtil.uint8TensorToMultidimensionalByteArray(tensor);
-			Object booleanArray = ArrayUtil.convertArrayType(byteArray, boolean.class);
-			return booleanArray;
-		} else if (dtype == DataType.DT_INT32) {
-			@SuppressWarnings("unchecked")
-			Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
-			Object i = ArrayUtil.intTensorToMultidimensionalIntArray(tensor);
-			Object b = ArrayUtil.convertArrayType(i, boolean.class);
-			return b;
-		} else if (dtype == DataType.DT_INT64) {
-			@SuppressWarnings("unchecked")
-			Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
-			Object l = ArrayUtil.longTensorToMultidimensionalLongArray(tensor);
-			Object b = ArrayUtil.convertArrayType(l, boolean.class);
-			return b;
-		} else if (dtype == DataType.DT_FLOAT) {
-			@SuppressWarnings("unchecked")
-			Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
-			Object f = ArrayUtil.floatTensorToMultidimensionalFloatArray(tensor);
-			Object b = ArrayUtil.convertArrayType(f, boolean.class);
-			return b;
-		} else if (dtype == DataType.DT_DOUBLE) {
-			@SuppressWarnings("unchecked")
-			Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
-			Object d = ArrayUtil.doubleTensorToMultidimensionalDoubleArray(tensor);
-			Object b = ArrayUtil.convertArrayType(d, boolean.class);
-			return b;
-		} else if (dtype == DataType.DT_STRING) {
-			@SuppressWarnings("unchecked")
-			Tensor<String> tensor = (Tensor<String>) keyToOutput(key);
-			Object s = ArrayUtil.stringTensorToMultidimensionalStringArray(tensor);
-			Object b = ArrayUtil.convertArrayType(s, boolean.class);
-			return b;
-		} else {
-			throw new TFException(
-					"getBooleanArrayMultidimensional not implemented for '" + key + "' data type: " + dtype);
+		long start = startExtraction();
+		try {
+			checkKey(key);
+			Object cached = cached(key, "getBooleanArrayMultidimensional");
+			if (cached != null) {
+				return cached;
+			}
+			TensorInfo ti = tensorInfo(key);
+			DataType dtype = ti.getDtype();
+			if (dtype == DataType.DT_BOOL) {
+				@SuppressWarnings("unchecked")
+				Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
+				Object b = ArrayUtil.booleanTensorToMultidimensionalBooleanArray(tensor);
+				return cache(key, "getBooleanArrayMultidimensional", b);
+			} else if (dtype == DataType.DT_UINT8) {
+				@SuppressWarnings("unchecked")
+				Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
+				Object byteArray = ArrayUtil.uint8TensorToMultidimensionalByteArray(tensor);
+				Object booleanArray = ArrayUtil.convertArrayType(byteArray, boolean.class);
+				return cache(key, "getBooleanArrayMultidimensional", booleanArray);
+			} else if (dtype == DataType.DT_INT32) {
+				@SuppressWarnings("unchecked")
+				Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
+				Object i = ArrayUtil.intTensorToMultidimensionalIntArray(tensor);
+				Object b = ArrayUtil.convertArrayType(i, boolean.class);
+				return cache(key, "getBooleanArrayMultidimensional", b);
+			} else if (dtype == DataType.DT_INT64) {
+				@SuppressWarnings("unchecked")
+				Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
+				Object l = ArrayUtil.longTensorToMultidimensionalLongArray(tensor);
+				Object b = ArrayUtil.convertArrayType(l, boolean.class);
+				return cache(key, "getBooleanArrayMultidimensional", b);
+			} else if (dtype == DataType.DT_FLOAT) {
+				@SuppressWarnings("unchecked")
+				Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
+				Object f = ArrayUtil.floatTensorToMultidimensionalFloatArray(tensor);
+				Object b = ArrayUtil.convertArrayType(f, boolean.class);
+				return cache(key, "getBooleanArrayMultidimensional", b);
+			} else if (dtype == DataType.DT_DOUBLE) {
+				@SuppressWarnings("unchecked")
+				Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
+				Object d = ArrayUtil.doubleTensorToMultidimensionalDoubleArray(tensor);
+				Object b = ArrayUtil.convertArrayType(d, boolean.class);
+				return cache(key, "getBooleanArrayMultidimensional", b);
+			} else if (dtype == DataType.DT_STRING) {
+				@SuppressWarnings("unchecked")
+				Tensor<String> tensor = (Tensor<String>) keyToOutput(key);
+				Object s = ArrayUtil.stringTensorToMultidimensionalStringArray(tensor);
+				Object b = ArrayUtil.convertArrayType(s, boolean.class);
+				return cache(key, "getBooleanArrayMultidimensional", b);
+			} else {
+				throw new TFException(
+						"getBooleanArrayMultidimensional not implemented for '" + key + "' data type: " + dtype);
+			}
+		} finally {
+			endExtraction(key, start);
 		}
 	}
 
@@ -294,79 +473,78 @@ public class TFResults {
 	 * @return The byte value
 	 */
 	public byte getByte(String key) {
-		checkKey(key);
-		TensorInfo ti = TFUtil.outputKeyToTensorInfo(key, model);
-		DataType dtype = ti.getDtype();
-		if (dtype == DataType.DT_BOOL) {
-			@SuppressWarnings("unchecked")
-			Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				boolean b = tensor.booleanValue();
-				return boolean_to_byte(b);
-			} else {
-				Object booleanArray = getBooleanArrayMultidimensional(key);
-				boolean b = (boolean) ArrayUtil.firstElementValueOfMultidimArray(booleanArray);
-				return boolean_to_byte(b);
-			}
-		} else if (dtype == DataType.DT_UINT8) {
-			@SuppressWarnings("unchecked")
-			Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				byte b = TFUtil.byteScalarFromUInt8Tensor(tensor);
-				return b;
-			} else {
-				Object bArray = getByteArrayMultidimensional(key);
-				byte b = (byte) ArrayUtil.firstElementValueOfMultidimArray(bArray);
-				return b;
-			}
-		} else if (dtype == DataType.DT_INT32) {
-			@SuppressWarnings("unchecked")
-			Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				return int_to_byte(tensor.intValue());
+		long start = startExtraction();
+		try {
+			checkKey(key);
+			TensorInfo ti = tensorInfo(key);
+			DataType dtype = ti.getDtype();
+			if (dtype == DataType.DT_BOOL) {
+				@SuppressWarnings("unchecked")
+				Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					boolean b = tensor.booleanValue();
+					return boolean_to_byte(b);
+				} else {
+					boolean b = (boolean) TFUtil.firstElement(tensor);
+					return boolean_to_byte(b);
+				}
+			} else if (dtype == DataType.DT_UINT8) {
+				@SuppressWarnings("unchecked")
+				Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					byte b = TFUtil.byteScalarFromUInt8Tensor(tensor);
+					return b;
+				} else {
+					byte b = (byte) TFUtil.firstElement(tensor);
+					return b;
+				}
+			} else if (dtype == DataType.DT_INT32) {
+				@SuppressWarnings("unchecked")
+				Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					return int_to_byte(tensor.intValue());
+				} else {
+					int i = (int) TFUtil.firstElement(tensor);
+					return int_to_byte(i);
+				}
+			} else if (dtype == DataType.DT_INT64) {
+				@SuppressWarnings("unchecked")
+				Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					return long_to_byte(tensor.longValue());
+				} else {
+					long l = (long) TFUtil.firstElement(tensor);
+					return long_to_byte(l);
+				}
+			} else if (dtype == DataType.DT_FLOAT) {
+				@SuppressWarnings("unchecked")
+				Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					return float_to_byte(tensor.floatValue());
+				} else {
+					float f = (float) TFUtil.firstElement(tensor);
+					return float_to_byte(f);
+				}
+			} else if (dtype == DataType.DT_DOUBLE) {
+				@SuppressWarnings("unchecked")
+				Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					return double_to_byte(tensor.doubleValue());
+				} else {
+					double d = (double) TFUtil.firstElement(tensor);
+					return double_to_byte(d);
+				}
 			} else {
-				Object iArray = getIntArrayMultidimensional(key);
-				int i = (int) ArrayUtil.firstElementValueOfMultidimArray(iArray);
-				return int_to_byte(i);
+				throw new TFException("getByte not implemented for '" + key + "' data type: " + dtype);
 			}
-		} else if (dtype == DataType.DT_INT64) {
-			@SuppressWarnings("unchecked")
-			Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				return long_to_byte(tensor.longValue());
-			} else {
-				Object lArray = getLongArrayMultidimensional(key);
-				long l = (long) ArrayUtil.firstElementValueOfMultidimArray(lArray);
-				return long_to_byte(l);
-			}
-		} else if (dtype == DataType.DT_FLOAT) {
-			@SuppressWarnings("unchecked")
-			Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				return float_to_byte(tensor.floatValue());
-			} else {
-				Object fArray = getFloatArrayMultidimensional(key);
-				float f = (float) ArrayUtil.firstElementValueOfMultidimArray(fArray);
-				return float_to_byte(f);
-			}
-		} else if (dtype == DataType.DT_DOUBLE) {
-			@SuppressWarnings("unchecked")
-			Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				return double_to_byte(tensor.doubleValue());
-			} else {
-				Object dArray = getDoubleArrayMultidimensional(key);
-				double d = (double) ArrayUtil.firstElementValueOfMultidimArray(dArray);
-				return double_to_byte(d);
-			}
-		} else {
-			throw new TFException("getByte not implemented for '" + key + "' data type: " + dtype);
+		} finally {
+			endExtraction(key, start);
 		}
 	}
 
@@ -378,45 +556,54 @@ public class TFResults {
 	 * @return The byte array
 	 */
 	public byte[] getByteArray(String key) {
-		checkKey(key);
-		TensorInfo ti = TFUtil.outputKeyToTensorInfo(key, model);
-		DataType dtype = ti.getDtype();
-		if (dtype == DataType.DT_BOOL) {
-			@SuppressWarnings("unchecked")
-			Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
-			byte[] b = ArrayUtil.booleanTensorToByteArray(tensor);
-			return b;
-		} else if (dtype == DataType.DT_UINT8) {
-			@SuppressWarnings("unchecked")
-			Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
-			byte[] b = ArrayUtil.uint8TensorToByteArray(tensor);
-			return b;
-		} else if (dtype == DataType.DT_INT32) {
-			@SuppressWarnings("unchecked")
-			Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
-			int[] i = ArrayUtil.intTensorToIntArray(tensor);
-			byte[] b = (byte[]) ArrayUtil.convertArrayType(i, byte.class);
-			return b;
-		} else if (dtype == DataType.DT_INT64) {
-			@SuppressWarnings("unchecked")
-			Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
-			long[] l = ArrayUtil.longTensorToLongArray(tensor);
-			byte[] b = (byte[]) ArrayUtil.convertArrayType(l, byte.class);
-			return b;
-		} else if (dtype == DataType.DT_FLOAT) {
-			@SuppressWarnings("unchecked")
-			Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
-			float[] f = ArrayUtil.floatTensorToFloatArray(tensor);
-			byte[] b = (byte[]) ArrayUtil.convertArrayType(f, byte.class);
-			return b;
-		} else if (dtype == DataType.DT_DOUBLE) {
-			@SuppressWarnings("unchecked")
-			Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
-			double[] d = ArrayUtil.doubleTensorToDoubleArray(tensor);
-			byte[] b = (byte[]) ArrayUtil.convertArrayType(d, byte.class);
-			return b;
-		} else {
-			throw new TFException("getByteArray not implemented for '" + key + "' data type: " + dtype);
+		long start = startExtraction();
+		try {
+			checkKey(key);
+			Object cached = cached(key, "getByteArray");
+			if (cached != null) {
+				return (byte[]) cached;
+			}
+			TensorInfo ti = tensorInfo(key);
+			DataType dtype = ti.getDtype();
+			if (dtype == DataType.DT_BOOL) {
+				@SuppressWarnings("unchecked")
+				Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
+				byte[] b = ArrayUtil.booleanTensorToByteArray(tensor);
+				return cache(key, "getByteArray", b);
+			} else if (dtype == DataType.DT_UINT8) {
+				@SuppressWarnings("unchecked")
+				Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
+				byte[] b = ArrayUtil.uint8TensorToByteArray(tensor);
+				return cache(key, "getByteArray", b);
+			} else if (dtype == DataType.DT_INT32) {
+				@SuppressWarnings("unchecked")
+				Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
+				int[] i = ArrayUtil.intTensorToIntArray(tensor);
+				byte[] b = (byte[]) ArrayUtil.convertArrayType(i, byte.class);
+				return cache(key, "getByteArray", b);
+			} else if (dtype == DataType.DT_INT64) {
+				@SuppressWarnings("unchecked")
+				Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
+				long[] l = ArrayUtil.longTensorToLongArray(tensor);
+				byte[] b = (byte[]) ArrayUtil.convertArrayType(l, byte.class);
+				return cache(key, "getByteArray", b);
+			} else if (dtype == DataType.DT_FLOAT) {
+				@SuppressWarnings("unchecked")
+				Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
+				float[] f = ArrayUtil.floatTensorToFloatArray(tensor);
+				byte[] b = (byte[]) ArrayUtil.convertArrayType(f, byte.class);
+				return cache(key, "getByteArray", b);
+			} else if (dtype == DataType.DT_DOUBLE) {
+				@SuppressWarnings("unchecked")
+				Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
+				double[] d = ArrayUtil.doubleTensorToDoubleArray(tensor);
+				byte[] b = (byte[]) ArrayUtil.convertArrayType(d, byte.class);
+				return cache(key, "getByteArray", b);
+			} else {
+				throw new TFException("getByteArray not implemented for '" + key + "' data type: " + dtype);
+			}
+		} finally {
+			endExtraction(key, start);
 		}
 	}
 
@@ -428,46 +615,56 @@ public class TFResults {
 	 * @return The multidimensional byte array
 	 */
 	public Object getByteArrayMultidimensional(String key) {
-		checkKey(key);
-		TensorInfo ti = TFUtil.outputKeyToTensorInfo(key, model.metaGraphDef());
-		DataType dtype = ti.getDtype();
-		if (dtype == DataType.DT_BOOL) {
-			@SuppressWarnings("unchecked")
-			Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
-			Object booleanArray = ArrayUtil.booleanTensorToMultidimensionalBooleanArray(tensor);
-			Object byteArray = ArrayUtil.convertArrayType(booleanArray, byte.class);
-			return byteArray;
-		} else if (dtype == DataType.DT_UINT8) {
-			@SuppressWarnings("unchecked")
-			Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
-			Object byteArray = ArrayUtil.uint8TensorToMultidimensionalByteArray(tensor);
-			return byteArray;
-		} else if (dtype == DataType.DT_INT32) {
-			@SuppressWarnings("unchecked")
-			Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
-			Object i = ArrayUtil.intTensorToMultidimensionalIntArray(tensor);
-			Object b = ArrayUtil.convertArrayType(i, byte.class);
-			return b;
-		} else if (dtype == DataType.DT_INT64) {
-			@SuppressWarnings("unchecked")
-			Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
-			Object l = ArrayUtil.longTensorToMultidimensionalLongArray(tensor);
-			Object b = ArrayUtil.convertArrayType(l, byte.class);
-			return b;
-		} else if (dtype == DataType.DT_FLOAT) {
-			@SuppressWarnings("unchecked")
-			Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
-			Object f = ArrayUtil.floatTensorToMultidimensionalFloatArray(tensor);
-			Object b = ArrayUtil.convertArrayType(f, byte.class);
-			return b;
-		} else if (dtype == DataType.DT_DOUBLE) {
-			@SuppressWarnings("unchecked")
-			Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
-			Object d = ArrayUtil.doubleTensorToMultidimensionalDoubleArray(tensor);
-			Object b = ArrayUtil.convertArrayType(d, byte.class);
-			return b;
-		} else {
-			throw new TFException("getByteArrayMultidimensional not implemented for '" + key + "' data type: " + dtype);
+		long start = startExtraction();
+		try {
+			checkKey(key);
+			Object cached = cached(key, "getByteArrayMultidimensional");
+			if (cached != null) {
+				return cached;
+			}
+			TensorInfo ti = tensorInfo(key);
+			DataType dtype = ti.getDtype();
+			if (dtype == DataType.DT_BOOL) {
+				@SuppressWarnings("unchecked")
+				Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
+				Object booleanArray = ArrayUtil.booleanTensorToMultidimensionalBooleanArray(tensor);
+				Object byteArray = ArrayUtil.convertArrayType(booleanArray, byte.class);
+				return cache(key, "getByteArrayMultidimensional", byteArray);
+			} else if (dtype == DataType.DT_UINT8) {
+				@SuppressWarnings("unchecked")
+				Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
+				Object byteArray = ArrayUtil.uint8TensorToMultidimensionalByteArray(tensor);
+				return cache(key, "getByteArrayMultidimensional", byteArray);
+			} else if (dtype == DataType.DT_INT32) {
+				@SuppressWarnings("unchecked")
+				Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
+				Object i = ArrayUtil.intTensorToMultidimensionalIntArray(tensor);
+				Object b = ArrayUtil.convertArrayType(i, byte.class);
+				return cache(key, "getByteArrayMultidimensional", b);
+			} else if (dtype == DataType.DT_INT64) {
+				@SuppressWarnings("unchecked")
+				Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
+				Object l = ArrayUtil.longTensorToMultidimensionalLongArray(tensor);
+				Object b = ArrayUtil.convertArrayType(l, byte.class);
+				return cache(key, "getByteArrayMultidimensional", b);
+			} else if (dtype == DataType.DT_FLOAT) {
+				@SuppressWarnings("unchecked")
+				Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
+				Object f = ArrayUtil.floatTensorToMultidimensionalFloatArray(tensor);
+				Object b = ArrayUtil.convertArrayType(f, byte.class);
+				return cache(key, "getByteArrayMultidimensional", b);
+			} else if (dtype == DataType.DT_DOUBLE) {
+				@SuppressWarnings("unchecked")
+				Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
+				Object d = ArrayUtil.doubleTensorToMultidimensionalDoubleArray(tensor);
+				Object b = ArrayUtil.convertArrayType(d, byte.class);
+				return cache(key, "getByteArrayMultidimensional", b);
+			} else {
+				throw new TFException(
+						"getByteArrayMultidimensional not implemented for '" + key + "' data type: " + dtype);
+			}
+		} finally {
+			endExtraction(key, start);
 		}
 	}
 
@@ -479,90 +676,88 @@ public class TFResults {
 	 * @return The double value
 	 */
 	public double getDouble(String key) {
-		checkKey(key);
-		TensorInfo ti = TFUtil.outputKeyToTensorInfo(key, model);
-		DataType dtype = ti.getDtype();
-		if (dtype == DataType.DT_FLOAT) {
-			@SuppressWarnings("unchecked")
-			Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				return float_to_double(tensor.floatValue());
-			} else {
-				Object fArray = getFloatArrayMultidimensional(key);
-				float f = (float) ArrayUtil.firstElementValueOfMultidimArray(fArray);
-				return float_to_double(f);
-			}
-		} else if (dtype == DataType.DT_DOUBLE) {
-			@SuppressWarnings("unchecked")
-			Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				double d = tensor.doubleValue();
-				return d;
-			} else {
-				Object dArray = getDoubleArrayMultidimensional(key);
-				double d = (double) ArrayUtil.firstElementValueOfMultidimArray(dArray);
-				return d;
-			}
-		} else if (dtype == DataType.DT_INT64) {
-			@SuppressWarnings("unchecked")
-			Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				return long_to_double(tensor.longValue());
-			} else {
-				Object lArray = getLongArrayMultidimensional(key);
-				long l = (long) ArrayUtil.firstElementValueOfMultidimArray(lArray);
-				return long_to_double(l);
-			}
-		} else if (dtype == DataType.DT_INT32) {
-			@SuppressWarnings("unchecked")
-			Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				return int_to_double(tensor.intValue());
-			} else {
-				Object iArray = getIntArrayMultidimensional(key);
-				int i = (int) ArrayUtil.firstElementValueOfMultidimArray(iArray);
-				return int_to_double(i);
-			}
-		} else if (dtype == DataType.DT_UINT8) {
-			@SuppressWarnings("unchecked")
-			Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				byte b = TFUtil.byteScalarFromUInt8Tensor(tensor);
-				return byte_unsigned_to_double(b);
-			} else {
-				Object bArray = getByteArrayMultidimensional(key);
-				byte b = (byte) ArrayUtil.firstElementValueOfMultidimArray(bArray);
-				return byte_unsigned_to_double(b);
-			}
-		} else if (dtype == DataType.DT_STRING) {
-			@SuppressWarnings("unchecked")
-			Tensor<String> tensor = (Tensor<String>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				return String_bytes_to_double(tensor.bytesValue());
-			} else {
-				Object sArray = getStringArrayMultidimensional(key);
-				String s = (String) ArrayUtil.firstElementValueOfMultidimArray(sArray);
-				return String_to_double(s);
-			}
-		} else if (dtype == DataType.DT_BOOL) {
-			@SuppressWarnings("unchecked")
-			Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				return boolean_to_double(tensor.booleanValue());
+		long start = startExtraction();
+		try {
+			checkKey(key);
+			TensorInfo ti = tensorInfo(key);
+			DataType dtype = ti.getDtype();
+			if (dtype == DataType.DT_FLOAT) {
+				@SuppressWarnings("unchecked")
+				Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					return float_to_double(tensor.floatValue());
+				} else {
+					float f = (float) TFUtil.firstElement(tensor);
+					return float_to_double(f);
+				}
+			} else if (dtype == DataType.DT_DOUBLE) {
+				@SuppressWarnings("unchecked")
+				Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					double d = tensor.doubleValue();
+					return d;
+				} else {
+					double d = (double) TFUtil.firstElement(tensor);
+					return d;
+				}
+			} else if (dtype == DataType.DT_INT64) {
+				@SuppressWarnings("unchecked")
+				Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					return long_to_double(tensor.longValue());
+				} else {
+					long l = (long) TFUtil.firstElement(tensor);
+					return long_to_double(l);
+				}
+			} else if (dtype == DataType.DT_INT32) {
+				@SuppressWarnings("unchecked")
+				Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					return int_to_double(tensor.intValue());
+				} else {
+					int i = (int) TFUtil.firstElement(tensor);
+					return int_to_double(i);
+				}
+			} else if (dtype == DataType.DT_UINT8) {
+				@SuppressWarnings("unchecked")
+				Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					byte b = TFUtil.byteScalarFromUInt8Tensor(tensor);
+					return byte_unsigned_to_double(b);
+				} else {
+					byte b = (byte) TFUtil.firstElement(tensor);
+					return byte_unsigned_to_double(b);
+				}
+			} else if (dtype == DataType.DT_STRING) {
+				@SuppressWarnings("unchecked")
+				Tensor<String> tensor = (Tensor<String>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					return String_bytes_to_double(tensor.bytesValue());
+				} else {
+					String s = (String) TFUtil.firstElement(tensor);
+					return String_to_double(s);
+				}
+			} else if (dtype == DataType.DT_BOOL) {
+				@SuppressWarnings("unchecked")
+				Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					return boolean_to_double(tensor.booleanValue());
+				} else {
+					boolean b = (boolean) TFUtil.firstElement(tensor);
+					return boolean_to_double(b);
+				}
 			} else {
-				Object bArray = getBooleanArrayMultidimensional(key);
-				boolean b = (boolean) ArrayUtil.firstElementValueOfMultidimArray(bArray);
-				return boolean_to_double(b);
+				throw new TFException("getDouble not implemented for '" + key + "' data type: " + dtype);
 			}
-		} else {
-			throw new TFException("getDouble not implemented for '" + key + "' data type: " + dtype);
+		} finally {
+			endExtraction(key, start);
 		}
 	}
 
@@ -574,46 +769,59 @@ public class TFResults {
 	 * @return The double array
 	 */
 	public double[] getDoubleArray(String key) {
-		checkKey(key);
-		TensorInfo ti = TFUtil.outputKeyToTensorInfo(key, model);
-		DataType dtype = ti.getDtype();
-		if (dtype == DataType.DT_FLOAT) {
-			@SuppressWarnings("unchecked")
-			Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
-			float[] f = ArrayUtil.floatTensorToFloatArray(tensor);
-			return ArrayUtil.fToD(f);
-		} else if (dtype == DataType.DT_DOUBLE) {
-			@SuppressWarnings("unchecked")
-			Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
-			return ArrayUtil.doubleTensorToDoubleArray(tensor);
-		} else if (dtype == DataType.DT_INT64) {
-			@SuppressWarnings("unchecked")
-			Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
-			long[] l = ArrayUtil.longTensorToLongArray(tensor);
-			return ArrayUtil.lToD(l);
-		} else if (dtype == DataType.DT_INT32) {
-			@SuppressWarnings("unchecked")
-			Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
-			int[] i = ArrayUtil.intTensorToIntArray(tensor);
-			return ArrayUtil.iToD(i);
-		} else if (dtype == DataType.DT_UINT8) {
-			@SuppressWarnings("unchecked")
-			Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
-			byte[] b = ArrayUtil.uint8TensorToByteArray(tensor);
-			double[] d = (double[]) ArrayUtil.convertUnsignedArrayType(b, double.class);
-			return d;
-		} else if (dtype == DataType.DT_STRING) {
-			String[] s = getStringArray(key);
-			double[] d = (double[]) ArrayUtil.convertArrayType(s, double.class);
-			return d;
-		} else if (dtype == DataType.DT_BOOL) {
-			@SuppressWarnings("unchecked")
-			Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
-			boolean[] b = ArrayUtil.booleanTensorToBooleanArray(tensor);
-			double[] d = (double[]) ArrayUtil.convertArrayType(b, double.class);
-			return d;
-		} else {
-			throw new TFException("getDoubleArray not implemented for '" + key + "' data type: " + dtype);
+		long start = startExtraction();
+		try {
+			checkKey(key);
+			Object cached = cached(key, "getDoubleArray");
+			if (cached != null) {
+				return (double[]) cached;
+			}
+			TensorInfo ti = tensorInfo(key);
+			DataType dtype = ti.getDtype();
+			if (dtype == DataType.DT_FLOAT) {
+				@SuppressWarnings("unchecked")
+				Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
+				float[] f = ArrayUtil.floatTensorToFloatArray(tensor);
+				double[] d = ArrayUtil.fToD(f);
+				return cache(key, "getDoubleArray", d);
+			} else if (dtype == DataType.DT_DOUBLE) {
+				@SuppressWarnings("unchecked")
+				Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
+				double[] d = ArrayUtil.doubleTensorToDoubleArray(tensor);
+				return cache(key, "getDoubleArray", d);
+			} else if (dtype == DataType.DT_INT64) {
+				@SuppressWarnings("unchecked")
+				Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
+				long[] l = ArrayUtil.longTensorToLongArray(tensor);
+				double[] d = ArrayUtil.lToD(l);
+				return cache(key, "getDoubleArray", d);
+			} else if (dtype == DataType.DT_INT32) {
+				@SuppressWarnings("unchecked")
+				Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
+				int[] i = ArrayUtil.intTensorToIntArray(tensor);
+				double[] d = ArrayUtil.iToD(i);
+				return cache(key, "getDoubleArray", d);
+			} else if (dtype == DataType.DT_UINT8) {
+				@SuppressWarnings("unchecked")
+				Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
+				byte[] b = ArrayUtil.uint8TensorToByteArray(tensor);
+				double[] d = (double[]) ArrayUtil.convertUnsignedArrayType(b, double.class);
+				return cache(key, "getDoubleArray", d);
+			} else if (dtype == DataType.DT_STRING) {
+				String[] s = getStringArray(key);
+				double[] d = (double[]) ArrayUtil.convertArrayType(s, double.class);
+				return cache(key, "getDoubleArray", d);
+			} else if (dtype == DataType.DT_BOOL) {
+				@SuppressWarnings("unchecked")
+				Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
+				boolean[] b = ArrayUtil.booleanTensorToBooleanArray(tensor);
+				double[] d = (double[]) ArrayUtil.convertArrayType(b, double.class);
+				return cache(key, "getDoubleArray", d);
+			} else {
+				throw new TFException("getDoubleArray not implemented for '" + key + "' data type: " + dtype);
+			}
+		} finally {
+			endExtraction(key, start);
 		}
 	}
 
@@ -625,51 +833,60 @@ public class TFResults {
 	 * @return The multidimensional double array
 	 */
 	public Object getDoubleArrayMultidimensional(String key) {
-		checkKey(key);
-		TensorInfo ti = TFUtil.outputKeyToTensorInfo(key, model);
-		DataType dtype = ti.getDtype();
-		if (dtype == DataType.DT_FLOAT) {
-			@SuppressWarnings("unchecked")
-			Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
-			Object f = ArrayUtil.floatTensorToMultidimensionalFloatArray(tensor);
-			Object d = ArrayUtil.convertArrayType(f, double.class);
-			return d;
-		} else if (dtype == DataType.DT_DOUBLE) {
-			@SuppressWarnings("unchecked")
-			Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
-			Object d = ArrayUtil.doubleTensorToMultidimensionalDoubleArray(tensor);
-			return d;
-		} else if (dtype == DataType.DT_INT64) {
-			@SuppressWarnings("unchecked")
-			Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
-			Object l = ArrayUtil.longTensorToMultidimensionalLongArray(tensor);
-			Object d = ArrayUtil.convertArrayType(l, double.class);
-			return d;
-		} else if (dtype == DataType.DT_INT32) {
-			@SuppressWarnings("unchecked")
-			Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
-			Object i = ArrayUtil.intTensorToMultidimensionalIntArray(tensor);
-			Object d = ArrayUtil.convertArrayType(i, double.class);
-			return d;
-		} else if (dtype == DataType.DT_UINT8) {
-			@SuppressWarnings("unchecked")
-			Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
-			Object b = ArrayUtil.uint8TensorToMultidimensionalByteArray(tensor);
-			Object d = ArrayUtil.convertUnsignedArrayType(b, double.class);
-			return d;
-		} else if (dtype == DataType.DT_STRING) {
-			Object s = getStringArrayMultidimensional(key);
-			Object d = ArrayUtil.convertArrayType(s, double.class);
-			return d;
-		} else if (dtype == DataType.DT_BOOL) {
-			@SuppressWarnings("unchecked")
-			Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
-			Object b = ArrayUtil.booleanTensorToMultidimensionalBooleanArray(tensor);
-			Object d = ArrayUtil.convertArrayType(b, double.class);
-			return d;
-		} else {
-			throw new TFException(
-					"getDoubleArrayMultidimensional not implemented for '" + key + "' data type: " + dtype);
+		long start = startExtraction();
+		try {
+			checkKey(key);
+			Object cached = cached(key, "getDoubleArrayMultidimensional");
+			if (cached != null) {
+				return cached;
+			}
+			TensorInfo ti = tensorInfo(key);
+			DataType dtype = ti.getDtype();
+			if (dtype == DataType.DT_FLOAT) {
+				@SuppressWarnings("unchecked")
+				Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
+				Object f = ArrayUtil.floatTensorToMultidimensionalFloatArray(tensor);
+				Object d = ArrayUtil.convertArrayType(f, double.class);
+				return cache(key, "getDoubleArrayMultidimensional", d);
+			} else if (dtype == DataType.DT_DOUBLE) {
+				@SuppressWarnings("unchecked")
+				Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
+				Object d = ArrayUtil.doubleTensorToMultidimensionalDoubleArray(tensor);
+				return cache(key, "getDoubleArrayMultidimensional", d);
+			} else if (dtype == DataType.DT_INT64) {
+				@SuppressWarnings("unchecked")
+				Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
+				Object l = ArrayUtil.longTensorToMultidimensionalLongArray(tensor);
+				Object d = ArrayUtil.convertArrayType(l, double.class);
+				return cache(key, "getDoubleArrayMultidimensional", d);
+			} else if (dtype == DataType.DT_INT32) {
+				@SuppressWarnings("unchecked")
+				Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
+				Object i = ArrayUtil.intTensorToMultidimensionalIntArray(tensor);
+				Object d = ArrayUtil.convertArrayType(i, double.class);
+				return cache(key, "getDoubleArrayMultidimensional", d);
+			} else if (dtype == DataType.DT_UINT8) {
+				@SuppressWarnings("unchecked")
+				Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
+				Object b = ArrayUtil.uint8TensorToMultidimensionalByteArray(tensor);
+				Object d = ArrayUtil.convertUnsignedArrayType(b, double.class);
+				return cache(key, "getDoubleArrayMultidimensional", d);
+			} else if (dtype == DataType.DT_STRING) {
+				Object s = getStringArrayMultidimensional(key);
+				Object d = ArrayUtil.convertArrayType(s, double.class);
+				return cache(key, "getDoubleArrayMultidimensional", d);
+			} else if (dtype == DataType.DT_BOOL) {
+				@SuppressWarnings("unchecked")
+				Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
+				Object b = ArrayUtil.booleanTensorToMultidimensionalBooleanArray(tensor);
+				Object d = ArrayUtil.convertArrayType(b, double.class);
+				return cache(key, "getDoubleArrayMultidimensional", d);
+			} else {
+				throw new TFException(
+						"getDoubleArrayMultidimensional not implemented for '" + key + "' data type: " + dtype);
+			}
+		} finally {
+			endExtraction(key, start);
 		}
 	}
 
@@ -681,90 +898,88 @@ public class TFResults {
 	 * @return The float value
 	 */
 	public float getFloat(String key) {
-		checkKey(key);
-		TensorInfo ti = TFUtil.outputKeyToTensorInfo(key, model);
-		DataType dtype = ti.getDtype();
-		if (dtype == DataType.DT_FLOAT) {
-			@SuppressWarnings("unchecked")
-			Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				float f = tensor.floatValue();
-				return f;
-			} else {
-				Object fArray = getFloatArrayMultidimensional(key);
-				float f = (float) ArrayUtil.firstElementValueOfMultidimArray(fArray);
-				return f;
-			}
-		} else if (dtype == DataType.DT_DOUBLE) {
-			@SuppressWarnings("unchecked")
-			Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				return double_to_float(tensor.doubleValue());
-			} else {
-				Object dArray = getDoubleArrayMultidimensional(key);
-				double d = (double) ArrayUtil.firstElementValueOfMultidimArray(dArray);
-				return double_to_float(d);
-			}
-		} else if (dtype == DataType.DT_INT64) {
-			@SuppressWarnings("unchecked")
-			Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				return long_to_float(tensor.longValue());
+		long start = startExtraction();
+		try {
+			checkKey(key);
+			TensorInfo ti = tensorInfo(key);
+			DataType dtype = ti.getDtype();
+			if (dtype == DataType.DT_FLOAT) {
+				@SuppressWarnings("unchecked")
+				Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					float f = tensor.floatValue();
+					return f;
+				} else {
+					float f = (float) TFUtil.firstElement(tensor);
+					return f;
+				}
+			} else if (dtype == DataType.DT_DOUBLE) {
+				@SuppressWarnings("unchecked")
+				Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					return double_to_float(tensor.doubleValue());
+				} else {
+					double d = (double) TFUtil.firstElement(tensor);
+					return double_to_float(d);
+				}
+			} else if (dtype == DataType.DT_INT64) {
+				@SuppressWarnings("unchecked")
+				Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					return long_to_float(tensor.longValue());
+				} else {
+					long l = (long) TFUtil.firstElement(tensor);
+					return long_to_float(l);
+				}
+			} else if (dtype == DataType.DT_INT32) {
+				@SuppressWarnings("unchecked")
+				Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					return int_to_float(tensor.intValue());
+				} else {
+					int i = (int) TFUtil.firstElement(tensor);
+					return int_to_float(i);
+				}
+			} else if (dtype == DataType.DT_UINT8) {
+				@SuppressWarnings("unchecked")
+				Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					byte b = TFUtil.byteScalarFromUInt8Tensor(tensor);
+					return byte_unsigned_to_float(b);
+				} else {
+					byte b = (byte) TFUtil.firstElement(tensor);
+					return byte_unsigned_to_float(b);
+				}
+			} else if (dtype == DataType.DT_STRING) {
+				@SuppressWarnings("unchecked")
+				Tensor<String> tensor = (Tensor<String>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					return String_bytes_to_float(tensor.bytesValue());
+				} else {
+					String s = (String) TFUtil.firstElement(tensor);
+					return String_to_float(s);
+				}
+			} else if (dtype == DataType.DT_BOOL) {
+				@SuppressWarnings("unchecked")
+				Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					return boolean_to_float(tensor.booleanValue());
+				} else {
+					boolean b = (boolean) TFUtil.firstElement(tensor);
+					return boolean_to_float(b);
+				}
 			} else {
-				Object lArray = getLongArrayMultidimensional(key);
-				long l = (long) ArrayUtil.firstElementValueOfMultidimArray(lArray);
-				return long_to_float(l);
+				throw new TFException("getFloat not implemented for '" + key + "' data type: " + dtype);
 			}
-		} else if (dtype == DataType.DT_INT32) {
-			@SuppressWarnings("unchecked")
-			Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				return int_to_float(tensor.intValue());
-			} else {
-				Object iArray = getIntArrayMultidimensional(key);
-				int i = (int) ArrayUtil.firstElementValueOfMultidimArray(iArray);
-				return int_to_float(i);
-			}
-		} else if (dtype == DataType.DT_UINT8) {
-			@SuppressWarnings("unchecked")
-			Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				byte b = TFUtil.byteScalarFromUInt8Tensor(tensor);
-				return byte_unsigned_to_float(b);
-			} else {
-				Object bArray = getByteArrayMultidimensional(key);
-				byte b = (byte) ArrayUtil.firstElementValueOfMultidimArray(bArray);
-				return byte_unsigned_to_float(b);
-			}
-		} else if (dtype == DataType.DT_STRING) {
-			@SuppressWarnings("unchecked")
-			Tensor<String> tensor = (Tensor<String>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				return String_bytes_to_float(tensor.bytesValue());
-			} else {
-				Object sArray = getStringArrayMultidimensional(key);
-				String s = (String) ArrayUtil.firstElementValueOfMultidimArray(sArray);
-				return String_to_float(s);
-			}
-		} else if (dtype == DataType.DT_BOOL) {
-			@SuppressWarnings("unchecked")
-			Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				return boolean_to_float(tensor.booleanValue());
-			} else {
-				Object bArray = getBooleanArrayMultidimensional(key);
-				boolean b = (boolean) ArrayUtil.firstElementValueOfMultidimArray(bArray);
-				return boolean_to_float(b);
-			}
-		} else {
-			throw new TFException("getFloat not implemented for '" + key + "' data type: " + dtype);
+		} finally {
+			endExtraction(key, start);
 		}
 	}
 
@@ -776,46 +991,59 @@ public class TFResults {
 	 * @return The float array
 	 */
 	public float[] getFloatArray(String key) {
-		checkKey(key);
-		TensorInfo ti = TFUtil.outputKeyToTensorInfo(key, model);
-		DataType dtype = ti.getDtype();
-		if (dtype == DataType.DT_FLOAT) {
-			@SuppressWarnings("unchecked")
-			Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
-			return ArrayUtil.floatTensorToFloatArray(tensor);
-		} else if (dtype == DataType.DT_DOUBLE) {
-			@SuppressWarnings("unchecked")
-			Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
-			double[] d = ArrayUtil.doubleTensorToDoubleArray(tensor);
-			return ArrayUtil.dToF(d);
-		} else if (dtype == DataType.DT_INT64) {
-			@SuppressWarnings("unchecked")
-			Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
-			long[] l = ArrayUtil.longTensorToLongArray(tensor);
-			return ArrayUtil.lToF(l);
-		} else if (dtype == DataType.DT_INT32) {
-			@SuppressWarnings("unchecked")
-			Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
-			int[] i = ArrayUtil.intTensorToIntArray(tensor);
-			return ArrayUtil.iToF(i);
-		} else if (dtype == DataType.DT_UINT8) {
-			@SuppressWarnings("unchecked")
-			Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
-			byte[] b = ArrayUtil.uint8TensorToByteArray(tensor);
-			float[] f = (float[]) ArrayUtil.convertUnsignedArrayType(b, float.class);
-			return f;
-		} else if (dtype == DataType.DT_STRING) {
-			String[] s = getStringArray(key);
-			float[] f = (float[]) ArrayUtil.convertArrayType(s, float.class);
-			return f;
-		} else if (dtype == DataType.DT_BOOL) {
-			@SuppressWarnings("unchecked")
-			Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
-			boolean[] b = ArrayUtil.booleanTensorToBooleanArray(tensor);
-			float[] f = (float[]) ArrayUtil.convertArrayType(b, float.class);
-			return f;
-		} else {
-			throw new TFException("getFloatArray not implemented for '" + key + "' data type: " + dtype);
+		long start = startExtraction();
+		try {
+			checkKey(key);
+			Object cached = cached(key, "getFloatArray");
+			if (cached != null) {
+				return (float[]) cached;
+			}
+			TensorInfo ti = tensorInfo(key);
+			DataType dtype = ti.getDtype();
+			if (dtype == DataType.DT_FLOAT) {
+				@SuppressWarnings("unchecked")
+				Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
+				float[] f = ArrayUtil.floatTensorToFloatArray(tensor);
+				return cache(key, "getFloatArray", f);
+			} else if (dtype == DataType.DT_DOUBLE) {
+				@SuppressWarnings("unchecked")
+				Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
+				double[] d = ArrayUtil.doubleTensorToDoubleArray(tensor);
+				float[] f = ArrayUtil.dToF(d);
+				return cache(key, "getFloatArray", f);
+			} else if (dtype == DataType.DT_INT64) {
+				@SuppressWarnings("unchecked")
+				Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
+				long[] l = ArrayUtil.longTensorToLongArray(tensor);
+				float[] f = ArrayUtil.lToF(l);
+				return cache(key, "getFloatArray", f);
+			} else if (dtype == DataType.DT_INT32) {
+				@SuppressWarnings("unchecked")
+				Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
+				int[] i = ArrayUtil.intTensorToIntArray(tensor);
+				float[] f = ArrayUtil.iToF(i);
+				return cache(key, "getFloatArray", f);
+			} else if (dtype == DataType.DT_UINT8) {
+				@SuppressWarnings("unchecked")
+				Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
+				byte[] b = ArrayUtil.uint8TensorToByteArray(tensor);
+				float[] f = (float[]) ArrayUtil.convertUnsignedArrayType(b, float.class);
+				return cache(key, "getFloatArray", f);
+			} else if (dtype == DataType.DT_STRING) {
+				String[] s = getStringArray(key);
+				float[] f = (float[]) ArrayUtil.convertArrayType(s, float.class);
+				return cache(key, "getFloatArray", f);
+			} else if (dtype == DataType.DT_BOOL) {
+				@SuppressWarnings("unchecked")
+				Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
+				boolean[] b = ArrayUtil.booleanTensorToBooleanArray(tensor);
+				float[] f = (float[]) ArrayUtil.convertArrayType(b, float.class);
+				return cache(key, "getFloatArray", f);
+			} else {
+				throw new TFException("getFloatArray not implemented for '" + key + "' data type: " + dtype);
+			}
+		} finally {
+			endExtraction(key, start);
 		}
 	}
 
@@ -827,51 +1055,60 @@ public class TFResults {
 	 * @return The multidimensional float array
 	 */
 	public Object getFloatArrayMultidimensional(String key) {
-		checkKey(key);
-		TensorInfo ti = TFUtil.outputKeyToTensorInfo(key, model);
-		DataType dtype = ti.getDtype();
-		if (dtype == DataType.DT_FLOAT) {
-			@SuppressWarnings("unchecked")
-			Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
-			Object f = ArrayUtil.floatTensorToMultidimensionalFloatArray(tensor);
-			return f;
-		} else if (dtype == DataType.DT_DOUBLE) {
-			@SuppressWarnings("unchecked")
-			Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
-			Object d = ArrayUtil.doubleTensorToMultidimensionalDoubleArray(tensor);
-			Object f = ArrayUtil.convertArrayType(d, float.class);
-			return f;
-		} else if (dtype == DataType.DT_INT64) {
-			@SuppressWarnings("unchecked")
-			Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
-			Object l = ArrayUtil.longTensorToMultidimensionalLongArray(tensor);
-			Object f = ArrayUtil.convertArrayType(l, float.class);
-			return f;
-		} else if (dtype == DataType.DT_INT32) {
-			@SuppressWarnings("unchecked")
-			Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
-			Object i = ArrayUtil.intTensorToMultidimensionalIntArray(tensor);
-			Object f = ArrayUtil.convertArrayType(i, float.class);
-			return f;
-		} else if (dtype == DataType.DT_UINT8) {
-			@SuppressWarnings("unchecked")
-			Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
-			Object b = ArrayUtil.uint8TensorToMultidimensionalByteArray(tensor);
-			Object f = ArrayUtil.convertUnsignedArrayType(b, float.class);
-			return f;
-		} else if (dtype == DataType.DT_STRING) {
-			Object s = getStringArrayMultidimensional(key);
-			Object f = ArrayUtil.convertArrayType(s, float.class);
-			return f;
-		} else if (dtype == DataType.DT_BOOL) {
-			@SuppressWarnings("unchecked")
-			Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
-			Object b = ArrayUtil.booleanTensorToMultidimensionalBooleanArray(tensor);
-			Object f = ArrayUtil.convertArrayType(b, float.class);
-			return f;
-		} else {
-			throw new TFException(
-					"getFloatArrayMultidimensional not implemented for '" + key + "' data type: " + dtype);
+		long start = startExtraction();
+		try {
+			checkKey(key);
+			Object cached = cached(key, "getFloatArrayMultidimensional");
+			if (cached != null) {
+				return cached;
+			}
+			TensorInfo ti = tensorInfo(key);
+			DataType dtype = ti.getDtype();
+			if (dtype == DataType.DT_FLOAT) {
+				@SuppressWarnings("unchecked")
+				Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
+				Object f = ArrayUtil.floatTensorToMultidimensionalFloatArray(tensor);
+				return cache(key, "getFloatArrayMultidimensional", f);
+			} else if (dtype == DataType.DT_DOUBLE) {
+				@SuppressWarnings("unchecked")
+				Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
+				Object d = ArrayUtil.doubleTensorToMultidimensionalDoubleArray(tensor);
+				Object f = ArrayUtil.convertArrayType(d, float.class);
+				return cache(key, "getFloatArrayMultidimensional", f);
+			} else if (dtype == DataType.DT_INT64) {
+				@SuppressWarnings("unchecked")
+				Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
+				Object l = ArrayUtil.longTensorToMultidimensionalLongArray(tensor);
+				Object f = ArrayUtil.convertArrayType(l, float.class);
+				return cache(key, "getFloatArrayMultidimensional", f);
+			} else if (dtype == DataType.DT_INT32) {
+				@SuppressWarnings("unchecked")
+				Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
+				Object i = ArrayUtil.intTensorToMultidimensionalIntArray(tensor);
+				Object f = ArrayUtil.convertArrayType(i, float.class);
+				return cache(key, "getFloatArrayMultidimensional", f);
+			} else if (dtype == DataType.DT_UINT8) {
+				@SuppressWarnings("unchecked")
+				Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
+				Object b = ArrayUtil.uint8TensorToMultidimensionalByteArray(tensor);
+				Object f = ArrayUtil.convertUnsignedArrayType(b, float.class);
+				return cache(key, "getFloatArrayMultidimensional", f);
+			} else if (dtype == DataType.DT_STRING) {
+				Object s = getStringArrayMultidimensional(key);
+				Object f = ArrayUtil.convertArrayType(s, float.class);
+				return cache(key, "getFloatArrayMultidimensional", f);
+			} else if (dtype == DataType.DT_BOOL) {
+				@SuppressWarnings("unchecked")
+				Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
+				Object b = ArrayUtil.booleanTensorToMultidimensionalBooleanArray(tensor);
+				Object f = ArrayUtil.convertArrayType(b, float.class);
+				return cache(key, "getFloatArrayMultidimensional", f);
+			} else {
+				throw new TFException(
+						"getFloatArrayMultidimensional not implemented for '" + key + "' data type: " + dtype);
+			}
+		} finally {
+			endExtraction(key, start);
 		}
 	}
 
@@ -883,90 +1120,88 @@ public class TFResults {
 	 * @return The int value
 	 */
 	public int getInt(String key) {
-		checkKey(key);
-		TensorInfo ti = TFUtil.outputKeyToTensorInfo(key, model);
-		DataType dtype = ti.getDtype();
-		if (dtype == DataType.DT_FLOAT) {
-			@SuppressWarnings("unchecked")
-			Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				return float_to_int(tensor.floatValue());
-			} else {
-				Object fArray = getFloatArrayMultidimensional(key);
-				float f = (float) ArrayUtil.firstElementValueOfMultidimArray(fArray);
-				return float_to_int(f);
-			}
-		} else if (dtype == DataType.DT_DOUBLE) {
-			@SuppressWarnings("unchecked")
-			Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				return double_to_int(tensor.doubleValue());
-			} else {
-				Object dArray = getDoubleArrayMultidimensional(key);
-				double d = (double) ArrayUtil.firstElementValueOfMultidimArray(dArray);
-				return double_to_int(d);
-			}
-		} else if (dtype == DataType.DT_INT64) {
-			@SuppressWarnings("unchecked")
-			Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				return long_to_int(tensor.longValue());
-			} else {
-				Object lArray = getLongArrayMultidimensional(key);
-				long l = (long) ArrayUtil.firstElementValueOfMultidimArray(lArray);
-				return long_to_int(l);
-			}
-		} else if (dtype == DataType.DT_INT32) {
-			@SuppressWarnings("unchecked")
-			Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				int i = tensor.intValue();
-				return i;
-			} else {
-				Object iArray = getIntArrayMultidimensional(key);
-				int i = (int) ArrayUtil.firstElementValueOfMultidimArray(iArray);
-				return i;
-			}
-		} else if (dtype == DataType.DT_UINT8) {
-			@SuppressWarnings("unchecked")
-			Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				byte b = TFUtil.byteScalarFromUInt8Tensor(tensor);
-				return byte_unsigned_to_int(b);
+		long start = startExtraction();
+		try {
+			checkKey(key);
+			TensorInfo ti = tensorInfo(key);
+			DataType dtype = ti.getDtype();
+			if (dtype == DataType.DT_FLOAT) {
+				@SuppressWarnings("unchecked")
+				Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					return float_to_int(tensor.floatValue());
+				} else {
+					float f = (float) TFUtil.firstElement(tensor);
+					return float_to_int(f);
+				}
+			} else if (dtype == DataType.DT_DOUBLE) {
+				@SuppressWarnings("unchecked")
+				Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					return double_to_int(tensor.doubleValue());
+				} else {
+					double d = (double) TFUtil.firstElement(tensor);
+					return double_to_int(d);
+				}
+			} else if (dtype == DataType.DT_INT64) {
+				@SuppressWarnings("unchecked")
+				Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					return long_to_int(tensor.longValue());
+				} else {
+					long l = (long) TFUtil.firstElement(tensor);
+					return long_to_int(l);
+				}
+			} else if (dtype == DataType.DT_INT32) {
+				@SuppressWarnings("unchecked")
+				Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					int i = tensor.intValue();
+					return i;
+				} else {
+					int i = (int) TFUtil.firstElement(tensor);
+					return i;
+				}
+			} else if (dtype == DataType.DT_UINT8) {
+				@SuppressWarnings("unchecked")
+				Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					byte b = TFUtil.byteScalarFromUInt8Tensor(tensor);
+					return byte_unsigned_to_int(b);
+				} else {
+					byte b = (byte) TFUtil.firstElement(tensor);
+					return byte_unsigned_to_int(b);
+				}
+			} else if (dtype == DataType.DT_STRING) {
+				@SuppressWarnings("unchecked")
+				Tensor<String> tensor = (Tensor<String>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					return String_bytes_to_int(tensor.bytesValue());
+				} else {
+					String s = (String) TFUtil.firstElement(tensor);
+					return String_to_int(s);
+				}
+			} else if (dtype == DataType.DT_BOOL) {
+				@SuppressWarnings("unchecked")
+				Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					return boolean_to_int(tensor.booleanValue());
+				} else {
+					boolean b = (boolean) TFUtil.firstElement(tensor);
+					return boolean_to_int(b);
+				}
 			} else {
-				Object bArray = getByteArrayMultidimensional(key);
-				byte b = (byte) ArrayUtil.firstElementValueOfMultidimArray(bArray);
-				return byte_unsigned_to_int(b);
+				throw new TFException("getInt not implemented for '" + key + "' data type: " + dtype);
 			}
-		} else if (dtype == DataType.DT_STRING) {
-			@SuppressWarnings("unchecked")
-			Tensor<String> tensor = (Tensor<String>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				return String_bytes_to_int(tensor.bytesValue());
-			} else {
-				Object sArray = getStringArrayMultidimensional(key);
-				String s = (String) ArrayUtil.firstElementValueOfMultidimArray(sArray);
-				return String_to_int(s);
-			}
-		} else if (dtype == DataType.DT_BOOL) {
-			@SuppressWarnings("unchecked")
-			Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				return boolean_to_int(tensor.booleanValue());
-			} else {
-				Object bArray = getBooleanArrayMultidimensional(key);
-				boolean b = (boolean) ArrayUtil.firstElementValueOfMultidimArray(bArray);
-				return boolean_to_int(b);
-			}
-		} else {
-			throw new TFException("getInt not implemented for '" + key + "' data type: " + dtype);
+		} finally {
+			endExtraction(key, start);
 		}
 	}
 
@@ -978,47 +1213,59 @@ public class TFResults {
 	 * @return The int array
 	 */
 	public int[] getIntArray(String key) {
-		checkKey(key);
-		TensorInfo ti = TFUtil.outputKeyToTensorInfo(key, model);
-		DataType dtype = ti.getDtype();
-		if (dtype == DataType.DT_FLOAT) {
-			@SuppressWarnings("unchecked")
-			Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
-			float[] f = ArrayUtil.floatTensorToFloatArray(tensor);
-			return ArrayUtil.fToI(f);
-		} else if (dtype == DataType.DT_DOUBLE) {
-			@SuppressWarnings("unchecked")
-			Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
-			double[] d = ArrayUtil.doubleTensorToDoubleArray(tensor);
-			return ArrayUtil.dToI(d);
-		} else if (dtype == DataType.DT_INT64) {
-			@SuppressWarnings("unchecked")
-			Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
-			long[] l = ArrayUtil.longTensorToLongArray(tensor);
-			return ArrayUtil.lToI(l);
-		} else if (dtype == DataType.DT_INT32) {
-			@SuppressWarnings("unchecked")
-			Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
-			int[] i = ArrayUtil.intTensorToIntArray(tensor);
-			return i;
-		} else if (dtype == DataType.DT_UINT8) {
-			@SuppressWarnings("unchecked")
-			Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
-			byte[] b = ArrayUtil.uint8TensorToByteArray(tensor);
-			int[] i = (int[]) ArrayUtil.convertUnsignedArrayType(b, int.class);
-			return i;
-		} else if (dtype == DataType.DT_STRING) {
-			String[] s = getStringArray(key);
-			int[] i = (int[]) ArrayUtil.convertArrayType(s, int.class);
-			return i;
-		} else if (dtype == DataType.DT_BOOL) {
-			@SuppressWarnings("unchecked")
-			Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
-			boolean[] b = ArrayUtil.booleanTensorToBooleanArray(tensor);
-			int[] i = (int[]) ArrayUtil.convertArrayType(b, int.class);
-			return i;
-		} else {
-			throw new TFException("getIntArray not implemented for '" + key + "' data type: " + dtype);
+		long start = startExtraction();
+		try {
+			checkKey(key);
+			Object cached = cached(key, "getIntArray");
+			if (cached != null) {
+				return (int[]) cached;
+			}
+			TensorInfo ti = tensorInfo(key);
+			DataType dtype = ti.getDtype();
+			if (dtype == DataType.DT_FLOAT) {
+				@SuppressWarnings("unchecked")
+				Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
+				float[] f = ArrayUtil.floatTensorToFloatArray(tensor);
+				int[] i = ArrayUtil.fToI(f);
+				return cache(key, "getIntArray", i);
+			} else if (dtype == DataType.DT_DOUBLE) {
+				@SuppressWarnings("unchecked")
+				Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
+				double[] d = ArrayUtil.doubleTensorToDoubleArray(tensor);
+				int[] i = ArrayUtil.dToI(d);
+				return cache(key, "getIntArray", i);
+			} else if (dtype == DataType.DT_INT64) {
+				@SuppressWarnings("unchecked")
+				Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
+				long[] l = ArrayUtil.longTensorToLongArray(tensor);
+				int[] i = ArrayUtil.lToI(l);
+				return cache(key, "getIntArray", i);
+			} else if (dtype == DataType.DT_INT32) {
+				@SuppressWarnings("unchecked")
+				Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
+				int[] i = ArrayUtil.intTensorToIntArray(tensor);
+				return cache(key, "getIntArray", i);
+			} else if (dtype == DataType.DT_UINT8) {
+				@SuppressWarnings("unchecked")
+				Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
+				byte[] b = ArrayUtil.uint8TensorToByteArray(tensor);
+				int[] i = (int[]) ArrayUtil.convertUnsignedArrayType(b, int.class);
+				return cache(key, "getIntArray", i);
+			} else if (dtype == DataType.DT_STRING) {
+				String[] s = getStringArray(key);
+				int[] i = (int[]) ArrayUtil.convertArrayType(s, int.class);
+				return cache(key, "getIntArray", i);
+			} else if (dtype == DataType.DT_BOOL) {
+				@SuppressWarnings("unchecked")
+				Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
+				boolean[] b = ArrayUtil.booleanTensorToBooleanArray(tensor);
+				int[] i = (int[]) ArrayUtil.convertArrayType(b, int.class);
+				return cache(key, "getIntArray", i);
+			} else {
+				throw new TFException("getIntArray not implemented for '" + key + "' data type: " + dtype);
+			}
+		} finally {
+			endExtraction(key, start);
 		}
 	}
 
@@ -1030,50 +1277,60 @@ public class TFResults {
 	 * @return The multidimensional int array
 	 */
 	public Object getIntArrayMultidimensional(String key) {
-		checkKey(key);
-		TensorInfo ti = TFUtil.outputKeyToTensorInfo(key, model.metaGraphDef());
-		DataType dtype = ti.getDtype();
-		if (dtype == DataType.DT_FLOAT) {
-			@SuppressWarnings("unchecked")
-			Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
-			Object f = ArrayUtil.floatTensorToMultidimensionalFloatArray(tensor);
-			Object i = ArrayUtil.convertArrayType(f, int.class);
-			return i;
-		} else if (dtype == DataType.DT_DOUBLE) {
-			@SuppressWarnings("unchecked")
-			Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
-			Object d = ArrayUtil.doubleTensorToMultidimensionalDoubleArray(tensor);
-			Object i = ArrayUtil.convertArrayType(d, int.class);
-			return i;
-		} else if (dtype == DataType.DT_INT64) {
-			@SuppressWarnings("unchecked")
-			Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
-			Object l = ArrayUtil.longTensorToMultidimensionalLongArray(tensor);
-			Object i = ArrayUtil.convertArrayType(l, int.class);
-			return i;
-		} else if (dtype == DataType.DT_INT32) {
-			@SuppressWarnings("unchecked")
-			Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
-			Object i = ArrayUtil.intTensorToMultidimensionalIntArray(tensor);
-			return i;
-		} else if (dtype == DataType.DT_UINT8) {
-			@SuppressWarnings("unchecked")
-			Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
-			Object b = ArrayUtil.uint8TensorToMultidimensionalByteArray(tensor);
-			Object i = ArrayUtil.convertUnsignedArrayType(b, int.class);
-			return i;
-		} else if (dtype == DataType.DT_STRING) {
-			Object s = getStringArrayMultidimensional(key);
-			Object i = ArrayUtil.convertArrayType(s, int.class);
-			return i;
-		} else if (dtype == DataType.DT_BOOL) {
-			@SuppressWarnings("unchecked")
-			Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
-			Object b = ArrayUtil.booleanTensorToMultidimensionalBooleanArray(tensor);
-			Object i = ArrayUtil.convertArrayType(b, int.class);
-			return i;
-		} else {
-			throw new TFException("getIntArrayMultidimensional not implemented for '" + key + "' data type: " + dtype);
+		long start = startExtraction();
+		try {
+			checkKey(key);
+			Object cached = cached(key, "getIntArrayMultidimensional");
+			if (cached != null) {
+				return cached;
+			}
+			TensorInfo ti = tensorInfo(key);
+			DataType dtype = ti.getDtype();
+			if (dtype == DataType.DT_FLOAT) {
+				@SuppressWarnings("unchecked")
+				Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
+				Object f = ArrayUtil.floatTensorToMultidimensionalFloatArray(tensor);
+				Object i = ArrayUtil.convertArrayType(f, int.class);
+				return cache(key, "getIntArrayMultidimensional", i);
+			} else if (dtype == DataType.DT_DOUBLE) {
+				@SuppressWarnings("unchecked")
+				Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
+				Object d = ArrayUtil.doubleTensorToMultidimensionalDoubleArray(tensor);
+				Object i = ArrayUtil.convertArrayType(d, int.class);
+				return cache(key, "getIntArrayMultidimensional", i);
+			} else if (dtype == DataType.DT_INT64) {
+				@SuppressWarnings("unchecked")
+				Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
+				Object l = ArrayUtil.longTensorToMultidimensionalLongArray(tensor);
+				Object i = ArrayUtil.convertArrayType(l, int.class);
+				return cache(key, "getIntArrayMultidimensional", i);
+			} else if (dtype == DataType.DT_INT32) {
+				@SuppressWarnings("unchecked")
+				Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
+				Object i = ArrayUtil.intTensorToMultidimensionalIntArray(tensor);
+				return cache(key, "getIntArrayMultidimensional", i);
+			} else if (dtype == DataType.DT_UINT8) {
+				@SuppressWarnings("unchecked")
+				Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
+				Object b = ArrayUtil.uint8TensorToMultidimensionalByteArray(tensor);
+				Object i = ArrayUtil.convertUnsignedArrayType(b, int.class);
+				return cache(key, "getIntArrayMultidimensional", i);
+			} else if (dtype == DataType.DT_STRING) {
+				Object s = getStringArrayMultidimensional(key);
+				Object i = ArrayUtil.convertArrayType(s, int.class);
+				return cache(key, "getIntArrayMultidimensional", i);
+			} else if (dtype == DataType.DT_BOOL) {
+				@SuppressWarnings("unchecked")
+				Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
+				Object b = ArrayUtil.booleanTensorToMultidimensionalBooleanArray(tensor);
+				Object i = ArrayUtil.convertArrayType(b, int.class);
+				return cache(key, "getIntArrayMultidimensional", i);
+			} else {
+				throw new TFException(
+						"getIntArrayMultidimensional not implemented for '" + key + "' data type: " + dtype);
+			}
+		} finally {
+			endExtraction(key, start);
 		}
 	}
 
@@ -1085,90 +1342,88 @@ public class TFResults {
 	 * @return The long value
 	 */
 	public long getLong(String key) {
-		checkKey(key);
-		TensorInfo ti = TFUtil.outputKeyToTensorInfo(key, model);
-		DataType dtype = ti.getDtype();
-		if (dtype == DataType.DT_FLOAT) {
-			@SuppressWarnings("unchecked")
-			Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				return float_to_long(tensor.floatValue());
-			} else {
-				Object fArray = getFloatArrayMultidimensional(key);
-				float f = (float) ArrayUtil.firstElementValueOfMultidimArray(fArray);
-				return float_to_long(f);
-			}
-		} else if (dtype == DataType.DT_DOUBLE) {
-			@SuppressWarnings("unchecked")
-			Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				return double_to_long(tensor.doubleValue());
+		long start = startExtraction();
+		try {
+			checkKey(key);
+			TensorInfo ti = tensorInfo(key);
+			DataType dtype = ti.getDtype();
+			if (dtype == DataType.DT_FLOAT) {
+				@SuppressWarnings("unchecked")
+				Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					return float_to_long(tensor.floatValue());
+				} else {
+					float f = (float) TFUtil.firstElement(tensor);
+					return float_to_long(f);
+				}
+			} else if (dtype == DataType.DT_DOUBLE) {
+				@SuppressWarnings("unchecked")
+				Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					return double_to_long(tensor.doubleValue());
+				} else {
+					double d = (double) TFUtil.firstElement(tensor);
+					return double_to_long(d);
+				}
+			} else if (dtype == DataType.DT_INT64) {
+				@SuppressWarnings("unchecked")
+				Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					long l = tensor.longValue();
+					return l;
+				} else {
+					long l = (long) TFUtil.firstElement(tensor);
+					return l;
+				}
+			} else if (dtype == DataType.DT_INT32) {
+				@SuppressWarnings("unchecked")
+				Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					return int_to_long(tensor.intValue());
+				} else {
+					int i = (int) TFUtil.firstElement(tensor);
+					return int_to_long(i);
+				}
+			} else if (dtype == DataType.DT_UINT8) {
+				@SuppressWarnings("unchecked")
+				Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					byte b = TFUtil.byteScalarFromUInt8Tensor(tensor);
+					return byte_unsigned_to_long(b);
+				} else {
+					byte b = (byte) TFUtil.firstElement(tensor);
+					return byte_unsigned_to_long(b);
+				}
+			} else if (dtype == DataType.DT_STRING) {
+				@SuppressWarnings("unchecked")
+				Tensor<String> tensor = (Tensor<String>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					return String_bytes_to_long(tensor.bytesValue());
+				} else {
+					String s = (String) TFUtil.firstElement(tensor);
+					return String_to_long(s);
+				}
+			} else if (dtype == DataType.DT_BOOL) {
+				@SuppressWarnings("unchecked")
+				Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					return boolean_to_long(tensor.booleanValue());
+				} else {
+					boolean b = (boolean) TFUtil.firstElement(tensor);
+					return boolean_to_long(b);
+				}
 			} else {
-				Object dArray = getDoubleArrayMultidimensional(key);
-				double d = (double) ArrayUtil.firstElementValueOfMultidimArray(dArray);
-				return double_to_long(d);
+				throw new TFException("getLong not implemented for '" + key + "' data type: " + dtype);
 			}
-		} else if (dtype == DataType.DT_INT64) {
-			@SuppressWarnings("unchecked")
-			Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				long l = tensor.longValue();
-				return l;
-			} else {
-				Object lArray = getLongArrayMultidimensional(key);
-				long l = (long) ArrayUtil.firstElementValueOfMultidimArray(lArray);
-				return l;
-			}
-		} else if (dtype == DataType.DT_INT32) {
-			@SuppressWarnings("unchecked")
-			Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				return int_to_long(tensor.intValue());
-			} else {
-				Object iArray = getIntArrayMultidimensional(key);
-				int i = (int) ArrayUtil.firstElementValueOfMultidimArray(iArray);
-				return int_to_long(i);
-			}
-		} else if (dtype == DataType.DT_UINT8) {
-			@SuppressWarnings("unchecked")
-			Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				byte b = TFUtil.byteScalarFromUInt8Tensor(tensor);
-				return byte_unsigned_to_long(b);
-			} else {
-				Object bArray = getByteArrayMultidimensional(key);
-				byte b = (byte) ArrayUtil.firstElementValueOfMultidimArray(bArray);
-				return byte_unsigned_to_long(b);
-			}
-		} else if (dtype == DataType.DT_STRING) {
-			@SuppressWarnings("unchecked")
-			Tensor<String> tensor = (Tensor<String>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				return String_bytes_to_long(tensor.bytesValue());
-			} else {
-				Object sArray = getStringArrayMultidimensional(key);
-				String s = (String) ArrayUtil.firstElementValueOfMultidimArray(sArray);
-				return String_to_long(s);
-			}
-		} else if (dtype == DataType.DT_BOOL) {
-			@SuppressWarnings("unchecked")
-			Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				return boolean_to_long(tensor.booleanValue());
-			} else {
-				Object bArray = getBooleanArrayMultidimensional(key);
-				boolean b = (boolean) ArrayUtil.firstElementValueOfMultidimArray(bArray);
-				return boolean_to_long(b);
-			}
-		} else {
-			throw new TFException("getLong not implemented for '" + key + "' data type: " + dtype);
+		} finally {
+			endExtraction(key, start);
 		}
 	}
 
@@ -1180,49 +1435,61 @@ public class TFResults {
 	 * @return The long array
 	 */
 	public long[] getLongArray(String key) {
-		checkKey(key);
-		TensorInfo ti = TFUtil.outputKeyToTensorInfo(key, model);
-		DataType dtype = ti.getDtype();
-		if (dtype == DataType.DT_FLOAT) {
-			@SuppressWarnings("unchecked")
-			Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
-			float[] f = ArrayUtil.floatTensorToFloatArray(tensor);
-			return ArrayUtil.fToL(f);
-		} else if (dtype == DataType.DT_DOUBLE) {
-			@SuppressWarnings("unchecked")
-			Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
-			double[] d = ArrayUtil.doubleTensorToDoubleArray(tensor);
-			return ArrayUtil.dToL(d);
-		} else if (dtype == DataType.DT_INT64) {
-			@SuppressWarnings("unchecked")
-			Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
-			return ArrayUtil.longTensorToLongArray(tensor);
-		} else if (dtype == DataType.DT_INT32) {
-			@SuppressWarnings("unchecked")
-			Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
-			int[] i = ArrayUtil.intTensorToIntArray(tensor);
-			long[] l = ArrayUtil.iToL(i);
-			// alternative option
-			// long[] l = (long[]) ArrayUtil.convertArrayType(i, long.class);
-			return l;
-		} else if (dtype == DataType.DT_UINT8) {
-			@SuppressWarnings("unchecked")
-			Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
-			byte[] b = ArrayUtil.uint8TensorToByteArray(tensor);
-			long[] l = (long[]) ArrayUtil.convertUnsignedArrayType(b, long.class);
-			return l;
-		} else if (dtype == DataType.DT_STRING) {
-			String[] s = getStringArray(key);
-			long[] l = (long[]) ArrayUtil.convertArrayType(s, long.class);
-			return l;
-		} else if (dtype == DataType.DT_BOOL) {
-			@SuppressWarnings("unchecked")
-			Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
-			boolean[] b = ArrayUtil.booleanTensorToBooleanArray(tensor);
-			long[] l = (long[]) ArrayUtil.convertArrayType(b, long.class);
-			return l;
-		} else {
-			throw new TFException("getLongArray not implemented for '" + key + "' data type: " + dtype);
+		long start = startExtraction();
+		try {
+			checkKey(key);
+			Object cached = cached(key, "getLongArray");
+			if (cached != null) {
+				return (long[]) cached;
+			}
+			TensorInfo ti = tensorInfo(key);
+			DataType dtype = ti.getDtype();
+			if (dtype == DataType.DT_FLOAT) {
+				@SuppressWarnings("unchecked")
+				Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
+				float[] f = ArrayUtil.floatTensorToFloatArray(tensor);
+				long[] l = ArrayUtil.fToL(f);
+				return cache(key, "getLongArray", l);
+			} else if (dtype == DataType.DT_DOUBLE) {
+				@SuppressWarnings("unchecked")
+				Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
+				double[] d = ArrayUtil.doubleTensorToDoubleArray(tensor);
+				long[] l = ArrayUtil.dToL(d);
+				return cache(key, "getLongArray", l);
+			} else if (dtype == DataType.DT_INT64) {
+				@SuppressWarnings("unchecked")
+				Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
+				long[] l = ArrayUtil.longTensorToLongArray(tensor);
+				return cache(key, "getLongArray", l);
+			} else if (dtype == DataType.DT_INT32) {
+				@SuppressWarnings("unchecked")
+				Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
+				int[] i = ArrayUtil.intTensorToIntArray(tensor);
+				long[] l = ArrayUtil.iToL(i);
+				// alternative option
+				// long[] l = (long[]) ArrayUtil.convertArrayType(i, long.class);
+				return cache(key, "getLongArray", l);
+			} else if (dtype == DataType.DT_UINT8) {
+				@SuppressWarnings("unchecked")
+				Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
+				byte[] b = ArrayUtil.uint8TensorToByteArray(tensor);
+				long[] l = (long[]) ArrayUtil.convertUnsignedArrayType(b, long.class);
+				return cache(key, "getLongArray", l);
+			} else if (dtype == DataType.DT_STRING) {
+				String[] s = getStringArray(key);
+				long[] l = (long[]) ArrayUtil.convertArrayType(s, long.class);
+				return cache(key, "getLongArray", l);
+			} else if (dtype == DataType.DT_BOOL) {
+				@SuppressWarnings("unchecked")
+				Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
+				boolean[] b = ArrayUtil.booleanTensorToBooleanArray(tensor);
+				long[] l = (long[]) ArrayUtil.convertArrayType(b, long.class);
+				return cache(key, "getLongArray", l);
+			} else {
+				throw new TFException("getLongArray not implemented for '" + key + "' data type: " + dtype);
+			}
+		} finally {
+			endExtraction(key, start);
 		}
 	}
 
@@ -1234,50 +1501,60 @@ public class TFResults {
 	 * @return The multidimensional long array
 	 */
 	public Object getLongArrayMultidimensional(String key) {
-		checkKey(key);
-		TensorInfo ti = TFUtil.outputKeyToTensorInfo(key, model);
-		DataType dtype = ti.getDtype();
-		if (dtype == DataType.DT_FLOAT) {
-			@SuppressWarnings("unchecked")
-			Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
-			Object f = ArrayUtil.floatTensorToMultidimensionalFloatArray(tensor);
-			Object l = ArrayUtil.convertArrayType(f, long.class);
-			return l;
-		} else if (dtype == DataType.DT_DOUBLE) {
-			@SuppressWarnings("unchecked")
-			Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
-			Object d = ArrayUtil.doubleTensorToMultidimensionalDoubleArray(tensor);
-			Object l = ArrayUtil.convertArrayType(d, long.class);
-			return l;
-		} else if (dtype == DataType.DT_INT64) {
-			@SuppressWarnings("unchecked")
-			Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
-			Object l = ArrayUtil.longTensorToMultidimensionalLongArray(tensor);
-			return l;
-		} else if (dtype == DataType.DT_INT32) {
-			@SuppressWarnings("unchecked")
-			Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
-			Object i = ArrayUtil.intTensorToMultidimensionalIntArray(tensor);
-			Object l = ArrayUtil.convertArrayType(i, long.class);
-			return l;
-		} else if (dtype == DataType.DT_UINT8) {
-			@SuppressWarnings("unchecked")
-			Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
-			Object b = ArrayUtil.uint8TensorToMultidimensionalByteArray(tensor);
-			Object l = ArrayUtil.convertUnsignedArrayType(b, long.class);
-			return l;
-		} else if (dtype == DataType.DT_STRING) {
-			Object s = getStringArrayMultidimensional(key);
-			Object l = ArrayUtil.convertArrayType(s, long.class);
-			return l;
-		} else if (dtype == DataType.DT_BOOL) {
-			@SuppressWarnings("unchecked")
-			Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
-			Object b = ArrayUtil.booleanTensorToMultidimensionalBooleanArray(tensor);
-			Object l = ArrayUtil.convertArrayType(b, long.class);
-			return l;
-		} else {
-			throw new TFException("getLongArrayMultidimensional not implemented for '" + key + "' data type: " + dtype);
+		long start = startExtraction();
+		try {
+			checkKey(key);
+			Object cached = cached(key, "getLongArrayMultidimensional");
+			if (cached != null) {
+				return cached;
+			}
+			TensorInfo ti = tensorInfo(key);
+			DataType dtype = ti.getDtype();
+			if (dtype == DataType.DT_FLOAT) {
+				@SuppressWarnings("unchecked")
+				Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
+				Object f = ArrayUtil.floatTensorToMultidimensionalFloatArray(tensor);
+				Object l = ArrayUtil.convertArrayType(f, long.class);
+				return cache(key, "getLongArrayMultidimensional", l);
+			} else if (dtype == DataType.DT_DOUBLE) {
+				@SuppressWarnings("unchecked")
+				Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
+				Object d = ArrayUtil.doubleTensorToMultidimensionalDoubleArray(tensor);
+				Object l = ArrayUtil.convertArrayType(d, long.class);
+				return cache(key, "getLongArrayMultidimensional", l);
+			} else if (dtype == DataType.DT_INT64) {
+				@SuppressWarnings("unchecked")
+				Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
+				Object l = ArrayUtil.longTensorToMultidimensionalLongArray(tensor);
+				return cache(key, "getLongArrayMultidimensional", l);
+			} else if (dtype == DataType.DT_INT32) {
+				@SuppressWarnings("unchecked")
+				Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
+				Object i = ArrayUtil.intTensorToMultidimensionalIntArray(tensor);
+				Object l = ArrayUtil.convertArrayType(i, long.class);
+				return cache(key, "getLongArrayMultidimensional", l);
+			} else if (dtype == DataType.DT_UINT8) {
+				@SuppressWarnings("unchecked")
+				Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
+				Object b = ArrayUtil.uint8TensorToMultidimensionalByteArray(tensor);
+				Object l = ArrayUtil.convertUnsignedArrayType(b, long.class);
+				return cache(key, "getLongArrayMultidimensional", l);
+			} else if (dtype == DataType.DT_STRING) {
+				Object s = getStringArrayMultidimensional(key);
+				Object l = ArrayUtil.convertArrayType(s, long.class);
+				return cache(key, "getLongArrayMultidimensional", l);
+			} else if (dtype == DataType.DT_BOOL) {
+				@SuppressWarnings("unchecked")
+				Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
+				Object b = ArrayUtil.booleanTensorToMultidimensionalBooleanArray(tensor);
+				Object l = ArrayUtil.convertArrayType(b, long.class);
+				return cache(key, "getLongArrayMultidimensional", l);
+			} else {
+				throw new TFException(
+						"getLongArrayMultidimensional not implemented for '" + key + "' data type: " + dtype);
+			}
+		} finally {
+			endExtraction(key, start);
 		}
 	}
 
@@ -1289,205 +1566,484 @@ public class TFResults {
 	 * @return The String value
 	 */
 	public String getString(String key) {
-		checkKey(key);
-		TensorInfo ti = TFUtil.outputKeyToTensorInfo(key, model);
-		DataType dtype = ti.getDtype();
-		if (dtype == DataType.DT_FLOAT) {
-			@SuppressWarnings("unchecked")
-			Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
-			if (tensor.shape().length == 0) {
-				return float_to_String(tensor.floatValue());
+		long start = startExtraction();
+		try {
+			checkKey(key);
+			TensorInfo ti = tensorInfo(key);
+			DataType dtype = ti.getDtype();
+			if (dtype == DataType.DT_FLOAT) {
+				@SuppressWarnings("unchecked")
+				Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
+				if (tensor.shape().length == 0) {
+					return float_to_String(tensor.floatValue());
+				} else {
+					float f = (float) TFUtil.firstElement(tensor);
+					return float_to_String(f);
+				}
+			} else if (dtype == DataType.DT_DOUBLE) {
+				@SuppressWarnings("unchecked")
+				Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
+				if (tensor.shape().length == 0) {
+					return double_to_String(tensor.doubleValue());
+				} else {
+					double d = (double) TFUtil.firstElement(tensor);
+					return double_to_String(d);
+				}
+			} else if (dtype == DataType.DT_INT64) {
+				@SuppressWarnings("unchecked")
+				Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
+				if (tensor.shape().length == 0) {
+					return long_to_String(tensor.longValue());
+				} else {
+					long l = (long) TFUtil.firstElement(tensor);
+					return long_to_String(l);
+				}
+			} else if (dtype == DataType.DT_INT32) {
+				@SuppressWarnings("unchecked")
+				Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
+				if (tensor.shape().length == 0) {
+					return int_to_String(tensor.intValue());
+				} else {
+					int i = (int) TFUtil.firstElement(tensor);
+					return int_to_String(i);
+				}
+			} else if (dtype == DataType.DT_UINT8) {
+				@SuppressWarnings("unchecked")
+				Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
+				int shapeLength = tensor.shape().length;
+				if (shapeLength == 0) {
+					byte b = TFUtil.byteScalarFromUInt8Tensor(tensor);
+					return byte_unsigned_to_String(b);
+				} else {
+					byte b = (byte) TFUtil.firstElement(tensor);
+					return byte_unsigned_to_String(b);
+				}
+			} else if (dtype == DataType.DT_STRING) {
+				@SuppressWarnings("unchecked")
+				Tensor<String> tensor = (Tensor<String>) keyToOutput(key);
+				if (tensor.shape().length == 0) {
+					return String_bytes_to_String(tensor.bytesValue());
+				} else {
+					String s = (String) TFUtil.firstElement(tensor);
+					return s;
+				}
+			} else if (dtype == DataType.DT_BOOL) {
+				@SuppressWarnings("unchecked")
+				Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
+				if (tensor.shape().length == 0) {
+					return boolean_to_String(tensor.booleanValue());
+				} else {
+					boolean b = (boolean) TFUtil.firstElement(tensor);
+					return boolean_to_String(b);
+				}
 			} else {
-				Object fArray = getFloatArrayMultidimensional(key);
-				float f = (float) ArrayUtil.firstElementValueOfMultidimArray(fArray);
-				return float_to_String(f);
+				throw new TFException("getString not implemented for '" + key + "' data type: " + dtype);
 			}
-		} else if (dtype == DataType.DT_DOUBLE) {
-			@SuppressWarnings("unchecked")
-			Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
-			if (tensor.shape().length == 0) {
-				return double_to_String(tensor.doubleValue());
+		} finally {
+			endExtraction(key, start);
+		}
+	}
+
+	/**
+	 * Obtain the String array corresponding to the output key.
+	 * 
+	 * @param key
+	 *            The output key
+	 * @return The String array
+	 */
+	public String[] getStringArray(String key) {
+		long start = startExtraction();
+		try {
+			checkKey(key);
+			Object cached = cached(key, "getStringArray");
+			if (cached != null) {
+				return (String[]) cached;
+			}
+			TensorInfo ti = tensorInfo(key);
+			DataType dtype = ti.getDtype();
+			if (dtype == DataType.DT_STRING) {
+				@SuppressWarnings("unchecked")
+				Tensor<String> tensor = (Tensor<String>) keyToOutput(key);
+				int length = tensor.shape().length;
+				if (length == 1) {
+					String[] s = (String[]) getStringArrayMultidimensional(key);
+					return cache(key, "getStringArray", s);
+				} else {
+					Object obj = getStringArrayMultidimensional(key);
+					String[] s = (String[]) ArrayUtil.firstDimensionValuesOfMultidimArray(obj);
+					return cache(key, "getStringArray", s);
+				}
+			} else if (dtype == DataType.DT_INT64) {
+				@SuppressWarnings("unchecked")
+				Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
+				long[] l = ArrayUtil.longTensorToLongArray(tensor);
+				String[] s = (String[]) ArrayUtil.convertArrayType(l, String.class);
+				return cache(key, "getStringArray", s);
+			} else if (dtype == DataType.DT_INT32) {
+				@SuppressWarnings("unchecked")
+				Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
+				int[] i = ArrayUtil.intTensorToIntArray(tensor);
+				String[] s = (String[]) ArrayUtil.convertArrayType(i, String.class);
+				return cache(key, "getStringArray", s);
+			} else if (dtype == DataType.DT_UINT8) {
+				@SuppressWarnings("unchecked")
+				Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
+				byte[] b = ArrayUtil.uint8TensorToByteArray(tensor);
+				String[] s = (String[]) ArrayUtil.convertUnsignedArrayType(b, String.class);
+				return cache(key, "getStringArray", s);
+			} else if (dtype == DataType.DT_FLOAT) {
+				@SuppressWarnings("unchecked")
+				Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
+				float[] f = ArrayUtil.floatTensorToFloatArray(tensor);
+				String[] s = (String[]) ArrayUtil.convertArrayType(f, String.class);
+				return cache(key, "getStringArray", s);
+			} else if (dtype == DataType.DT_DOUBLE) {
+				@SuppressWarnings("unchecked")
+				Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
+				double[] d = ArrayUtil.doubleTensorToDoubleArray(tensor);
+				String[] s = (String[]) ArrayUtil.convertArrayType(d, String.class);
+				return cache(key, "getStringArray", s);
+			} else if (dtype == DataType.DT_BOOL) {
+				@SuppressWarnings("unchecked")
+				Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
+				boolean[] b = ArrayUtil.booleanTensorToBooleanArray(tensor);
+				String[] s = (String[]) ArrayUtil.convertArrayType(b, String.class);
+				return cache(key, "getStringArray", s);
 			} else {
-				Object dArray = getDoubleArrayMultidimensional(key);
-				double d = (double) ArrayUtil.firstElementValueOfMultidimArray(dArray);
-				return double_to_String(d);
+				throw new TFException("getStringArray not implemented for '" + key + "' data type: " + dtype);
 			}
-		} else if (dtype == DataType.DT_INT64) {
-			@SuppressWarnings("unchecked")
-			Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
-			if (tensor.shape().length == 0) {
-				return long_to_String(tensor.longValue());
+		} finally {
+			endExtraction(key, start);
+		}
+	}
+
+	/**
+	 * Obtain the multidimensional String array corresponding to the output key.
+	 * 
+	 * @param key
+	 *            The output key
+	 * @return The multidimensional String array
+	 */
+	public Object getStringArrayMultidimensional(String key) {
+		long start = startExtraction();
+		try {
+			checkKey(key);
+			Object cached = cached(key, "getStringArrayMultidimensional");
+			if (cached != null) {
+				return cached;
+			}
+			TensorInfo ti = tensorInfo(key);
+			DataType dtype = ti.getDtype();
+			if (dtype == DataType.DT_STRING) {
+				@SuppressWarnings("unchecked")
+				Tensor<String> tensor = (Tensor<String>) keyToOutput(key);
+				Object s = ArrayUtil.stringTensorToMultidimensionalStringArray(tensor);
+				return cache(key, "getStringArrayMultidimensional", s);
+			} else if (dtype == DataType.DT_INT64) {
+				@SuppressWarnings("unchecked")
+				Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
+				Object l = ArrayUtil.longTensorToMultidimensionalLongArray(tensor);
+				Object s = ArrayUtil.convertArrayType(l, String.class);
+				return cache(key, "getStringArrayMultidimensional", s);
+			} else if (dtype == DataType.DT_INT32) {
+				@SuppressWarnings("unchecked")
+				Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
+				Object i = ArrayUtil.intTensorToMultidimensionalIntArray(tensor);
+				Object s = ArrayUtil.convertArrayType(i, String.class);
+				return cache(key, "getStringArrayMultidimensional", s);
+			} else if (dtype == DataType.DT_UINT8) {
+				@SuppressWarnings("unchecked")
+				Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
+				Object b = ArrayUtil.uint8TensorToMultidimensionalByteArray(tensor);
+				Object s = ArrayUtil.convertUnsignedArrayType(b, String.class);
+				return cache(key, "getStringArrayMultidimensional", s);
+			} else if (dtype == DataType.DT_FLOAT) {
+				@SuppressWarnings("unchecked")
+				Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
+				Object f = ArrayUtil.floatTensorToMultidimensionalFloatArray(tensor);
+				Object s = ArrayUtil.convertArrayType(f, String.class);
+				return cache(key, "getStringArrayMultidimensional", s);
+			} else if (dtype == DataType.DT_DOUBLE) {
+				@SuppressWarnings("unchecked")
+				Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
+				Object d = ArrayUtil.doubleTensorToMultidimensionalDoubleArray(tensor);
+				Object s = ArrayUtil.convertArrayType(d, String.class);
+				return cache(key, "getStringArrayMultidimensional", s);
+			} else if (dtype == DataType.DT_BOOL) {
+				@SuppressWarnings("unchecked")
+				Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
+				Object b = ArrayUtil.booleanTensorToMultidimensionalBooleanArray(tensor);
+				Object s = ArrayUtil.convertArrayType(b, String.class);
+				return cache(key, "getStringArrayMultidimensional", s);
 			} else {
-				Object lArray = getLongArrayMultidimensional(key);
-				long l = (long) ArrayUtil.firstElementValueOfMultidimArray(lArray);
-				return long_to_String(l);
+				throw new TFException(
+						"getStringArrayMultidimensional not implemented for '" + key + "' data type: " + dtype);
 			}
-		} else if (dtype == DataType.DT_INT32) {
-			@SuppressWarnings("unchecked")
-			Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
-			if (tensor.shape().length == 0) {
-				return int_to_String(tensor.intValue());
+		} finally {
+			endExtraction(key, start);
+		}
+	}
+
+	/**
+	 * Write the byte values corresponding to the output key into a buffer, starting at the position of the buffer.
+	 * The position of the buffer is advanced by the number of values. UINT8 and BOOL values are written directly from
+	 * the Tensor without intermediate arrays. Values of other data types are converted.
+	 * 
+	 * @param key
+	 *            The output key
+	 * @param dst
+	 *            The buffer (which can be a direct buffer) to write the values to
+	 * @return The shape of the output
+	 */
+	public long[] getBytes(String key, ByteBuffer dst) {
+		long start = startExtraction();
+		try {
+			checkKey(key);
+			Tensor<?> tensor = (Tensor<?>) keyToOutput(key);
+			checkCapacity(key, tensor, dst.remaining());
+			DataType dtype = tensorInfo(key).getDtype();
+			if (dtype == DataType.DT_UINT8 || dtype == DataType.DT_BOOL) {
+				tensor.writeTo(dst);
 			} else {
-				Object iArray = getIntArrayMultidimensional(key);
-				int i = (int) ArrayUtil.firstElementValueOfMultidimArray(iArray);
-				return int_to_String(i);
+				dst.put(getByteArray(key));
 			}
-		} else if (dtype == DataType.DT_UINT8) {
-			@SuppressWarnings("unchecked")
-			Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
-			int shapeLength = tensor.shape().length;
-			if (shapeLength == 0) {
-				byte b = TFUtil.byteScalarFromUInt8Tensor(tensor);
-				return byte_unsigned_to_String(b);
+			return tensor.shape();
+		} finally {
+			endExtraction(key, start);
+		}
+	}
+
+	/**
+	 * Write the byte values corresponding to the output key into an array, starting at the specified offset.
+	 * 
+	 * @param key
+	 *            The output key
+	 * @param dst
+	 *            The array to write the values to
+	 * @param offset
+	 *            The index of the array at which to write the first value
+	 * @return The shape of the output
+	 */
+	public long[] getBytes(String key, byte[] dst, int offset) {
+		long start = startExtraction();
+		try {
+			return getBytes(key, ByteBuffer.wrap(dst, offset, dst.length - offset));
+		} finally {
+			endExtraction(key, start);
+		}
+	}
+
+	/**
+	 * Write the double values corresponding to the output key into a buffer, starting at the position of the buffer.
+	 * The position of the buffer is advanced by the number of values. DOUBLE values are written directly from the
+	 * Tensor without intermediate arrays. Values of other data types are converted.
+	 * 
+	 * @param key
+	 *            The output key
+	 * @param dst
+	 *            The buffer (which can be a direct buffer) to write the values to
+	 * @return The shape of the output
+	 */
+	public long[] getDoubles(String key, DoubleBuffer dst) {
+		long start = startExtraction();
+		try {
+			checkKey(key);
+			Tensor<?> tensor = (Tensor<?>) keyToOutput(key);
+			checkCapacity(key, tensor, dst.remaining());
+			DataType dtype = tensorInfo(key).getDtype();
+			if (dtype == DataType.DT_DOUBLE) {
+				tensor.writeTo(dst);
 			} else {
-				Object bArray = getByteArrayMultidimensional(key);
-				byte b = (byte) ArrayUtil.firstElementValueOfMultidimArray(bArray);
-				return byte_unsigned_to_String(b);
+				dst.put(getDoubleArray(key));
 			}
-		} else if (dtype == DataType.DT_STRING) {
-			@SuppressWarnings("unchecked")
-			Tensor<String> tensor = (Tensor<String>) keyToOutput(key);
-			if (tensor.shape().length == 0) {
-				return String_bytes_to_String(tensor.bytesValue());
+			return tensor.shape();
+		} finally {
+			endExtraction(key, start);
+		}
+	}
+
+	/**
+	 * Write the double values corresponding to the output key into an array, starting at the specified offset.
+	 * 
+	 * @param key
+	 *            The output key
+	 * @param dst
+	 *            The array to write the values to
+	 * @param offset
+	 *            The index of the array at which to write the first value
+	 * @return The shape of the output
+	 */
+	public long[] getDoubles(String key, double[] dst, int offset) {
+		long start = startExtraction();
+		try {
+			return getDoubles(key, DoubleBuffer.wrap(dst, offset, dst.length - offset));
+		} finally {
+			endExtraction(key, start);
+		}
+	}
+
+	/**
+	 * Write the float values corresponding to the output key into a buffer, starting at the position of the buffer.
+	 * The position of the buffer is advanced by the number of values. FLOAT values are written directly from the
+	 * Tensor without intermediate arrays. Values of other data types are converted.
+	 * 
+	 * @param key
+	 *            The output key
+	 * @param dst
+	 *            The buffer (which can be a direct buffer) to write the values to
+	 * @return The shape of the output
+	 */
+	public long[] getFloats(String key, FloatBuffer dst) {
+		long start = startExtraction();
+		try {
+			checkKey(key);
+			Tensor<?> tensor = (Tensor<?>) keyToOutput(key);
+			checkCapacity(key, tensor, dst.remaining());
+			DataType dtype = tensorInfo(key).getDtype();
+			if (dtype == DataType.DT_FLOAT) {
+				tensor.writeTo(dst);
 			} else {
-				Object sArray = getStringArrayMultidimensional(key);
-				String s = (String) ArrayUtil.firstElementValueOfMultidimArray(sArray);
-				return s;
+				dst.put(getFloatArray(key));
 			}
-		} else if (dtype == DataType.DT_BOOL) {
-			@SuppressWarnings("unchecked")
-			Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
-			if (tensor.shape().length == 0) {
-				return boolean_to_String(tensor.booleanValue());
+			return tensor.shape();
+		} finally {
+			endExtraction(key, start);
+		}
+	}
+
+	/**
+	 * Write the float values corresponding to the output key into an array, starting at the specified offset.
+	 * 
+	 * @param key
+	 *            The output key
+	 * @param dst
+	 *            The array to write the values to
+	 * @param offset
+	 *            The index of the array at which to write the first value
+	 * @return The shape of the output
+	 */
+	public long[] getFloats(String key, float[] dst, int offset) {
+		long start = startExtraction();
+		try {
+			return getFloats(key, FloatBuffer.wrap(dst, offset, dst.length - offset));
+		} finally {
+			endExtraction(key, start);
+		}
+	}
+
+	/**
+	 * Write the int values corresponding to the output key into a buffer, starting at the position of the buffer.
+	 * The position of the buffer is advanced by the number of values. INT32 values are written directly from the
+	 * Tensor without intermediate arrays. Values of other data types are converted.
+	 * 
+	 * @param key
+	 *            The output key
+	 * @param dst
+	 *            The buffer (which can be a direct buffer) to write the values to
+	 * @return The shape of the output
+	 */
+	public long[] getInts(String key, IntBuffer dst) {
+		long start = startExtraction();
+		try {
+			checkKey(key);
+			Tensor<?> tensor = (Tensor<?>) keyToOutput(key);
+			checkCapacity(key, tensor, dst.remaining());
+			DataType dtype = tensorInfo(key).getDtype();
+			if (dtype == DataType.DT_INT32) {
+				tensor.writeTo(dst);
 			} else {
-				Object bArray = getBooleanArrayMultidimensional(key);
-				boolean b = (boolean) ArrayUtil.firstElementValueOfMultidimArray(bArray);
-				return boolean_to_String(b);
+				dst.put(getIntArray(key));
 			}
-		} else {
-			throw new TFException("getString not implemented for '" + key + "' data type: " + dtype);
+			return tensor.shape();
+		} finally {
+			endExtraction(key, start);
 		}
 	}
 
 	/**
-	 * Obtain the String array corresponding to the output key.
+	 * Write the int values corresponding to the output key into an array, starting at the specified offset.
 	 * 
 	 * @param key
 	 *            The output key
-	 * @return The String array
+	 * @param dst
+	 *            The array to write the values to
+	 * @param offset
+	 *            The index of the array at which to write the first value
+	 * @return The shape of the output
 	 */
-	public String[] getStringArray(String key) {
-		checkKey(key);
-		TensorInfo ti = TFUtil.outputKeyToTensorInfo(key, model);
-		DataType dtype = ti.getDtype();
-		if (dtype == DataType.DT_STRING) {
-			@SuppressWarnings("unchecked")
-			Tensor<String> tensor = (Tensor<String>) keyToOutput(key);
-			int length = tensor.shape().length;
-			if (length == 1) {
-				String[] s = (String[]) getStringArrayMultidimensional(key);
-				return s;
+	public long[] getInts(String key, int[] dst, int offset) {
+		long start = startExtraction();
+		try {
+			return getInts(key, IntBuffer.wrap(dst, offset, dst.length - offset));
+		} finally {
+			endExtraction(key, start);
+		}
+	}
+
+	/**
+	 * Write the long values corresponding to the output key into a buffer, starting at the position of the buffer.
+	 * The position of the buffer is advanced by the number of values. INT64 values are written directly from the
+	 * Tensor without intermediate arrays. Values of other data types are converted.
+	 * 
+	 * @param key
+	 *            The output key
+	 * @param dst
+	 *            The buffer (which can be a direct buffer) to write the values to
+	 * @return The shape of the output
+	 */
+	public long[] getLongs(String key, LongBuffer dst) {
+		long start = startExtraction();
+		try {
+			checkKey(key);
+			Tensor<?> tensor = (Tensor<?>) keyToOutput(key);
+			checkCapacity(key, tensor, dst.remaining());
+			DataType dtype = tensorInfo(key).getDtype();
+			if (dtype == DataType.DT_INT64) {
+				tensor.writeTo(dst);
 			} else {
-				Object obj = getStringArrayMultidimensional(key);
-				String[] s = (String[]) ArrayUtil.firstDimensionValuesOfMultidimArray(obj);
-				return s;
+				dst.put(getLongArray(key));
 			}
-		} else if (dtype == DataType.DT_INT64) {
-			@SuppressWarnings("unchecked")
-			Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
-			long[] l = ArrayUtil.longTensorToLongArray(tensor);
-			String[] s = (String[]) ArrayUtil.convertArrayType(l, String.class);
-			return s;
-		} else if (dtype == DataType.DT_INT32) {
-			@SuppressWarnings("unchecked")
-			Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
-			int[] i = ArrayUtil.intTensorToIntArray(tensor);
-			String[] s = (String[]) ArrayUtil.convertArrayType(i, String.class);
-			return s;
-		} else if (dtype == DataType.DT_UINT8) {
-			@SuppressWarnings("unchecked")
-			Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
-			byte[] b = ArrayUtil.uint8TensorToByteArray(tensor);
-			String[] s = (String[]) ArrayUtil.convertUnsignedArrayType(b, String.class);
-			return s;
-		} else if (dtype == DataType.DT_FLOAT) {
-			@SuppressWarnings("unchecked")
-			Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
-			float[] f = ArrayUtil.floatTensorToFloatArray(tensor);
-			String[] s = (String[]) ArrayUtil.convertArrayType(f, String.class);
-			return s;
-		} else if (dtype == DataType.DT_DOUBLE) {
-			@SuppressWarnings("unchecked")
-			Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
-			double[] d = ArrayUtil.doubleTensorToDoubleArray(tensor);
-			String[] s = (String[]) ArrayUtil.convertArrayType(d, String.class);
-			return s;
-		} else if (dtype == DataType.DT_BOOL) {
-			@SuppressWarnings("unchecked")
-			Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
-			boolean[] b = ArrayUtil.booleanTensorToBooleanArray(tensor);
-			String[] s = (String[]) ArrayUtil.convertArrayType(b, String.class);
-			return s;
-		} else {
-			throw new TFException("getStringArray not implemented for '" + key + "' data type: " + dtype);
+			return tensor.shape();
+		} finally {
+			endExtraction(key, start);
 		}
 	}
 
 	/**
-	 * Obtain the multidimensional String array corresponding to the output key.
+	 * Write the long values corresponding to the output key into an array, starting at the specified offset.
 	 * 
 	 * @param key
 	 *            The output key
-	 * @return The multidimensional String array
+	 * @param dst
+	 *            The array to write the values to
+	 * @param offset
+	 *            The index of the array at which to write the first value
+	 * @return The shape of the output
 	 */
-	public Object getStringArrayMultidimensional(String key) {
-		checkKey(key);
-		TensorInfo ti = TFUtil.outputKeyToTensorInfo(key, model);
-		DataType dtype = ti.getDtype();
-		if (dtype == DataType.DT_STRING) {
-			@SuppressWarnings("unchecked")
-			Tensor<String> tensor = (Tensor<String>) keyToOutput(key);
-			Object s = ArrayUtil.stringTensorToMultidimensionalStringArray(tensor);
-			return s;
-		} else if (dtype == DataType.DT_INT64) {
-			@SuppressWarnings("unchecked")
-			Tensor<Long> tensor = (Tensor<Long>) keyToOutput(key);
-			Object l = ArrayUtil.longTensorToMultidimensionalLongArray(tensor);
-			Object s = ArrayUtil.convertArrayType(l, String.class);
-			return s;
-		} else if (dtype == DataType.DT_INT32) {
-			@SuppressWarnings("unchecked")
-			Tensor<Integer> tensor = (Tensor<Integer>) keyToOutput(key);
-			Object i = ArrayUtil.intTensorToMultidimensionalIntArray(tensor);
-			Object s = ArrayUtil.convertArrayType(i, String.class);
-			return s;
-		} else if (dtype == DataType.DT_UINT8) {
-			@SuppressWarnings("unchecked")
-			Tensor<UInt8> tensor = (Tensor<UInt8>) keyToOutput(key);
-			Object b = ArrayUtil.uint8TensorToMultidimensionalByteArray(tensor);
-			Object s = ArrayUtil.convertUnsignedArrayType(b, String.class);
-			return s;
-		} else if (dtype == DataType.DT_FLOAT) {
-			@SuppressWarnings("unchecked")
-			Tensor<Float> tensor = (Tensor<Float>) keyToOutput(key);
-			Object f = ArrayUtil.floatTensorToMultidimensionalFloatArray(tensor);
-			Object s = ArrayUtil.convertArrayType(f, String.class);
-			return s;
-		} else if (dtype == DataType.DT_DOUBLE) {
-			@SuppressWarnings("unchecked")
-			Tensor<Double> tensor = (Tensor<Double>) keyToOutput(key);
-			Object d = ArrayUtil.doubleTensorToMultidimensionalDoubleArray(tensor);
-			Object s = ArrayUtil.convertArrayType(d, String.class);
-			return s;
-		} else if (dtype == DataType.DT_BOOL) {
-			@SuppressWarnings("unchecked")
-			Tensor<Boolean> tensor = (Tensor<Boolean>) keyToOutput(key);
-			Object b = ArrayUtil.booleanTensorToMultidimensionalBooleanArray(tensor);
-			Object s = ArrayUtil.convertArrayType(b, String.class);
-			return s;
-		} else {
-			throw new TFException(
-					"getStringArrayMultidimensional not implemented for '" + key + "' data type: " + dtype);
+	public long[] getLongs(String key, long[] dst, int offset) {
+		long start = startExtraction();
+		try {
+			return getLongs(key, LongBuffer.wrap(dst, offset, dst.length - offset));
+		} finally {
+			endExtraction(key, start);
+		}
+	}
+
+	/**
+	 * If the number of values of an output Tensor is greater than the remaining capacity of a buffer, throw
+	 * TFException.
+	 * 
+	 * @param key
+	 *            The output key
+	 * @param tensor
+	 *            The output Tensor
+	 * @param remaining
+	 *            The remaining capacity of the buffer
+	 */
+	protected void checkCapacity(String key, Tensor<?> tensor, int remaining) {
+		if (tensor.numElements() > remaining) {
+			throw new TFException("Output '" + key + "' has " + tensor.numElements()
+					+ " values, but the destination only has room for " + remaining);
 		}
 	}
 
@@ -1532,6 +2088,17 @@ public class TFResults {
 		return outputKeyToName.containsKey(key);
 	}
 
+	/**
+	 * Obtain the TensorInfo object for an output key of the SignatureDef that was used to produce the results.
+	 * 
+	 * @param key
+	 *            The output key
+	 * @return The TensorInfo object corresponding to the output key
+	 */
+	protected TensorInfo tensorInfo(String key) {
+		return model.signatureIndex().outputTensorInfo(signatureDefKey, key);
+	}
+
 	/**
 	 * Obtain the corresponding output value (Tensor) for an output key.
 	 * 
@@ -1543,6 +2110,20 @@ public class TFResults {
 		return outputNameToValue.get(outputKeyToName.get(key));
 	}
 
+	/**
+	 * Close the output Tensors, releasing their native memory. Values can no longer be obtained from the results after
+	 * they are closed.
+	 */
+	@Override
+	public void close() {
+		decoded = null;
+		for (Object value : outputNameToValue.values()) {
+			if (value instanceof Tensor) {
+				((Tensor<?>) value).close();
+			}
+		}
+	}
+
 	/**
 	 * Display the output results. This includes the output keys, the output names, and information about the tensors
 	 * such as the tensor types and shapes. This information is very useful in a REPL environment.
@@ -1551,7 +2132,7 @@ public class TFResults {
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
 		sb.append("SignatureDef Key: ");
-		sb.append(model.signatureDefKey == null ? "None" : model.signatureDefKey);
+		sb.append(signatureDefKey == null ? "None" : signatureDefKey);
 		sb.append("\nOutputs:\n");
 		if (outputKeyToName == null || outputKeyToName.isEmpty()) {
 			sb.append("None\n");
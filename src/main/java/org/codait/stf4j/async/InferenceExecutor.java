@@ -0,0 +1,271 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+package org.codait.stf4j.async;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.codait.stf4j.PreparedRun;
+import org.codait.stf4j.TFException;
+import org.codait.stf4j.TFResults;
+
+/**
+ * Bounded executor for running models asynchronously, so that threads that must not block (such as event-loop
+ * threads) can submit model runs and receive CompletableFutures. A fixed number of threads run the models, and
+ * submitted runs wait in a queue of fixed capacity. When the queue is full, a submission is either rejected (the
+ * returned future completes exceptionally with a RejectedExecutionException) or waits for room in the queue,
+ * depending on the Saturation policy.
+ *
+ * Cancelling a returned future before its run has started removes the run from the queue. A run that has already
+ * started is not interrupted, and its results are closed if the future was cancelled in the meantime.
+ *
+ * <pre>
+ * InferenceExecutor executor = new InferenceExecutor(2, 100);
+ * PreparedRun pr = model.prepare("serving_default", new String[] { "input1", "input2" }, new String[] { "output" });
+ * pr.runAsync(executor, 1, 2).thenAccept(results -&gt; {
+ * 	try (TFResults r = results) {
+ * 		int output = r.getInt("output");
+ * 	}
+ * });
+ * </pre>
+ */
+public class InferenceExecutor implements AutoCloseable {
+
+	/**
+	 * Logger for InferenceExecutor
+	 */
+	protected static Logger log = LogManager.getLogger(InferenceExecutor.class);
+
+	/**
+	 * Behavior of a submission when the queue is full.
+	 */
+	public enum Saturation {
+		/**
+		 * Reject the submission: the returned future completes exceptionally with a RejectedExecutionException.
+		 */
+		REJECT,
+		/**
+		 * Block the submitting thread until there is room in the queue.
+		 */
+		WAIT
+	}
+
+	/**
+	 * Number of InferenceExecutors created, used to name their threads.
+	 */
+	static final AtomicInteger executorCount = new AtomicInteger();
+
+	/**
+	 * The underlying thread pool.
+	 */
+	final ThreadPoolExecutor pool;
+	/**
+	 * Behavior of a submission when the queue is full.
+	 */
+	final Saturation saturation;
+
+	/**
+	 * Create an InferenceExecutor that rejects submissions when its queue is full.
+	 *
+	 * @param threads
+	 *            Number of threads that run models
+	 * @param queueCapacity
+	 *            Maximum number of submitted runs that have not started
+	 */
+	public InferenceExecutor(int threads, int queueCapacity) {
+		this(threads, queueCapacity, Saturation.REJECT);
+	}
+
+	/**
+	 * Create an InferenceExecutor.
+	 *
+	 * @param threads
+	 *            Number of threads that run models
+	 * @param queueCapacity
+	 *            Maximum number of submitted runs that have not started
+	 * @param saturation
+	 *            Behavior of a submission when the queue is full
+	 */
+	public InferenceExecutor(int threads, int queueCapacity, Saturation saturation) {
+		this.saturation = saturation;
+		pool = newPool("InferenceExecutor-" + executorCount.incrementAndGet(), threads, queueCapacity, saturation);
+		log.debug("Created InferenceExecutor with " + threads + " threads and queue capacity " + queueCapacity);
+	}
+
+	/**
+	 * Create a fixed-size thread pool with a bounded queue, as used by InferenceExecutor and the model servers. The
+	 * threads are daemon threads named after the pool. With Saturation.WAIT, a thread that submits a task while the
+	 * queue is full blocks until there is room in the queue.
+	 *
+	 * @param name
+	 *            The pool name, used in thread names and error messages
+	 * @param threads
+	 *            Number of threads
+	 * @param queueCapacity
+	 *            Maximum number of submitted tasks that have not started
+	 * @param saturation
+	 *            Behavior of a submission when the queue is full
+	 * @return The thread pool
+	 */
+	public static ThreadPoolExecutor newPool(final String name, int threads, int queueCapacity,
+			Saturation saturation) {
+		if (threads < 1) {
+			throw new TFException("Number of threads must be at least 1");
+		}
+		if (queueCapacity < 1) {
+			throw new TFException("Queue capacity must be at least 1");
+		}
+		ThreadFactory threadFactory = new ThreadFactory() {
+			final AtomicInteger threadCount = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, name + "-" + threadCount.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			}
+		};
+		RejectedExecutionHandler handler = (saturation == Saturation.WAIT) ? (r, executor) -> {
+			if (executor.isShutdown()) {
+				throw new RejectedExecutionException(name + " has been closed");
+			}
+			try {
+				executor.getQueue().put(r);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RejectedExecutionException("Interrupted while waiting for room in the queue", e);
+			}
+		} : new ThreadPoolExecutor.AbortPolicy();
+		return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(queueCapacity), threadFactory, handler);
+	}
+
+	/**
+	 * Submit a run of a PreparedRun with the specified input values. The input values are converted to Tensors when
+	 * the run starts, so they should not be modified until the future has completed. The TFResults of the run should
+	 * be closed when the values have been obtained.
+	 *
+	 * @param preparedRun
+	 *            The PreparedRun
+	 * @param inputValues
+	 *            The input values, in the order of the input keys of the PreparedRun
+	 * @return A future that completes with the results of the run
+	 */
+	public CompletableFuture<TFResults> submit(PreparedRun preparedRun, Object... inputValues) {
+		CompletableFuture<TFResults> future = new CompletableFuture<TFResults>();
+		QueuedRun task = new QueuedRun(future, preparedRun, inputValues);
+		try {
+			pool.execute(task);
+		} catch (RejectedExecutionException e) {
+			future.completeExceptionally(e);
+			return future;
+		}
+		future.whenComplete((results, t) -> {
+			if (future.isCancelled()) {
+				pool.remove(task);
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * A submitted run, which completes its future with the results of the PreparedRun.
+	 */
+	static final class QueuedRun implements Runnable {
+		final CompletableFuture<TFResults> future;
+		final PreparedRun preparedRun;
+		final Object[] inputValues;
+
+		QueuedRun(CompletableFuture<TFResults> future, PreparedRun preparedRun, Object[] inputValues) {
+			this.future = future;
+			this.preparedRun = preparedRun;
+			this.inputValues = inputValues;
+		}
+
+		@Override
+		public void run() {
+			if (future.isDone()) {
+				return;
+			}
+			try {
+				TFResults results = preparedRun.run(inputValues);
+				if (!future.complete(results)) {
+					results.close();
+				}
+			} catch (Throwable t) {
+				future.completeExceptionally(t);
+			}
+		}
+	}
+
+	/**
+	 * Obtain the number of submitted runs that have not started.
+	 *
+	 * @return The number of queued runs
+	 */
+	public int queued() {
+		return pool.getQueue().size();
+	}
+
+	/**
+	 * Obtain the number of runs in progress.
+	 *
+	 * @return The number of active runs
+	 */
+	public int active() {
+		return pool.getActiveCount();
+	}
+
+	/**
+	 * Obtain the behavior of a submission when the queue is full.
+	 *
+	 * @return The Saturation policy
+	 */
+	public Saturation saturation() {
+		return saturation;
+	}
+
+	/**
+	 * Stop accepting submissions, cancel the runs that have not started, and wait for the runs in progress to finish.
+	 */
+	@Override
+	public void close() {
+		pool.shutdown();
+		List<Runnable> queued = new ArrayList<Runnable>();
+		pool.getQueue().drainTo(queued);
+		if (!queued.isEmpty()) {
+			log.debug("Cancelled " + queued.size() + " queued runs");
+		}
+		for (Runnable r : queued) {
+			((QueuedRun) r).future.cancel(false);
+		}
+		try {
+			pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,151 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.batch;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.codait.stf4j.TFResults;
+import org.tensorflow.Tensor;
+
+/**
+ * A request submitted to a TFBatcher, which is also the Future through which the caller obtains its results.
+ *
+ */
+class BatchRequest implements Future<TFResults> {
+
+	static final int QUEUED = 0;
+	static final int RUNNING = 1;
+	static final int DONE = 2;
+	static final int CANCELLED = 3;
+
+	/**
+	 * The input Tensors, in the order of the TFBatcher input keys.
+	 */
+	final Tensor<?>[] inputs;
+	/**
+	 * Whether each input Tensor was created by the TFBatcher (and is therefore closed by it).
+	 */
+	final boolean[] owned;
+	/**
+	 * Number of rows (dimension 0 size) of the inputs.
+	 */
+	final int rows;
+	/**
+	 * Request state.
+	 */
+	final AtomicInteger state = new AtomicInteger(QUEUED);
+	/**
+	 * Released once the request is done or cancelled.
+	 */
+	final CountDownLatch done = new CountDownLatch(1);
+
+	TFResults results;
+	Throwable failure;
+
+	BatchRequest(Tensor<?>[] inputs, boolean[] owned, int rows) {
+		this.inputs = inputs;
+		this.owned = owned;
+		this.rows = rows;
+	}
+
+	/**
+	 * Mark the request as running if it has not been cancelled.
+	 *
+	 * @return true if the request should be executed, false if it was cancelled
+	 */
+	boolean start() {
+		return state.compareAndSet(QUEUED, RUNNING);
+	}
+
+	void complete(TFResults results) {
+		this.results = results;
+		state.set(DONE);
+		done.countDown();
+	}
+
+	void fail(Throwable failure) {
+		this.failure = failure;
+		state.set(DONE);
+		done.countDown();
+	}
+
+	/**
+	 * Close the input Tensors that were created by the TFBatcher.
+	 */
+	void closeInputs() {
+		for (int i = 0; i < inputs.length; i++) {
+			if (owned[i]) {
+				inputs[i].close();
+			}
+		}
+	}
+
+	/**
+	 * Cancel the request if it has not started executing. A request that is part of a running batch cannot be
+	 * cancelled.
+	 */
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		if (state.compareAndSet(QUEUED, CANCELLED)) {
+			closeInputs();
+			done.countDown();
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public boolean isCancelled() {
+		return state.get() == CANCELLED;
+	}
+
+	@Override
+	public boolean isDone() {
+		return done.getCount() == 0;
+	}
+
+	@Override
+	public TFResults get() throws InterruptedException, ExecutionException {
+		done.await();
+		return report();
+	}
+
+	@Override
+	public TFResults get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException,
+			TimeoutException {
+		if (!done.await(timeout, unit)) {
+			throw new TimeoutException();
+		}
+		return report();
+	}
+
+	private TFResults report() throws ExecutionException {
+		if (state.get() == CANCELLED) {
+			throw new CancellationException();
+		}
+		if (failure != null) {
+			throw new ExecutionException(failure);
+		}
+		return results;
+	}
+}
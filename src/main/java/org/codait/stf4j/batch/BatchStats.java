@@ -0,0 +1,210 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.batch;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Statistics of a TFBatcher: counts of requests, rows, and batches, a histogram of batch sizes (in rows), and a
+ * histogram of the request queue depth observed when each batch was formed. Queue depths are counted in power-of-two
+ * buckets, where bucket 0 counts a depth of 0, bucket 1 counts a depth of 1, bucket 2 counts depths 2 to 3, bucket 3
+ * counts depths 4 to 7, and so on.
+ *
+ */
+public class BatchStats {
+
+	/**
+	 * Number of queue depth histogram buckets.
+	 */
+	static final int QUEUE_DEPTH_BUCKETS = 32;
+
+	/**
+	 * Batch size histogram. Index i counts batches of i rows. The last index also counts larger batches.
+	 */
+	final AtomicLongArray batchSizes;
+	/**
+	 * Queue depth histogram with power-of-two buckets.
+	 */
+	final AtomicLongArray queueDepths = new AtomicLongArray(QUEUE_DEPTH_BUCKETS);
+	/**
+	 * Number of batches executed.
+	 */
+	final AtomicLong batches = new AtomicLong();
+	/**
+	 * Number of requests executed.
+	 */
+	final AtomicLong requests = new AtomicLong();
+	/**
+	 * Number of rows executed.
+	 */
+	final AtomicLong rows = new AtomicLong();
+	/**
+	 * Number of batches that failed.
+	 */
+	final AtomicLong failedBatches = new AtomicLong();
+
+	/**
+	 * Create BatchStats for a maximum batch size.
+	 *
+	 * @param maxBatchSize
+	 *            The maximum number of rows in a batch
+	 */
+	BatchStats(int maxBatchSize) {
+		batchSizes = new AtomicLongArray(maxBatchSize + 1);
+	}
+
+	/**
+	 * Record an executed batch.
+	 *
+	 * @param numRequests
+	 *            Number of requests in the batch
+	 * @param numRows
+	 *            Number of rows in the batch
+	 * @param queueDepth
+	 *            Depth of the request queue when the batch was formed
+	 */
+	void recordBatch(int numRequests, int numRows, int queueDepth) {
+		batches.incrementAndGet();
+		requests.addAndGet(numRequests);
+		rows.addAndGet(numRows);
+		batchSizes.incrementAndGet(Math.min(numRows, batchSizes.length() - 1));
+		int bucket = queueDepth == 0 ? 0 : 32 - Integer.numberOfLeadingZeros(queueDepth);
+		queueDepths.incrementAndGet(Math.min(bucket, QUEUE_DEPTH_BUCKETS - 1));
+	}
+
+	/**
+	 * Obtain the number of batches executed.
+	 *
+	 * @return The number of batches
+	 */
+	public long batches() {
+		return batches.get();
+	}
+
+	/**
+	 * Obtain the number of requests executed.
+	 *
+	 * @return The number of requests
+	 */
+	public long requests() {
+		return requests.get();
+	}
+
+	/**
+	 * Obtain the number of rows executed.
+	 *
+	 * @return The number of rows
+	 */
+	public long rows() {
+		return rows.get();
+	}
+
+	/**
+	 * Obtain the number of batches that failed.
+	 *
+	 * @return The number of failed batches
+	 */
+	public long failedBatches() {
+		return failedBatches.get();
+	}
+
+	/**
+	 * Obtain the mean batch size in rows.
+	 *
+	 * @return The mean batch size, or 0 if no batches have been executed
+	 */
+	public double meanBatchSize() {
+		long b = batches.get();
+		return b == 0 ? 0 : (double) rows.get() / b;
+	}
+
+	/**
+	 * Obtain the batch size histogram. Index i is the number of batches of i rows. The last index also includes
+	 * batches larger than the maximum batch size (single requests with more rows than the maximum).
+	 *
+	 * @return The batch size histogram
+	 */
+	public long[] batchSizeHistogram() {
+		return toArray(batchSizes);
+	}
+
+	/**
+	 * Obtain the queue depth histogram. Index 0 counts a depth of 0, and index i (for i greater than 0) counts depths
+	 * from 2^(i-1) to 2^i - 1.
+	 *
+	 * @return The queue depth histogram
+	 */
+	public long[] queueDepthHistogram() {
+		return toArray(queueDepths);
+	}
+
+	private static long[] toArray(AtomicLongArray a) {
+		long[] l = new long[a.length()];
+		for (int i = 0; i < l.length; i++) {
+			l[i] = a.get(i);
+		}
+		return l;
+	}
+
+	/**
+	 * Display the statistics, including the non-empty histogram buckets.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("Batches: ");
+		sb.append(batches());
+		sb.append(", Requests: ");
+		sb.append(requests());
+		sb.append(", Rows: ");
+		sb.append(rows());
+		sb.append(", Failed batches: ");
+		sb.append(failedBatches());
+		sb.append(String.format(", Mean batch size: %.2f", meanBatchSize()));
+		sb.append("\nBatch sizes:\n");
+		long[] sizes = batchSizeHistogram();
+		for (int i = 0; i < sizes.length; i++) {
+			if (sizes[i] > 0) {
+				sb.append("  ");
+				sb.append(i);
+				sb.append(i == sizes.length - 1 ? "+" : "");
+				sb.append(": ");
+				sb.append(sizes[i]);
+				sb.append("\n");
+			}
+		}
+		sb.append("Queue depths:\n");
+		long[] depths = queueDepthHistogram();
+		for (int i = 0; i < depths.length; i++) {
+			if (depths[i] > 0) {
+				sb.append("  ");
+				if (i <= 1) {
+					sb.append(i);
+				} else {
+					sb.append(1L << (i - 1));
+					sb.append("-");
+					sb.append((1L << i) - 1);
+				}
+				sb.append(": ");
+				sb.append(depths[i]);
+				sb.append("\n");
+			}
+		}
+		return sb.toString();
+	}
+}
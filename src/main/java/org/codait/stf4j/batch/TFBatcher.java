@@ -0,0 +1,496 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.batch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.codait.stf4j.PreparedRun;
+import org.codait.stf4j.TFException;
+import org.codait.stf4j.TFModel;
+import org.codait.stf4j.TFResults;
+import org.codait.stf4j.util.InputConverter;
+import org.codait.stf4j.util.TFUtil;
+import org.tensorflow.Tensor;
+import org.tensorflow.framework.TensorInfo;
+
+/**
+ * Dynamic micro-batching of requests to a TFModel SignatureDef. Concurrent requests are collected on a queue. A worker
+ * thread concatenates the inputs of queued requests along dimension 0, until the maximum batch size (in rows) is
+ * reached or the maximum wait time since the first request of the batch has elapsed, and then executes the model once
+ * for the whole batch. The outputs are split along dimension 0 and each request receives a TFResults object containing
+ * its rows, through the Future returned by submit().
+ *
+ * Every input value of a request must have a batch dimension (dimension 0), such as a {@code float[1][784]} value for
+ * a single example. Outputs whose dimension 0 does not match the batch size are copied in full to each request. Each
+ * TFBatcher has its own SignatureDef, maximum batch size, and maximum wait time, so different signatures of the same
+ * model can be batched with different settings.
+ *
+ * <pre>
+ * TFBatcher batcher = new TFBatcher(model, "predict", new String[] { "inputs" }, new String[] { "probabilities" }, 64,
+ * 		2, TimeUnit.MILLISECONDS);
+ * Future&lt;TFResults&gt; future = batcher.submit((Object) new String[] { csvLine });
+ * float[] probabilities = (float[]) ((float[][]) future.get().getFloatArrayMultidimensional("probabilities"))[0];
+ * </pre>
+ */
+public class TFBatcher implements AutoCloseable {
+
+	/**
+	 * Logger for TFBatcher
+	 */
+	protected static Logger log = LogManager.getLogger(TFBatcher.class);
+
+	/**
+	 * The TensorFlow model.
+	 */
+	final TFModel model;
+	/**
+	 * Execution plan for the SignatureDef inputs and outputs.
+	 */
+	final PreparedRun preparedRun;
+	/**
+	 * The input keys.
+	 */
+	final String[] inputKeys;
+	/**
+	 * The TensorInfo objects corresponding to the input keys.
+	 */
+	final TensorInfo[] inputTensorInfos;
+	/**
+	 * The converters last used for the values of each input, which are shared by the submitting threads.
+	 */
+	final AtomicReferenceArray<InputConverter> inputConverters;
+	/**
+	 * The output keys.
+	 */
+	final String[] outputKeys;
+	/**
+	 * Mapping of output keys to names.
+	 */
+	final Map<String, String> outputKeyToName = new LinkedHashMap<String, String>();
+	/**
+	 * Maximum number of rows in a batch.
+	 */
+	final int maxBatchSize;
+	/**
+	 * Maximum time to wait for additional requests after the first request of a batch, in nanoseconds.
+	 */
+	final long maxWaitNanos;
+	/**
+	 * Queue of submitted requests.
+	 */
+	final LinkedBlockingQueue<BatchRequest> queue = new LinkedBlockingQueue<BatchRequest>();
+	/**
+	 * Batching statistics.
+	 */
+	final BatchStats stats;
+	/**
+	 * Thread that forms and executes batches.
+	 */
+	final Thread worker;
+	/**
+	 * Whether the batcher has been closed.
+	 */
+	volatile boolean closed = false;
+	/**
+	 * Lock that orders the enqueueing of requests by submit() with the closing of the batcher by close(), so that a
+	 * request is either rejected or enqueued before the worker thread drains the queue.
+	 */
+	final Object submitLock = new Object();
+	/**
+	 * A request that did not fit into the previous batch. Only accessed by the worker thread.
+	 */
+	BatchRequest carryOver;
+
+	/**
+	 * Create a TFBatcher for a SignatureDef of a TFModel and start its worker thread.
+	 *
+	 * @param model
+	 *            The TensorFlow model
+	 * @param signatureDefKey
+	 *            The SignatureDef key
+	 * @param inputKeys
+	 *            The input keys, in the order that input values are passed to submit()
+	 * @param outputKeys
+	 *            The output keys
+	 * @param maxBatchSize
+	 *            Maximum number of rows (dimension 0 size) in a batch
+	 * @param maxWait
+	 *            Maximum time to wait for additional requests after the first request of a batch
+	 * @param unit
+	 *            Time unit of maxWait
+	 */
+	public TFBatcher(TFModel model, String signatureDefKey, String[] inputKeys, String[] outputKeys, int maxBatchSize,
+			long maxWait, TimeUnit unit) {
+		if (maxBatchSize < 1) {
+			throw new TFException("Maximum batch size must be at least 1");
+		}
+		if (maxWait < 0) {
+			throw new TFException("Maximum wait time cannot be negative");
+		}
+		this.model = model;
+		this.preparedRun = model.prepare(signatureDefKey, inputKeys, outputKeys);
+		this.inputKeys = preparedRun.inputKeys();
+		this.outputKeys = preparedRun.outputKeys();
+		this.maxBatchSize = maxBatchSize;
+		this.maxWaitNanos = unit.toNanos(maxWait);
+		this.stats = new BatchStats(maxBatchSize);
+
+		inputTensorInfos = new TensorInfo[this.inputKeys.length];
+		inputConverters = new AtomicReferenceArray<InputConverter>(this.inputKeys.length);
+		for (int i = 0; i < this.inputKeys.length; i++) {
+			inputTensorInfos[i] = TFUtil.inputKeyToTensorInfo(signatureDefKey, this.inputKeys[i], model);
+		}
+		for (String outputKey : this.outputKeys) {
+			outputKeyToName.put(outputKey, TFUtil.outputKeyToName(signatureDefKey, outputKey, model));
+		}
+
+		worker = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				processBatches();
+			}
+		}, "TFBatcher-" + signatureDefKey);
+		worker.setDaemon(true);
+		worker.start();
+		log.debug("Started TFBatcher for SignatureDef '" + signatureDefKey + "' with maximum batch size "
+				+ maxBatchSize + " and maximum wait " + maxWait + " " + unit);
+	}
+
+	/**
+	 * Submit a request. The input values are converted to Tensors on the calling thread and are given in the same
+	 * order as the input keys of this TFBatcher. Each input value must have a batch dimension (dimension 0), and all
+	 * input values of a request must have the same dimension 0 size.
+	 *
+	 * @param inputValues
+	 *            The input values
+	 * @return A Future that provides the results for the rows of this request
+	 */
+	public Future<TFResults> submit(Object... inputValues) {
+		if (closed) {
+			throw new TFException("TFBatcher has been closed");
+		}
+		if (inputValues == null || inputValues.length != inputKeys.length) {
+			throw new TFException("Expected " + inputKeys.length + " input values for input keys "
+					+ Arrays.toString(inputKeys));
+		}
+		Tensor<?>[] inputs = new Tensor<?>[inputValues.length];
+		boolean[] owned = new boolean[inputValues.length];
+		try {
+			long rows = -1;
+			for (int i = 0; i < inputValues.length; i++) {
+				Object value = inputValues[i];
+				if (value == null) {
+					throw new TFException("Input value for input key '" + inputKeys[i] + "' cannot be null");
+				}
+				if (value instanceof Tensor) {
+					inputs[i] = (Tensor<?>) value;
+				} else {
+					TensorInfo ti = inputTensorInfos[i];
+					InputConverter cached = inputConverters.get(i);
+					InputConverter converter = InputConverter.forValue(cached, inputKeys[i], ti.getName(), value, ti);
+					if (converter != cached) {
+						inputConverters.set(i, converter);
+					}
+					inputs[i] = converter.convert(value);
+					owned[i] = true;
+				}
+				long[] shape = inputs[i].shape();
+				if (shape.length == 0) {
+					throw new TFException("Input value for input key '" + inputKeys[i]
+							+ "' needs a batch dimension (dimension 0) to be batched");
+				}
+				if (rows >= 0 && shape[0] != rows) {
+					throw new TFException("All input values of a request need the same dimension 0 size");
+				}
+				rows = shape[0];
+			}
+			BatchRequest request = new BatchRequest(inputs, owned, (int) rows);
+			synchronized (submitLock) {
+				if (closed) {
+					throw new TFException("TFBatcher has been closed");
+				}
+				queue.add(request);
+			}
+			return request;
+		} catch (RuntimeException e) {
+			for (int i = 0; i < inputs.length; i++) {
+				if (owned[i]) {
+					inputs[i].close();
+				}
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Obtain the number of requests waiting to be batched.
+	 *
+	 * @return The queue depth
+	 */
+	public int queueDepth() {
+		return queue.size();
+	}
+
+	/**
+	 * Obtain the batching statistics.
+	 *
+	 * @return The batching statistics
+	 */
+	public BatchStats stats() {
+		return stats;
+	}
+
+	/**
+	 * Stop accepting requests. Requests that have already been submitted are executed before the worker thread stops.
+	 */
+	@Override
+	public void close() {
+		synchronized (submitLock) {
+			closed = true;
+		}
+		worker.interrupt();
+		try {
+			worker.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Form and execute batches until the batcher is closed and all submitted requests have been processed.
+	 */
+	void processBatches() {
+		while (true) {
+			List<BatchRequest> batch;
+			if (closed) {
+				batch = drainBatch();
+			} else {
+				try {
+					batch = nextBatch();
+				} catch (InterruptedException e) {
+					// interrupted by close() while waiting for the first request, so no request has been started
+					continue;
+				}
+			}
+			if (batch == null) {
+				return;
+			}
+			if (!batch.isEmpty()) {
+				executeBatch(batch);
+			}
+		}
+	}
+
+	/**
+	 * Wait for the first request of a batch and collect additional requests until the batch is full or the maximum
+	 * wait time has elapsed. If the worker thread is interrupted by close() while collecting, the requests collected so
+	 * far are returned, since they have already been started and can no longer be cancelled.
+	 *
+	 * @return The requests of the batch
+	 * @throws InterruptedException
+	 *             if the worker thread is interrupted by close() while waiting for the first request
+	 */
+	List<BatchRequest> nextBatch() throws InterruptedException {
+		BatchRequest first = carryOver != null ? carryOver : queue.take();
+		carryOver = null;
+		int queueDepth = queue.size();
+		List<BatchRequest> batch = new ArrayList<BatchRequest>();
+		if (!first.start()) {
+			return batch;
+		}
+		batch.add(first);
+		int rows = first.rows;
+		long deadline = System.nanoTime() + maxWaitNanos;
+		while (rows < maxBatchSize) {
+			long remaining = deadline - System.nanoTime();
+			BatchRequest next;
+			try {
+				next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+			} catch (InterruptedException e) {
+				break;
+			}
+			if (next == null) {
+				break;
+			}
+			if (rows + next.rows > maxBatchSize || !compatible(first, next)) {
+				carryOver = next;
+				break;
+			}
+			if (next.start()) {
+				batch.add(next);
+				rows += next.rows;
+			}
+		}
+		stats.recordBatch(batch.size(), rows, queueDepth);
+		return batch;
+	}
+
+	/**
+	 * Collect a batch without waiting, after the batcher has been closed.
+	 *
+	 * @return The requests of the batch, or null if no requests remain
+	 */
+	List<BatchRequest> drainBatch() {
+		BatchRequest first = carryOver != null ? carryOver : queue.poll();
+		carryOver = null;
+		if (first == null) {
+			return null;
+		}
+		List<BatchRequest> batch = new ArrayList<BatchRequest>();
+		if (first.start()) {
+			batch.add(first);
+			stats.recordBatch(1, first.rows, queue.size());
+		}
+		return batch;
+	}
+
+	/**
+	 * Return true if the inputs of two requests can be concatenated, which requires the same data types and the same
+	 * sizes for all dimensions other than dimension 0.
+	 */
+	static boolean compatible(BatchRequest a, BatchRequest b) {
+		for (int i = 0; i < a.inputs.length; i++) {
+			Tensor<?> ta = a.inputs[i];
+			Tensor<?> tb = b.inputs[i];
+			long[] sa = ta.shape();
+			long[] sb = tb.shape();
+			if (ta.dataType() != tb.dataType() || sa.length != sb.length) {
+				return false;
+			}
+			for (int d = 1; d < sa.length; d++) {
+				if (sa[d] != sb[d]) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Execute a batch of requests and complete their Futures.
+	 *
+	 * @param batch
+	 *            The requests of the batch
+	 */
+	void executeBatch(List<BatchRequest> batch) {
+		List<Tensor<?>> batchInputs = new ArrayList<Tensor<?>>();
+		TFResults batchResults = null;
+		try {
+			int[] rowCounts = new int[batch.size()];
+			int totalRows = 0;
+			for (int r = 0; r < batch.size(); r++) {
+				rowCounts[r] = batch.get(r).rows;
+				totalRows += rowCounts[r];
+			}
+			Object[] inputValues = new Object[inputKeys.length];
+			for (int i = 0; i < inputKeys.length; i++) {
+				if (batch.size() == 1) {
+					inputValues[i] = batch.get(0).inputs[i];
+				} else {
+					List<Tensor<?>> parts = new ArrayList<Tensor<?>>(batch.size());
+					for (BatchRequest request : batch) {
+						parts.add(request.inputs[i]);
+					}
+					Tensor<?> concatenated = TFUtil.concatenate(parts);
+					batchInputs.add(concatenated);
+					inputValues[i] = concatenated;
+				}
+			}
+			batchResults = preparedRun.run(inputValues);
+
+			List<Map<String, Object>> requestOutputs = new ArrayList<Map<String, Object>>(batch.size());
+			for (int r = 0; r < batch.size(); r++) {
+				requestOutputs.add(new LinkedHashMap<String, Object>());
+			}
+			for (String outputKey : outputKeys) {
+				String outputName = outputKeyToName.get(outputKey);
+				Tensor<?> output = batchResults.getTensor(outputKey);
+				long[] shape = output.shape();
+				if (batch.size() == 1) {
+					// sole request, so hand over the output as is
+					requestOutputs.get(0).put(outputName, output);
+				} else if (shape.length > 0 && shape[0] == totalRows) {
+					List<Tensor<?>> parts = TFUtil.split(output, rowCounts);
+					for (int r = 0; r < batch.size(); r++) {
+						requestOutputs.get(r).put(outputName, parts.get(r));
+					}
+				} else {
+					for (int r = 0; r < batch.size(); r++) {
+						Tensor<?> copy = TFUtil.copy(output);
+						requestOutputs.get(r).put(outputName, copy);
+					}
+				}
+			}
+			for (int r = 0; r < batch.size(); r++) {
+				batch.get(r).complete(new TFResults(model, preparedRun.signatureDefKey(), outputKeyToName,
+						requestOutputs.get(r)));
+			}
+		} catch (Throwable t) {
+			stats.failedBatches.incrementAndGet();
+			log.error("Problem executing batch of " + batch.size() + " requests: " + t.getMessage());
+			for (BatchRequest request : batch) {
+				request.fail(t);
+			}
+		} finally {
+			for (BatchRequest request : batch) {
+				request.closeInputs();
+			}
+			for (Tensor<?> tensor : batchInputs) {
+				tensor.close();
+			}
+			if (batchResults != null && batch.size() > 1) {
+				for (String outputKey : outputKeys) {
+					batchResults.getTensor(outputKey).close();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Display information about the batcher, such as the SignatureDef key, the batching settings, and the batching
+	 * statistics.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("SignatureDef Key: ");
+		sb.append(preparedRun.signatureDefKey() == null ? "None" : preparedRun.signatureDefKey());
+		sb.append("\nInput keys: ");
+		sb.append(Arrays.toString(inputKeys));
+		sb.append("\nOutput keys: ");
+		sb.append(Arrays.toString(outputKeys));
+		sb.append("\nMaximum batch size: ");
+		sb.append(maxBatchSize);
+		sb.append("\nMaximum wait (ms): ");
+		sb.append(TimeUnit.NANOSECONDS.toMillis(maxWaitNanos));
+		sb.append("\nQueue depth: ");
+		sb.append(queueDepth());
+		sb.append("\n");
+		sb.append(stats);
+		return sb.toString();
+	}
+}
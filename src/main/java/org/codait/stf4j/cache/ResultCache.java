@@ -0,0 +1,612 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+package org.codait.stf4j.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.codait.stf4j.TFException;
+import org.codait.stf4j.util.TFUtil;
+import org.tensorflow.DataType;
+import org.tensorflow.Tensor;
+
+/**
+ * Opt-in cache of the outputs of deterministic SignatureDefs, so that a repeated request is answered without running
+ * the Session. A ResultCache is registered with the TFModel cache() method, and is then used by the TFModel run()
+ * method and by the PreparedRuns of the model.
+ *
+ * <pre>
+ * ResultCache cache = new ResultCache(64 * 1024 * 1024, 10, TimeUnit.MINUTES, ResultCache.Policy.TINY_LFU);
+ * model.cache(cache, "predict");
+ * ...
+ * System.out.println(cache);
+ * </pre>
+ *
+ * Entries are keyed by the model, the SignatureDef key, the output names, and a SHA-256 hash of the names, data types,
+ * shapes, and values of the input Tensors. The output values are copied to the Java heap, so cached entries hold no
+ * native memory, and a hit creates new output Tensors from the cached values. The total size of the cached values is
+ * bounded by a byte budget. When the budget is exceeded, the least recently used entries are evicted. With the
+ * TINY_LFU policy, a new entry is only admitted if it has been requested more often than the entries that it would
+ * evict, according to a compact frequency sketch of recent requests. Entries can also expire after a time-to-live.
+ *
+ * A ResultCache can be shared by several models and by concurrent runs.
+ *
+ */
+public class ResultCache {
+
+	/**
+	 * Logger for ResultCache
+	 */
+	protected static Logger log = LogManager.getLogger(ResultCache.class);
+
+	/**
+	 * Eviction policy.
+	 */
+	public enum Policy {
+		/**
+		 * Admit every entry and evict the least recently used entries.
+		 */
+		LRU,
+		/**
+		 * Evict the least recently used entries, but admit an entry only if it is requested more often than the
+		 * entries that it would evict.
+		 */
+		TINY_LFU
+	}
+
+	/**
+	 * Approximate size of an entry in addition to its values, in bytes.
+	 */
+	static final int ENTRY_OVERHEAD = 128;
+
+	/**
+	 * SHA-256 digest per thread.
+	 */
+	private static final ThreadLocal<MessageDigest> DIGEST = new ThreadLocal<MessageDigest>() {
+		@Override
+		protected MessageDigest initialValue() {
+			try {
+				return MessageDigest.getInstance("SHA-256");
+			} catch (NoSuchAlgorithmException e) {
+				throw new TFException("SHA-256 is not available", e);
+			}
+		}
+	};
+
+	/**
+	 * Maximum total size of the entries in bytes.
+	 */
+	final long maxBytes;
+	/**
+	 * Time-to-live of an entry in nanoseconds, or 0 if entries do not expire.
+	 */
+	final long ttlNanos;
+	/**
+	 * The eviction policy.
+	 */
+	final Policy policy;
+	/**
+	 * Entries in access order (least recently used first).
+	 */
+	final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+	/**
+	 * Frequency sketch of the requested keys, or null for the LRU policy.
+	 */
+	final FrequencySketch sketch;
+	/**
+	 * Total size of the entries in bytes.
+	 */
+	long bytes;
+	long hits;
+	long misses;
+	long evictions;
+	long expirations;
+	long rejections;
+
+	/**
+	 * Create an LRU ResultCache whose entries do not expire.
+	 *
+	 * @param maxBytes
+	 *            Maximum total size of the cached values in bytes
+	 */
+	public ResultCache(long maxBytes) {
+		this(maxBytes, 0, TimeUnit.NANOSECONDS, Policy.LRU);
+	}
+
+	/**
+	 * Create a ResultCache.
+	 *
+	 * @param maxBytes
+	 *            Maximum total size of the cached values in bytes
+	 * @param ttl
+	 *            Time-to-live of an entry (0 if entries do not expire)
+	 * @param unit
+	 *            Time unit of the time-to-live
+	 * @param policy
+	 *            The eviction policy
+	 */
+	public ResultCache(long maxBytes, long ttl, TimeUnit unit, Policy policy) {
+		if (maxBytes < 1) {
+			throw new TFException("Maximum bytes must be at least 1: " + maxBytes);
+		}
+		if (ttl < 0) {
+			throw new TFException("Time-to-live cannot be negative: " + ttl);
+		}
+		this.maxBytes = maxBytes;
+		this.ttlNanos = unit.toNanos(ttl);
+		this.policy = policy;
+		this.sketch = policy == Policy.TINY_LFU ? new FrequencySketch(maxBytes / 1024) : null;
+	}
+
+	/**
+	 * Create the key of a run. The key includes a hash of the input values, so every input must be a Tensor.
+	 *
+	 * @param model
+	 *            The model, which is compared by identity
+	 * @param signatureDefKey
+	 *            The SignatureDef key (can be null)
+	 * @param inputs
+	 *            Mapping of input names to Tensors
+	 * @param outputNames
+	 *            The output names, in the order of the outputs
+	 * @return The key, or null if the inputs cannot be hashed
+	 */
+	public Key key(Object model, String signatureDefKey, Map<String, ?> inputs, Collection<String> outputNames) {
+		List<String> inputNames = new ArrayList<String>(inputs.keySet());
+		Collections.sort(inputNames);
+		MessageDigest digest = DIGEST.get();
+		digest.reset();
+		ByteBuffer header = ByteBuffer.allocate(8);
+		try {
+			for (String inputName : inputNames) {
+				Tensor<?> tensor = (Tensor<?>) inputs.get(inputName);
+				digest.update(inputName.getBytes(StandardCharsets.UTF_8));
+				long[] shape = tensor.shape();
+				header.clear();
+				header.putInt(tensor.dataType().ordinal()).putInt(shape.length).flip();
+				digest.update(header);
+				for (long size : shape) {
+					header.clear();
+					header.putLong(size).flip();
+					digest.update(header);
+				}
+				digest.update(TFUtil.tensorBuffer(tensor));
+			}
+		} catch (TFException e) {
+			log.debug("Inputs cannot be cached: " + e.getMessage());
+			return null;
+		}
+		return new Key(model, signatureDefKey, new ArrayList<String>(outputNames), digest.digest());
+	}
+
+	/**
+	 * Obtain the cached outputs of a run.
+	 *
+	 * @param key
+	 *            The key of the run
+	 * @return New output Tensors, in the order of the output names of the key, or null if the outputs are not cached
+	 */
+	public List<Tensor<?>> get(Key key) {
+		Entry entry;
+		synchronized (this) {
+			if (sketch != null) {
+				sketch.increment(key.hashCode());
+			}
+			entry = entries.get(key);
+			if (entry != null && ttlNanos > 0 && System.nanoTime() - entry.created > ttlNanos) {
+				entries.remove(key);
+				bytes -= entry.bytes;
+				expirations++;
+				entry = null;
+			}
+			if (entry == null) {
+				misses++;
+				return null;
+			}
+			hits++;
+		}
+		List<Tensor<?>> tensors = new ArrayList<Tensor<?>>(entry.values.length);
+		for (int i = 0; i < entry.values.length; i++) {
+			tensors.add(Tensor.create(TFUtil.tensorType(entry.dataTypes[i]), entry.shapes[i],
+					entry.values[i].duplicate()));
+		}
+		return tensors;
+	}
+
+	/**
+	 * Cache the outputs of a run. The output values are copied, so the Tensors remain the responsibility of the
+	 * caller. Outputs that are larger than the byte budget are not cached.
+	 *
+	 * @param key
+	 *            The key of the run
+	 * @param outputs
+	 *            The output Tensors, in the order of the output names of the key
+	 */
+	public void put(Key key, List<Tensor<?>> outputs) {
+		Entry entry;
+		try {
+			entry = new Entry(outputs);
+		} catch (TFException e) {
+			log.debug("Outputs cannot be cached: " + e.getMessage());
+			return;
+		}
+		if (entry.bytes > maxBytes) {
+			return;
+		}
+		synchronized (this) {
+			Entry previous = entries.remove(key);
+			if (previous != null) {
+				bytes -= previous.bytes;
+			}
+			if (!makeRoom(key, entry.bytes)) {
+				rejections++;
+				return;
+			}
+			entries.put(key, entry);
+			bytes += entry.bytes;
+		}
+	}
+
+	/**
+	 * Evict the least recently used entries until an entry of the specified size fits in the byte budget. With the
+	 * TINY_LFU policy, no entry is evicted if one of the entries that would be evicted has been requested at least as
+	 * often as the new entry.
+	 *
+	 * @param key
+	 *            The key of the new entry
+	 * @param size
+	 *            The size of the new entry in bytes
+	 * @return true if the new entry can be added
+	 */
+	boolean makeRoom(Key key, long size) {
+		long excess = bytes + size - maxBytes;
+		if (excess <= 0) {
+			return true;
+		}
+		if (sketch != null) {
+			int frequency = sketch.frequency(key.hashCode());
+			long freed = 0;
+			for (Map.Entry<Key, Entry> victim : entries.entrySet()) {
+				if (freed >= excess) {
+					break;
+				}
+				if (!expired(victim.getValue()) && sketch.frequency(victim.getKey().hashCode()) >= frequency) {
+					return false;
+				}
+				freed += victim.getValue().bytes;
+			}
+		}
+		Iterator<Entry> it = entries.values().iterator();
+		while (bytes + size > maxBytes && it.hasNext()) {
+			Entry victim = it.next();
+			it.remove();
+			bytes -= victim.bytes;
+			if (expired(victim)) {
+				expirations++;
+			} else {
+				evictions++;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Check whether an entry has expired.
+	 *
+	 * @param entry
+	 *            The entry
+	 * @return true if the entry has expired
+	 */
+	boolean expired(Entry entry) {
+		return ttlNanos > 0 && System.nanoTime() - entry.created > ttlNanos;
+	}
+
+	/**
+	 * Remove the entries of a model, such as when the model is closed.
+	 *
+	 * @param model
+	 *            The model
+	 */
+	public synchronized void invalidate(Object model) {
+		Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<Key, Entry> entry = it.next();
+			if (entry.getKey().model == model) {
+				it.remove();
+				bytes -= entry.getValue().bytes;
+			}
+		}
+	}
+
+	/**
+	 * Remove all entries. The statistics are not reset.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		bytes = 0;
+	}
+
+	/**
+	 * Reset the hit, miss, eviction, expiration, and rejection counts.
+	 */
+	public synchronized void resetStats() {
+		hits = 0;
+		misses = 0;
+		evictions = 0;
+		expirations = 0;
+		rejections = 0;
+	}
+
+	/**
+	 * Obtain the number of requests that were answered from the cache.
+	 *
+	 * @return The number of hits
+	 */
+	public synchronized long hits() {
+		return hits;
+	}
+
+	/**
+	 * Obtain the number of requests that were not answered from the cache.
+	 *
+	 * @return The number of misses
+	 */
+	public synchronized long misses() {
+		return misses;
+	}
+
+	/**
+	 * Obtain the fraction of requests that were answered from the cache.
+	 *
+	 * @return The hit rate, or 0 if there have been no requests
+	 */
+	public synchronized double hitRate() {
+		long requests = hits + misses;
+		return requests == 0 ? 0.0 : (double) hits / requests;
+	}
+
+	/**
+	 * Obtain the number of entries that were evicted to stay within the byte budget.
+	 *
+	 * @return The number of evictions
+	 */
+	public synchronized long evictions() {
+		return evictions;
+	}
+
+	/**
+	 * Obtain the number of entries that were removed because their time-to-live had passed.
+	 *
+	 * @return The number of expirations
+	 */
+	public synchronized long expirations() {
+		return expirations;
+	}
+
+	/**
+	 * Obtain the number of entries that were not admitted by the TINY_LFU policy.
+	 *
+	 * @return The number of rejections
+	 */
+	public synchronized long rejections() {
+		return rejections;
+	}
+
+	/**
+	 * Obtain the number of cached entries.
+	 *
+	 * @return The number of entries
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Obtain the total size of the cached entries.
+	 *
+	 * @return The size in bytes
+	 */
+	public synchronized long bytes() {
+		return bytes;
+	}
+
+	/**
+	 * Obtain the byte budget.
+	 *
+	 * @return The maximum total size of the cached entries in bytes
+	 */
+	public long maxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * Obtain the eviction policy.
+	 *
+	 * @return The policy
+	 */
+	public Policy policy() {
+		return policy;
+	}
+
+	/**
+	 * Display the cache size and statistics.
+	 */
+	@Override
+	public synchronized String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("ResultCache (");
+		sb.append(policy);
+		sb.append(") entries: ");
+		sb.append(entries.size());
+		sb.append(", bytes: ");
+		sb.append(bytes);
+		sb.append(" of ");
+		sb.append(maxBytes);
+		sb.append(", hits: ");
+		sb.append(hits);
+		sb.append(", misses: ");
+		sb.append(misses);
+		sb.append(", hit rate: ");
+		sb.append(String.format("%.3f", hitRate()));
+		sb.append(", evictions: ");
+		sb.append(evictions);
+		sb.append(", expirations: ");
+		sb.append(expirations);
+		sb.append(", rejections: ");
+		sb.append(rejections);
+		return sb.toString();
+	}
+
+	/**
+	 * Key of a cached run.
+	 */
+	public static final class Key {
+		final Object model;
+		final String signatureDefKey;
+		final List<String> outputNames;
+		final byte[] inputHash;
+		final int hashCode;
+
+		Key(Object model, String signatureDefKey, List<String> outputNames, byte[] inputHash) {
+			this.model = model;
+			this.signatureDefKey = signatureDefKey;
+			this.outputNames = outputNames;
+			this.inputHash = inputHash;
+			int h = System.identityHashCode(model);
+			h = 31 * h + (signatureDefKey == null ? 0 : signatureDefKey.hashCode());
+			h = 31 * h + outputNames.hashCode();
+			h = 31 * h + Arrays.hashCode(inputHash);
+			this.hashCode = h;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return model == other.model && hashCode == other.hashCode
+					&& (signatureDefKey == null ? other.signatureDefKey == null
+							: signatureDefKey.equals(other.signatureDefKey))
+					&& outputNames.equals(other.outputNames) && Arrays.equals(inputHash, other.inputHash);
+		}
+	}
+
+	/**
+	 * Cached output values, copied from the output Tensors to heap buffers.
+	 */
+	static final class Entry {
+		final DataType[] dataTypes;
+		final long[][] shapes;
+		final ByteBuffer[] values;
+		final long bytes;
+		final long created = System.nanoTime();
+
+		Entry(List<Tensor<?>> outputs) {
+			dataTypes = new DataType[outputs.size()];
+			shapes = new long[outputs.size()][];
+			values = new ByteBuffer[outputs.size()];
+			long size = ENTRY_OVERHEAD;
+			for (int i = 0; i < values.length; i++) {
+				Tensor<?> tensor = outputs.get(i);
+				dataTypes[i] = tensor.dataType();
+				shapes[i] = tensor.shape();
+				ByteBuffer value = ByteBuffer.allocate(tensor.numBytes());
+				value.put(TFUtil.tensorBuffer(tensor));
+				value.flip();
+				values[i] = value;
+				size += value.capacity() + 8L * shapes[i].length;
+			}
+			bytes = size;
+		}
+	}
+
+	/**
+	 * Count-min sketch of 4-bit counters that estimates how often keys have been requested. All counters are halved
+	 * periodically, so the estimates favor recent requests.
+	 */
+	static final class FrequencySketch {
+		final long[] table;
+		final int mask;
+		final int sampleSize;
+		int additions;
+
+		FrequencySketch(long expectedEntries) {
+			int size = 64;
+			while (size < expectedEntries / 4 && size < (1 << 24)) {
+				size <<= 1;
+			}
+			table = new long[size];
+			mask = size - 1;
+			sampleSize = 10 * size * 4;
+		}
+
+		/**
+		 * Obtain the position of a counter of a key as a table index (upper bits) and a counter offset (lower 4 bits).
+		 */
+		int counter(int hash, int i) {
+			long h = (hash + 0x9E3779B97F4A7C15L * (i + 1)) * 0xBF58476D1CE4E5B9L;
+			h ^= h >>> 31;
+			return (((int) h & mask) << 4) | ((int) (h >>> 40) & 15);
+		}
+
+		int frequency(int hash) {
+			int frequency = 15;
+			for (int i = 0; i < 4; i++) {
+				int c = counter(hash, i);
+				frequency = Math.min(frequency, (int) (table[c >>> 4] >>> ((c & 15) << 2)) & 15);
+			}
+			return frequency;
+		}
+
+		void increment(int hash) {
+			for (int i = 0; i < 4; i++) {
+				int c = counter(hash, i);
+				int shift = (c & 15) << 2;
+				if (((table[c >>> 4] >>> shift) & 15) < 15) {
+					table[c >>> 4] += 1L << shift;
+				}
+			}
+			if (++additions >= sampleSize) {
+				for (int i = 0; i < table.length; i++) {
+					table[i] = (table[i] >>> 1) & 0x7777777777777777L;
+				}
+				additions /= 2;
+			}
+		}
+	}
+}
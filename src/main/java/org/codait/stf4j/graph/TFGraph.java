@@ -30,16 +30,23 @@ import java.util.Set;
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
 import org.codait.stf4j.TFException;
+import org.codait.stf4j.metrics.MetricsListener;
+import org.codait.stf4j.metrics.StepProfiler;
+import org.codait.stf4j.util.TFUtil;
 import org.tensorflow.Graph;
 import org.tensorflow.Session;
 import org.tensorflow.Session.Runner;
 import org.tensorflow.Tensor;
+import org.tensorflow.framework.ConfigProto;
 
 /**
  * Encapsulation of a TensorFlow graph.
  *
+ * A TFGraph creates a single Session the first time the graph is run, and this Session is shared by all subsequent
+ * runs until the TFGraph is closed. The output Tensors of a run are closed when the next run starts.
+ *
  */
-public class TFGraph {
+public class TFGraph implements AutoCloseable {
 
 	/**
 	 * Logger for TFGraph
@@ -63,6 +70,26 @@ public class TFGraph {
 	 * The results obtained from executing the graph.
 	 */
 	TFGraphResults results;
+	/**
+	 * Session to the graph, created when first needed.
+	 */
+	Session session;
+	/**
+	 * Session configuration, or null for the default configuration.
+	 */
+	ConfigProto config;
+	/**
+	 * Whether the graph was created by this TFGraph (and is therefore closed by it).
+	 */
+	boolean ownsGraph;
+	/**
+	 * Listener notified of Session.run times, or null if metrics are disabled.
+	 */
+	MetricsListener metricsListener;
+	/**
+	 * Profiler that traces sampled runs, or null if profiling is disabled.
+	 */
+	StepProfiler profiler;
 
 	/**
 	 * Load TensorFlow graph located at graphPath.
@@ -71,6 +98,19 @@ public class TFGraph {
 	 *            path to TensorFlow graph
 	 */
 	public TFGraph(String graphPath) {
+		this(graphPath, null);
+	}
+
+	/**
+	 * Load TensorFlow graph located at graphPath. The Session to the graph is created with the specified
+	 * configuration, such as thread pool sizes and GPU memory options.
+	 * 
+	 * @param graphPath
+	 *            path to TensorFlow graph
+	 * @param config
+	 *            Session configuration, or null for the default configuration
+	 */
+	public TFGraph(String graphPath, ConfigProto config) {
 		if (graphPath == null) {
 			throw new TFException("Graph path is null");
 		}
@@ -88,7 +128,14 @@ public class TFGraph {
 			throw new TFException("Exception reading graph from: " + graphPath, e);
 		}
 		graph = new Graph();
-		graph.importGraphDef(graphDef);
+		ownsGraph = true;
+		try {
+			graph.importGraphDef(graphDef);
+		} catch (IllegalArgumentException e) {
+			graph.close();
+			throw new TFException("Exception importing graph from: " + graphPath, e);
+		}
+		this.config = config;
 
 		long end = new Date().getTime();
 		log.debug("Graph loaded from '" + graphPath + "' in " + (end - start) + " milliseconds");
@@ -101,13 +148,28 @@ public class TFGraph {
 	 *            TensorFlow graph object
 	 */
 	public TFGraph(Graph graph) {
+		this(graph, null);
+	}
+
+	/**
+	 * Create TFGraph object based on TensorFlow Graph object. The Session to the graph is created with the specified
+	 * configuration. The Graph object is not closed when the TFGraph is closed.
+	 * 
+	 * @param graph
+	 *            TensorFlow graph object
+	 * @param config
+	 *            Session configuration, or null for the default configuration
+	 */
+	public TFGraph(Graph graph, ConfigProto config) {
 		this.graph = graph;
+		this.config = config;
 	}
 
 	/**
-	 * Clear the TFGraph and the results.
+	 * Clear the TFGraph and the results. The output Tensors are closed.
 	 */
 	public void clear() {
+		closeOutputs();
 		inputNameToValue.clear();
 		outputNameToValue.clear();
 		if (results != null) {
@@ -115,6 +177,36 @@ public class TFGraph {
 		}
 	}
 
+	/**
+	 * Clear the TFGraph and close the Session. If the graph was loaded by this TFGraph, the graph is also closed.
+	 */
+	@Override
+	public void close() {
+		clear();
+		synchronized (this) {
+			if (session != null) {
+				session.close();
+				session = null;
+			}
+		}
+		if (ownsGraph) {
+			graph.close();
+		}
+	}
+
+	/**
+	 * Close the output Tensors of the previous run.
+	 */
+	protected void closeOutputs() {
+		for (Entry<String, Object> entry : outputNameToValue.entrySet()) {
+			Object value = entry.getValue();
+			if (value instanceof Tensor) {
+				((Tensor<?>) value).close();
+			}
+			entry.setValue(null);
+		}
+	}
+
 	/**
 	 * Add an input to the graph by specifying an input name and the corresponding value.
 	 * 
@@ -150,7 +242,10 @@ public class TFGraph {
 	 */
 	public TFGraph output(String outputName) {
 		log.debug("Register output name '" + outputName + "'");
-		outputNameToValue.put(outputName, null);
+		Object previous = outputNameToValue.put(outputName, null);
+		if (previous instanceof Tensor) {
+			((Tensor<?>) previous).close();
+		}
 		return this;
 	}
 
@@ -175,6 +270,8 @@ public class TFGraph {
 	 * @return The results as a TFGraphResults object.
 	 */
 	public TFGraphResults run() {
+		closeOutputs();
+
 		log.debug("Running graph");
 		Runner runner = runner();
 		Set<Entry<String, Object>> iEntries = inputNameToValue.entrySet();
@@ -187,12 +284,23 @@ public class TFGraph {
 		for (String oName : oNames) {
 			runner.fetch(oName);
 		}
+		MetricsListener listener = metricsListener;
+		long start = listener == null ? 0 : System.nanoTime();
+		StepProfiler stepProfiler = profiler;
 		List<Tensor<?>> res = null;
 		try {
-			res = runner.run();
+			res = (stepProfiler == null) ? runner.run() : stepProfiler.run(runner, graph);
 		} catch (Exception e) {
 			throw new TFException("Problem executing TensorFlow graph: " + e.getMessage(), e);
 		}
+		if (listener != null) {
+			long nanos = System.nanoTime() - start;
+			long bytesFed = 0;
+			for (Object value : inputNameToValue.values()) {
+				bytesFed += ((Tensor<?>) value).numBytes();
+			}
+			listener.sessionRun(null, nanos, bytesFed, TFUtil.numBytes(res));
+		}
 		int i = 0;
 		for (String oName : oNames) {
 			outputNameToValue.put(oName, res.get(i++));
@@ -202,6 +310,50 @@ public class TFGraph {
 		return results;
 	}
 
+	/**
+	 * Register a MetricsListener that is notified of the time taken to execute Session.run. Since a graph has no
+	 * SignatureDefs, the SignatureDef key reported to the listener is null.
+	 * 
+	 * @param listener
+	 *            The MetricsListener, or null to disable metrics
+	 * @return {@code this} TFGraph object to allow chaining of methods
+	 */
+	public TFGraph metrics(MetricsListener listener) {
+		this.metricsListener = listener;
+		return this;
+	}
+
+	/**
+	 * Obtain the registered MetricsListener.
+	 * 
+	 * @return The MetricsListener, or null if metrics are disabled
+	 */
+	public MetricsListener metrics() {
+		return metricsListener;
+	}
+
+	/**
+	 * Register a StepProfiler that runs sampled Session runs with FULL_TRACE RunOptions and accumulates the execution
+	 * time and memory of each operation from the returned RunMetadata step stats.
+	 * 
+	 * @param profiler
+	 *            The StepProfiler, or null to disable profiling
+	 * @return {@code this} TFGraph object to allow chaining of methods
+	 */
+	public TFGraph profile(StepProfiler profiler) {
+		this.profiler = profiler;
+		return this;
+	}
+
+	/**
+	 * Obtain the registered StepProfiler.
+	 * 
+	 * @return The StepProfiler, or null if profiling is disabled
+	 */
+	public StepProfiler profile() {
+		return profiler;
+	}
+
 	/**
 	 * Obtain a Runner to run the TensorFlow graph operations and retrieve the results.
 	 * 
@@ -212,12 +364,17 @@ public class TFGraph {
 	}
 
 	/**
-	 * Obtain a Session to allow computations to be performed on the graph.
+	 * Obtain the Session to allow computations to be performed on the graph. The Session is created on the first call
+	 * and reused afterwards. It is closed when the TFGraph is closed.
 	 * 
 	 * @return A Session to the graph.
 	 */
-	public Session session() {
-		return new Session(graph);
+	public synchronized Session session() {
+		if (session == null) {
+			log.debug("Creating graph session");
+			session = (config == null) ? new Session(graph) : new Session(graph, config.toByteArray());
+		}
+		return session;
 	}
 
 	/**
@@ -26,7 +26,7 @@ import org.tensorflow.Tensor;
  * individual result is obtained by specifying the output name.
  *
  */
-public class TFGraphResults {
+public class TFGraphResults implements AutoCloseable {
 
 	/**
 	 * The TensorFlow graph.
@@ -76,6 +76,18 @@ public class TFGraphResults {
 		return (Tensor<T>) outputNameToValue.get(outputName);
 	}
 
+	/**
+	 * Close the output Tensors, releasing their native memory.
+	 */
+	@Override
+	public void close() {
+		for (Object value : outputNameToValue.values()) {
+			if (value instanceof Tensor) {
+				((Tensor<?>) value).close();
+			}
+		}
+	}
+
 	/**
 	 * Display the output results. This includes the output names and information about the tensors such as the tensor
 	 * types and shapes. This information is very useful in a REPL environment.
@@ -0,0 +1,176 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of durations in nanoseconds. Values below 8 are counted exactly. Larger values are counted in 8
+ * sub-buckets per power of two, so percentiles are reported with a relative error of at most 12.5%. The memory use is
+ * fixed (488 counters), regardless of the number of recorded values.
+ *
+ */
+public class LatencyHistogram {
+
+	/**
+	 * Number of sub-buckets per power of two, as a power of two.
+	 */
+	static final int SUB_BUCKET_BITS = 3;
+	/**
+	 * Number of sub-buckets per power of two.
+	 */
+	static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	/**
+	 * Number of buckets, covering all non-negative long values.
+	 */
+	static final int BUCKETS = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+	/**
+	 * Bucket counts.
+	 */
+	final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	/**
+	 * Number of recorded values.
+	 */
+	final AtomicLong count = new AtomicLong();
+	/**
+	 * Sum of recorded values.
+	 */
+	final AtomicLong total = new AtomicLong();
+	/**
+	 * Maximum recorded value.
+	 */
+	final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Record a duration.
+	 *
+	 * @param nanos
+	 *            The duration in nanoseconds (negative values are recorded as 0)
+	 */
+	public void record(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		}
+		counts.incrementAndGet(bucket(nanos));
+		count.incrementAndGet();
+		total.addAndGet(nanos);
+		long m = max.get();
+		while (nanos > m && !max.compareAndSet(m, nanos)) {
+			m = max.get();
+		}
+	}
+
+	/**
+	 * Obtain the bucket index of a non-negative value.
+	 */
+	static int bucket(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	/**
+	 * Obtain the largest value counted by a bucket.
+	 */
+	static long bucketUpperBound(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int shift = bucket / SUB_BUCKETS - 1;
+		long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+		return lower + (1L << shift) - 1;
+	}
+
+	/**
+	 * Obtain the number of recorded values.
+	 *
+	 * @return The number of recorded values
+	 */
+	public long count() {
+		return count.get();
+	}
+
+	/**
+	 * Obtain the sum of the recorded values.
+	 *
+	 * @return The total in nanoseconds
+	 */
+	public long totalNanos() {
+		return total.get();
+	}
+
+	/**
+	 * Obtain the mean of the recorded values.
+	 *
+	 * @return The mean in nanoseconds, or 0 if no values have been recorded
+	 */
+	public double meanNanos() {
+		long c = count.get();
+		return c == 0 ? 0 : (double) total.get() / c;
+	}
+
+	/**
+	 * Obtain the maximum recorded value.
+	 *
+	 * @return The maximum in nanoseconds
+	 */
+	public long maxNanos() {
+		return max.get();
+	}
+
+	/**
+	 * Obtain a percentile of the recorded values. The upper bound of the bucket containing the percentile is returned,
+	 * limited to the maximum recorded value.
+	 *
+	 * @param percentile
+	 *            The percentile, from 0 to 100
+	 * @return The percentile in nanoseconds, or 0 if no values have been recorded
+	 */
+	public long percentileNanos(double percentile) {
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("Percentile must be between 0 and 100");
+		}
+		long c = count.get();
+		if (c == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * c));
+		long cumulative = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			cumulative += counts.get(i);
+			if (cumulative >= rank) {
+				return Math.min(bucketUpperBound(i), max.get());
+			}
+		}
+		return max.get();
+	}
+
+	/**
+	 * Display the count, mean, 50th, 90th, and 99th percentiles, and maximum in microseconds.
+	 */
+	@Override
+	public String toString() {
+		return String.format("count: %d, mean: %.1f us, p50: %.1f us, p90: %.1f us, p99: %.1f us, max: %.1f us",
+				count(), meanNanos() / 1000.0, percentileNanos(50) / 1000.0, percentileNanos(90) / 1000.0,
+				percentileNanos(99) / 1000.0, maxNanos() / 1000.0);
+	}
+}
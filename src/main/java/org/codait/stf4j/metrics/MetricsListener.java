@@ -0,0 +1,69 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.metrics;
+
+/**
+ * Receives timing and size measurements of model executions. A MetricsListener is registered with the TFModel (or
+ * TFGraph) metrics() method. When no listener is registered, no measurements are taken.
+ *
+ * A listener can be called concurrently from multiple threads (for example, by PreparedRun objects of the same model),
+ * so implementations need to be thread-safe and should return quickly. The signatureDefKey parameter is null if no
+ * SignatureDef key was specified.
+ *
+ */
+public interface MetricsListener {
+
+	/**
+	 * Called after an input value has been converted to a Tensor.
+	 *
+	 * @param signatureDefKey
+	 *            The SignatureDef key
+	 * @param inputKey
+	 *            The input key
+	 * @param nanos
+	 *            The conversion time in nanoseconds
+	 * @param bytes
+	 *            The size of the Tensor in bytes
+	 */
+	public void inputConverted(String signatureDefKey, String inputKey, long nanos, long bytes);
+
+	/**
+	 * Called after the Session has been run.
+	 *
+	 * @param signatureDefKey
+	 *            The SignatureDef key
+	 * @param nanos
+	 *            The execution time of Session.run in nanoseconds
+	 * @param bytesFed
+	 *            Total size of the input Tensors in bytes
+	 * @param bytesFetched
+	 *            Total size of the output Tensors in bytes
+	 */
+	public void sessionRun(String signatureDefKey, long nanos, long bytesFed, long bytesFetched);
+
+	/**
+	 * Called after an output value has been obtained from a TFResults object by one of its get methods.
+	 *
+	 * @param signatureDefKey
+	 *            The SignatureDef key
+	 * @param outputKey
+	 *            The output key
+	 * @param nanos
+	 *            The extraction time in nanoseconds
+	 */
+	public void outputExtracted(String signatureDefKey, String outputKey, long nanos);
+}
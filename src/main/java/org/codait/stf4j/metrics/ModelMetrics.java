@@ -0,0 +1,120 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * MetricsListener that aggregates the measurements per SignatureDef key into SignatureMetrics objects. Measurements
+ * without a SignatureDef key (such as TFGraph runs) are recorded under {@link #NO_SIGNATURE}.
+ *
+ * <pre>
+ * ModelMetrics metrics = new ModelMetrics();
+ * model.metrics(metrics);
+ * ...
+ * System.out.println(metrics);
+ * long p99 = metrics.signature("serving_default").run().percentileNanos(99);
+ * </pre>
+ */
+public class ModelMetrics implements MetricsListener {
+
+	/**
+	 * Key of the measurements that have no SignatureDef key.
+	 */
+	public static final String NO_SIGNATURE = "<none>";
+
+	/**
+	 * Mapping of SignatureDef keys to measurements.
+	 */
+	final ConcurrentMap<String, SignatureMetrics> signatures = new ConcurrentHashMap<String, SignatureMetrics>();
+
+	/**
+	 * Obtain the measurements of a SignatureDef, creating them if necessary.
+	 *
+	 * @param signatureDefKey
+	 *            The SignatureDef key, or null for measurements without a SignatureDef key
+	 * @return The measurements of the SignatureDef
+	 */
+	public SignatureMetrics signature(String signatureDefKey) {
+		String key = signatureDefKey == null ? NO_SIGNATURE : signatureDefKey;
+		SignatureMetrics metrics = signatures.get(key);
+		if (metrics == null) {
+			SignatureMetrics created = new SignatureMetrics();
+			metrics = signatures.putIfAbsent(key, created);
+			if (metrics == null) {
+				metrics = created;
+			}
+		}
+		return metrics;
+	}
+
+	/**
+	 * Obtain the measurements of all SignatureDefs, sorted by SignatureDef key.
+	 *
+	 * @return Unmodifiable mapping of SignatureDef keys to measurements
+	 */
+	public Map<String, SignatureMetrics> signatures() {
+		return Collections.unmodifiableMap(new TreeMap<String, SignatureMetrics>(signatures));
+	}
+
+	/**
+	 * Discard all measurements.
+	 */
+	public void reset() {
+		signatures.clear();
+	}
+
+	@Override
+	public void inputConverted(String signatureDefKey, String inputKey, long nanos, long bytes) {
+		SignatureMetrics metrics = signature(signatureDefKey);
+		metrics.conversion.record(nanos);
+		metrics.bytesConverted.addAndGet(bytes);
+	}
+
+	@Override
+	public void sessionRun(String signatureDefKey, long nanos, long bytesFed, long bytesFetched) {
+		SignatureMetrics metrics = signature(signatureDefKey);
+		metrics.run.record(nanos);
+		metrics.bytesFed.addAndGet(bytesFed);
+		metrics.bytesFetched.addAndGet(bytesFetched);
+	}
+
+	@Override
+	public void outputExtracted(String signatureDefKey, String outputKey, long nanos) {
+		signature(signatureDefKey).extraction.record(nanos);
+	}
+
+	/**
+	 * Display the measurements of each SignatureDef.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (Entry<String, SignatureMetrics> entry : signatures().entrySet()) {
+			sb.append("SignatureDef: ");
+			sb.append(entry.getKey());
+			sb.append("\n");
+			sb.append(entry.getValue());
+		}
+		return sb.toString();
+	}
+}
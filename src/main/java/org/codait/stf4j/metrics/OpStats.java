@@ -0,0 +1,212 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.metrics;
+
+/**
+ * Execution time and memory of a single graph operation, accumulated over the traced runs of a StepProfiler. The
+ * values are taken from the NodeExecStats of the RunMetadata step stats.
+ *
+ */
+public class OpStats {
+
+	/**
+	 * The operation (node) name.
+	 */
+	final String name;
+	/**
+	 * The operation type, such as MatMul or Conv2D, or null if unknown.
+	 */
+	final String type;
+	/**
+	 * The device that the operation was executed on.
+	 */
+	final String device;
+	/**
+	 * Number of traced executions.
+	 */
+	long count;
+	/**
+	 * Sum of the execution times in microseconds.
+	 */
+	long totalMicros;
+	/**
+	 * Maximum execution time in microseconds.
+	 */
+	long maxMicros;
+	/**
+	 * Sum of the bytes allocated by the operation.
+	 */
+	long totalBytes;
+	/**
+	 * Maximum peak memory of the operation in bytes.
+	 */
+	long peakBytes;
+
+	/**
+	 * Create an empty OpStats object.
+	 *
+	 * @param name
+	 *            The operation name
+	 * @param type
+	 *            The operation type, or null if unknown
+	 * @param device
+	 *            The device
+	 */
+	OpStats(String name, String type, String device) {
+		this.name = name;
+		this.type = type;
+		this.device = device;
+	}
+
+	/**
+	 * Create a copy of an OpStats object.
+	 *
+	 * @param other
+	 *            The OpStats object to copy
+	 */
+	OpStats(OpStats other) {
+		this(other.name, other.type, other.device);
+		count = other.count;
+		totalMicros = other.totalMicros;
+		maxMicros = other.maxMicros;
+		totalBytes = other.totalBytes;
+		peakBytes = other.peakBytes;
+	}
+
+	/**
+	 * Record a traced execution of the operation.
+	 *
+	 * @param micros
+	 *            The execution time in microseconds
+	 * @param bytes
+	 *            The bytes allocated by the operation
+	 * @param peak
+	 *            The peak memory of the operation in bytes
+	 */
+	void record(long micros, long bytes, long peak) {
+		count++;
+		totalMicros += micros;
+		maxMicros = Math.max(maxMicros, micros);
+		totalBytes += bytes;
+		peakBytes = Math.max(peakBytes, peak);
+	}
+
+	/**
+	 * Obtain the operation name.
+	 *
+	 * @return The operation name
+	 */
+	public String name() {
+		return name;
+	}
+
+	/**
+	 * Obtain the operation type.
+	 *
+	 * @return The operation type, or null if unknown
+	 */
+	public String type() {
+		return type;
+	}
+
+	/**
+	 * Obtain the device that the operation was executed on.
+	 *
+	 * @return The device name
+	 */
+	public String device() {
+		return device;
+	}
+
+	/**
+	 * Obtain the number of traced executions.
+	 *
+	 * @return The number of executions
+	 */
+	public long count() {
+		return count;
+	}
+
+	/**
+	 * Obtain the sum of the execution times.
+	 *
+	 * @return The total time in microseconds
+	 */
+	public long totalMicros() {
+		return totalMicros;
+	}
+
+	/**
+	 * Obtain the maximum execution time.
+	 *
+	 * @return The maximum time in microseconds
+	 */
+	public long maxMicros() {
+		return maxMicros;
+	}
+
+	/**
+	 * Obtain the mean execution time.
+	 *
+	 * @return The mean time in microseconds, or 0 if the operation has not been traced
+	 */
+	public double meanMicros() {
+		return count == 0 ? 0.0 : (double) totalMicros / count;
+	}
+
+	/**
+	 * Obtain the sum of the bytes allocated by the operation.
+	 *
+	 * @return The number of bytes
+	 */
+	public long totalBytes() {
+		return totalBytes;
+	}
+
+	/**
+	 * Obtain the maximum peak memory of the operation.
+	 *
+	 * @return The number of bytes
+	 */
+	public long peakBytes() {
+		return peakBytes;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(name);
+		if (type != null) {
+			sb.append(" (");
+			sb.append(type);
+			sb.append(")");
+		}
+		sb.append(" count: ");
+		sb.append(count);
+		sb.append(", total: ");
+		sb.append(totalMicros);
+		sb.append("us, mean: ");
+		sb.append(String.format("%.1f", meanMicros()));
+		sb.append("us, max: ");
+		sb.append(maxMicros);
+		sb.append("us, bytes: ");
+		sb.append(totalBytes);
+		sb.append(", peak bytes: ");
+		sb.append(peakBytes);
+		return sb.toString();
+	}
+}
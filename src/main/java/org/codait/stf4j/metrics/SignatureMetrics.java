@@ -0,0 +1,125 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measurements of a single SignatureDef: latency histograms of input conversion, Session.run, and output extraction,
+ * and the number of bytes fed to and fetched from the Session.
+ *
+ */
+public class SignatureMetrics {
+
+	/**
+	 * Input conversion times (one value per converted input).
+	 */
+	final LatencyHistogram conversion = new LatencyHistogram();
+	/**
+	 * Session.run times.
+	 */
+	final LatencyHistogram run = new LatencyHistogram();
+	/**
+	 * Output extraction times (one value per get method call).
+	 */
+	final LatencyHistogram extraction = new LatencyHistogram();
+	/**
+	 * Total size of the converted inputs in bytes.
+	 */
+	final AtomicLong bytesConverted = new AtomicLong();
+	/**
+	 * Total size of the Tensors fed to the Session in bytes.
+	 */
+	final AtomicLong bytesFed = new AtomicLong();
+	/**
+	 * Total size of the Tensors fetched from the Session in bytes.
+	 */
+	final AtomicLong bytesFetched = new AtomicLong();
+
+	/**
+	 * Obtain the input conversion times.
+	 *
+	 * @return The input conversion latency histogram
+	 */
+	public LatencyHistogram conversion() {
+		return conversion;
+	}
+
+	/**
+	 * Obtain the Session.run times.
+	 *
+	 * @return The Session.run latency histogram
+	 */
+	public LatencyHistogram run() {
+		return run;
+	}
+
+	/**
+	 * Obtain the output extraction times.
+	 *
+	 * @return The output extraction latency histogram
+	 */
+	public LatencyHistogram extraction() {
+		return extraction;
+	}
+
+	/**
+	 * Obtain the total size of the converted inputs.
+	 *
+	 * @return The number of bytes
+	 */
+	public long bytesConverted() {
+		return bytesConverted.get();
+	}
+
+	/**
+	 * Obtain the total size of the Tensors fed to the Session.
+	 *
+	 * @return The number of bytes
+	 */
+	public long bytesFed() {
+		return bytesFed.get();
+	}
+
+	/**
+	 * Obtain the total size of the Tensors fetched from the Session.
+	 *
+	 * @return The number of bytes
+	 */
+	public long bytesFetched() {
+		return bytesFetched.get();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("  conversion: ");
+		sb.append(conversion);
+		sb.append(", bytes: ");
+		sb.append(bytesConverted());
+		sb.append("\n  run: ");
+		sb.append(run);
+		sb.append(", bytes fed: ");
+		sb.append(bytesFed());
+		sb.append(", bytes fetched: ");
+		sb.append(bytesFetched());
+		sb.append("\n  extraction: ");
+		sb.append(extraction);
+		sb.append("\n");
+		return sb.toString();
+	}
+}
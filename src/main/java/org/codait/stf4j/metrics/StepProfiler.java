@@ -0,0 +1,329 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.codait.stf4j.TFException;
+import org.tensorflow.Graph;
+import org.tensorflow.Operation;
+import org.tensorflow.Session;
+import org.tensorflow.Session.Runner;
+import org.tensorflow.Tensor;
+import org.tensorflow.framework.AllocatorMemoryUsed;
+import org.tensorflow.framework.DeviceStepStats;
+import org.tensorflow.framework.NodeExecStats;
+import org.tensorflow.framework.RunMetadata;
+import org.tensorflow.framework.RunOptions;
+import org.tensorflow.framework.RunOptions.TraceLevel;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+
+/**
+ * Opt-in profiler that runs sampled Session runs with FULL_TRACE RunOptions and accumulates the per-operation
+ * execution times and memory reported in the RunMetadata step stats. A StepProfiler is registered with the TFModel (or
+ * TFGraph) profile() method. When no profiler is registered (the default), runs are not traced.
+ *
+ * <pre>
+ * StepProfiler profiler = new StepProfiler(100); // trace every 100th run
+ * model.profile(profiler);
+ * ...
+ * for (OpStats op : profiler.ops(10)) {
+ * 	System.out.println(op);
+ * }
+ * </pre>
+ *
+ * Tracing adds overhead to the traced runs, so a sample interval greater than 1 is recommended in production. A
+ * StepProfiler can be shared by concurrent runs.
+ *
+ */
+public class StepProfiler {
+
+	/**
+	 * Logger for StepProfiler
+	 */
+	protected static Logger log = LogManager.getLogger(StepProfiler.class);
+
+	/**
+	 * Serialized RunOptions that enable full tracing.
+	 */
+	static final byte[] FULL_TRACE_OPTIONS = RunOptions.newBuilder().setTraceLevel(TraceLevel.FULL_TRACE).build()
+			.toByteArray();
+
+	/**
+	 * Every sampleInterval-th run is traced.
+	 */
+	final int sampleInterval;
+	/**
+	 * Number of runs seen by the profiler, traced or not.
+	 */
+	final AtomicLong runs = new AtomicLong();
+	/**
+	 * Number of traced runs.
+	 */
+	long tracedRuns;
+	/**
+	 * Mapping of operation names to accumulated stats.
+	 */
+	final Map<String, OpStats> ops = new HashMap<String, OpStats>();
+	/**
+	 * RunMetadata of the most recent traced run.
+	 */
+	volatile RunMetadata lastRunMetadata;
+
+	/**
+	 * Create a StepProfiler that traces every run.
+	 */
+	public StepProfiler() {
+		this(1);
+	}
+
+	/**
+	 * Create a StepProfiler that traces every sampleInterval-th run, starting with the first run.
+	 *
+	 * @param sampleInterval
+	 *            The sample interval (1 traces every run)
+	 */
+	public StepProfiler(int sampleInterval) {
+		if (sampleInterval < 1) {
+			throw new TFException("Sample interval must be at least 1: " + sampleInterval);
+		}
+		this.sampleInterval = sampleInterval;
+	}
+
+	/**
+	 * Determine whether the next run is traced, and count the run.
+	 *
+	 * @return true if the run is to be traced
+	 */
+	protected boolean sample() {
+		return runs.getAndIncrement() % sampleInterval == 0;
+	}
+
+	/**
+	 * Run a Runner whose feeds and fetches have been specified. If the run is sampled, it is run with FULL_TRACE
+	 * RunOptions and its step stats are recorded. Exceptions thrown by the Runner are not caught.
+	 *
+	 * @param runner
+	 *            The Runner
+	 * @param graph
+	 *            The graph being run, used to look up operation types (can be null)
+	 * @return The output Tensors
+	 */
+	public List<Tensor<?>> run(Runner runner, Graph graph) {
+		if (!sample()) {
+			return runner.run();
+		}
+		Session.Run run = runner.setOptions(FULL_TRACE_OPTIONS).runAndFetchMetadata();
+		if (run.metadata != null) {
+			try {
+				record(RunMetadata.parseFrom(run.metadata), graph);
+			} catch (InvalidProtocolBufferException e) {
+				log.warn("Could not parse RunMetadata: " + e.getMessage());
+			}
+		}
+		return run.outputs;
+	}
+
+	/**
+	 * Record the step stats of a traced run. Statistics of GPU streams and memory copies, which repeat the operations
+	 * of the GPU device, are skipped.
+	 *
+	 * @param metadata
+	 *            The RunMetadata of the run
+	 * @param graph
+	 *            The graph, used to look up operation types (can be null)
+	 */
+	public void record(RunMetadata metadata, Graph graph) {
+		lastRunMetadata = metadata;
+		synchronized (ops) {
+			tracedRuns++;
+			for (DeviceStepStats deviceStats : metadata.getStepStats().getDevStatsList()) {
+				String device = deviceStats.getDevice();
+				if (device.contains("/stream:") || device.endsWith("/memcpy")) {
+					continue;
+				}
+				for (NodeExecStats nodeStats : deviceStats.getNodeStatsList()) {
+					String name = nodeStats.getNodeName();
+					OpStats op = ops.get(name);
+					if (op == null) {
+						op = new OpStats(name, opType(nodeStats, graph), device);
+						ops.put(name, op);
+					}
+					long bytes = 0;
+					long peak = 0;
+					for (AllocatorMemoryUsed memory : nodeStats.getMemoryList()) {
+						bytes += memory.getTotalBytes();
+						peak += memory.getPeakBytes();
+					}
+					op.record(nodeStats.getAllEndRelMicros(), bytes, peak);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Obtain the type of an operation from the graph or, if not found, from the timeline label of the step stats,
+	 * which has the form "name = Type(inputs)".
+	 *
+	 * @param nodeStats
+	 *            The step stats of the operation
+	 * @param graph
+	 *            The graph (can be null)
+	 * @return The operation type, or null if unknown
+	 */
+	static String opType(NodeExecStats nodeStats, Graph graph) {
+		if (graph != null) {
+			Operation operation = graph.operation(nodeStats.getNodeName());
+			if (operation != null) {
+				return operation.type();
+			}
+		}
+		String label = nodeStats.getTimelineLabel();
+		int eq = label.indexOf(" = ");
+		if (eq < 0) {
+			return null;
+		}
+		int paren = label.indexOf('(', eq);
+		return label.substring(eq + 3, paren < 0 ? label.length() : paren);
+	}
+
+	/**
+	 * Obtain the accumulated stats of all operations, sorted by total execution time (descending).
+	 *
+	 * @return Copies of the operation stats
+	 */
+	public List<OpStats> ops() {
+		List<OpStats> list = new ArrayList<OpStats>();
+		synchronized (ops) {
+			for (OpStats op : ops.values()) {
+				list.add(new OpStats(op));
+			}
+		}
+		Collections.sort(list, new Comparator<OpStats>() {
+			@Override
+			public int compare(OpStats o1, OpStats o2) {
+				int c = Long.compare(o2.totalMicros, o1.totalMicros);
+				return c != 0 ? c : o1.name.compareTo(o2.name);
+			}
+		});
+		return list;
+	}
+
+	/**
+	 * Obtain the accumulated stats of the most expensive operations, sorted by total execution time (descending).
+	 *
+	 * @param n
+	 *            The maximum number of operations
+	 * @return Copies of the operation stats
+	 */
+	public List<OpStats> ops(int n) {
+		List<OpStats> list = ops();
+		return list.size() <= n ? list : new ArrayList<OpStats>(list.subList(0, n));
+	}
+
+	/**
+	 * Obtain the accumulated stats of an operation.
+	 *
+	 * @param name
+	 *            The operation name
+	 * @return A copy of the operation stats, or null if the operation has not been traced
+	 */
+	public OpStats op(String name) {
+		synchronized (ops) {
+			OpStats op = ops.get(name);
+			return op == null ? null : new OpStats(op);
+		}
+	}
+
+	/**
+	 * Obtain the RunMetadata of the most recent traced run, which contains the complete step stats.
+	 *
+	 * @return The RunMetadata, or null if no run has been traced
+	 */
+	public RunMetadata lastRunMetadata() {
+		return lastRunMetadata;
+	}
+
+	/**
+	 * Obtain the number of runs seen by the profiler, including runs that were not traced.
+	 *
+	 * @return The number of runs
+	 */
+	public long runs() {
+		return runs.get();
+	}
+
+	/**
+	 * Obtain the number of traced runs.
+	 *
+	 * @return The number of traced runs
+	 */
+	public long tracedRuns() {
+		synchronized (ops) {
+			return tracedRuns;
+		}
+	}
+
+	/**
+	 * Obtain the sample interval.
+	 *
+	 * @return Every sampleInterval-th run is traced
+	 */
+	public int sampleInterval() {
+		return sampleInterval;
+	}
+
+	/**
+	 * Discard all recorded stats.
+	 */
+	public void reset() {
+		synchronized (ops) {
+			ops.clear();
+			tracedRuns = 0;
+		}
+		runs.set(0);
+		lastRunMetadata = null;
+	}
+
+	/**
+	 * Display the stats of the operations, sorted by total execution time (descending).
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("Traced runs: ");
+		sb.append(tracedRuns());
+		sb.append(" of ");
+		sb.append(runs());
+		sb.append("\n");
+		for (OpStats op : ops()) {
+			sb.append("  ");
+			sb.append(op);
+			sb.append("\n");
+		}
+		return sb.toString();
+	}
+}
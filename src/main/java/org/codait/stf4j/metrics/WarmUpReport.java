@@ -0,0 +1,151 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Latencies of the warm-up runs of a model, per SignatureDef key. A SignatureDef whose warm-up failed (for example,
+ * because it cannot be run with synthetic inputs) has an error message instead of latencies.
+ *
+ */
+public class WarmUpReport {
+
+	/**
+	 * Mapping of SignatureDef keys to the Session.run times of the warm-up iterations in nanoseconds.
+	 */
+	final Map<String, long[]> runNanos = new LinkedHashMap<String, long[]>();
+	/**
+	 * Mapping of SignatureDef keys to the error messages of failed warm-ups.
+	 */
+	final Map<String, String> errors = new LinkedHashMap<String, String>();
+	/**
+	 * Total warm-up time in nanoseconds, including the creation of synthetic inputs.
+	 */
+	long totalNanos;
+
+	/**
+	 * Record the run times of a SignatureDef.
+	 *
+	 * @param signatureDefKey
+	 *            The SignatureDef key
+	 * @param nanos
+	 *            The run times in nanoseconds
+	 */
+	public void succeeded(String signatureDefKey, long[] nanos) {
+		runNanos.put(signatureDefKey, nanos);
+	}
+
+	/**
+	 * Record a failed warm-up of a SignatureDef.
+	 *
+	 * @param signatureDefKey
+	 *            The SignatureDef key
+	 * @param message
+	 *            The error message
+	 */
+	public void failed(String signatureDefKey, String message) {
+		errors.put(signatureDefKey, message);
+	}
+
+	/**
+	 * Set the total warm-up time.
+	 *
+	 * @param nanos
+	 *            The total time in nanoseconds
+	 */
+	public void totalNanos(long nanos) {
+		totalNanos = nanos;
+	}
+
+	/**
+	 * Obtain the total warm-up time, including the creation of synthetic inputs.
+	 *
+	 * @return The total time in nanoseconds
+	 */
+	public long totalNanos() {
+		return totalNanos;
+	}
+
+	/**
+	 * Obtain the run times of the SignatureDefs that were warmed up.
+	 *
+	 * @return Unmodifiable mapping of SignatureDef keys to run times in nanoseconds (one per iteration)
+	 */
+	public Map<String, long[]> runNanos() {
+		return Collections.unmodifiableMap(runNanos);
+	}
+
+	/**
+	 * Obtain the run times of a SignatureDef.
+	 *
+	 * @param signatureDefKey
+	 *            The SignatureDef key
+	 * @return The run times in nanoseconds (one per iteration), or null if the SignatureDef was not warmed up
+	 */
+	public long[] runNanos(String signatureDefKey) {
+		long[] nanos = runNanos.get(signatureDefKey);
+		return nanos == null ? null : nanos.clone();
+	}
+
+	/**
+	 * Obtain the error messages of the SignatureDefs whose warm-up failed.
+	 *
+	 * @return Unmodifiable mapping of SignatureDef keys to error messages
+	 */
+	public Map<String, String> errors() {
+		return Collections.unmodifiableMap(errors);
+	}
+
+	/**
+	 * Display the first and last run times of each SignatureDef and the errors.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("Warm-up time: ");
+		sb.append(totalNanos / 1000000);
+		sb.append(" ms\n");
+		for (Entry<String, long[]> entry : runNanos.entrySet()) {
+			long[] nanos = entry.getValue();
+			sb.append("  ");
+			sb.append(entry.getKey());
+			sb.append(": ");
+			sb.append(nanos.length);
+			sb.append(" runs");
+			if (nanos.length > 0) {
+				sb.append(", first: ");
+				sb.append(nanos[0] / 1000);
+				sb.append(" us, last: ");
+				sb.append(nanos[nanos.length - 1] / 1000);
+				sb.append(" us");
+			}
+			sb.append("\n");
+		}
+		for (Entry<String, String> entry : errors.entrySet()) {
+			sb.append("  ");
+			sb.append(entry.getKey());
+			sb.append(": failed: ");
+			sb.append(entry.getValue());
+			sb.append("\n");
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,489 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.pipeline;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.codait.stf4j.PreparedRun;
+import org.codait.stf4j.TFException;
+import org.codait.stf4j.TFModel;
+import org.codait.stf4j.TFResults;
+import org.codait.stf4j.util.InputConverter;
+import org.codait.stf4j.util.StringCodec;
+import org.codait.stf4j.util.TFUtil;
+import org.tensorflow.DataType;
+import org.tensorflow.Tensor;
+import org.tensorflow.framework.TensorInfo;
+
+/**
+ * Offline bulk inference over a line-oriented input file. The input file is streamed through three stages that run on
+ * separate threads and are connected by bounded queues:
+ *
+ * <ol>
+ * <li>A converter thread reads batches of lines, parses them with the InputParser, and converts the batch to a
+ * Tensor.</li>
+ * <li>A run thread executes the model on each input Tensor.</li>
+ * <li>The calling thread writes the values of the selected output keys, one line per input line, in input order.</li>
+ * </ol>
+ *
+ * Input conversion of the next batches therefore overlaps with Session.run() of the current batch. At most
+ * queueCapacity batches wait between two stages, so memory use is bounded independently of the input file size.
+ *
+ * <pre>
+ * InferencePipeline pipeline = new InferencePipeline(model, "predict", "inputs", "class_ids", "probabilities")
+ * 		.batchSize(1000);
+ * PipelineStats stats = pipeline.run("higgs.csv", "predictions.csv");
+ * </pre>
+ *
+ * Each output line contains the values of the output keys for the corresponding input line, separated by the
+ * delimiter. An output with several values per row (such as probabilities) contributes all of its values.
+ */
+public class InferencePipeline {
+
+	/**
+	 * Logger for InferencePipeline
+	 */
+	protected static Logger log = LogManager.getLogger(InferencePipeline.class);
+
+	/**
+	 * Marker that signals the end of a queue.
+	 */
+	private static final Batch END = new Batch(0, null);
+	/**
+	 * Milliseconds a stage waits on a queue before checking whether another stage has failed.
+	 */
+	static final long POLL_MILLIS = 50;
+
+	/**
+	 * The TensorFlow model.
+	 */
+	final TFModel model;
+	/**
+	 * Execution plan for the input key and output keys.
+	 */
+	final PreparedRun preparedRun;
+	/**
+	 * The input key.
+	 */
+	final String inputKey;
+	/**
+	 * The TensorInfo object corresponding to the input key.
+	 */
+	final TensorInfo inputTensorInfo;
+	/**
+	 * The output keys that are written.
+	 */
+	final String[] outputKeys;
+	/**
+	 * Maximum number of lines per batch.
+	 */
+	int batchSize = 256;
+	/**
+	 * Maximum number of batches waiting between two stages.
+	 */
+	int queueCapacity = 2;
+	/**
+	 * Converts a batch of lines to the input value.
+	 */
+	InputParser parser = InputParser.LINES;
+	/**
+	 * Separator of the values of an output line.
+	 */
+	String delimiter = ",";
+
+	/**
+	 * Create an InferencePipeline for an input key and output keys of a SignatureDef.
+	 *
+	 * @param model
+	 *            The TensorFlow model
+	 * @param signatureDefKey
+	 *            The SignatureDef key
+	 * @param inputKey
+	 *            The input key that receives the parsed lines
+	 * @param outputKeys
+	 *            The output keys that are written
+	 */
+	public InferencePipeline(TFModel model, String signatureDefKey, String inputKey, String... outputKeys) {
+		this.model = model;
+		this.preparedRun = model.prepare(signatureDefKey, new String[] { inputKey }, outputKeys);
+		this.inputKey = inputKey;
+		this.inputTensorInfo = TFUtil.inputKeyToTensorInfo(signatureDefKey, inputKey, model);
+		this.outputKeys = preparedRun.outputKeys();
+	}
+
+	/**
+	 * Set the maximum number of lines per batch. The default is 256.
+	 *
+	 * @param batchSize
+	 *            The maximum number of lines per batch
+	 * @return {@code this} InferencePipeline object to allow chaining of methods
+	 */
+	public InferencePipeline batchSize(int batchSize) {
+		if (batchSize < 1) {
+			throw new TFException("Batch size must be at least 1");
+		}
+		this.batchSize = batchSize;
+		return this;
+	}
+
+	/**
+	 * Set the maximum number of batches waiting between two stages. The default is 2.
+	 *
+	 * @param queueCapacity
+	 *            The maximum number of waiting batches
+	 * @return {@code this} InferencePipeline object to allow chaining of methods
+	 */
+	public InferencePipeline queueCapacity(int queueCapacity) {
+		if (queueCapacity < 1) {
+			throw new TFException("Queue capacity must be at least 1");
+		}
+		this.queueCapacity = queueCapacity;
+		return this;
+	}
+
+	/**
+	 * Set the parser that converts a batch of lines to the input value. The default, InputParser.LINES, passes the
+	 * lines as a String array.
+	 *
+	 * @param parser
+	 *            The input parser
+	 * @return {@code this} InferencePipeline object to allow chaining of methods
+	 */
+	public InferencePipeline parser(InputParser parser) {
+		if (parser == null) {
+			throw new TFException("Input parser cannot be null");
+		}
+		this.parser = parser;
+		return this;
+	}
+
+	/**
+	 * Set the separator of the values of an output line. The default is ",".
+	 *
+	 * @param delimiter
+	 *            The separator
+	 * @return {@code this} InferencePipeline object to allow chaining of methods
+	 */
+	public InferencePipeline delimiter(String delimiter) {
+		this.delimiter = delimiter;
+		return this;
+	}
+
+	/**
+	 * Run the pipeline on a UTF-8 input file and write the outputs to a UTF-8 output file.
+	 *
+	 * @param inputFile
+	 *            The input file, with one example per line
+	 * @param outputFile
+	 *            The output file
+	 * @return The statistics of the run
+	 * @throws IOException
+	 *             if problem occurs reading the input file or writing the output file
+	 */
+	public PipelineStats run(String inputFile, String outputFile) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(Paths.get(inputFile), StandardCharsets.UTF_8);
+				BufferedWriter writer = Files.newBufferedWriter(Paths.get(outputFile), StandardCharsets.UTF_8)) {
+			return run(reader, writer);
+		}
+	}
+
+	/**
+	 * Run the pipeline, reading input lines from a reader and writing output lines to a writer. The reader and writer
+	 * are not closed.
+	 *
+	 * @param reader
+	 *            The source of the input lines
+	 * @param writer
+	 *            The destination of the output lines
+	 * @return The statistics of the run
+	 * @throws IOException
+	 *             if problem occurs reading the input or writing the output
+	 */
+	public PipelineStats run(final BufferedReader reader, Writer writer) throws IOException {
+		final PipelineStats stats = new PipelineStats();
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		final BlockingQueue<Batch> converted = new ArrayBlockingQueue<Batch>(queueCapacity);
+		final BlockingQueue<Batch> executed = new ArrayBlockingQueue<Batch>(queueCapacity);
+
+		Thread converter = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				convertBatches(reader, converted, stats, failure);
+			}
+		}, "InferencePipeline-convert");
+		Thread runner = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				runBatches(converted, executed, stats, failure);
+			}
+		}, "InferencePipeline-run");
+		converter.setDaemon(true);
+		runner.setDaemon(true);
+
+		long start = System.nanoTime();
+		converter.start();
+		runner.start();
+		try {
+			while (true) {
+				Batch batch = take(executed, failure);
+				if (batch == null || batch == END) {
+					break;
+				}
+				long writeStart = System.nanoTime();
+				try {
+					writeBatch(batch, writer);
+				} finally {
+					batch.results.close();
+				}
+				stats.writeNanos.addAndGet(System.nanoTime() - writeStart);
+				stats.rows.addAndGet(batch.rows);
+				stats.batches.incrementAndGet();
+				if (log.isDebugEnabled()) {
+					log.debug("Wrote batch " + stats.batches() + " (" + stats.rows() + " rows)");
+				}
+			}
+			writer.flush();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			failure.compareAndSet(null, e);
+		} catch (IOException | RuntimeException e) {
+			failure.compareAndSet(null, e);
+		} finally {
+			join(converter);
+			join(runner);
+			drain(converted);
+			drain(executed);
+		}
+		stats.elapsedNanos.set(System.nanoTime() - start);
+
+		Throwable t = failure.get();
+		if (t instanceof IOException) {
+			throw (IOException) t;
+		} else if (t instanceof TFException) {
+			throw (TFException) t;
+		} else if (t != null) {
+			throw new TFException("Inference pipeline failed: " + t.getMessage(), t);
+		}
+		log.info("Inference pipeline finished. " + stats);
+		return stats;
+	}
+
+	/**
+	 * Converter stage: read, parse, and convert batches of lines until the end of the input.
+	 */
+	void convertBatches(BufferedReader reader, BlockingQueue<Batch> converted, PipelineStats stats,
+			AtomicReference<Throwable> failure) {
+		try {
+			List<String> lines = new ArrayList<String>(batchSize);
+			InputConverter converter = null;
+			while (failure.get() == null) {
+				long start = System.nanoTime();
+				lines.clear();
+				String line;
+				while (lines.size() < batchSize && (line = reader.readLine()) != null) {
+					lines.add(line);
+				}
+				if (lines.isEmpty()) {
+					break;
+				}
+				Object value = parser.parse(lines.toArray(new String[lines.size()]));
+				converter = InputConverter.forValue(converter, inputKey, inputTensorInfo.getName(), value,
+						inputTensorInfo);
+				Tensor<?> tensor = converter.convert(value);
+				stats.convertNanos.addAndGet(System.nanoTime() - start);
+				if (!put(converted, new Batch(lines.size(), tensor), failure)) {
+					tensor.close();
+					return;
+				}
+			}
+			put(converted, END, failure);
+		} catch (Throwable t) {
+			failure.compareAndSet(null, t);
+		}
+	}
+
+	/**
+	 * Run stage: execute the model on each converted batch.
+	 */
+	void runBatches(BlockingQueue<Batch> converted, BlockingQueue<Batch> executed, PipelineStats stats,
+			AtomicReference<Throwable> failure) {
+		try {
+			while (true) {
+				Batch batch = take(converted, failure);
+				if (batch == null) {
+					return;
+				}
+				if (batch == END) {
+					break;
+				}
+				long start = System.nanoTime();
+				try {
+					batch.results = preparedRun.run(batch.input);
+				} finally {
+					batch.input.close();
+					batch.input = null;
+				}
+				stats.runNanos.addAndGet(System.nanoTime() - start);
+				if (!put(executed, batch, failure)) {
+					batch.results.close();
+					return;
+				}
+			}
+			put(executed, END, failure);
+		} catch (Throwable t) {
+			failure.compareAndSet(null, t);
+		}
+	}
+
+	/**
+	 * Write stage: write one line per row of a batch, containing the values of the output keys.
+	 */
+	void writeBatch(Batch batch, Writer writer) throws IOException {
+		String[][] values = new String[outputKeys.length][];
+		int[] valuesPerRow = new int[outputKeys.length];
+		for (int k = 0; k < outputKeys.length; k++) {
+			values[k] = outputValues(batch.results, outputKeys[k]);
+			if (values[k].length % batch.rows != 0) {
+				throw new TFException("Output key '" + outputKeys[k] + "' has " + values[k].length
+						+ " values, which is not a multiple of the batch size " + batch.rows);
+			}
+			valuesPerRow[k] = values[k].length / batch.rows;
+		}
+		StringBuilder sb = new StringBuilder();
+		for (int r = 0; r < batch.rows; r++) {
+			sb.setLength(0);
+			for (int k = 0; k < outputKeys.length; k++) {
+				int n = valuesPerRow[k];
+				for (int j = r * n; j < (r + 1) * n; j++) {
+					if (sb.length() > 0) {
+						sb.append(delimiter);
+					}
+					sb.append(values[k][j]);
+				}
+			}
+			sb.append('\n');
+			writer.write(sb.toString());
+		}
+	}
+
+	/**
+	 * Obtain all values of an output as a flat String array in row-major order.
+	 */
+	static String[] outputValues(TFResults results, String key) {
+		Tensor<?> tensor = results.getTensor(key);
+		if (tensor.dataType() != DataType.STRING) {
+			return results.getStringArray(key);
+		}
+		return StringCodec.DEFAULT.decodeFlat(tensor);
+	}
+
+	/**
+	 * Put a batch on a queue, waiting for room while no stage has failed.
+	 *
+	 * @return true if the batch was put on the queue, false if a stage failed first
+	 */
+	static boolean put(BlockingQueue<Batch> queue, Batch batch, AtomicReference<Throwable> failure)
+			throws InterruptedException {
+		while (failure.get() == null) {
+			if (queue.offer(batch, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Take a batch from a queue, waiting for one while no stage has failed.
+	 *
+	 * @return The batch, or null if a stage failed first
+	 */
+	static Batch take(BlockingQueue<Batch> queue, AtomicReference<Throwable> failure) throws InterruptedException {
+		while (failure.get() == null) {
+			Batch batch = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+			if (batch != null) {
+				return batch;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Wait for a stage thread to finish. A stage finishes by itself after the end of the input or, once a stage has
+	 * failed, within POLL_MILLIS of its current queue operation.
+	 */
+	private static void join(Thread thread) {
+		boolean interrupted = false;
+		while (thread.isAlive()) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void drain(BlockingQueue<Batch> queue) {
+		Batch batch;
+		while ((batch = queue.poll()) != null) {
+			if (batch.input != null) {
+				batch.input.close();
+			}
+			if (batch.results != null) {
+				batch.results.close();
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "InferencePipeline (SignatureDef: " + preparedRun.signatureDefKey() + ", input key: " + inputKey
+				+ ", output keys: " + Arrays.toString(outputKeys) + ", batch size: " + batchSize
+				+ ", queue capacity: " + queueCapacity + ")";
+	}
+
+	/**
+	 * A batch of rows moving through the pipeline.
+	 */
+	static class Batch {
+		final int rows;
+		Tensor<?> input;
+		TFResults results;
+
+		Batch(int rows, Tensor<?> input) {
+			this.rows = rows;
+			this.input = input;
+		}
+	}
+}
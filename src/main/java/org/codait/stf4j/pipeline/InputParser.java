@@ -0,0 +1,46 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.pipeline;
+
+/**
+ * Converts a batch of input file lines to the value of the model input. The value is converted to a Tensor in the
+ * same way as a value passed to TFModel.in(), so it can be, for example, a String array for a DT_STRING input or a
+ * 2-dimensional float array for a DT_FLOAT input. The dimension 0 size of the value should be the number of lines.
+ *
+ */
+public interface InputParser {
+
+	/**
+	 * Parser that returns the lines unchanged, as a String array. This is suitable for inputs such as the "inputs"
+	 * key of an Estimator "predict" SignatureDef, where each line is a CSV-formatted example.
+	 */
+	public static final InputParser LINES = new InputParser() {
+		@Override
+		public Object parse(String[] lines) {
+			return lines;
+		}
+	};
+
+	/**
+	 * Convert a batch of lines to an input value.
+	 *
+	 * @param lines
+	 *            The lines of the batch
+	 * @return The input value
+	 */
+	public Object parse(String[] lines);
+}
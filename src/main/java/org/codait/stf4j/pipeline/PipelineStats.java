@@ -0,0 +1,123 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.pipeline;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of an InferencePipeline run: the number of rows and batches, the time spent by each stage, and the
+ * overall throughput. Since the stages run concurrently, the stage times can add up to more than the elapsed time.
+ *
+ */
+public class PipelineStats {
+
+	/**
+	 * Number of rows (input lines) written.
+	 */
+	final AtomicLong rows = new AtomicLong();
+	/**
+	 * Number of batches written.
+	 */
+	final AtomicLong batches = new AtomicLong();
+	/**
+	 * Time spent reading, parsing, and converting inputs to Tensors, in nanoseconds.
+	 */
+	final AtomicLong convertNanos = new AtomicLong();
+	/**
+	 * Time spent executing the model, in nanoseconds.
+	 */
+	final AtomicLong runNanos = new AtomicLong();
+	/**
+	 * Time spent obtaining and writing the outputs, in nanoseconds.
+	 */
+	final AtomicLong writeNanos = new AtomicLong();
+	/**
+	 * Time from the start to the end of the run, in nanoseconds.
+	 */
+	final AtomicLong elapsedNanos = new AtomicLong();
+
+	/**
+	 * Obtain the number of rows (input lines) written.
+	 *
+	 * @return The number of rows
+	 */
+	public long rows() {
+		return rows.get();
+	}
+
+	/**
+	 * Obtain the number of batches written.
+	 *
+	 * @return The number of batches
+	 */
+	public long batches() {
+		return batches.get();
+	}
+
+	/**
+	 * Obtain the time spent reading, parsing, and converting inputs to Tensors.
+	 *
+	 * @return The conversion time in milliseconds
+	 */
+	public long convertMillis() {
+		return convertNanos.get() / 1000000;
+	}
+
+	/**
+	 * Obtain the time spent executing the model.
+	 *
+	 * @return The execution time in milliseconds
+	 */
+	public long runMillis() {
+		return runNanos.get() / 1000000;
+	}
+
+	/**
+	 * Obtain the time spent obtaining and writing the outputs.
+	 *
+	 * @return The write time in milliseconds
+	 */
+	public long writeMillis() {
+		return writeNanos.get() / 1000000;
+	}
+
+	/**
+	 * Obtain the elapsed time of the run.
+	 *
+	 * @return The elapsed time in milliseconds
+	 */
+	public long elapsedMillis() {
+		return elapsedNanos.get() / 1000000;
+	}
+
+	/**
+	 * Obtain the throughput of the run.
+	 *
+	 * @return The number of rows per second, or 0 if no time has elapsed
+	 */
+	public double rowsPerSecond() {
+		long nanos = elapsedNanos.get();
+		return nanos == 0 ? 0 : rows.get() * 1.0e9 / nanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"Rows: %d, Batches: %d, Elapsed: %d ms, Throughput: %.1f rows/s, Convert: %d ms, Run: %d ms, Write: %d ms",
+				rows(), batches(), elapsedMillis(), rowsPerSecond(), convertMillis(), runMillis(), writeMillis());
+	}
+}
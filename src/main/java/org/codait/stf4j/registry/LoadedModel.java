@@ -0,0 +1,92 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+package org.codait.stf4j.registry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.codait.stf4j.TFModel;
+
+/**
+ * A loaded version of a served model with a reference count. The ModelRegistry holds one reference while the version
+ * is the current version, and each open ModelHandle holds one reference. The TFModel is closed when the last
+ * reference is released.
+ *
+ */
+class LoadedModel {
+
+	/**
+	 * Logger for LoadedModel
+	 */
+	protected static Logger log = LogManager.getLogger(LoadedModel.class);
+
+	/**
+	 * The TensorFlow model.
+	 */
+	final TFModel model;
+	/**
+	 * The version number, or 0 if the model directory is not versioned.
+	 */
+	final long version;
+	/**
+	 * Number of references. Once the count has reached 0, it is never incremented again.
+	 */
+	final AtomicInteger refs = new AtomicInteger(1);
+
+	/**
+	 * Create a LoadedModel with a single reference, which belongs to the ModelRegistry.
+	 *
+	 * @param model
+	 *            The TensorFlow model
+	 * @param version
+	 *            The version number
+	 */
+	LoadedModel(TFModel model, long version) {
+		this.model = model;
+		this.version = version;
+	}
+
+	/**
+	 * Add a reference unless the model has already been closed.
+	 *
+	 * @return true if a reference was added, false if the model has been closed
+	 */
+	boolean retain() {
+		while (true) {
+			int r = refs.get();
+			if (r == 0) {
+				return false;
+			}
+			if (refs.compareAndSet(r, r + 1)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Release a reference, and close the model if it was the last reference.
+	 */
+	void release() {
+		int r = refs.decrementAndGet();
+		if (r == 0) {
+			model.close();
+			log.debug("Closed version " + version + " of model '" + model.modelDir() + "'");
+		} else if (r < 0) {
+			throw new IllegalStateException("Model '" + model.modelDir() + "' released too many times");
+		}
+	}
+}
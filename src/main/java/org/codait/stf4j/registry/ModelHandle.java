@@ -0,0 +1,95 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+package org.codait.stf4j.registry;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.codait.stf4j.TFModel;
+
+/**
+ * Reference to the version of a model that was current when the handle was obtained from the ModelRegistry acquire()
+ * method. The model is not closed while the handle is open, even if the registry has switched to a newer version, so
+ * a handle should be obtained per request (or per batch of requests) and closed when done.
+ *
+ * <pre>
+ * try (ModelHandle handle = registry.acquire(modelDir)) {
+ * 	PreparedRun pr = handle.model().prepare("serving_default", inputKeys, outputKeys);
+ * 	...
+ * }
+ * </pre>
+ *
+ * The same TFModel object is shared by all handles to the same version, so concurrent users should run the model
+ * through PreparedRun objects rather than the TFModel in()/out()/run() methods.
+ *
+ */
+public class ModelHandle implements AutoCloseable {
+
+	/**
+	 * The loaded model version.
+	 */
+	final LoadedModel loaded;
+	/**
+	 * Whether the handle has been closed.
+	 */
+	final AtomicBoolean closed = new AtomicBoolean();
+
+	/**
+	 * Create a ModelHandle for a loaded model version that has already been retained for this handle.
+	 *
+	 * @param loaded
+	 *            The loaded model version
+	 */
+	ModelHandle(LoadedModel loaded) {
+		this.loaded = loaded;
+	}
+
+	/**
+	 * Obtain the TensorFlow model.
+	 *
+	 * @return The TFModel
+	 */
+	public TFModel model() {
+		if (closed.get()) {
+			throw new IllegalStateException("ModelHandle has been closed");
+		}
+		return loaded.model;
+	}
+
+	/**
+	 * Obtain the version number of the model.
+	 *
+	 * @return The version number, or 0 if the model directory is not versioned
+	 */
+	public long version() {
+		return loaded.version;
+	}
+
+	/**
+	 * Release the model version. The model is closed if it is no longer the current version and no other handle
+	 * refers to it. Closing a handle more than once has no effect.
+	 */
+	@Override
+	public void close() {
+		if (closed.compareAndSet(false, true)) {
+			loaded.release();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ModelHandle: " + loaded.model.modelDir() + " (version " + loaded.version + ")";
+	}
+}
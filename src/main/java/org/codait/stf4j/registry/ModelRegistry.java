@@ -0,0 +1,326 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+package org.codait.stf4j.registry;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.codait.stf4j.TFException;
+import org.tensorflow.framework.ConfigProto;
+
+/**
+ * Registry that loads each SavedModel (model directory and MetaGraphDef tags) once and shares it between consumers
+ * through reference-counted ModelHandles.
+ *
+ * A model directory can contain numbered version subdirectories, as used by TensorFlow Serving (for example,
+ * "models/mnist/1" and "models/mnist/2"), in which case the highest version is served. If a poll interval is
+ * specified, a background thread checks the served model directories for new versions. A new version is loaded (and
+ * optionally warmed up) in the background while the current version continues to serve requests, and then becomes the
+ * current version atomically. The previous version is closed as soon as the handles obtained before the switch have
+ * been closed, so both versions are held in memory only while in-flight requests drain.
+ *
+ * <pre>
+ * ModelRegistry registry = new ModelRegistry(30, TimeUnit.SECONDS).warmUp(5, 1);
+ * ...
+ * try (ModelHandle handle = registry.acquire("models/mnist")) {
+ * 	int prediction = handle.model().prepare("serving_default", new String[] { "image" }, new String[] { "classes" })
+ * 			.run(image).getInt("classes");
+ * }
+ * </pre>
+ */
+public class ModelRegistry implements AutoCloseable {
+
+	/**
+	 * Logger for ModelRegistry
+	 */
+	protected static Logger log = LogManager.getLogger(ModelRegistry.class);
+
+	/**
+	 * Mapping of model directory and tags to served models.
+	 */
+	final ConcurrentMap<String, ServedModel> models = new ConcurrentHashMap<String, ServedModel>();
+	/**
+	 * Session configuration of the loaded models, or null for the default configuration.
+	 */
+	final ConfigProto config;
+	/**
+	 * Interval between checks for new versions, in milliseconds, or 0 if new versions are only loaded by refresh().
+	 */
+	final long pollMillis;
+	/**
+	 * Thread that checks for new versions, or null if polling is disabled.
+	 */
+	final Thread poller;
+	/**
+	 * Number of warm-up iterations per SignatureDef of a newly loaded version, or 0 for no warm-up.
+	 */
+	volatile int warmUpIterations = 0;
+	/**
+	 * Size of unknown dimensions of the warm-up inputs.
+	 */
+	volatile int warmUpUnknownDimSize = 1;
+	/**
+	 * Whether the registry has been closed.
+	 */
+	volatile boolean closed = false;
+
+	/**
+	 * Create a ModelRegistry that does not check for new versions, except when refresh() is called.
+	 */
+	public ModelRegistry() {
+		this(null, 0, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Create a ModelRegistry that checks the served model directories for new versions at the specified interval.
+	 *
+	 * @param pollInterval
+	 *            Interval between checks for new versions (0 to disable)
+	 * @param unit
+	 *            Time unit of pollInterval
+	 */
+	public ModelRegistry(long pollInterval, TimeUnit unit) {
+		this(null, pollInterval, unit);
+	}
+
+	/**
+	 * Create a ModelRegistry that loads models with the specified Session configuration and checks the served model
+	 * directories for new versions at the specified interval.
+	 *
+	 * @param config
+	 *            Session configuration, or null for the default configuration
+	 * @param pollInterval
+	 *            Interval between checks for new versions (0 to disable)
+	 * @param unit
+	 *            Time unit of pollInterval
+	 */
+	public ModelRegistry(ConfigProto config, long pollInterval, TimeUnit unit) {
+		if (pollInterval < 0) {
+			throw new TFException("Poll interval cannot be negative");
+		}
+		this.config = config;
+		this.pollMillis = unit.toMillis(pollInterval);
+		if (pollMillis > 0) {
+			poller = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					poll();
+				}
+			}, "ModelRegistry-poller");
+			poller.setDaemon(true);
+			poller.start();
+		} else {
+			poller = null;
+		}
+	}
+
+	/**
+	 * Warm up each newly loaded model version before it serves requests, using the TFModel warmUp() method.
+	 *
+	 * @param iterations
+	 *            The number of warm-up runs per SignatureDef (0 for no warm-up)
+	 * @param unknownDimSize
+	 *            The size of dimensions of unknown size of the warm-up inputs
+	 * @return {@code this} ModelRegistry object to allow chaining of methods
+	 */
+	public ModelRegistry warmUp(int iterations, int unknownDimSize) {
+		if (iterations < 0) {
+			throw new TFException("Number of warm-up iterations cannot be negative");
+		}
+		this.warmUpUnknownDimSize = unknownDimSize;
+		this.warmUpIterations = iterations;
+		return this;
+	}
+
+	/**
+	 * Obtain a handle to the current version of the model located at modelDir with tag "serve", loading the model if
+	 * necessary.
+	 *
+	 * @param modelDir
+	 *            The model directory, which contains a SavedModel or numbered version subdirectories
+	 * @return A ModelHandle, which needs to be closed
+	 */
+	public ModelHandle acquire(String modelDir) {
+		return acquire(modelDir, "serve");
+	}
+
+	/**
+	 * Obtain a handle to the current version of the model located at modelDir with the specified MetaGraphDef tags,
+	 * loading the model if necessary. The handle keeps the version open until it is closed, even if a newer version is
+	 * loaded in the meantime.
+	 *
+	 * @param modelDir
+	 *            The model directory, which contains a SavedModel or numbered version subdirectories
+	 * @param metaGraphDefTags
+	 *            The MetaGraphDef tags
+	 * @return A ModelHandle, which needs to be closed
+	 */
+	public ModelHandle acquire(String modelDir, String... metaGraphDefTags) {
+		if (closed) {
+			throw new TFException("ModelRegistry has been closed");
+		}
+		if (modelDir == null) {
+			throw new TFException("Model directory is null");
+		}
+		File dir = canonicalFile(modelDir);
+		if (!dir.isDirectory()) {
+			throw new TFException("Model directory '" + modelDir + "' could not be found");
+		}
+		String key = key(dir, metaGraphDefTags);
+		ServedModel served = models.get(key);
+		if (served == null) {
+			ServedModel created = new ServedModel(this, dir, metaGraphDefTags.clone());
+			served = models.putIfAbsent(key, created);
+			if (served == null) {
+				served = created;
+			}
+		}
+		ModelHandle handle = served.acquire();
+		if (closed) {
+			// the registry was closed while the model was being loaded
+			served.close();
+		}
+		return handle;
+	}
+
+	/**
+	 * Obtain the version currently served for the model located at modelDir with the specified MetaGraphDef tags.
+	 *
+	 * @param modelDir
+	 *            The model directory
+	 * @param metaGraphDefTags
+	 *            The MetaGraphDef tags
+	 * @return The version number (0 if the model directory is not versioned), or -1 if the model is not loaded
+	 */
+	public long version(String modelDir, String... metaGraphDefTags) {
+		ServedModel served = models.get(key(canonicalFile(modelDir), metaGraphDefTags));
+		return served == null ? -1 : served.version();
+	}
+
+	/**
+	 * Check all served model directories for new versions, and load and switch to each new version found.
+	 *
+	 * @return The number of models switched to a new version
+	 */
+	public int refresh() {
+		int updated = 0;
+		for (ServedModel served : models.values()) {
+			try {
+				if (served.update()) {
+					updated++;
+				}
+			} catch (RuntimeException e) {
+				log.error("Could not load new version of model '" + served.baseDir + "': " + e.getMessage(), e);
+			}
+		}
+		return updated;
+	}
+
+	/**
+	 * Check for new versions at the poll interval until the registry is closed.
+	 */
+	void poll() {
+		while (!closed) {
+			try {
+				Thread.sleep(pollMillis);
+			} catch (InterruptedException e) {
+				if (closed) {
+					return;
+				}
+				continue;
+			}
+			if (!closed) {
+				refresh();
+			}
+		}
+	}
+
+	/**
+	 * Stop checking for new versions and release the current version of each model. Each model is closed once all of
+	 * its handles have been closed.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		if (poller != null) {
+			poller.interrupt();
+			try {
+				poller.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		for (ServedModel served : models.values()) {
+			served.close();
+		}
+		models.clear();
+		log.debug("Closed ModelRegistry");
+	}
+
+	/**
+	 * Obtain the canonical form of a model directory, so that different paths to the same directory share a model.
+	 *
+	 * @param modelDir
+	 *            The model directory
+	 * @return The canonical file
+	 */
+	static File canonicalFile(String modelDir) {
+		File dir = new File(modelDir);
+		try {
+			return dir.getCanonicalFile();
+		} catch (IOException e) {
+			return dir.getAbsoluteFile();
+		}
+	}
+
+	/**
+	 * Obtain the key of a model directory and MetaGraphDef tags.
+	 *
+	 * @param dir
+	 *            The canonical model directory
+	 * @param tags
+	 *            The MetaGraphDef tags
+	 * @return The key
+	 */
+	static String key(File dir, String[] tags) {
+		String[] sorted = tags.clone();
+		Arrays.sort(sorted);
+		return dir.getPath() + Arrays.toString(sorted);
+	}
+
+	/**
+	 * Display the served models and their versions.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("ModelRegistry:\n");
+		if (models.isEmpty()) {
+			sb.append("  None\n");
+		}
+		for (ServedModel served : models.values()) {
+			sb.append("  ");
+			sb.append(served);
+			sb.append("\n");
+		}
+		return sb.toString();
+	}
+}
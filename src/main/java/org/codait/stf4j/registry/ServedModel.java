@@ -0,0 +1,212 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+package org.codait.stf4j.registry;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.codait.stf4j.TFException;
+import org.codait.stf4j.TFModel;
+import org.codait.stf4j.metrics.WarmUpReport;
+import org.tensorflow.framework.ConfigProto;
+
+/**
+ * A model directory served by a ModelRegistry. If the directory contains numbered version subdirectories (such as
+ * "1", "2", and "3"), each containing a SavedModel, the highest version is served. Otherwise, the directory itself
+ * contains the SavedModel, which is served as version 0.
+ *
+ */
+class ServedModel {
+
+	/**
+	 * Logger for ServedModel
+	 */
+	protected static Logger log = LogManager.getLogger(ServedModel.class);
+
+	/**
+	 * The model directory.
+	 */
+	final File baseDir;
+	/**
+	 * The MetaGraphDef tags.
+	 */
+	final String[] tags;
+	/**
+	 * The ModelRegistry serving this model.
+	 */
+	final ModelRegistry registry;
+	/**
+	 * The current version, or null if not yet loaded or if the registry has been closed.
+	 */
+	final AtomicReference<LoadedModel> current = new AtomicReference<LoadedModel>();
+	/**
+	 * Whether the model has been closed by the registry.
+	 */
+	boolean closed;
+
+	/**
+	 * Create a ServedModel. The model is loaded by the first call to load().
+	 *
+	 * @param registry
+	 *            The ModelRegistry
+	 * @param baseDir
+	 *            The model directory
+	 * @param tags
+	 *            The MetaGraphDef tags
+	 */
+	ServedModel(ModelRegistry registry, File baseDir, String[] tags) {
+		this.registry = registry;
+		this.baseDir = baseDir;
+		this.tags = tags;
+	}
+
+	/**
+	 * Obtain a handle to the current version, loading the model if it has not been loaded yet.
+	 *
+	 * @return A ModelHandle to the current version
+	 */
+	ModelHandle acquire() {
+		while (true) {
+			LoadedModel loaded = current.get();
+			if (loaded == null) {
+				update();
+				loaded = current.get();
+				if (loaded == null) {
+					throw new TFException("Model '" + baseDir + "' has been closed");
+				}
+			}
+			if (loaded.retain()) {
+				return new ModelHandle(loaded);
+			}
+		}
+	}
+
+	/**
+	 * Load the latest version if it is newer than the current version, and make it the current version. The previous
+	 * version is released, so it is closed once all of its handles have been closed.
+	 *
+	 * @return true if a new version was loaded
+	 */
+	synchronized boolean update() {
+		if (closed) {
+			return false;
+		}
+		long latest = latestVersion();
+		LoadedModel previous = current.get();
+		if (previous != null && previous.version >= latest) {
+			return false;
+		}
+		File dir = latest == 0 ? baseDir : new File(baseDir, Long.toString(latest));
+		long start = System.nanoTime();
+		TFModel model = new TFModel(dir.getPath(), registry.config, tags);
+		if (registry.warmUpIterations > 0) {
+			WarmUpReport report = model.warmUp(registry.warmUpIterations, registry.warmUpUnknownDimSize);
+			log.info("Warmed up version " + latest + " of model '" + baseDir + "':\n" + report);
+		}
+		current.set(new LoadedModel(model, latest));
+		log.info("Serving version " + latest + " of model '" + baseDir + "' (loaded in "
+				+ (System.nanoTime() - start) / 1000000 + " ms)");
+		if (previous != null) {
+			previous.release();
+		}
+		return true;
+	}
+
+	/**
+	 * Obtain the highest numbered version subdirectory that contains a SavedModel, or 0 if the model directory itself
+	 * contains a SavedModel.
+	 *
+	 * @return The latest version
+	 */
+	long latestVersion() {
+		if (isSavedModel(baseDir)) {
+			return 0;
+		}
+		long latest = -1;
+		File[] files = baseDir.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				String name = file.getName();
+				if (name.isEmpty() || name.length() > 18 || !isDigits(name) || !isSavedModel(file)) {
+					continue;
+				}
+				latest = Math.max(latest, Long.parseLong(name));
+			}
+		}
+		if (latest < 0) {
+			throw new TFException("No SavedModel found in '" + baseDir + "' or its version subdirectories");
+		}
+		return latest;
+	}
+
+	/**
+	 * Check whether a directory contains a SavedModel.
+	 *
+	 * @param dir
+	 *            The directory
+	 * @return true if the directory contains a saved_model.pb or saved_model.pbtxt file
+	 */
+	static boolean isSavedModel(File dir) {
+		return new File(dir, "saved_model.pb").isFile() || new File(dir, "saved_model.pbtxt").isFile();
+	}
+
+	/**
+	 * Check whether a String consists of digits only.
+	 *
+	 * @param s
+	 *            The String
+	 * @return true if all characters are digits
+	 */
+	static boolean isDigits(String s) {
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c < '0' || c > '9') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Obtain the current version.
+	 *
+	 * @return The current version, or -1 if the model is not loaded
+	 */
+	long version() {
+		LoadedModel loaded = current.get();
+		return loaded == null ? -1 : loaded.version;
+	}
+
+	/**
+	 * Stop serving the model and release the current version, which is closed once all of its handles have been
+	 * closed.
+	 */
+	synchronized void close() {
+		closed = true;
+		LoadedModel loaded = current.getAndSet(null);
+		if (loaded != null) {
+			loaded.release();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return baseDir + " " + Arrays.toString(tags) + " (version " + version() + ")";
+	}
+}
@@ -0,0 +1,379 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+package org.codait.stf4j.serving;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.codait.stf4j.TFException;
+
+/**
+ * Minimal JSON parser and writer, so that the prediction server does not need a JSON library. Objects are parsed to
+ * LinkedHashMaps, arrays to ArrayLists, numbers to Longs (integers that fit in a long) or Doubles, and true, false,
+ * and null to Boolean.TRUE, Boolean.FALSE, and null. Objects and arrays can be nested at most MAX_DEPTH levels
+ * deep, so that a malicious text cannot exhaust the stack of the parsing thread.
+ *
+ */
+class Json {
+
+	/**
+	 * Maximum nesting depth of objects and arrays.
+	 */
+	static final int MAX_DEPTH = 512;
+
+	/**
+	 * The JSON text.
+	 */
+	final String text;
+	/**
+	 * The current position in the text.
+	 */
+	int pos;
+	/**
+	 * The number of objects and arrays that enclose the current position.
+	 */
+	int depth;
+
+	/**
+	 * Create a parser for a JSON text.
+	 *
+	 * @param text
+	 *            The JSON text
+	 */
+	Json(String text) {
+		this.text = text;
+	}
+
+	/**
+	 * Parse a JSON text.
+	 *
+	 * @param text
+	 *            The JSON text
+	 * @return The parsed value
+	 */
+	static Object parse(String text) {
+		Json json = new Json(text);
+		Object value = json.value();
+		json.skipWhitespace();
+		if (json.pos != text.length()) {
+			throw json.error("Unexpected content after JSON value");
+		}
+		return value;
+	}
+
+	/**
+	 * Parse the value at the current position.
+	 *
+	 * @return The parsed value
+	 */
+	Object value() {
+		skipWhitespace();
+		if (pos >= text.length()) {
+			throw error("Unexpected end of JSON");
+		}
+		char c = text.charAt(pos);
+		switch (c) {
+		case '{':
+			return object();
+		case '[':
+			return array();
+		case '"':
+			return string();
+		case 't':
+			literal("true");
+			return Boolean.TRUE;
+		case 'f':
+			literal("false");
+			return Boolean.FALSE;
+		case 'n':
+			literal("null");
+			return null;
+		default:
+			if (c == '-' || (c >= '0' && c <= '9')) {
+				return number();
+			}
+			throw error("Unexpected character '" + c + "'");
+		}
+	}
+
+	/**
+	 * Parse the object at the current position.
+	 *
+	 * @return The object
+	 */
+	Map<String, Object> object() {
+		Map<String, Object> map = new LinkedHashMap<String, Object>();
+		enter();
+		skipWhitespace();
+		if (peek() == '}') {
+			pos++;
+			depth--;
+			return map;
+		}
+		while (true) {
+			skipWhitespace();
+			if (peek() != '"') {
+				throw error("Expected object key");
+			}
+			String key = string();
+			skipWhitespace();
+			expect(':');
+			map.put(key, value());
+			skipWhitespace();
+			if (peek() == ',') {
+				pos++;
+			} else {
+				expect('}');
+				depth--;
+				return map;
+			}
+		}
+	}
+
+	/**
+	 * Parse the array at the current position.
+	 *
+	 * @return The array
+	 */
+	List<Object> array() {
+		List<Object> list = new ArrayList<Object>();
+		enter();
+		skipWhitespace();
+		if (peek() == ']') {
+			pos++;
+			depth--;
+			return list;
+		}
+		while (true) {
+			list.add(value());
+			skipWhitespace();
+			if (peek() == ',') {
+				pos++;
+			} else {
+				expect(']');
+				depth--;
+				return list;
+			}
+		}
+	}
+
+	/**
+	 * Consume the opening character of an object or array and increase the nesting depth, which must not exceed
+	 * MAX_DEPTH.
+	 */
+	void enter() {
+		if (++depth > MAX_DEPTH) {
+			throw error("Objects and arrays nested more than " + MAX_DEPTH + " levels deep");
+		}
+		pos++;
+	}
+
+	/**
+	 * Parse the string at the current position.
+	 *
+	 * @return The string
+	 */
+	String string() {
+		pos++;
+		StringBuilder sb = null;
+		int start = pos;
+		while (true) {
+			if (pos >= text.length()) {
+				throw error("Unterminated string");
+			}
+			char c = text.charAt(pos);
+			if (c == '"') {
+				String s = (sb == null) ? text.substring(start, pos) : sb.append(text, start, pos).toString();
+				pos++;
+				return s;
+			}
+			if (c != '\\') {
+				pos++;
+				continue;
+			}
+			if (sb == null) {
+				sb = new StringBuilder();
+			}
+			sb.append(text, start, pos);
+			pos++;
+			char e = peek();
+			pos++;
+			switch (e) {
+			case '"':
+			case '\\':
+			case '/':
+				sb.append(e);
+				break;
+			case 'b':
+				sb.append('\b');
+				break;
+			case 'f':
+				sb.append('\f');
+				break;
+			case 'n':
+				sb.append('\n');
+				break;
+			case 'r':
+				sb.append('\r');
+				break;
+			case 't':
+				sb.append('\t');
+				break;
+			case 'u':
+				if (pos + 4 > text.length()) {
+					throw error("Invalid unicode escape");
+				}
+				try {
+					sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+				} catch (NumberFormatException ex) {
+					throw error("Invalid unicode escape");
+				}
+				pos += 4;
+				break;
+			default:
+				throw error("Invalid escape '\\" + e + "'");
+			}
+			start = pos;
+		}
+	}
+
+	/**
+	 * Parse the number at the current position.
+	 *
+	 * @return A Long if the number is an integer that fits in a long, otherwise a Double
+	 */
+	Number number() {
+		int start = pos;
+		boolean integer = true;
+		while (pos < text.length()) {
+			char c = text.charAt(pos);
+			if (c == '.' || c == 'e' || c == 'E') {
+				integer = false;
+			} else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+				break;
+			}
+			pos++;
+		}
+		String s = text.substring(start, pos);
+		try {
+			if (integer && s.length() < 19) {
+				return Long.parseLong(s);
+			}
+			return Double.parseDouble(s);
+		} catch (NumberFormatException e) {
+			throw error("Invalid number '" + s + "'");
+		}
+	}
+
+	/**
+	 * Parse a literal (true, false, or null) at the current position.
+	 *
+	 * @param literal
+	 *            The expected literal
+	 */
+	void literal(String literal) {
+		if (!text.startsWith(literal, pos)) {
+			throw error("Expected '" + literal + "'");
+		}
+		pos += literal.length();
+	}
+
+	/**
+	 * Consume the expected character.
+	 *
+	 * @param c
+	 *            The expected character
+	 */
+	void expect(char c) {
+		if (peek() != c) {
+			throw error("Expected '" + c + "'");
+		}
+		pos++;
+	}
+
+	/**
+	 * Obtain the character at the current position.
+	 *
+	 * @return The character, or 0 at the end of the text
+	 */
+	char peek() {
+		return pos < text.length() ? text.charAt(pos) : 0;
+	}
+
+	/**
+	 * Skip whitespace characters.
+	 */
+	void skipWhitespace() {
+		while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+			pos++;
+		}
+	}
+
+	/**
+	 * Create an exception for a parse error at the current position.
+	 *
+	 * @param message
+	 *            The error message
+	 * @return The exception
+	 */
+	TFException error(String message) {
+		return new TFException("Invalid JSON at position " + pos + ": " + message);
+	}
+
+	/**
+	 * Write a string as a quoted JSON string.
+	 *
+	 * @param s
+	 *            The string
+	 * @param out
+	 *            The output
+	 * @throws IOException
+	 *             if problem occurs writing the output
+	 */
+	static void writeString(String s, Appendable out) throws IOException {
+		out.append('"');
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			switch (c) {
+			case '"':
+				out.append("\\\"");
+				break;
+			case '\\':
+				out.append("\\\\");
+				break;
+			case '\n':
+				out.append("\\n");
+				break;
+			case '\r':
+				out.append("\\r");
+				break;
+			case '\t':
+				out.append("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					out.append(String.format("\\u%04x", (int) c));
+				} else {
+					out.append(c);
+				}
+			}
+		}
+		out.append('"');
+	}
+}
@@ -0,0 +1,404 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+package org.codait.stf4j.serving;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import org.codait.stf4j.TFException;
+import org.codait.stf4j.util.ArrayUtil;
+import org.codait.stf4j.util.TFUtil;
+import org.tensorflow.Tensor;
+import org.tensorflow.framework.DataType;
+import org.tensorflow.framework.TensorInfo;
+import org.tensorflow.framework.TensorShapeProto;
+import org.tensorflow.types.UInt8;
+
+/**
+ * Conversion between parsed JSON values and Tensors. Input values are written directly into typed buffers according
+ * to the SignatureDef data type, and output values are written as JSON directly from the Tensor buffers, without
+ * intermediate multidimensional Java arrays. Binary strings can be given as {"b64": "..."} objects, as in TensorFlow
+ * Serving.
+ *
+ */
+class JsonTensors {
+
+	/**
+	 * Convert a parsed JSON value (a scalar or nested lists) to a Tensor with the data type of a TensorInfo object.
+	 *
+	 * @param key
+	 *            The input key
+	 * @param json
+	 *            The JSON value
+	 * @param ti
+	 *            The TensorInfo object
+	 * @return A new Tensor
+	 */
+	static Tensor<?> toTensor(String key, Object json, TensorInfo ti) {
+		long[] shape = shape(json);
+		checkShape(key, shape, ti.getTensorShape());
+		List<Object> values = new ArrayList<Object>();
+		flatten(key, json, shape, 0, values);
+		int n = values.size();
+		DataType dtype = ti.getDtype();
+		try {
+			switch (dtype) {
+			case DT_FLOAT:
+				FloatBuffer fb = FloatBuffer.allocate(n);
+				for (Object v : values) {
+					fb.put(number(key, v).floatValue());
+				}
+				fb.flip();
+				return Tensor.create(shape, fb);
+			case DT_DOUBLE:
+				DoubleBuffer db = DoubleBuffer.allocate(n);
+				for (Object v : values) {
+					db.put(number(key, v).doubleValue());
+				}
+				db.flip();
+				return Tensor.create(shape, db);
+			case DT_INT32:
+				IntBuffer ib = IntBuffer.allocate(n);
+				for (Object v : values) {
+					ib.put(number(key, v).intValue());
+				}
+				ib.flip();
+				return Tensor.create(shape, ib);
+			case DT_INT64:
+				LongBuffer lb = LongBuffer.allocate(n);
+				for (Object v : values) {
+					lb.put(number(key, v).longValue());
+				}
+				lb.flip();
+				return Tensor.create(shape, lb);
+			case DT_UINT8:
+				ByteBuffer ub = ByteBuffer.allocate(n);
+				for (Object v : values) {
+					ub.put((byte) number(key, v).intValue());
+				}
+				ub.flip();
+				return Tensor.create(UInt8.class, shape, ub);
+			case DT_BOOL:
+				ByteBuffer bb = ByteBuffer.allocate(n);
+				for (Object v : values) {
+					if (!(v instanceof Boolean)) {
+						throw new TFException("Input '" + key + "' expects boolean values but received: " + v);
+					}
+					bb.put((byte) (((Boolean) v) ? 1 : 0));
+				}
+				bb.flip();
+				return Tensor.create(Boolean.class, shape, bb);
+			case DT_STRING:
+				if (shape.length == 0) {
+					return Tensor.create(bytes(key, values.get(0)), String.class);
+				}
+				Object strings = Array.newInstance(byte[].class, ArrayUtil.lToI(shape));
+				fillStrings(key, strings, values, 0);
+				return Tensor.create(strings, String.class);
+			default:
+				throw new TFException("Input '" + key + "' has unsupported data type " + dtype);
+			}
+		} catch (IllegalArgumentException e) {
+			throw new TFException("Could not create Tensor for input '" + key + "': " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Obtain the shape of a JSON value from the sizes of its first nested lists.
+	 *
+	 * @param json
+	 *            The JSON value
+	 * @return The shape
+	 */
+	static long[] shape(Object json) {
+		List<Long> dims = new ArrayList<Long>();
+		Object v = json;
+		while (v instanceof List) {
+			List<?> list = (List<?>) v;
+			dims.add((long) list.size());
+			v = list.isEmpty() ? null : list.get(0);
+		}
+		long[] shape = new long[dims.size()];
+		for (int i = 0; i < shape.length; i++) {
+			shape[i] = dims.get(i);
+		}
+		return shape;
+	}
+
+	/**
+	 * Check a shape against the shape of a TensorInfo object. Dimensions of unknown size (-1) match any size.
+	 *
+	 * @param key
+	 *            The input key
+	 * @param shape
+	 *            The shape of the JSON value
+	 * @param tsp
+	 *            The TensorInfo shape
+	 */
+	static void checkShape(String key, long[] shape, TensorShapeProto tsp) {
+		if (tsp.getUnknownRank()) {
+			return;
+		}
+		boolean matches = tsp.getDimCount() == shape.length;
+		for (int i = 0; matches && i < shape.length; i++) {
+			long size = tsp.getDim(i).getSize();
+			matches = size < 0 || size == shape[i];
+		}
+		if (!matches) {
+			StringBuilder expected = new StringBuilder("(");
+			for (int i = 0; i < tsp.getDimCount(); i++) {
+				if (i > 0) {
+					expected.append(", ");
+				}
+				expected.append(tsp.getDim(i).getSize());
+			}
+			expected.append(")");
+			throw new TFException("Input '" + key + "' has shape " + Arrays.toString(shape)
+					+ " but the SignatureDef shape is " + expected);
+		}
+	}
+
+	/**
+	 * Add the leaf values of a JSON value to a list in row-major order, checking that the nested lists are not ragged.
+	 *
+	 * @param key
+	 *            The input key
+	 * @param json
+	 *            The JSON value
+	 * @param shape
+	 *            The shape of the JSON value
+	 * @param dim
+	 *            The dimension of the JSON value
+	 * @param values
+	 *            The list of leaf values
+	 */
+	static void flatten(String key, Object json, long[] shape, int dim, List<Object> values) {
+		if (dim == shape.length) {
+			if (json instanceof List) {
+				throw new TFException("Input '" + key + "' has inconsistent nesting");
+			}
+			values.add(json);
+			return;
+		}
+		if (!(json instanceof List) || ((List<?>) json).size() != shape[dim]) {
+			throw new TFException("Input '" + key + "' is not a rectangular array");
+		}
+		for (Object v : (List<?>) json) {
+			flatten(key, v, shape, dim + 1, values);
+		}
+	}
+
+	/**
+	 * Obtain a JSON value as a number.
+	 *
+	 * @param key
+	 *            The input key
+	 * @param value
+	 *            The JSON value
+	 * @return The number
+	 */
+	static Number number(String key, Object value) {
+		if (value instanceof Number) {
+			return (Number) value;
+		}
+		if (value instanceof Boolean) {
+			return ((Boolean) value) ? 1 : 0;
+		}
+		throw new TFException("Input '" + key + "' expects numeric values but received: " + value);
+	}
+
+	/**
+	 * Obtain the bytes of a JSON string, or of a {"b64": "..."} object containing base64-encoded bytes.
+	 *
+	 * @param key
+	 *            The input key
+	 * @param value
+	 *            The JSON value
+	 * @return The bytes
+	 */
+	static byte[] bytes(String key, Object value) {
+		if (value instanceof String) {
+			return ((String) value).getBytes(StandardCharsets.UTF_8);
+		}
+		if (value instanceof Map && ((Map<?, ?>) value).get("b64") instanceof String) {
+			try {
+				return Base64.getDecoder().decode((String) ((Map<?, ?>) value).get("b64"));
+			} catch (IllegalArgumentException e) {
+				throw new TFException("Input '" + key + "' has invalid base64 value", e);
+			}
+		}
+		throw new TFException("Input '" + key + "' expects string values but received: " + value);
+	}
+
+	/**
+	 * Set the elements of a multidimensional byte[] array to the bytes of string values in row-major order.
+	 *
+	 * @param key
+	 *            The input key
+	 * @param array
+	 *            The multidimensional byte[] array
+	 * @param values
+	 *            The string values
+	 * @param index
+	 *            The index of the first value to set
+	 * @return The index of the next value
+	 */
+	static int fillStrings(String key, Object array, List<Object> values, int index) {
+		if (array instanceof byte[][]) {
+			byte[][] b = (byte[][]) array;
+			for (int i = 0; i < b.length; i++) {
+				b[i] = bytes(key, values.get(index++));
+			}
+			return index;
+		}
+		for (Object element : (Object[]) array) {
+			index = fillStrings(key, element, values, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Write the values of a Tensor as JSON (nested arrays or a scalar).
+	 *
+	 * @param tensor
+	 *            The Tensor
+	 * @param out
+	 *            The output
+	 * @throws IOException
+	 *             if problem occurs writing the output
+	 */
+	static void write(Tensor<?> tensor, Appendable out) throws IOException {
+		new TensorWriter(tensor).write(out, 0, 0);
+	}
+
+	/**
+	 * Write the values of one row (index of dimension 0) of a Tensor as JSON.
+	 *
+	 * @param tensor
+	 *            The Tensor
+	 * @param row
+	 *            The row
+	 * @param out
+	 *            The output
+	 * @throws IOException
+	 *             if problem occurs writing the output
+	 */
+	static void writeRow(Tensor<?> tensor, int row, Appendable out) throws IOException {
+		TensorWriter writer = new TensorWriter(tensor);
+		writer.write(out, 1, row * writer.strides[0]);
+	}
+
+	/**
+	 * Writes the values of a Tensor as JSON, reading them from the Tensor buffer.
+	 */
+	static class TensorWriter {
+		final Tensor<?> tensor;
+		final long[] shape;
+		final long[] strides;
+		final ByteBuffer buffer;
+
+		TensorWriter(Tensor<?> tensor) {
+			this.tensor = tensor;
+			this.shape = tensor.shape();
+			this.strides = new long[shape.length];
+			long stride = 1;
+			for (int i = shape.length - 1; i >= 0; i--) {
+				strides[i] = stride;
+				stride *= shape[i];
+			}
+			this.buffer = TFUtil.tensorBuffer(tensor);
+		}
+
+		void write(Appendable out, int dim, long offset) throws IOException {
+			if (dim == shape.length) {
+				writeValue(out, (int) offset);
+				return;
+			}
+			out.append('[');
+			for (long i = 0; i < shape[dim]; i++) {
+				if (i > 0) {
+					out.append(',');
+				}
+				write(out, dim + 1, offset + i * strides[dim]);
+			}
+			out.append(']');
+		}
+
+		void writeValue(Appendable out, int index) throws IOException {
+			switch (tensor.dataType()) {
+			case FLOAT:
+				float f = buffer.getFloat(index * 4);
+				if (Float.isNaN(f) || Float.isInfinite(f)) {
+					writeDouble(f, out);
+				} else {
+					out.append(Float.toString(f));
+				}
+				break;
+			case DOUBLE:
+				writeDouble(buffer.getDouble(index * 8), out);
+				break;
+			case INT32:
+				out.append(Integer.toString(buffer.getInt(index * 4)));
+				break;
+			case INT64:
+				out.append(Long.toString(buffer.getLong(index * 8)));
+				break;
+			case UINT8:
+				out.append(Integer.toString(buffer.get(index) & 0xff));
+				break;
+			case BOOL:
+				out.append(buffer.get(index) != 0 ? "true" : "false");
+				break;
+			case STRING:
+				Json.writeString(TFUtil.stringElement(tensor, buffer, index), out);
+				break;
+			default:
+				throw new TFException("Unsupported output data type: " + tensor.dataType());
+			}
+		}
+	}
+
+	/**
+	 * Write a floating-point value as JSON. NaN and infinite values are written as in TensorFlow Serving.
+	 *
+	 * @param d
+	 *            The value
+	 * @param out
+	 *            The output
+	 * @throws IOException
+	 *             if problem occurs writing the output
+	 */
+	static void writeDouble(double d, Appendable out) throws IOException {
+		if (Double.isNaN(d)) {
+			out.append("NaN");
+		} else if (Double.isInfinite(d)) {
+			out.append(d > 0 ? "Infinity" : "-Infinity");
+		} else {
+			out.append(Double.toString(d));
+		}
+	}
+}
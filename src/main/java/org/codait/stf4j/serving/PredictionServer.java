@@ -0,0 +1,557 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+package org.codait.stf4j.serving;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.codait.stf4j.PreparedRun;
+import org.codait.stf4j.TFException;
+import org.codait.stf4j.TFModel;
+import org.codait.stf4j.TFResults;
+import org.codait.stf4j.async.InferenceExecutor;
+import org.codait.stf4j.async.InferenceExecutor.Saturation;
+import org.tensorflow.Tensor;
+import org.tensorflow.framework.TensorInfo;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Embedded HTTP server with a TensorFlow Serving style REST API for TFModels, based on the JDK HttpServer. Each
+ * registered model is served at {@code POST /v1/models/{name}:predict}. The request body is a JSON object in either
+ * the row format, {@code {"signature_name": ..., "instances": [...]}}, or the columnar format,
+ * {@code {"signature_name": ..., "inputs": ...}}. The signature name defaults to "serving_default".
+ *
+ * JSON values are converted directly to Tensors using the data types of the SignatureDef inputs, and all outputs of
+ * the SignatureDef are written from the output Tensor buffers to the response as {@code {"predictions": ...}} (row
+ * format) or {@code {"outputs": ...}} (columnar format). Requests are handled by a fixed number of worker threads,
+ * which share the loaded models through thread-safe PreparedRuns.
+ *
+ * <pre>
+ * PredictionServer server = new PredictionServer(8501, 4).model("mnist", mnist).start();
+ * // curl -d '{"instances": [[...]]}' http://localhost:8501/v1/models/mnist:predict
+ * server.close();
+ * </pre>
+ */
+public class PredictionServer implements AutoCloseable {
+
+	/**
+	 * Logger for PredictionServer
+	 */
+	protected static Logger log = LogManager.getLogger(PredictionServer.class);
+
+	/**
+	 * Default SignatureDef key.
+	 */
+	public static final String DEFAULT_SIGNATURE = "serving_default";
+	/**
+	 * Prefix of the model paths.
+	 */
+	static final String MODELS_PATH = "/v1/models/";
+	/**
+	 * Suffix of the predict paths.
+	 */
+	static final String PREDICT_SUFFIX = ":predict";
+	/**
+	 * Maximum request body size in bytes.
+	 */
+	static final int MAX_BODY_BYTES = 256 * 1024 * 1024;
+
+	/**
+	 * The HTTP server.
+	 */
+	final HttpServer server;
+	/**
+	 * The worker threads.
+	 */
+	final ThreadPoolExecutor workers;
+	/**
+	 * Mapping of model names to models.
+	 */
+	final ConcurrentMap<String, TFModel> models = new ConcurrentHashMap<String, TFModel>();
+	/**
+	 * Mapping of model names and SignatureDef keys to PreparedRuns with all inputs and outputs of the SignatureDef.
+	 */
+	final ConcurrentMap<String, PreparedRun> preparedRuns = new ConcurrentHashMap<String, PreparedRun>();
+
+	/**
+	 * Create a PredictionServer listening on all interfaces.
+	 *
+	 * @param port
+	 *            The port (0 for an ephemeral port)
+	 * @param threads
+	 *            Number of worker threads
+	 * @throws IOException
+	 *             if the server cannot be bound to the port
+	 */
+	public PredictionServer(int port, int threads) throws IOException {
+		this(new InetSocketAddress(port), threads, threads * 16);
+	}
+
+	/**
+	 * Create a PredictionServer. When all worker threads are busy and the queue is full, the server stops accepting
+	 * requests until a worker is available.
+	 *
+	 * @param address
+	 *            The address to listen on (port 0 for an ephemeral port)
+	 * @param threads
+	 *            Number of worker threads
+	 * @param queueCapacity
+	 *            Maximum number of accepted requests waiting for a worker thread
+	 * @throws IOException
+	 *             if the server cannot be bound to the address
+	 */
+	public PredictionServer(InetSocketAddress address, int threads, int queueCapacity) throws IOException {
+		workers = InferenceExecutor.newPool("PredictionServer", threads, queueCapacity, Saturation.WAIT);
+		server = HttpServer.create(address, 0);
+		server.setExecutor(workers);
+		server.createContext(MODELS_PATH, exchange -> handle(exchange));
+	}
+
+	/**
+	 * Serve a model under a name. The model is not closed by the server.
+	 *
+	 * @param name
+	 *            The model name used in the request path
+	 * @param model
+	 *            The model
+	 * @return {@code this} PredictionServer object to allow chaining of methods
+	 */
+	public PredictionServer model(String name, TFModel model) {
+		models.put(name, model);
+		for (String key : new ArrayList<String>(preparedRuns.keySet())) {
+			if (key.startsWith(name + "/")) {
+				preparedRuns.remove(key);
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Start accepting requests.
+	 *
+	 * @return {@code this} PredictionServer object to allow chaining of methods
+	 */
+	public PredictionServer start() {
+		server.start();
+		log.info("PredictionServer listening on port " + port());
+		return this;
+	}
+
+	/**
+	 * Obtain the port that the server listens on, such as the ephemeral port chosen for port 0.
+	 *
+	 * @return The port
+	 */
+	public int port() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Stop the server, waiting up to one second for requests in progress to complete. The served models are not
+	 * closed.
+	 */
+	@Override
+	public void close() {
+		server.stop(1);
+		workers.shutdown();
+		try {
+			workers.awaitTermination(1, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		log.debug("Closed PredictionServer");
+	}
+
+	/**
+	 * Handle a request to a model path.
+	 *
+	 * @param exchange
+	 *            The HTTP exchange
+	 */
+	void handle(HttpExchange exchange) {
+		try {
+			String path = exchange.getRequestURI().getPath();
+			if (!path.endsWith(PREDICT_SUFFIX)) {
+				sendError(exchange, 404, "Unknown path: " + path);
+				return;
+			}
+			String name = path.substring(MODELS_PATH.length(), path.length() - PREDICT_SUFFIX.length());
+			TFModel model = models.get(name);
+			if (model == null) {
+				sendError(exchange, 404, "Model '" + name + "' not found");
+				return;
+			}
+			if (!"POST".equals(exchange.getRequestMethod())) {
+				exchange.getResponseHeaders().set("Allow", "POST");
+				sendError(exchange, 405, "Method " + exchange.getRequestMethod() + " not allowed");
+				return;
+			}
+			Object request = Json.parse(readBody(exchange.getRequestBody(), MAX_BODY_BYTES));
+			if (!(request instanceof Map)) {
+				throw new TFException("Request body must be a JSON object");
+			}
+			predict(exchange, name, model, (Map<?, ?>) request);
+		} catch (TFException e) {
+			sendError(exchange, 400, e.getMessage());
+		} catch (Exception e) {
+			log.error("Prediction failed", e);
+			sendError(exchange, 500, String.valueOf(e.getMessage()));
+		} finally {
+			exchange.close();
+		}
+	}
+
+	/**
+	 * Run a model for a predict request and write the response.
+	 *
+	 * @param exchange
+	 *            The HTTP exchange
+	 * @param name
+	 *            The model name
+	 * @param model
+	 *            The model
+	 * @param request
+	 *            The parsed request
+	 * @throws IOException
+	 *             if problem occurs writing the response
+	 */
+	void predict(HttpExchange exchange, String name, TFModel model, Map<?, ?> request) throws IOException {
+		Object signatureName = request.get("signature_name");
+		String signatureDefKey = signatureName == null ? DEFAULT_SIGNATURE : signatureName.toString();
+		PreparedRun preparedRun = preparedRun(name, model, signatureDefKey);
+		String[] inputKeys = preparedRun.inputKeys();
+		String[] outputKeys = preparedRun.outputKeys();
+		Map<String, TensorInfo> inputInfos = model.signatureIndex().signatureInputs(signatureDefKey);
+
+		boolean rows = request.containsKey("instances");
+		Object data = rows ? request.get("instances") : request.get("inputs");
+		if (data == null) {
+			throw new TFException("Request needs 'instances' or 'inputs'");
+		}
+		if (rows && !(data instanceof List)) {
+			throw new TFException("'instances' must be a list");
+		}
+		Object[] columns = rows ? rowsToColumns(inputKeys, (List<?>) data) : columns(inputKeys, data);
+
+		List<Tensor<?>> inputs = new ArrayList<Tensor<?>>(inputKeys.length);
+		TFResults results = null;
+		try {
+			for (int i = 0; i < inputKeys.length; i++) {
+				inputs.add(JsonTensors.toTensor(inputKeys[i], columns[i], inputInfos.get(inputKeys[i])));
+			}
+			results = preparedRun.run(inputs.toArray());
+			if (rows) {
+				checkRows(results, outputKeys, ((List<?>) data).size());
+			}
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, 0);
+			Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8),
+					1 << 16);
+			if (rows) {
+				writePredictions(out, results, outputKeys, ((List<?>) data).size());
+			} else {
+				writeOutputs(out, results, outputKeys);
+			}
+			out.flush();
+		} finally {
+			for (Tensor<?> tensor : inputs) {
+				tensor.close();
+			}
+			if (results != null) {
+				results.close();
+			}
+		}
+	}
+
+	/**
+	 * Obtain the PreparedRun for all inputs and outputs of a SignatureDef of a model, creating it if necessary.
+	 *
+	 * @param name
+	 *            The model name
+	 * @param model
+	 *            The model
+	 * @param signatureDefKey
+	 *            The SignatureDef key
+	 * @return The PreparedRun
+	 */
+	PreparedRun preparedRun(String name, TFModel model, String signatureDefKey) {
+		String key = name + "/" + signatureDefKey;
+		PreparedRun preparedRun = preparedRuns.get(key);
+		if (preparedRun == null) {
+			if (!model.signatureIndex().hasSignatureDef(signatureDefKey)) {
+				throw new TFException("SignatureDef '" + signatureDefKey + "' not found in model '" + name + "'");
+			}
+			String[] inputKeys = model.signatureIndex().signatureInputs(signatureDefKey).keySet()
+					.toArray(new String[0]);
+			String[] outputKeys = model.signatureIndex().signatureOutputs(signatureDefKey).keySet()
+					.toArray(new String[0]);
+			preparedRun = model.prepare(signatureDefKey, inputKeys, outputKeys);
+			preparedRuns.put(key, preparedRun);
+		}
+		return preparedRun;
+	}
+
+	/**
+	 * Convert the instances of a row format request to one value per input key, with the instances along dimension 0.
+	 *
+	 * @param inputKeys
+	 *            The input keys
+	 * @param instances
+	 *            The instances
+	 * @return The input values
+	 */
+	static Object[] rowsToColumns(String[] inputKeys, List<?> instances) {
+		Object[] columns = new Object[inputKeys.length];
+		if (inputKeys.length == 1 && (instances.isEmpty() || !isNamedInstance(instances.get(0), inputKeys))) {
+			columns[0] = instances;
+			return columns;
+		}
+		for (int i = 0; i < inputKeys.length; i++) {
+			List<Object> column = new ArrayList<Object>(instances.size());
+			for (Object instance : instances) {
+				if (!(instance instanceof Map) || !((Map<?, ?>) instance).containsKey(inputKeys[i])) {
+					throw new TFException("Instance is missing input '" + inputKeys[i] + "'");
+				}
+				column.add(((Map<?, ?>) instance).get(inputKeys[i]));
+			}
+			columns[i] = column;
+		}
+		return columns;
+	}
+
+	/**
+	 * Check whether an instance is an object that contains the input keys.
+	 *
+	 * @param instance
+	 *            The instance
+	 * @param inputKeys
+	 *            The input keys
+	 * @return true if the instance is an object that contains the input keys
+	 */
+	static boolean isNamedInstance(Object instance, String[] inputKeys) {
+		if (!(instance instanceof Map) || ((Map<?, ?>) instance).containsKey("b64")) {
+			return false;
+		}
+		for (String inputKey : inputKeys) {
+			if (!((Map<?, ?>) instance).containsKey(inputKey)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Obtain one value per input key from the inputs of a columnar format request.
+	 *
+	 * @param inputKeys
+	 *            The input keys
+	 * @param inputs
+	 *            The inputs, which is an object of input values by input key, or a single input value
+	 * @return The input values
+	 */
+	static Object[] columns(String[] inputKeys, Object inputs) {
+		Object[] columns = new Object[inputKeys.length];
+		if (inputKeys.length == 1 && !isNamedInstance(inputs, inputKeys)) {
+			columns[0] = inputs;
+			return columns;
+		}
+		if (!(inputs instanceof Map)) {
+			throw new TFException("'inputs' must be an object with the input keys " + String.join(", ", inputKeys));
+		}
+		for (int i = 0; i < inputKeys.length; i++) {
+			if (!((Map<?, ?>) inputs).containsKey(inputKeys[i])) {
+				throw new TFException("'inputs' is missing input '" + inputKeys[i] + "'");
+			}
+			columns[i] = ((Map<?, ?>) inputs).get(inputKeys[i]);
+		}
+		return columns;
+	}
+
+	/**
+	 * Check that every output has one row per instance.
+	 *
+	 * @param results
+	 *            The results
+	 * @param outputKeys
+	 *            The output keys
+	 * @param instances
+	 *            The number of instances
+	 */
+	static void checkRows(TFResults results, String[] outputKeys, int instances) {
+		for (String outputKey : outputKeys) {
+			long[] shape = results.getTensor(outputKey).shape();
+			if (shape.length == 0 || shape[0] != instances) {
+				throw new TFException("Output '" + outputKey + "' does not have one row per instance; use 'inputs'");
+			}
+		}
+	}
+
+	/**
+	 * Write the results of a row format request.
+	 *
+	 * @param out
+	 *            The output
+	 * @param results
+	 *            The results
+	 * @param outputKeys
+	 *            The output keys
+	 * @param instances
+	 *            The number of instances
+	 * @throws IOException
+	 *             if problem occurs writing the output
+	 */
+	static void writePredictions(Writer out, TFResults results, String[] outputKeys, int instances)
+			throws IOException {
+		out.write("{\"predictions\":[");
+		for (int row = 0; row < instances; row++) {
+			if (row > 0) {
+				out.write(',');
+			}
+			if (outputKeys.length == 1) {
+				JsonTensors.writeRow(results.getTensor(outputKeys[0]), row, out);
+				continue;
+			}
+			out.write('{');
+			for (int i = 0; i < outputKeys.length; i++) {
+				if (i > 0) {
+					out.write(',');
+				}
+				Json.writeString(outputKeys[i], out);
+				out.write(':');
+				JsonTensors.writeRow(results.getTensor(outputKeys[i]), row, out);
+			}
+			out.write('}');
+		}
+		out.write("]}");
+	}
+
+	/**
+	 * Write the results of a columnar format request.
+	 *
+	 * @param out
+	 *            The output
+	 * @param results
+	 *            The results
+	 * @param outputKeys
+	 *            The output keys
+	 * @throws IOException
+	 *             if problem occurs writing the output
+	 */
+	static void writeOutputs(Writer out, TFResults results, String[] outputKeys) throws IOException {
+		out.write("{\"outputs\":");
+		if (outputKeys.length == 1) {
+			JsonTensors.write(results.getTensor(outputKeys[0]), out);
+		} else {
+			out.write('{');
+			for (int i = 0; i < outputKeys.length; i++) {
+				if (i > 0) {
+					out.write(',');
+				}
+				Json.writeString(outputKeys[i], out);
+				out.write(':');
+				JsonTensors.write(results.getTensor(outputKeys[i]), out);
+			}
+			out.write('}');
+		}
+		out.write('}');
+	}
+
+	/**
+	 * Send an error response.
+	 *
+	 * @param exchange
+	 *            The HTTP exchange
+	 * @param status
+	 *            The HTTP status code
+	 * @param message
+	 *            The error message
+	 */
+	static void sendError(HttpExchange exchange, int status, String message) {
+		try {
+			StringBuilder sb = new StringBuilder("{\"error\":");
+			Json.writeString(message, sb);
+			sb.append('}');
+			byte[] body = sb.toString().getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(status, body.length);
+			exchange.getResponseBody().write(body);
+		} catch (IOException e) {
+			log.debug("Could not send error response: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Read a request body as UTF-8 text.
+	 *
+	 * @param in
+	 *            The request body
+	 * @param maxBytes
+	 *            Maximum body size in bytes
+	 * @return The text
+	 * @throws IOException
+	 *             if problem occurs reading the body
+	 */
+	static String readBody(InputStream in, int maxBytes) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int n;
+		while ((n = in.read(buffer)) > 0) {
+			if (bytes.size() + n > maxBytes) {
+				throw new TFException("Request body exceeds " + maxBytes + " bytes");
+			}
+			bytes.write(buffer, 0, n);
+		}
+		return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Display the served models.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("PredictionServer on port ");
+		sb.append(port());
+		sb.append(":\n");
+		for (Entry<String, TFModel> entry : models.entrySet()) {
+			sb.append("  ");
+			sb.append(MODELS_PATH);
+			sb.append(entry.getKey());
+			sb.append(PREDICT_SUFFIX);
+			sb.append(" -> ");
+			sb.append(entry.getValue().modelDir());
+			sb.append("\n");
+		}
+		return sb.toString();
+	}
+}
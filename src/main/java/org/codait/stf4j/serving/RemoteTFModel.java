@@ -0,0 +1,663 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+package org.codait.stf4j.serving;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.codait.stf4j.TFException;
+import org.codait.stf4j.TFResults;
+import org.codait.stf4j.util.InputConverter;
+import org.codait.stf4j.util.SignatureIndex;
+import org.codait.stf4j.util.TFUtil;
+import org.tensorflow.Tensor;
+import org.tensorflow.framework.MetaGraphDef;
+import org.tensorflow.framework.TensorInfo;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+
+/**
+ * Client for a model served by a TensorServer, with the same in(), out(), and run() methods as TFModel. The
+ * SignatureDefs of the model are obtained from the server when first needed, so input values are converted to Tensors
+ * in the same way as by a TFModel. Input and output Tensors are sent as raw values in a binary protocol, and the
+ * results are returned as a TFResults object.
+ *
+ * <pre>
+ * try (RemoteTFModel model = new RemoteTFModel("localhost", 8500, "mnist")) {
+ * 	int prediction = model.sig("serving_default").in("image", image).out("classes").run().getInt("classes");
+ * }
+ * </pre>
+ *
+ * A RemoteTFModel keeps a pool of connections to the server. Requests are sent on the connections in turn, and a
+ * connection carries any number of outstanding requests, so runAsync() can be used to pipeline requests. A connection
+ * that fails is replaced by a new connection for the next request. As with TFModel, the in(), out(), and run() methods
+ * are not thread-safe, but runAsync() calls that do not change the inputs and outputs can be made concurrently.
+ *
+ */
+public class RemoteTFModel implements AutoCloseable {
+
+	/**
+	 * Logger for RemoteTFModel
+	 */
+	protected static Logger log = LogManager.getLogger(RemoteTFModel.class);
+
+	/**
+	 * Default number of connections.
+	 */
+	public static final int DEFAULT_CONNECTIONS = 2;
+
+	/**
+	 * The server address.
+	 */
+	final InetSocketAddress address;
+	/**
+	 * The name of the model on the server.
+	 */
+	final String modelName;
+	/**
+	 * Maximum size of a response in bytes.
+	 */
+	final int maxFrameBytes;
+	/**
+	 * The connections, which are opened when first needed.
+	 */
+	final AtomicReferenceArray<Connection> connections;
+	/**
+	 * Counter used to choose the connection of the next request.
+	 */
+	final AtomicInteger nextConnection = new AtomicInteger();
+	/**
+	 * Index of the SignatureDefs of the model, obtained from the server.
+	 */
+	volatile SignatureIndex signatureIndex;
+	/**
+	 * The SignatureDef key.
+	 */
+	String signatureDefKey = PredictionServer.DEFAULT_SIGNATURE;
+	/**
+	 * Mapping of input keys to Tensors.
+	 */
+	final Map<String, Tensor<?>> inputs = new LinkedHashMap<String, Tensor<?>>();
+	/**
+	 * Input keys of the Tensors that were created by this RemoteTFModel.
+	 */
+	final Set<String> ownedInputKeys = new HashSet<String>();
+	/**
+	 * Mapping of input keys to the converters last used for their values.
+	 */
+	final Map<String, InputConverter> inputConverters = new HashMap<String, InputConverter>();
+	/**
+	 * The output keys.
+	 */
+	final Set<String> outputKeys = new LinkedHashSet<String>();
+	/**
+	 * The results of the last run(), which are closed when the model is run again.
+	 */
+	TFResults results;
+
+	/**
+	 * Create a RemoteTFModel with the default number of connections.
+	 *
+	 * @param host
+	 *            The server host
+	 * @param port
+	 *            The server port
+	 * @param modelName
+	 *            The name of the model on the server
+	 */
+	public RemoteTFModel(String host, int port, String modelName) {
+		this(new InetSocketAddress(host, port), modelName, DEFAULT_CONNECTIONS);
+	}
+
+	/**
+	 * Create a RemoteTFModel.
+	 *
+	 * @param address
+	 *            The server address
+	 * @param modelName
+	 *            The name of the model on the server
+	 * @param connections
+	 *            The number of connections
+	 */
+	public RemoteTFModel(InetSocketAddress address, String modelName, int connections) {
+		if (connections < 1) {
+			throw new TFException("Number of connections must be at least 1");
+		}
+		this.address = address;
+		this.modelName = modelName;
+		this.maxFrameBytes = WireProtocol.DEFAULT_MAX_FRAME_BYTES;
+		this.connections = new AtomicReferenceArray<Connection>(connections);
+	}
+
+	/**
+	 * Obtain the index of the SignatureDefs of the model, which is requested from the server when first needed.
+	 *
+	 * @return The SignatureIndex
+	 */
+	public SignatureIndex signatureIndex() {
+		if (signatureIndex == null) {
+			ByteBuffer response = await(connection().send(WireProtocol.metadata(0, modelName)));
+			try {
+				checkType(response, WireProtocol.SIGNATURES);
+				byte[] bytes = new byte[WireProtocol.getCount(response)];
+				response.get(bytes);
+				signatureIndex = new SignatureIndex(MetaGraphDef.parseFrom(bytes));
+			} catch (BufferUnderflowException e) {
+				throw WireProtocol.truncated(e);
+			} catch (InvalidProtocolBufferException e) {
+				throw new TFException("Could not parse SignatureDefs of model '" + modelName + "'", e);
+			}
+		}
+		return signatureIndex;
+	}
+
+	/**
+	 * Specify the SignatureDef key. The default is "serving_default".
+	 *
+	 * @param signatureDefKey
+	 *            The SignatureDef key
+	 * @return {@code this} RemoteTFModel object to allow chaining of methods
+	 */
+	public RemoteTFModel sig(String signatureDefKey) {
+		if (!signatureIndex().hasSignatureDef(signatureDefKey)) {
+			throw new TFException("SignatureDef '" + signatureDefKey + "' not found in model '" + modelName + "'");
+		}
+		this.signatureDefKey = signatureDefKey;
+		return this;
+	}
+
+	/**
+	 * Add an input by specifying an input key and the corresponding value. If the value is not a Tensor, it is
+	 * converted to a Tensor as by the TFModel in() method, which is owned by this RemoteTFModel. A Tensor value is sent
+	 * as is and remains the responsibility of the caller.
+	 *
+	 * @param inputKey
+	 *            The input key
+	 * @param inputValue
+	 *            The input value
+	 * @return {@code this} RemoteTFModel object to allow chaining of methods
+	 */
+	public RemoteTFModel in(String inputKey, Object inputValue) {
+		if (inputValue == null) {
+			throw new TFException("Input value cannot be null");
+		}
+		if (inputValue instanceof Tensor) {
+			signatureIndex().inputTensorInfo(signatureDefKey, inputKey);
+			putInput(inputKey, (Tensor<?>) inputValue, false);
+		} else {
+			TensorInfo ti = signatureIndex().inputTensorInfo(signatureDefKey, inputKey);
+			InputConverter converter = InputConverter.forValue(inputConverters.get(inputKey), inputKey, ti.getName(),
+					inputValue, ti);
+			inputConverters.put(inputKey, converter);
+			putInput(inputKey, converter.convert(inputValue), true);
+		}
+		return this;
+	}
+
+	/**
+	 * Add an input by specifying an input key, a buffer containing the input values, and the shape of the input, as by
+	 * the TFModel in() method for buffers.
+	 *
+	 * @param inputKey
+	 *            The input key
+	 * @param inputValue
+	 *            The buffer containing the input values
+	 * @param shape
+	 *            The shape of the input
+	 * @return {@code this} RemoteTFModel object to allow chaining of methods
+	 */
+	public RemoteTFModel in(String inputKey, Buffer inputValue, long[] shape) {
+		if (inputValue == null) {
+			throw new TFException("Input value cannot be null");
+		}
+		if (shape == null) {
+			throw new TFException("Shape cannot be null");
+		}
+		TensorInfo ti = signatureIndex().inputTensorInfo(signatureDefKey, inputKey);
+		putInput(inputKey, TFUtil.convertBufferToTensor(inputKey, ti.getName(), inputValue, shape, ti), true);
+		return this;
+	}
+
+	/**
+	 * Set an input Tensor, closing the owned Tensor that it replaces.
+	 *
+	 * @param inputKey
+	 *            The input key
+	 * @param tensor
+	 *            The Tensor
+	 * @param owned
+	 *            Whether the Tensor is owned by this RemoteTFModel
+	 */
+	void putInput(String inputKey, Tensor<?> tensor, boolean owned) {
+		Tensor<?> previous = inputs.put(inputKey, tensor);
+		if (previous != null && ownedInputKeys.remove(inputKey) && previous != tensor) {
+			previous.close();
+		}
+		if (owned) {
+			ownedInputKeys.add(inputKey);
+		}
+	}
+
+	/**
+	 * Add an output by specifying an output key.
+	 *
+	 * @param outputKey
+	 *            The output key
+	 * @return {@code this} RemoteTFModel object to allow chaining of methods
+	 */
+	public RemoteTFModel out(String outputKey) {
+		signatureIndex().outputTensorInfo(signatureDefKey, outputKey);
+		outputKeys.add(outputKey);
+		return this;
+	}
+
+	/**
+	 * Add outputs by specifying output keys.
+	 *
+	 * @param outputKeys
+	 *            The output keys
+	 * @return {@code this} RemoteTFModel object to allow chaining of methods
+	 */
+	public RemoteTFModel out(String... outputKeys) {
+		for (String outputKey : outputKeys) {
+			out(outputKey);
+		}
+		return this;
+	}
+
+	/**
+	 * Run the model on the server with the current inputs and outputs and wait for the results. The results of the
+	 * previous run() are closed, so values should be obtained from the previous TFResults object before the model is
+	 * run again.
+	 *
+	 * @return The results as a TFResults object
+	 */
+	public TFResults run() {
+		closeResults();
+		results = await(runAsync());
+		return results;
+	}
+
+	/**
+	 * Send a request to run the model on the server with the current inputs and outputs, without waiting for the
+	 * results. The inputs are encoded before this method returns, so they can be changed for the next request. The
+	 * returned TFResults are not closed by this RemoteTFModel and should be closed by the caller.
+	 *
+	 * @return A future that completes with the results
+	 */
+	public CompletableFuture<TFResults> runAsync() {
+		if (outputKeys.isEmpty()) {
+			throw new TFException("At least one output key needs to be specified. Possible output keys: "
+					+ signatureIndex().signatureOutputs(signatureDefKey).keySet());
+		}
+		List<String> missing = new ArrayList<String>();
+		for (String inputKey : signatureIndex().signatureInputs(signatureDefKey).keySet()) {
+			if (!inputs.containsKey(inputKey)) {
+				missing.add(inputKey);
+			}
+		}
+		if (!missing.isEmpty()) {
+			throw new TFException(
+					"The following '" + signatureDefKey + "' required input keys are missing: " + missing);
+		}
+		final String sig = signatureDefKey;
+		final SignatureIndex index = signatureIndex();
+		ByteBuffer request = WireProtocol.predict(0, modelName, sig, inputs, outputKeys);
+		return connection().send(request).thenApply(response -> decodeResults(response, sig, index));
+	}
+
+	/**
+	 * Decode the output Tensors of a RESULTS frame.
+	 *
+	 * @param response
+	 *            The response frame, positioned at the body
+	 * @param sig
+	 *            The SignatureDef key of the request
+	 * @param index
+	 *            The SignatureIndex
+	 * @return The results
+	 */
+	static TFResults decodeResults(ByteBuffer response, String sig, SignatureIndex index) {
+		checkType(response, WireProtocol.RESULTS);
+		Map<String, String> outputKeyToName = new LinkedHashMap<String, String>();
+		Map<String, Object> outputNameToValue = new LinkedHashMap<String, Object>();
+		try {
+			int numOutputs = WireProtocol.getCount(response);
+			for (int i = 0; i < numOutputs; i++) {
+				String outputKey = WireProtocol.getString(response);
+				String outputName = index.outputName(sig, outputKey);
+				outputKeyToName.put(outputKey, outputName);
+				outputNameToValue.put(outputName, WireProtocol.getTensor(response));
+			}
+		} catch (RuntimeException e) {
+			for (Object tensor : outputNameToValue.values()) {
+				((Tensor<?>) tensor).close();
+			}
+			throw e instanceof BufferUnderflowException ? WireProtocol.truncated((BufferUnderflowException) e) : e;
+		}
+		return new RemoteResults(index, sig, outputKeyToName, outputNameToValue);
+	}
+
+	/**
+	 * Check the type of a response frame.
+	 *
+	 * @param response
+	 *            The response frame, positioned at the body
+	 * @param type
+	 *            The expected frame type
+	 */
+	static void checkType(ByteBuffer response, byte type) {
+		if (response.get(4) != type) {
+			throw new TFException("Unexpected response type " + response.get(4));
+		}
+	}
+
+	/**
+	 * Wait for a response.
+	 *
+	 * @param future
+	 *            The future of the response
+	 * @return The response
+	 */
+	static <T> T await(CompletableFuture<T> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new TFException("Interrupted while waiting for the server", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof TFException) {
+				throw (TFException) e.getCause();
+			}
+			throw new TFException(e.getCause().getMessage(), e.getCause());
+		}
+	}
+
+	/**
+	 * Obtain the connection for the next request, opening it if necessary.
+	 *
+	 * @return The connection
+	 */
+	Connection connection() {
+		int i = Math.floorMod(nextConnection.getAndIncrement(), connections.length());
+		Connection connection = connections.get(i);
+		if (connection == null || connection.failure != null) {
+			synchronized (connections) {
+				connection = connections.get(i);
+				if (connection == null || connection.failure != null) {
+					try {
+						connection = new Connection(address, maxFrameBytes);
+					} catch (IOException e) {
+						throw new TFException("Could not connect to " + address + ": " + e.getMessage(), e);
+					}
+					connections.set(i, connection);
+				}
+			}
+		}
+		return connection;
+	}
+
+	/**
+	 * Close the results of the last run().
+	 */
+	void closeResults() {
+		if (results != null) {
+			results.close();
+			results = null;
+		}
+	}
+
+	/**
+	 * Clear the inputs, outputs, and results. The input Tensors created by this RemoteTFModel and the output Tensors of
+	 * the last run() are closed.
+	 */
+	public void clear() {
+		for (String inputKey : ownedInputKeys) {
+			inputs.get(inputKey).close();
+		}
+		ownedInputKeys.clear();
+		inputs.clear();
+		outputKeys.clear();
+		closeResults();
+	}
+
+	/**
+	 * Clear the inputs, outputs, and results and close the connections. Requests in progress fail.
+	 */
+	@Override
+	public void close() {
+		clear();
+		synchronized (connections) {
+			for (int i = 0; i < connections.length(); i++) {
+				Connection connection = connections.getAndSet(i, null);
+				if (connection != null) {
+					connection.fail(new TFException("RemoteTFModel has been closed"));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Display the server address, model name, SignatureDef key, inputs, and outputs.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("RemoteTFModel '");
+		sb.append(modelName);
+		sb.append("' at ");
+		sb.append(address);
+		sb.append("\nSignatureDef Key: ");
+		sb.append(signatureDefKey);
+		sb.append("\nInputs:\n");
+		for (Entry<String, Tensor<?>> entry : inputs.entrySet()) {
+			sb.append("  ");
+			sb.append(entry.getKey());
+			sb.append(": ");
+			sb.append(entry.getValue());
+			sb.append("\n");
+		}
+		sb.append("Outputs:\n");
+		for (String outputKey : outputKeys) {
+			sb.append("  ");
+			sb.append(outputKey);
+			sb.append("\n");
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Results of a RemoteTFModel run, whose output TensorInfo objects are obtained from the SignatureDefs sent by the
+	 * server.
+	 */
+	static final class RemoteResults extends TFResults {
+
+		final SignatureIndex index;
+		final String signatureDefKey;
+
+		RemoteResults(SignatureIndex index, String signatureDefKey, Map<String, String> outputKeyToName,
+				Map<String, Object> outputNameToValue) {
+			super(null, signatureDefKey, outputKeyToName, outputNameToValue);
+			this.index = index;
+			this.signatureDefKey = signatureDefKey;
+		}
+
+		@Override
+		protected TensorInfo tensorInfo(String key) {
+			return index.outputTensorInfo(signatureDefKey, key);
+		}
+	}
+
+	/**
+	 * A connection to the server. Requests are written by the calling threads, and responses are read by a daemon
+	 * thread that completes the future of the request with the same id.
+	 */
+	static final class Connection {
+		/**
+		 * The channel, in blocking mode.
+		 */
+		final SocketChannel channel;
+		/**
+		 * Maximum size of a response in bytes.
+		 */
+		final int maxFrameBytes;
+		/**
+		 * Futures of the requests that are waiting for responses, by request id.
+		 */
+		final ConcurrentMap<Integer, CompletableFuture<ByteBuffer>> pending =
+				new ConcurrentHashMap<Integer, CompletableFuture<ByteBuffer>>();
+		/**
+		 * Request id counter.
+		 */
+		final AtomicInteger ids = new AtomicInteger();
+		/**
+		 * The exception that failed the connection, or null if the connection is open.
+		 */
+		volatile TFException failure;
+
+		Connection(InetSocketAddress address, int maxFrameBytes) throws IOException {
+			this.maxFrameBytes = maxFrameBytes;
+			channel = SocketChannel.open(address);
+			channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			Thread reader = new Thread(() -> readResponses(), "RemoteTFModel-" + address);
+			reader.setDaemon(true);
+			reader.start();
+		}
+
+		/**
+		 * Send a request.
+		 *
+		 * @param request
+		 *            The request frame, whose request id is replaced
+		 * @return A future that completes with the response frame, positioned at the body
+		 */
+		CompletableFuture<ByteBuffer> send(ByteBuffer request) {
+			CompletableFuture<ByteBuffer> future = new CompletableFuture<ByteBuffer>();
+			int id = ids.incrementAndGet();
+			pending.put(id, future);
+			TFException e = failure;
+			if (e != null) {
+				pending.remove(id);
+				future.completeExceptionally(e);
+				return future;
+			}
+			request.putInt(4, id);
+			try {
+				synchronized (channel) {
+					while (request.hasRemaining()) {
+						channel.write(request);
+					}
+				}
+			} catch (IOException ioe) {
+				fail(new TFException("Could not send request: " + ioe.getMessage(), ioe));
+			}
+			return future;
+		}
+
+		/**
+		 * Read responses until the connection fails or is closed.
+		 */
+		void readResponses() {
+			ByteBuffer header = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+			try {
+				while (true) {
+					header.clear();
+					readFully(header);
+					ByteBuffer response = ByteBuffer.allocate(WireProtocol.frameLength(header, maxFrameBytes))
+							.order(ByteOrder.LITTLE_ENDIAN);
+					readFully(response);
+					response.flip();
+					int id = response.getInt();
+					byte type = response.get();
+					CompletableFuture<ByteBuffer> future = pending.remove(id);
+					if (future == null) {
+						log.warn("Received response for unknown request " + id);
+					} else if (type == WireProtocol.ERROR) {
+						future.completeExceptionally(new TFException(WireProtocol.getString(response)));
+					} else {
+						future.complete(response);
+					}
+				}
+			} catch (IOException e) {
+				fail(new TFException("Connection to server failed: " + e.getMessage(), e));
+			} catch (RuntimeException e) {
+				fail(new TFException("Invalid response from server: " + e.getMessage(), e));
+			}
+		}
+
+		/**
+		 * Fill a buffer from the channel.
+		 *
+		 * @param buffer
+		 *            The buffer
+		 * @throws IOException
+		 *             if the connection fails or is closed
+		 */
+		void readFully(ByteBuffer buffer) throws IOException {
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer) < 0) {
+					throw new EOFException("Connection closed by server");
+				}
+			}
+		}
+
+		/**
+		 * Close the connection and fail the requests that are waiting for responses.
+		 *
+		 * @param e
+		 *            The exception
+		 */
+		void fail(TFException e) {
+			if (failure == null) {
+				failure = e;
+			}
+			try {
+				channel.close();
+			} catch (IOException ioe) {
+				log.debug("Problem closing connection: " + ioe.getMessage());
+			}
+			for (Integer id : new ArrayList<Integer>(pending.keySet())) {
+				CompletableFuture<ByteBuffer> future = pending.remove(id);
+				if (future != null) {
+					future.completeExceptionally(failure);
+				}
+			}
+		}
+	}
+}
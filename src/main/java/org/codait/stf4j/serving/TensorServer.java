@@ -0,0 +1,581 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+package org.codait.stf4j.serving;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.codait.stf4j.PreparedRun;
+import org.codait.stf4j.TFException;
+import org.codait.stf4j.TFModel;
+import org.codait.stf4j.TFResults;
+import org.codait.stf4j.async.InferenceExecutor;
+import org.codait.stf4j.async.InferenceExecutor.Saturation;
+import org.codait.stf4j.util.SignatureIndex;
+import org.tensorflow.Tensor;
+import org.tensorflow.framework.MetaGraphDef;
+import org.tensorflow.framework.TensorInfo;
+
+/**
+ * Non-blocking server for TFModels that uses the binary protocol of RemoteTFModel clients, in which Tensors are sent as
+ * their data type, shape, and raw little-endian values instead of JSON. A single selector thread reads and writes all
+ * connections, and the models are run by a fixed number of worker threads through thread-safe PreparedRuns. Clients
+ * can pipeline requests on a connection, and responses are sent as soon as they are ready, which may be out of order.
+ *
+ * <pre>
+ * TensorServer server = new TensorServer(8500, 4).model("mnist", mnist).start();
+ * ...
+ * RemoteTFModel remote = new RemoteTFModel("localhost", 8500, "mnist");
+ * </pre>
+ *
+ * When a connection has MAX_PIPELINED requests in progress, the server stops reading from it until a response has
+ * been completely written to it. A request that arrives while the worker queue is full receives an error.
+ *
+ */
+public class TensorServer implements AutoCloseable {
+
+	/**
+	 * Logger for TensorServer
+	 */
+	protected static Logger log = LogManager.getLogger(TensorServer.class);
+
+	/**
+	 * Maximum number of requests in progress per connection.
+	 */
+	static final int MAX_PIPELINED = 32;
+
+	/**
+	 * The listening channel.
+	 */
+	final ServerSocketChannel serverChannel;
+	/**
+	 * The selector of the listening channel and the connections.
+	 */
+	final Selector selector;
+	/**
+	 * The worker threads.
+	 */
+	final ThreadPoolExecutor workers;
+	/**
+	 * Maximum size of a request frame in bytes.
+	 */
+	final int maxFrameBytes;
+	/**
+	 * Connections whose interest operations need to be updated by the selector thread.
+	 */
+	final Queue<Connection> updates = new ConcurrentLinkedQueue<Connection>();
+	/**
+	 * Mapping of model names to models.
+	 */
+	final ConcurrentMap<String, TFModel> models = new ConcurrentHashMap<String, TFModel>();
+	/**
+	 * Mapping of model names, SignatureDef keys, input keys, and output keys to PreparedRuns.
+	 */
+	final ConcurrentMap<String, PreparedRun> preparedRuns = new ConcurrentHashMap<String, PreparedRun>();
+	/**
+	 * The selector thread, or null if the server has not been started.
+	 */
+	Thread selectorThread;
+	/**
+	 * Whether the server is running.
+	 */
+	volatile boolean running;
+
+	/**
+	 * Create a TensorServer listening on all interfaces.
+	 *
+	 * @param port
+	 *            The port (0 for an ephemeral port)
+	 * @param threads
+	 *            Number of worker threads
+	 * @throws IOException
+	 *             if the server cannot be bound to the port
+	 */
+	public TensorServer(int port, int threads) throws IOException {
+		this(new InetSocketAddress(port), threads, threads * 16, WireProtocol.DEFAULT_MAX_FRAME_BYTES);
+	}
+
+	/**
+	 * Create a TensorServer.
+	 *
+	 * @param address
+	 *            The address to listen on (port 0 for an ephemeral port)
+	 * @param threads
+	 *            Number of worker threads
+	 * @param queueCapacity
+	 *            Maximum number of requests waiting for a worker thread
+	 * @param maxFrameBytes
+	 *            Maximum size of a request in bytes. A connection that sends a larger request is closed.
+	 * @throws IOException
+	 *             if the server cannot be bound to the address
+	 */
+	public TensorServer(InetSocketAddress address, int threads, int queueCapacity, int maxFrameBytes)
+			throws IOException {
+		this.maxFrameBytes = maxFrameBytes;
+		workers = InferenceExecutor.newPool("TensorServer", threads, queueCapacity, Saturation.REJECT);
+		selector = Selector.open();
+		serverChannel = ServerSocketChannel.open();
+		try {
+			serverChannel.bind(address);
+			serverChannel.configureBlocking(false);
+			serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+		} catch (IOException e) {
+			serverChannel.close();
+			selector.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Serve a model under a name. The model is not closed by the server.
+	 *
+	 * @param name
+	 *            The model name used by clients
+	 * @param model
+	 *            The model
+	 * @return {@code this} TensorServer object to allow chaining of methods
+	 */
+	public TensorServer model(String name, TFModel model) {
+		models.put(name, model);
+		for (String key : new ArrayList<String>(preparedRuns.keySet())) {
+			if (key.startsWith(name + "\0")) {
+				preparedRuns.remove(key);
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Start accepting connections.
+	 *
+	 * @return {@code this} TensorServer object to allow chaining of methods
+	 */
+	public synchronized TensorServer start() {
+		if (selectorThread == null) {
+			running = true;
+			selectorThread = new Thread(() -> serve(), "TensorServer-selector-" + port());
+			selectorThread.setDaemon(true);
+			selectorThread.start();
+			log.info("TensorServer listening on port " + port());
+		}
+		return this;
+	}
+
+	/**
+	 * Obtain the port that the server listens on, such as the ephemeral port chosen for port 0.
+	 *
+	 * @return The port
+	 */
+	public int port() {
+		return serverChannel.socket().getLocalPort();
+	}
+
+	/**
+	 * Stop the server and close all connections. Requests in progress are abandoned. The served models are not
+	 * closed.
+	 */
+	@Override
+	public synchronized void close() {
+		running = false;
+		selector.wakeup();
+		if (selectorThread != null) {
+			try {
+				selectorThread.join(1000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		workers.shutdownNow();
+		try {
+			for (SelectionKey key : selector.keys()) {
+				key.channel().close();
+			}
+			selector.close();
+		} catch (IOException e) {
+			log.warn("Problem closing TensorServer: " + e.getMessage());
+		} catch (ClosedSelectorException e) {
+			// already closed
+		}
+		log.debug("Closed TensorServer");
+	}
+
+	/**
+	 * Selector loop, which accepts connections, reads requests, and writes responses.
+	 */
+	void serve() {
+		while (running) {
+			try {
+				selector.select();
+				Connection updated;
+				while ((updated = updates.poll()) != null) {
+					updated.updateInterest();
+				}
+				Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+				while (it.hasNext()) {
+					SelectionKey key = it.next();
+					it.remove();
+					if (!key.isValid()) {
+						continue;
+					}
+					if (key.isAcceptable()) {
+						accept();
+						continue;
+					}
+					Connection connection = (Connection) key.attachment();
+					try {
+						if (key.isReadable()) {
+							connection.read();
+						}
+						if (key.isValid() && key.isWritable()) {
+							connection.write();
+						}
+					} catch (IOException e) {
+						log.debug("Closing connection: " + e.getMessage());
+						connection.close();
+					}
+				}
+			} catch (ClosedSelectorException e) {
+				return;
+			} catch (IOException e) {
+				log.error("Selector failed", e);
+			}
+		}
+	}
+
+	/**
+	 * Accept a connection.
+	 *
+	 * @throws IOException
+	 *             if the connection cannot be configured
+	 */
+	void accept() throws IOException {
+		SocketChannel channel = serverChannel.accept();
+		if (channel == null) {
+			return;
+		}
+		channel.configureBlocking(false);
+		channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+		Connection connection = new Connection(channel);
+		connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+	}
+
+	/**
+	 * Handle a request frame and build the response frame.
+	 *
+	 * @param request
+	 *            The request frame, positioned at the request id
+	 * @return The response frame
+	 */
+	ByteBuffer handle(ByteBuffer request) {
+		int id = request.getInt();
+		byte type = request.get();
+		try {
+			switch (type) {
+			case WireProtocol.PREDICT:
+				return predict(id, request);
+			case WireProtocol.METADATA:
+				return metadata(id, request);
+			default:
+				throw new TFException("Unknown request type " + type);
+			}
+		} catch (BufferUnderflowException e) {
+			return WireProtocol.error(id, WireProtocol.truncated(e).getMessage());
+		} catch (TFException e) {
+			return WireProtocol.error(id, e.getMessage());
+		} catch (Exception e) {
+			log.error("Request failed", e);
+			return WireProtocol.error(id, String.valueOf(e.getMessage()));
+		}
+	}
+
+	/**
+	 * Run a model for a PREDICT request.
+	 *
+	 * @param id
+	 *            The request id
+	 * @param request
+	 *            The request frame, positioned at the body
+	 * @return The RESULTS frame
+	 */
+	ByteBuffer predict(int id, ByteBuffer request) {
+		String name = WireProtocol.getString(request);
+		String signatureDefKey = WireProtocol.getString(request);
+		TFModel model = model(name);
+		SignatureIndex index = model.signatureIndex();
+		if (!index.hasSignatureDef(signatureDefKey)) {
+			throw new TFException("SignatureDef '" + signatureDefKey + "' not found in model '" + name + "'");
+		}
+		int numInputs = WireProtocol.getCount(request);
+		String[] inputKeys = new String[numInputs];
+		Tensor<?>[] inputs = new Tensor<?>[numInputs];
+		TFResults results = null;
+		try {
+			for (int i = 0; i < numInputs; i++) {
+				inputKeys[i] = WireProtocol.getString(request);
+				TensorInfo ti = index.inputTensorInfo(signatureDefKey, inputKeys[i]);
+				inputs[i] = WireProtocol.getTensor(request);
+				if (WireProtocol.dataTypeNumber(inputs[i].dataType()) != ti.getDtypeValue()) {
+					throw new TFException("Input '" + inputKeys[i] + "' has data type " + inputs[i].dataType()
+							+ " but the SignatureDef data type is " + ti.getDtype());
+				}
+			}
+			String[] outputKeys = new String[WireProtocol.getCount(request)];
+			for (int i = 0; i < outputKeys.length; i++) {
+				outputKeys[i] = WireProtocol.getString(request);
+			}
+			results = preparedRun(name, model, signatureDefKey, inputKeys, outputKeys).run((Object[]) inputs);
+			return WireProtocol.results(id, outputKeys, results);
+		} finally {
+			for (Tensor<?> input : inputs) {
+				if (input != null) {
+					input.close();
+				}
+			}
+			if (results != null) {
+				results.close();
+			}
+		}
+	}
+
+	/**
+	 * Obtain the SignatureDefs of a model for a METADATA request.
+	 *
+	 * @param id
+	 *            The request id
+	 * @param request
+	 *            The request frame, positioned at the body
+	 * @return The SIGNATURES frame
+	 */
+	ByteBuffer metadata(int id, ByteBuffer request) {
+		TFModel model = model(WireProtocol.getString(request));
+		MetaGraphDef signatures = MetaGraphDef.newBuilder()
+				.putAllSignatureDef(model.metaGraphDef().getSignatureDefMap()).build();
+		return WireProtocol.signatures(id, signatures.toByteArray());
+	}
+
+	/**
+	 * Obtain a served model.
+	 *
+	 * @param name
+	 *            The model name
+	 * @return The model
+	 */
+	TFModel model(String name) {
+		TFModel model = models.get(name);
+		if (model == null) {
+			throw new TFException("Model '" + name + "' not found");
+		}
+		return model;
+	}
+
+	/**
+	 * Obtain the PreparedRun for a SignatureDef, input keys, and output keys of a model, creating it if necessary.
+	 *
+	 * @param name
+	 *            The model name
+	 * @param model
+	 *            The model
+	 * @param signatureDefKey
+	 *            The SignatureDef key
+	 * @param inputKeys
+	 *            The input keys
+	 * @param outputKeys
+	 *            The output keys
+	 * @return The PreparedRun
+	 */
+	PreparedRun preparedRun(String name, TFModel model, String signatureDefKey, String[] inputKeys,
+			String[] outputKeys) {
+		StringBuilder sb = new StringBuilder(name);
+		sb.append('\0').append(signatureDefKey).append('\0');
+		for (String inputKey : inputKeys) {
+			sb.append(inputKey).append('\1');
+		}
+		sb.append('\0');
+		for (String outputKey : outputKeys) {
+			sb.append(outputKey).append('\1');
+		}
+		String key = sb.toString();
+		PreparedRun preparedRun = preparedRuns.get(key);
+		if (preparedRun == null) {
+			preparedRun = model.prepare(signatureDefKey, inputKeys, outputKeys);
+			preparedRuns.put(key, preparedRun);
+		}
+		return preparedRun;
+	}
+
+	/**
+	 * A client connection. Reading and writing is done by the selector thread, and responses are queued by the worker
+	 * threads.
+	 */
+	final class Connection {
+		/**
+		 * The channel.
+		 */
+		final SocketChannel channel;
+		/**
+		 * The selection key of the channel.
+		 */
+		SelectionKey key;
+		/**
+		 * Buffer for the length field of the next request.
+		 */
+		final ByteBuffer header = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+		/**
+		 * The request being read, or null if the length field is being read.
+		 */
+		ByteBuffer frame;
+		/**
+		 * Responses waiting to be written.
+		 */
+		final Queue<ByteBuffer> responses = new ConcurrentLinkedQueue<ByteBuffer>();
+		/**
+		 * Number of requests that have been read but whose responses have not been completely written.
+		 */
+		final AtomicInteger inFlight = new AtomicInteger();
+		/**
+		 * Whether the connection has been closed.
+		 */
+		volatile boolean closed;
+
+		Connection(SocketChannel channel) {
+			this.channel = channel;
+		}
+
+		/**
+		 * Read requests until no more data is available or MAX_PIPELINED requests are in progress.
+		 *
+		 * @throws IOException
+		 *             if the connection fails or a request is too large
+		 */
+		void read() throws IOException {
+			while (inFlight.get() < MAX_PIPELINED) {
+				if (frame == null) {
+					if (channel.read(header) < 0) {
+						close();
+						return;
+					}
+					if (header.hasRemaining()) {
+						return;
+					}
+					frame = ByteBuffer.allocate(WireProtocol.frameLength(header, maxFrameBytes))
+							.order(ByteOrder.LITTLE_ENDIAN);
+					header.clear();
+				}
+				if (channel.read(frame) < 0) {
+					close();
+					return;
+				}
+				if (frame.hasRemaining()) {
+					return;
+				}
+				final ByteBuffer request = frame;
+				frame = null;
+				request.flip();
+				inFlight.incrementAndGet();
+				try {
+					workers.execute(() -> respond(handle(request)));
+				} catch (RejectedExecutionException e) {
+					respond(WireProtocol.error(request.getInt(0), "TensorServer is busy"));
+				}
+			}
+			updateInterest();
+		}
+
+		/**
+		 * Write queued responses until the channel cannot accept more data.
+		 *
+		 * @throws IOException
+		 *             if the connection fails
+		 */
+		void write() throws IOException {
+			ByteBuffer response;
+			while ((response = responses.peek()) != null) {
+				channel.write(response);
+				if (response.hasRemaining()) {
+					return;
+				}
+				responses.poll();
+				inFlight.decrementAndGet();
+			}
+			updateInterest();
+		}
+
+		/**
+		 * Queue a response and let the selector thread write it.
+		 *
+		 * @param response
+		 *            The response frame
+		 */
+		void respond(ByteBuffer response) {
+			if (closed) {
+				return;
+			}
+			responses.add(response);
+			updates.add(this);
+			selector.wakeup();
+		}
+
+		/**
+		 * Read only while fewer than MAX_PIPELINED requests are in progress, and write while responses are queued. A
+		 * request stays in progress until its response has been written, so a client that does not read its responses
+		 * cannot make the queued responses grow without bound.
+		 * Called by the selector thread.
+		 */
+		void updateInterest() {
+			if (closed || !key.isValid()) {
+				return;
+			}
+			int ops = inFlight.get() < MAX_PIPELINED ? SelectionKey.OP_READ : 0;
+			if (!responses.isEmpty()) {
+				ops |= SelectionKey.OP_WRITE;
+			}
+			key.interestOps(ops);
+		}
+
+		/**
+		 * Close the connection.
+		 */
+		void close() {
+			closed = true;
+			key.cancel();
+			try {
+				channel.close();
+			} catch (IOException e) {
+				log.debug("Problem closing connection: " + e.getMessage());
+			}
+		}
+	}
+}
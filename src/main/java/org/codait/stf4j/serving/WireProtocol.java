@@ -0,0 +1,490 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+package org.codait.stf4j.serving;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.codait.stf4j.TFException;
+import org.codait.stf4j.TFResults;
+import org.codait.stf4j.util.TFUtil;
+import org.tensorflow.Tensor;
+import org.tensorflow.framework.DataType;
+
+/**
+ * Binary protocol of the TensorServer and RemoteTFModel. All values are little-endian. A frame consists of:
+ *
+ * <pre>
+ * int32  length of the rest of the frame
+ * int32  request id (a response has the id of its request)
+ * int8   frame type
+ * ...    body
+ * </pre>
+ *
+ * The bodies of the frame types are:
+ *
+ * <pre>
+ * PREDICT:    string model, string signatureDefKey,
+ *             int32 n, n x (string inputKey, tensor), int32 m, m x string outputKey
+ * METADATA:   string model
+ * RESULTS:    int32 n, n x (string outputKey, tensor)
+ * SIGNATURES: int32 size, MetaGraphDef bytes containing only the SignatureDefs
+ * ERROR:      string message
+ * </pre>
+ *
+ * A string is an int32 byte count followed by UTF-8 bytes. A tensor is an int8 DataType number (as in the DataType
+ * proto), an int8 rank, rank x int64 dimension sizes, an int32 byte count, and the raw Tensor values. String tensors
+ * use the TensorFlow TF_STRING encoding (uint64 offsets followed by varint length-prefixed bytes). Tensor values are
+ * copied between the frame buffers and Tensor memory without building Java arrays.
+ *
+ * Frames that are built by this class include the length field. Frames that are read from a channel are passed on
+ * without it, so they are positioned at the request id.
+ *
+ */
+class WireProtocol {
+
+	static final byte PREDICT = 1;
+	static final byte METADATA = 2;
+	static final byte RESULTS = 3;
+	static final byte SIGNATURES = 4;
+	static final byte ERROR = 5;
+
+	/**
+	 * Bytes of the length, request id, and type fields.
+	 */
+	static final int HEADER_BYTES = 9;
+	/**
+	 * Default maximum frame size in bytes.
+	 */
+	static final int DEFAULT_MAX_FRAME_BYTES = 256 * 1024 * 1024;
+
+	/**
+	 * Allocate a frame and write its header.
+	 *
+	 * @param id
+	 *            The request id
+	 * @param type
+	 *            The frame type
+	 * @param bodyBytes
+	 *            The size of the body in bytes
+	 * @return The frame, positioned at the body
+	 */
+	static ByteBuffer frame(int id, byte type, long bodyBytes) {
+		if (HEADER_BYTES + bodyBytes > Integer.MAX_VALUE) {
+			throw new TFException("Frame of " + (HEADER_BYTES + bodyBytes) + " bytes is too large");
+		}
+		ByteBuffer frame = ByteBuffer.allocate((int) (HEADER_BYTES + bodyBytes)).order(ByteOrder.LITTLE_ENDIAN);
+		frame.putInt((int) (HEADER_BYTES - 4 + bodyBytes));
+		frame.putInt(id);
+		frame.put(type);
+		return frame;
+	}
+
+	/**
+	 * Build a PREDICT frame.
+	 *
+	 * @param id
+	 *            The request id
+	 * @param model
+	 *            The model name
+	 * @param signatureDefKey
+	 *            The SignatureDef key
+	 * @param inputs
+	 *            Mapping of input keys to Tensors
+	 * @param outputKeys
+	 *            The output keys
+	 * @return The frame, ready to be written
+	 */
+	static ByteBuffer predict(int id, String model, String signatureDefKey, Map<String, Tensor<?>> inputs,
+			Collection<String> outputKeys) {
+		byte[] modelBytes = utf8(model);
+		byte[] signatureBytes = utf8(signatureDefKey);
+		long size = 4 + modelBytes.length + 4 + signatureBytes.length + 4 + 4;
+		for (Entry<String, Tensor<?>> entry : inputs.entrySet()) {
+			size += 4 + utf8(entry.getKey()).length + tensorBytes(entry.getValue());
+		}
+		for (String outputKey : outputKeys) {
+			size += 4 + utf8(outputKey).length;
+		}
+		ByteBuffer frame = frame(id, PREDICT, size);
+		putString(frame, modelBytes);
+		putString(frame, signatureBytes);
+		frame.putInt(inputs.size());
+		for (Entry<String, Tensor<?>> entry : inputs.entrySet()) {
+			putString(frame, utf8(entry.getKey()));
+			putTensor(frame, entry.getValue());
+		}
+		frame.putInt(outputKeys.size());
+		for (String outputKey : outputKeys) {
+			putString(frame, utf8(outputKey));
+		}
+		frame.flip();
+		return frame;
+	}
+
+	/**
+	 * Build a METADATA frame.
+	 *
+	 * @param id
+	 *            The request id
+	 * @param model
+	 *            The model name
+	 * @return The frame, ready to be written
+	 */
+	static ByteBuffer metadata(int id, String model) {
+		byte[] modelBytes = utf8(model);
+		ByteBuffer frame = frame(id, METADATA, 4 + modelBytes.length);
+		putString(frame, modelBytes);
+		frame.flip();
+		return frame;
+	}
+
+	/**
+	 * Build a RESULTS frame.
+	 *
+	 * @param id
+	 *            The request id
+	 * @param outputKeys
+	 *            The output keys
+	 * @param results
+	 *            The results containing the output Tensors
+	 * @return The frame, ready to be written
+	 */
+	static ByteBuffer results(int id, String[] outputKeys, TFResults results) {
+		long size = 4;
+		for (String outputKey : outputKeys) {
+			size += 4 + utf8(outputKey).length + tensorBytes(results.getTensor(outputKey));
+		}
+		ByteBuffer frame = frame(id, RESULTS, size);
+		frame.putInt(outputKeys.length);
+		for (String outputKey : outputKeys) {
+			putString(frame, utf8(outputKey));
+			putTensor(frame, results.getTensor(outputKey));
+		}
+		frame.flip();
+		return frame;
+	}
+
+	/**
+	 * Build a SIGNATURES frame.
+	 *
+	 * @param id
+	 *            The request id
+	 * @param metaGraphDef
+	 *            The serialized MetaGraphDef containing the SignatureDefs
+	 * @return The frame, ready to be written
+	 */
+	static ByteBuffer signatures(int id, byte[] metaGraphDef) {
+		ByteBuffer frame = frame(id, SIGNATURES, 4 + metaGraphDef.length);
+		frame.putInt(metaGraphDef.length);
+		frame.put(metaGraphDef);
+		frame.flip();
+		return frame;
+	}
+
+	/**
+	 * Build an ERROR frame.
+	 *
+	 * @param id
+	 *            The request id
+	 * @param message
+	 *            The error message
+	 * @return The frame, ready to be written
+	 */
+	static ByteBuffer error(int id, String message) {
+		byte[] messageBytes = utf8(String.valueOf(message));
+		ByteBuffer frame = frame(id, ERROR, 4 + messageBytes.length);
+		putString(frame, messageBytes);
+		frame.flip();
+		return frame;
+	}
+
+	/**
+	 * Read the length field of a frame.
+	 *
+	 * @param header
+	 *            A little-endian buffer containing the 4 bytes of the length field
+	 * @param maxFrameBytes
+	 *            The maximum frame size
+	 * @return The length of the rest of the frame
+	 * @throws IOException
+	 *             if the length is invalid
+	 */
+	static int frameLength(ByteBuffer header, int maxFrameBytes) throws IOException {
+		int length = header.getInt(0);
+		if (length < HEADER_BYTES - 4 || length > maxFrameBytes) {
+			throw new IOException("Invalid frame length " + length);
+		}
+		return length;
+	}
+
+	/**
+	 * Encode a String as UTF-8.
+	 *
+	 * @param s
+	 *            The String
+	 * @return The UTF-8 bytes
+	 */
+	static byte[] utf8(String s) {
+		return s.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Write a string.
+	 *
+	 * @param frame
+	 *            The frame
+	 * @param bytes
+	 *            The UTF-8 bytes of the string
+	 */
+	static void putString(ByteBuffer frame, byte[] bytes) {
+		frame.putInt(bytes.length);
+		frame.put(bytes);
+	}
+
+	/**
+	 * Read a string.
+	 *
+	 * @param frame
+	 *            The frame
+	 * @return The string
+	 */
+	static String getString(ByteBuffer frame) {
+		int length = frame.getInt();
+		if (length < 0 || length > frame.remaining()) {
+			throw new TFException("Invalid string length " + length);
+		}
+		String s = new String(frame.array(), frame.arrayOffset() + frame.position(), length, StandardCharsets.UTF_8);
+		frame.position(frame.position() + length);
+		return s;
+	}
+
+	/**
+	 * Read a count of elements that follow in a frame.
+	 *
+	 * @param frame
+	 *            The frame
+	 * @return The count
+	 */
+	static int getCount(ByteBuffer frame) {
+		int count = frame.getInt();
+		if (count < 0 || count > frame.remaining()) {
+			throw new TFException("Invalid count " + count);
+		}
+		return count;
+	}
+
+	/**
+	 * Obtain the encoded size of a Tensor.
+	 *
+	 * @param tensor
+	 *            The Tensor
+	 * @return The size in bytes
+	 */
+	static long tensorBytes(Tensor<?> tensor) {
+		return 1 + 1 + 8L * tensor.numDimensions() + 4 + tensor.numBytes();
+	}
+
+	/**
+	 * Write a Tensor. The values are copied from the Tensor memory to the frame.
+	 *
+	 * @param frame
+	 *            The frame
+	 * @param tensor
+	 *            The Tensor
+	 */
+	static void putTensor(ByteBuffer frame, Tensor<?> tensor) {
+		long[] shape = tensor.shape();
+		frame.put((byte) dataTypeNumber(tensor.dataType()));
+		frame.put((byte) shape.length);
+		for (long size : shape) {
+			frame.putLong(size);
+		}
+		frame.putInt(tensor.numBytes());
+		copyValues(TFUtil.tensorBuffer(tensor), frame, tensor.dataType(), tensor.numElements());
+	}
+
+	/**
+	 * Read a Tensor. The values are copied from the frame to the new Tensor memory by Tensor.create(shape, buffer).
+	 *
+	 * @param frame
+	 *            The frame
+	 * @return A new Tensor
+	 */
+	static Tensor<?> getTensor(ByteBuffer frame) {
+		org.tensorflow.DataType dtype = dataType(frame.get());
+		int rank = frame.get();
+		if (rank < 0) {
+			throw new TFException("Invalid rank " + rank);
+		}
+		long[] shape = new long[rank];
+		long numElements = 1;
+		for (int i = 0; i < rank; i++) {
+			shape[i] = frame.getLong();
+			if (shape[i] < 0) {
+				throw new TFException("Invalid dimension size " + shape[i]);
+			}
+			numElements *= shape[i];
+		}
+		int bytes = frame.getInt();
+		if (bytes < 0 || bytes > frame.remaining()) {
+			throw new TFException("Invalid Tensor byte count " + bytes);
+		}
+		int elementBytes = elementBytes(dtype);
+		if (elementBytes > 0 ? bytes != numElements * elementBytes : bytes < numElements * 8) {
+			throw new TFException("Tensor of " + numElements + " " + dtype + " values cannot have " + bytes + " bytes");
+		}
+		ByteBuffer values = frame.slice().order(frame.order());
+		values.limit(bytes);
+		frame.position(frame.position() + bytes);
+		if (values.order() != ByteOrder.nativeOrder() && elementBytes != 1) {
+			ByteBuffer nativeValues = ByteBuffer.allocate(bytes).order(ByteOrder.nativeOrder());
+			copyValues(values, nativeValues, dtype, numElements);
+			nativeValues.flip();
+			values = nativeValues;
+		}
+		try {
+			return Tensor.create(TFUtil.tensorType(dtype), shape, values);
+		} catch (IllegalArgumentException e) {
+			throw new TFException("Could not create Tensor: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Copy raw Tensor values between buffers, converting the byte order of multi-byte values (and of the offsets of
+	 * TF_STRING values) if the buffers have different byte orders.
+	 *
+	 * @param src
+	 *            The source values, from the position to the limit
+	 * @param dst
+	 *            The destination buffer
+	 * @param dtype
+	 *            The data type
+	 * @param numElements
+	 *            The number of elements
+	 */
+	static void copyValues(ByteBuffer src, ByteBuffer dst, org.tensorflow.DataType dtype, long numElements) {
+		if (src.order() == dst.order() || elementBytes(dtype) == 1) {
+			dst.put(src);
+			return;
+		}
+		int start = dst.position();
+		int bytes = src.remaining();
+		ByteBuffer view = dst.slice().order(dst.order());
+		switch (dtype) {
+		case FLOAT:
+			view.asFloatBuffer().put(src.asFloatBuffer());
+			break;
+		case DOUBLE:
+			view.asDoubleBuffer().put(src.asDoubleBuffer());
+			break;
+		case INT32:
+			view.asIntBuffer().put(src.asIntBuffer());
+			break;
+		case INT64:
+			view.asLongBuffer().put(src.asLongBuffer());
+			break;
+		case STRING:
+			LongBuffer offsets = src.asLongBuffer();
+			offsets.limit((int) numElements);
+			view.asLongBuffer().put(offsets);
+			src.position(src.position() + (int) numElements * 8);
+			dst.position(start + (int) numElements * 8);
+			dst.put(src);
+			return;
+		default:
+			throw new TFException("Unsupported data type: " + dtype);
+		}
+		src.position(src.limit());
+		dst.position(start + bytes);
+	}
+
+	/**
+	 * Obtain the size of the values of a data type.
+	 *
+	 * @param dtype
+	 *            The data type
+	 * @return The size in bytes, or 0 for STRING
+	 */
+	static int elementBytes(org.tensorflow.DataType dtype) {
+		switch (dtype) {
+		case FLOAT:
+		case INT32:
+			return 4;
+		case DOUBLE:
+		case INT64:
+			return 8;
+		case UINT8:
+		case BOOL:
+			return 1;
+		case STRING:
+			return 0;
+		default:
+			throw new TFException("Unsupported data type: " + dtype);
+		}
+	}
+
+	/**
+	 * Obtain the DataType proto number of a data type.
+	 *
+	 * @param dtype
+	 *            The data type
+	 * @return The DataType proto number, such as 1 for FLOAT
+	 */
+	static int dataTypeNumber(org.tensorflow.DataType dtype) {
+		return DataType.valueOf("DT_" + dtype.name()).getNumber();
+	}
+
+	/**
+	 * Obtain the data type of a DataType proto number.
+	 *
+	 * @param number
+	 *            The DataType proto number
+	 * @return The data type
+	 */
+	static org.tensorflow.DataType dataType(int number) {
+		DataType dtype = DataType.forNumber(number);
+		if (dtype == null) {
+			throw new TFException("Unknown data type number " + number);
+		}
+		org.tensorflow.DataType dataType;
+		try {
+			dataType = org.tensorflow.DataType.valueOf(dtype.name().substring(3));
+		} catch (IllegalArgumentException e) {
+			throw new TFException("Unsupported data type: " + dtype);
+		}
+		elementBytes(dataType);
+		return dataType;
+	}
+
+	/**
+	 * Convert a BufferUnderflowException to a TFException.
+	 *
+	 * @param e
+	 *            The exception
+	 * @return A TFException
+	 */
+	static TFException truncated(BufferUnderflowException e) {
+		return new TFException("Truncated frame", e);
+	}
+}
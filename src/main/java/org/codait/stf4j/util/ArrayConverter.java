@@ -0,0 +1,472 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.util;
+
+import java.lang.reflect.Array;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Type-specialized conversion of the values of a primitive array (with any number of dimensions) to a primitive array
+ * of another type with the same shape. A converter is selected once per array based on the primitive component types
+ * of the original and destination arrays. The converter walks the outer dimensions of the arrays and converts each
+ * innermost 1-dimensional array (row) with a plain loop, without reflection or boxing.
+ *
+ * The conversions give the same results as the TypeUtil conversion methods (for example, a narrowing conversion from
+ * double to byte is the same as {@code Double.byteValue()}).
+ *
+ */
+public abstract class ArrayConverter {
+
+	/**
+	 * Converters for signed values, by original component type and destination component type.
+	 */
+	private static final Map<Class<?>, Map<Class<?>, ArrayConverter>> CONVERTERS =
+			new HashMap<Class<?>, Map<Class<?>, ArrayConverter>>();
+	/**
+	 * Converters for unsigned byte values, by original component type and destination component type.
+	 */
+	private static final Map<Class<?>, Map<Class<?>, ArrayConverter>> UNSIGNED_CONVERTERS =
+			new HashMap<Class<?>, Map<Class<?>, ArrayConverter>>();
+
+	/**
+	 * Converter for arrays with the same component type.
+	 */
+	private static final ArrayConverter COPY = new ArrayConverter() {
+		@Override
+		protected void convertRow(Object src, Object dest) {
+			System.arraycopy(src, 0, dest, 0, Array.getLength(src));
+		}
+	};
+
+	static {
+		Class<?>[] primitives = new Class<?>[] { boolean.class, byte.class, int.class, long.class, float.class,
+				double.class };
+		for (Class<?> primitive : primitives) {
+			register(CONVERTERS, primitive, primitive, COPY);
+			register(UNSIGNED_CONVERTERS, primitive, primitive, COPY);
+		}
+
+		register(CONVERTERS, boolean.class, byte.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				boolean[] s = (boolean[]) src;
+				byte[] d = (byte[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = s[i] ? (byte) 1 : (byte) 0;
+				}
+			}
+		});
+		register(CONVERTERS, boolean.class, int.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				boolean[] s = (boolean[]) src;
+				int[] d = (int[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = s[i] ? 1 : 0;
+				}
+			}
+		});
+		register(CONVERTERS, boolean.class, long.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				boolean[] s = (boolean[]) src;
+				long[] d = (long[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = s[i] ? 1L : 0L;
+				}
+			}
+		});
+		register(CONVERTERS, boolean.class, float.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				boolean[] s = (boolean[]) src;
+				float[] d = (float[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = s[i] ? 1.0f : 0.0f;
+				}
+			}
+		});
+		register(CONVERTERS, boolean.class, double.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				boolean[] s = (boolean[]) src;
+				double[] d = (double[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = s[i] ? 1.0d : 0.0d;
+				}
+			}
+		});
+		register(CONVERTERS, byte.class, boolean.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				byte[] s = (byte[]) src;
+				boolean[] d = (boolean[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = s[i] != 0;
+				}
+			}
+		});
+		register(CONVERTERS, byte.class, int.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				byte[] s = (byte[]) src;
+				int[] d = (int[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = s[i];
+				}
+			}
+		});
+		register(CONVERTERS, byte.class, long.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				byte[] s = (byte[]) src;
+				long[] d = (long[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = s[i];
+				}
+			}
+		});
+		register(CONVERTERS, byte.class, float.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				byte[] s = (byte[]) src;
+				float[] d = (float[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = s[i];
+				}
+			}
+		});
+		register(CONVERTERS, byte.class, double.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				byte[] s = (byte[]) src;
+				double[] d = (double[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = s[i];
+				}
+			}
+		});
+		register(CONVERTERS, int.class, boolean.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				int[] s = (int[]) src;
+				boolean[] d = (boolean[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = s[i] != 0;
+				}
+			}
+		});
+		register(CONVERTERS, int.class, byte.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				int[] s = (int[]) src;
+				byte[] d = (byte[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = (byte) s[i];
+				}
+			}
+		});
+		register(CONVERTERS, int.class, long.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				int[] s = (int[]) src;
+				long[] d = (long[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = s[i];
+				}
+			}
+		});
+		register(CONVERTERS, int.class, float.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				int[] s = (int[]) src;
+				float[] d = (float[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = s[i];
+				}
+			}
+		});
+		register(CONVERTERS, int.class, double.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				int[] s = (int[]) src;
+				double[] d = (double[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = s[i];
+				}
+			}
+		});
+		register(CONVERTERS, long.class, boolean.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				long[] s = (long[]) src;
+				boolean[] d = (boolean[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = s[i] != 0L;
+				}
+			}
+		});
+		register(CONVERTERS, long.class, byte.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				long[] s = (long[]) src;
+				byte[] d = (byte[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = (byte) s[i];
+				}
+			}
+		});
+		register(CONVERTERS, long.class, int.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				long[] s = (long[]) src;
+				int[] d = (int[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = (int) s[i];
+				}
+			}
+		});
+		register(CONVERTERS, long.class, float.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				long[] s = (long[]) src;
+				float[] d = (float[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = s[i];
+				}
+			}
+		});
+		register(CONVERTERS, long.class, double.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				long[] s = (long[]) src;
+				double[] d = (double[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = s[i];
+				}
+			}
+		});
+		register(CONVERTERS, float.class, boolean.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				float[] s = (float[]) src;
+				boolean[] d = (boolean[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = s[i] != 0.0f;
+				}
+			}
+		});
+		register(CONVERTERS, float.class, byte.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				float[] s = (float[]) src;
+				byte[] d = (byte[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = (byte) s[i];
+				}
+			}
+		});
+		register(CONVERTERS, float.class, int.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				float[] s = (float[]) src;
+				int[] d = (int[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = (int) s[i];
+				}
+			}
+		});
+		register(CONVERTERS, float.class, long.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				float[] s = (float[]) src;
+				long[] d = (long[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = (long) s[i];
+				}
+			}
+		});
+		register(CONVERTERS, float.class, double.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				float[] s = (float[]) src;
+				double[] d = (double[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = s[i];
+				}
+			}
+		});
+		register(CONVERTERS, double.class, boolean.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				double[] s = (double[]) src;
+				boolean[] d = (boolean[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = s[i] != 0.0d;
+				}
+			}
+		});
+		register(CONVERTERS, double.class, byte.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				double[] s = (double[]) src;
+				byte[] d = (byte[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = (byte) s[i];
+				}
+			}
+		});
+		register(CONVERTERS, double.class, int.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				double[] s = (double[]) src;
+				int[] d = (int[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = (int) s[i];
+				}
+			}
+		});
+		register(CONVERTERS, double.class, long.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				double[] s = (double[]) src;
+				long[] d = (long[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = (long) s[i];
+				}
+			}
+		});
+		register(CONVERTERS, double.class, float.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				double[] s = (double[]) src;
+				float[] d = (float[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = (float) s[i];
+				}
+			}
+		});
+
+
+		register(UNSIGNED_CONVERTERS, byte.class, int.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				byte[] s = (byte[]) src;
+				int[] d = (int[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = s[i] & 0xFF;
+				}
+			}
+		});
+		register(UNSIGNED_CONVERTERS, byte.class, long.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				byte[] s = (byte[]) src;
+				long[] d = (long[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = s[i] & 0xFFL;
+				}
+			}
+		});
+		register(UNSIGNED_CONVERTERS, byte.class, float.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				byte[] s = (byte[]) src;
+				float[] d = (float[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = (float) (s[i] & 0xFF);
+				}
+			}
+		});
+		register(UNSIGNED_CONVERTERS, byte.class, double.class, new ArrayConverter() {
+			@Override
+			protected void convertRow(Object src, Object dest) {
+				byte[] s = (byte[]) src;
+				double[] d = (double[]) dest;
+				for (int i = 0; i < s.length; i++) {
+					d[i] = (double) (s[i] & 0xFF);
+				}
+			}
+		});
+	}
+
+	private static void register(Map<Class<?>, Map<Class<?>, ArrayConverter>> converters, Class<?> origType,
+			Class<?> destType, ArrayConverter converter) {
+		Map<Class<?>, ArrayConverter> m = converters.get(origType);
+		if (m == null) {
+			m = new HashMap<Class<?>, ArrayConverter>();
+			converters.put(origType, m);
+		}
+		m.put(destType, converter);
+	}
+
+	/**
+	 * Obtain the converter for an original array and a destination array of the same shape.
+	 *
+	 * @param orig
+	 *            The original array
+	 * @param dest
+	 *            The destination array
+	 * @param unsigned
+	 *            If true, byte values of the original array are treated as unsigned values
+	 * @return The converter, or null if there is no specialized converter for the array types
+	 */
+	public static ArrayConverter forArrays(Object orig, Object dest, boolean unsigned) {
+		Class<?> o = orig.getClass();
+		Class<?> d = dest.getClass();
+		while (o.isArray() && d.isArray()) {
+			o = o.getComponentType();
+			d = d.getComponentType();
+		}
+		if (o.isArray() || d.isArray() || !o.isPrimitive() || !d.isPrimitive()) {
+			return null;
+		}
+		Map<Class<?>, ArrayConverter> m = (unsigned ? UNSIGNED_CONVERTERS : CONVERTERS).get(o);
+		return m == null ? null : m.get(d);
+	}
+
+	/**
+	 * Convert the values of the original array to the destination array.
+	 *
+	 * @param orig
+	 *            The original array
+	 * @param dest
+	 *            The destination array, which has the same shape as the original array
+	 */
+	public void convert(Object orig, Object dest) {
+		if (orig.getClass().getComponentType().isPrimitive()) {
+			convertRow(orig, dest);
+		} else {
+			Object[] o = (Object[]) orig;
+			Object[] d = (Object[]) dest;
+			for (int i = 0; i < o.length; i++) {
+				convert(o[i], d[i]);
+			}
+		}
+	}
+
+	/**
+	 * Convert the values of a 1-dimensional primitive array to a 1-dimensional primitive array of the same length.
+	 *
+	 * @param src
+	 *            The original 1-dimensional array
+	 * @param dest
+	 *            The destination 1-dimensional array
+	 */
+	protected abstract void convertRow(Object src, Object dest);
+}
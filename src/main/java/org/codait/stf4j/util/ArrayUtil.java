@@ -145,7 +145,9 @@ public class ArrayUtil {
 	}
 
 	/**
-	 * Copy values from one array to another array with the same shape and perform needed type conversions.
+	 * Copy values from one array to another array with the same shape and perform needed type conversions. Arrays of
+	 * primitive values are converted by a type-specialized ArrayConverter. Other arrays (such as arrays of wrapper
+	 * objects or Strings) are converted using reflection.
 	 * 
 	 * @param orig
 	 *            The original array
@@ -153,6 +155,24 @@ public class ArrayUtil {
 	 *            The destination array
 	 */
 	public static void copyArrayVals(Object orig, Object dest) {
+		ArrayConverter converter = ArrayConverter.forArrays(orig, dest, false);
+		if (converter != null) {
+			converter.convert(orig, dest);
+		} else {
+			copyArrayValsReflectively(orig, dest);
+		}
+	}
+
+	/**
+	 * Copy values from one array to another array with the same shape and perform needed type conversions using
+	 * reflection.
+	 * 
+	 * @param orig
+	 *            The original array
+	 * @param dest
+	 *            The destination array
+	 */
+	protected static void copyArrayValsReflectively(Object orig, Object dest) {
 		String o = orig.getClass().getComponentType().getSimpleName();
 		String d = dest.getClass().getComponentType().getSimpleName();
 		for (int i = 0; i < Array.getLength(orig); i++) {
@@ -160,7 +180,7 @@ public class ArrayUtil {
 			Object vd = Array.get(dest, i);
 			try {
 				if (v.getClass().isArray()) {
-					copyArrayVals(v, vd);
+					copyArrayValsReflectively(v, vd);
 				} else {
 					if ("boolean".equalsIgnoreCase(o)) {
 						if ("byte".equalsIgnoreCase(d)) {
@@ -326,6 +346,8 @@ public class ArrayUtil {
 
 	/**
 	 * Copy unsigned values from one array to another array with the same shape and perform needed type conversions.
+	 * Arrays of primitive values are converted by a type-specialized ArrayConverter. Other arrays are converted using
+	 * reflection.
 	 * 
 	 * @param orig
 	 *            The original array of unsigned values
@@ -333,6 +355,24 @@ public class ArrayUtil {
 	 *            The destination array
 	 */
 	public static void copyUnsignedArrayVals(Object orig, Object dest) {
+		ArrayConverter converter = ArrayConverter.forArrays(orig, dest, true);
+		if (converter != null) {
+			converter.convert(orig, dest);
+		} else {
+			copyUnsignedArrayValsReflectively(orig, dest);
+		}
+	}
+
+	/**
+	 * Copy unsigned values from one array to another array with the same shape and perform needed type conversions
+	 * using reflection.
+	 * 
+	 * @param orig
+	 *            The original array of unsigned values
+	 * @param dest
+	 *            The destination array
+	 */
+	protected static void copyUnsignedArrayValsReflectively(Object orig, Object dest) {
 		String o = orig.getClass().getComponentType().getSimpleName();
 		String d = dest.getClass().getComponentType().getSimpleName();
 		for (int i = 0; i < Array.getLength(orig); i++) {
@@ -340,7 +380,7 @@ public class ArrayUtil {
 			Object vd = Array.get(dest, i);
 			try {
 				if (v.getClass().isArray()) {
-					copyUnsignedArrayVals(v, vd);
+					copyUnsignedArrayValsReflectively(v, vd);
 				} else {
 					if ("byte".equals(o) && ("int".equals(d) || "Integer".equals(d))) {
 						Array.set(dest, i, byte_unsigned_to_int((byte) v));
@@ -811,13 +851,17 @@ public class ArrayUtil {
 	}
 
 	/**
-	 * Convert {@code Tensor<String>} to multidimensional String array.
+	 * Convert {@code Tensor<String>} to multidimensional String array. Tensors with at least one dimension are decoded
+	 * by the default StringCodec.
 	 * 
 	 * @param tensor
 	 *            The Tensor of String values
 	 * @return Multidimensional String array as an Object
 	 */
 	public static Object stringTensorToMultidimensionalStringArray(Tensor<String> tensor) {
+		if (tensor.numDimensions() > 0) {
+			return StringCodec.DEFAULT.decode(tensor);
+		}
 		int[] sShape = lToI(tensor.shape());
 		int[] bShape = Arrays.copyOf(sShape, sShape.length + 1);
 		Object b = Array.newInstance(byte.class, bShape);
@@ -0,0 +1,250 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.codait.stf4j.TFException;
+import org.codait.stf4j.util.CIFAR10Util.DimOrder;
+
+/**
+ * Streaming reader of a CIFAR-10 binary data file. Records are read in fixed-size batches and decoded directly into a
+ * reusable flat FloatBuffer in the requested dimension order, so reading the whole file uses constant memory.
+ *
+ * If standardization is enabled, each image is preprocessed as by CIFAR10Util.preprocessImage
+ * (tf.image.per_image_standardization) while it is decoded. Since the pixels are bytes, the mean and standard
+ * deviation are computed in a single pass over the record with exact integer sums, and the standardized value of each
+ * of the 256 possible pixel values is computed once per image.
+ *
+ * Example:
+ *
+ * <pre>
+ * try (CIFAR10Reader reader = new CIFAR10Reader(TEST_BATCH_BIN, DimOrder.ROWS_COLS_CHANNELS, 100, true)) {
+ * 	while (reader.hasNext()) {
+ * 		FloatBuffer images = reader.next();
+ * 		int[] labels = reader.labels();
+ * 		int[] predictions = model.in("input", images, reader.shape()).out("classes").run().getIntArray("classes");
+ * 	}
+ * }
+ * </pre>
+ *
+ * The buffer returned by next() is overwritten by the following call. A CIFAR10Reader is not thread-safe.
+ */
+public class CIFAR10Reader implements AutoCloseable {
+
+	/**
+	 * Number of rows and columns of a CIFAR-10 image.
+	 */
+	public static final int IMAGE_DIM = 32;
+	/**
+	 * Number of channels of a CIFAR-10 image.
+	 */
+	public static final int CHANNELS = 3;
+	/**
+	 * Number of pixel values of a CIFAR-10 image.
+	 */
+	public static final int IMAGE_SIZE = IMAGE_DIM * IMAGE_DIM * CHANNELS;
+	/**
+	 * Number of bytes of a CIFAR-10 record (label byte followed by the pixel values).
+	 */
+	public static final int RECORD_SIZE = IMAGE_SIZE + 1;
+
+	private static final int CHANNEL_SIZE = IMAGE_DIM * IMAGE_DIM;
+
+	private final FileChannel channel;
+	private final DimOrder dimOrder;
+	private final boolean standardize;
+	private final int numImages;
+	private final ByteBuffer records;
+	private final FloatBuffer images;
+	private final int[] labels;
+	private final float[] table = new float[256];
+
+	private int imagesRead = 0;
+	private int count = 0;
+
+	/**
+	 * Create a CIFAR10Reader for a CIFAR-10 binary data file.
+	 *
+	 * @param batchBinFile
+	 *            CIFAR-10 binary data file
+	 * @param dimOrder
+	 *            if CHANNELS_ROWS_COLS, batches have shape [n, 3, 32, 32]. if ROWS_COLS_CHANNELS, batches have shape [n,
+	 *            32, 32, 3].
+	 * @param batchSize
+	 *            The maximum number of images per batch
+	 * @param standardize
+	 *            if true, apply per-image standardization to the images. if false, return the pixel values (0.0 to
+	 *            255.0).
+	 * @throws IOException
+	 *             if problem occurs opening binary data file
+	 */
+	public CIFAR10Reader(String batchBinFile, DimOrder dimOrder, int batchSize, boolean standardize)
+			throws IOException {
+		if (batchSize <= 0) {
+			throw new TFException("Batch size must be positive");
+		}
+		if (dimOrder == null) {
+			throw new TFException("Dimension order cannot be null");
+		}
+		this.dimOrder = dimOrder;
+		this.standardize = standardize;
+		channel = FileChannel.open(Paths.get(batchBinFile), StandardOpenOption.READ);
+		long size = channel.size();
+		if (size % RECORD_SIZE != 0) {
+			channel.close();
+			throw new IOException("Size of '" + batchBinFile + "' (" + size + ") is not a multiple of the CIFAR-10 "
+					+ "record size (" + RECORD_SIZE + ")");
+		}
+		numImages = (int) (size / RECORD_SIZE);
+		int capacity = Math.max(1, Math.min(batchSize, numImages));
+		records = ByteBuffer.allocate(capacity * RECORD_SIZE);
+		images = ByteBuffer.allocateDirect(capacity * IMAGE_SIZE * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+		labels = new int[capacity];
+	}
+
+	/**
+	 * Obtain the number of images in the data file.
+	 *
+	 * @return The number of images
+	 */
+	public int numImages() {
+		return numImages;
+	}
+
+	/**
+	 * Return true if there are images that have not been read.
+	 *
+	 * @return true if there are more images, false otherwise
+	 */
+	public boolean hasNext() {
+		return imagesRead < numImages;
+	}
+
+	/**
+	 * Read and decode the next batch of images. The returned buffer has position 0 and limit n * 3072, where n is the
+	 * number of images in the batch. The buffer is reused by the next call.
+	 *
+	 * @return The images as a flat FloatBuffer
+	 * @throws IOException
+	 *             if problem occurs reading binary data file
+	 */
+	public FloatBuffer next() throws IOException {
+		if (!hasNext()) {
+			throw new TFException("No more CIFAR-10 images");
+		}
+		count = Math.min(labels.length, numImages - imagesRead);
+		records.clear();
+		records.limit(count * RECORD_SIZE);
+		while (records.hasRemaining()) {
+			if (channel.read(records) < 0) {
+				throw new IOException("Unexpected end of CIFAR-10 data file");
+			}
+		}
+		imagesRead += count;
+
+		byte[] b = records.array();
+		images.clear();
+		for (int i = 0; i < count; i++) {
+			int offset = i * RECORD_SIZE;
+			labels[i] = b[offset];
+			decodeImage(b, offset + 1);
+		}
+		images.flip();
+		return images;
+	}
+
+	private void decodeImage(byte[] b, int start) {
+		if (standardize) {
+			long sum = 0;
+			long sumSquares = 0;
+			for (int j = start; j < start + IMAGE_SIZE; j++) {
+				int v = b[j] & 0xFF;
+				sum += v;
+				sumSquares += v * v;
+			}
+			double avg = (double) sum / IMAGE_SIZE;
+			double variance = Math.max((double) sumSquares / IMAGE_SIZE - avg * avg, 0.0);
+			double adjStdDev = Math.max(Math.sqrt(variance), 1.0 / Math.sqrt(IMAGE_SIZE));
+			for (int v = 0; v < table.length; v++) {
+				table[v] = (float) ((v - avg) / adjStdDev);
+			}
+		} else {
+			for (int v = 0; v < table.length; v++) {
+				table[v] = v;
+			}
+		}
+
+		if (dimOrder == DimOrder.CHANNELS_ROWS_COLS) {
+			for (int j = start; j < start + IMAGE_SIZE; j++) {
+				images.put(table[b[j] & 0xFF]);
+			}
+		} else {
+			for (int p = 0; p < CHANNEL_SIZE; p++) {
+				for (int c = 0; c < CHANNELS; c++) {
+					images.put(table[b[start + c * CHANNEL_SIZE + p] & 0xFF]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Obtain the number of images in the current batch.
+	 *
+	 * @return The number of images in the current batch
+	 */
+	public int batchSize() {
+		return count;
+	}
+
+	/**
+	 * Obtain the labels of the current batch.
+	 *
+	 * @return Labels (valued 0 through 9) as an int array
+	 */
+	public int[] labels() {
+		return Arrays.copyOf(labels, count);
+	}
+
+	/**
+	 * Obtain the shape of the current batch in the dimension order of the reader.
+	 *
+	 * @return The shape of the current batch
+	 */
+	public long[] shape() {
+		if (dimOrder == DimOrder.CHANNELS_ROWS_COLS) {
+			return new long[] { count, CHANNELS, IMAGE_DIM, IMAGE_DIM };
+		} else {
+			return new long[] { count, IMAGE_DIM, IMAGE_DIM, CHANNELS };
+		}
+	}
+
+	/**
+	 * Close the data file.
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
@@ -23,6 +23,8 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import javax.imageio.ImageIO;
 
@@ -58,6 +60,9 @@ import javax.imageio.ImageIO;
  * float[][][] dog = CIFAR10Util.getScaledDownImage("images/dog.png", DimOrder.ROWS_COLS_CHANNELS);
  * ImageUtil.displayImage(dog);
  * </pre>
+ *
+ * The getImages and getPreprocessedImages methods decode the whole data file into Java arrays. To process a data file
+ * in batches using constant memory, use {@link CIFAR10Reader}.
  */
 public class CIFAR10Util {
 
@@ -86,23 +91,66 @@ public class CIFAR10Util {
 	 */
 	public static float[][][][] getImages(String batchBinFile, DimOrder dimOrder) throws IOException {
 		byte[] b = Files.readAllBytes(Paths.get(batchBinFile));
-		float[][][][] images = null;
+		float[][][][] images = new float[b.length / 3073][][][];
+		for (int i = 0; i < images.length; i++) {
+			images[i] = decodeImage(b, i, dimOrder);
+		}
+		return images;
+	}
+
+	/**
+	 * Obtain images from CIFAR-10 binary data file, decoding the images in parallel using the specified ForkJoinPool.
+	 * The result is identical to {@link #getImages(String, DimOrder)}.
+	 * 
+	 * @param batchBinFile
+	 *            CIFAR-10 binary data file
+	 * @param dimOrder
+	 *            if CHANNELS_ROWS_COLS, return images[numImages][channel][rows][cols]. if ROWS_COLS_CHANNELS, return
+	 *            images[numImages][rows][cols][channel].
+	 * @param pool
+	 *            The ForkJoinPool that decodes the images
+	 * @return Images as a 4-dimensional float array
+	 * @throws IOException
+	 *             if problem occurs reading binary data file
+	 */
+	public static float[][][][] getImages(String batchBinFile, final DimOrder dimOrder, ForkJoinPool pool)
+			throws IOException {
+		final byte[] b = Files.readAllBytes(Paths.get(batchBinFile));
+		final float[][][][] images = new float[b.length / 3073][][][];
+		pool.invoke(new ImageRangeTask(0, images.length, new ImageOp() {
+			@Override
+			public void apply(int i) {
+				images[i] = decodeImage(b, i, dimOrder);
+			}
+		}));
+		return images;
+	}
+
+	/**
+	 * Decode an image of a CIFAR-10 binary data file.
+	 * 
+	 * @param b
+	 *            Bytes of the CIFAR-10 binary data file
+	 * @param i
+	 *            The image number
+	 * @param dimOrder
+	 *            if CHANNELS_ROWS_COLS, return [3][32][32] array. if ROWS_COLS_CHANNELS, return [32][32][3] array.
+	 * @return Image as a 3-dimensional float array
+	 */
+	protected static float[][][] decodeImage(byte[] b, int i, DimOrder dimOrder) {
+		float[][][] image = null;
 		if (dimOrder == DimOrder.CHANNELS_ROWS_COLS) {
-			images = new float[b.length / 3073][3][32][32];
-			for (int i = 0; i < images.length; i++) {
-				for (int j = 0; j < 3072; j++) {
-					images[i][j / 1024][j % 1024 / 32][j % 1024 % 32] = b[i * 3073 + j + 1] & 0xFF;
-				}
+			image = new float[3][32][32];
+			for (int j = 0; j < 3072; j++) {
+				image[j / 1024][j % 1024 / 32][j % 1024 % 32] = b[i * 3073 + j + 1] & 0xFF;
 			}
 		} else if (dimOrder == DimOrder.ROWS_COLS_CHANNELS) {
-			images = new float[b.length / 3073][32][32][3];
-			for (int i = 0; i < images.length; i++) {
-				for (int j = 0; j < 3072; j++) {
-					images[i][j % 1024 / 32][j % 1024 % 32][j / 1024] = b[i * 3073 + j + 1] & 0xFF;
-				}
+			image = new float[32][32][3];
+			for (int j = 0; j < 3072; j++) {
+				image[j % 1024 / 32][j % 1024 % 32][j / 1024] = b[i * 3073 + j + 1] & 0xFF;
 			}
 		}
-		return images;
+		return image;
 	}
 
 	/**
@@ -144,6 +192,34 @@ public class CIFAR10Util {
 		return preprocessImages(images);
 	}
 
+	/**
+	 * Obtain preprocessed images from CIFAR-10 binary data file, decoding and preprocessing the images in parallel
+	 * using the specified ForkJoinPool. The result is identical to {@link #getPreprocessedImages(String, DimOrder)}.
+	 * 
+	 * @param batchBinFile
+	 *            CIFAR-10 binary data file
+	 * @param dimOrder
+	 *            if CHANNELS_ROWS_COLS, return images[numImages][channel][rows][cols]. if ROWS_COLS_CHANNELS, return
+	 *            images[numImages][rows][cols][channel].
+	 * @param pool
+	 *            The ForkJoinPool that decodes and preprocesses the images
+	 * @return The preprocessed images as a 4-dimensional float array
+	 * @throws IOException
+	 *             if problem occurs reading binary data file
+	 */
+	public static float[][][][] getPreprocessedImages(String batchBinFile, final DimOrder dimOrder,
+			ForkJoinPool pool) throws IOException {
+		final byte[] b = Files.readAllBytes(Paths.get(batchBinFile));
+		final float[][][][] images = new float[b.length / 3073][][][];
+		pool.invoke(new ImageRangeTask(0, images.length, new ImageOp() {
+			@Override
+			public void apply(int i) {
+				images[i] = preprocessImage(decodeImage(b, i, dimOrder));
+			}
+		}));
+		return images;
+	}
+
 	/**
 	 * Obtain a scaled-down image as a 3-dimensional float array.
 	 * 
@@ -221,7 +297,8 @@ public class CIFAR10Util {
 		for (int a = 0; a < x; a++) {
 			for (int b = 0; b < y; b++) {
 				for (int c = 0; c < z; c++) {
-					tmp += (Math.pow(f[a][b][c] - avg, 2));
+					double d = f[a][b][c] - avg;
+					tmp += d * d;
 				}
 			}
 		}
@@ -248,10 +325,75 @@ public class CIFAR10Util {
 	 * @return The preprocessed images as a 4-dimensional float array
 	 */
 	public static float[][][][] preprocessImages(float[][][][] images) {
-		float[][][][] preprocessedImages = new float[images.length][images[0].length][images[0][0].length][images[0][0][0].length];
+		float[][][][] preprocessedImages = new float[images.length][][][];
 		for (int i = 0; i < images.length; i++) {
 			preprocessedImages[i] = preprocessImage(images[i]);
 		}
 		return preprocessedImages;
 	}
+
+	/**
+	 * Preprocess a group of images in parallel using the specified ForkJoinPool. The result is identical to
+	 * {@link #preprocessImages(float[][][][])}.
+	 * 
+	 * @param images
+	 *            Images as a 4-dimensional float array, where the first dimension is the image number
+	 * @param pool
+	 *            The ForkJoinPool that preprocesses the images
+	 * @return The preprocessed images as a 4-dimensional float array
+	 */
+	public static float[][][][] preprocessImages(final float[][][][] images, ForkJoinPool pool) {
+		final float[][][][] preprocessedImages = new float[images.length][][][];
+		pool.invoke(new ImageRangeTask(0, images.length, new ImageOp() {
+			@Override
+			public void apply(int i) {
+				preprocessedImages[i] = preprocessImage(images[i]);
+			}
+		}));
+		return preprocessedImages;
+	}
+
+	/**
+	 * Operation on the image with a specified image number.
+	 */
+	protected static interface ImageOp {
+		void apply(int i);
+	}
+
+	/**
+	 * Applies an ImageOp to a range of image numbers, splitting the range in half until it contains at most
+	 * {@link #IMAGES_PER_TASK} images. Each image is written to its own array slot, so the result does not depend on
+	 * the order in which the tasks run.
+	 */
+	protected static class ImageRangeTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Maximum number of images processed sequentially by a task.
+		 */
+		public static final int IMAGES_PER_TASK = 16;
+
+		private final int from;
+		private final int to;
+		private final ImageOp op;
+
+		public ImageRangeTask(int from, int to, ImageOp op) {
+			this.from = from;
+			this.to = to;
+			this.op = op;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= IMAGES_PER_TASK) {
+				for (int i = from; i < to; i++) {
+					op.apply(i);
+				}
+			} else {
+				int mid = (from + to) >>> 1;
+				invokeAll(new ImageRangeTask(from, mid, op), new ImageRangeTask(mid, to, op));
+			}
+		}
+	}
 }
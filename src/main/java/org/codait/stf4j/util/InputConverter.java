@@ -0,0 +1,701 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.codait.stf4j.TFException;
+import org.tensorflow.Tensor;
+import org.tensorflow.framework.DataType;
+import org.tensorflow.framework.TensorInfo;
+import org.tensorflow.types.UInt8;
+
+/**
+ * Conversion of Java values of a particular class to Tensors of a particular data type. The conversion is selected
+ * once per value class and data type, by examining the component type of the class (for example, a float[][] or a
+ * Float[][] value fed to a DT_FLOAT input), and the selected converters are shared. Converting a value with a
+ * converter therefore does not need to examine the type of the value again.
+ *
+ * The conversions are the same as the conversions of the TFUtil convertToTensor() method, which uses these converters.
+ * Conversions that require an intermediate array (such as a Float[] to a float[], or an int[] to a float[] for a
+ * DT_FLOAT input) are implicit conversions. Each kind of implicit conversion is logged once, when it first occurs, and
+ * is counted after that. The counts are available from the implicitConversions() method.
+ *
+ * <pre>
+ * InputConverter converter = InputConverter.forValue(key, name, value, tensorInfo);
+ * Tensor&lt;?&gt; tensor = converter.convert(value);
+ * </pre>
+ *
+ */
+public abstract class InputConverter {
+
+	/**
+	 * Logger for InputConverter
+	 */
+	protected static Logger log = LogManager.getLogger(InputConverter.class);
+
+	/**
+	 * Element kinds of input values, which correspond to the primitive types, their wrapper classes, and String.
+	 */
+	enum Kind {
+		BOOLEAN("boolean", "Boolean", boolean.class),
+		BYTE("byte", "Byte", byte.class),
+		INT("int", "Integer", int.class),
+		LONG("long", "Long", long.class),
+		FLOAT("float", "Float", float.class),
+		DOUBLE("double", "Double", double.class),
+		STRING("String", "String", String.class);
+
+		/**
+		 * Name of the element type, as used in implicit conversion descriptions.
+		 */
+		final String name;
+		/**
+		 * Name of the wrapper class of the element type.
+		 */
+		final String boxedName;
+		/**
+		 * The element type of the arrays that values are converted to.
+		 */
+		final Class<?> elementType;
+
+		/**
+		 * Create a Kind.
+		 *
+		 * @param name
+		 *            Name of the element type
+		 * @param boxedName
+		 *            Name of the wrapper class
+		 * @param elementType
+		 *            The element type of converted arrays
+		 */
+		Kind(String name, String boxedName, Class<?> elementType) {
+			this.name = name;
+			this.boxedName = boxedName;
+			this.elementType = elementType;
+		}
+	}
+
+	/**
+	 * Shared converters by value class, indexed by data type ordinal.
+	 */
+	private static final ClassValue<AtomicReferenceArray<InputConverter>> CONVERTERS =
+			new ClassValue<AtomicReferenceArray<InputConverter>>() {
+				@Override
+				protected AtomicReferenceArray<InputConverter> computeValue(Class<?> type) {
+					return new AtomicReferenceArray<InputConverter>(DataType.values().length);
+				}
+			};
+
+	/**
+	 * Counts of implicit conversions, by conversion description.
+	 */
+	private static final ConcurrentHashMap<String, AtomicLong> IMPLICIT_CONVERSIONS =
+			new ConcurrentHashMap<String, AtomicLong>();
+
+	/**
+	 * The class of the values converted by this converter.
+	 */
+	final Class<?> valueClass;
+	/**
+	 * The data type of the Tensors created by this converter.
+	 */
+	final DataType dtype;
+	/**
+	 * The Java class that represents the data type when creating Tensors.
+	 */
+	final Class<?> tensorType;
+	/**
+	 * Description of the implicit conversion performed by this converter, or null if there is none.
+	 */
+	final String implicitConversion;
+	/**
+	 * Count of the implicit conversion (shared by all converters with the same description), or null if there is none.
+	 */
+	final AtomicLong implicitConversions;
+
+	/**
+	 * Create an InputConverter.
+	 *
+	 * @param valueClass
+	 *            The class of the values
+	 * @param dtype
+	 *            The data type of the Tensors
+	 * @param tensorType
+	 *            The Java class that represents the data type
+	 * @param implicitConversion
+	 *            Description of the implicit conversion, or null if there is none
+	 */
+	InputConverter(Class<?> valueClass, DataType dtype, Class<?> tensorType, String implicitConversion) {
+		this.valueClass = valueClass;
+		this.dtype = dtype;
+		this.tensorType = tensorType;
+		this.implicitConversion = implicitConversion;
+		if (implicitConversion == null) {
+			implicitConversions = null;
+		} else {
+			AtomicLong count = new AtomicLong();
+			AtomicLong existing = IMPLICIT_CONVERSIONS.putIfAbsent(implicitConversion, count);
+			implicitConversions = existing == null ? count : existing;
+		}
+	}
+
+	/**
+	 * Create a Tensor from a value of the value class.
+	 *
+	 * @param value
+	 *            The value
+	 * @return The Tensor
+	 */
+	protected abstract Tensor<?> create(Object value);
+
+	/**
+	 * Convert a value to a Tensor. The value must be an instance of the value class of this converter (see accepts()).
+	 *
+	 * @param value
+	 *            The value
+	 * @return Data stored in a Tensor object
+	 */
+	public Tensor<?> convert(Object value) {
+		if (implicitConversions != null && implicitConversions.getAndIncrement() == 0) {
+			log.warn("Implicitly converting " + implicitConversion
+					+ " (logged once, see InputConverter.implicitConversions() for counts)");
+		}
+		return create(value);
+	}
+
+	/**
+	 * Determine whether this converter converts a value to a Tensor of a data type.
+	 *
+	 * @param value
+	 *            The value
+	 * @param dataType
+	 *            The data type of the Tensor
+	 * @return true if the value class and data type are those of this converter
+	 */
+	public boolean accepts(Object value, DataType dataType) {
+		return value.getClass() == valueClass && dataType == dtype;
+	}
+
+	/**
+	 * Obtain the class of the values converted by this converter.
+	 *
+	 * @return The value class
+	 */
+	public Class<?> valueClass() {
+		return valueClass;
+	}
+
+	/**
+	 * Obtain the data type of the Tensors created by this converter.
+	 *
+	 * @return The data type
+	 */
+	public DataType dataType() {
+		return dtype;
+	}
+
+	/**
+	 * Obtain the description of the implicit conversion performed by this converter, such as "Float object array to
+	 * primitive float array".
+	 *
+	 * @return The description, or null if values are converted without an intermediate array
+	 */
+	public String implicitConversion() {
+		return implicitConversion;
+	}
+
+	@Override
+	public String toString() {
+		return valueClass.getName() + " to " + dtype
+				+ (implicitConversion == null ? "" : " (implicitly converting " + implicitConversion + ")");
+	}
+
+	/**
+	 * Obtain a converter for a value, checking a previously obtained converter first. This allows a caller to cache
+	 * the converter of an input, so that the shared converters only need to be looked up when the class of the input
+	 * values changes.
+	 *
+	 * @param cached
+	 *            The previously obtained converter for the input (can be null)
+	 * @param key
+	 *            The input key
+	 * @param name
+	 *            The input name
+	 * @param value
+	 *            The value
+	 * @param ti
+	 *            The TensorInfo object of the input
+	 * @return The cached converter if it accepts the value, otherwise the shared converter for the value
+	 */
+	public static InputConverter forValue(InputConverter cached, String key, String name, Object value,
+			TensorInfo ti) {
+		if (cached != null && cached.accepts(value, ti.getDtype())) {
+			return cached;
+		}
+		return forValue(key, name, value, ti);
+	}
+
+	/**
+	 * Obtain the shared converter for a value and the data type of an input. If the value cannot be converted, a
+	 * TFException is thrown.
+	 *
+	 * @param key
+	 *            The input key
+	 * @param name
+	 *            The input name
+	 * @param value
+	 *            The value
+	 * @param ti
+	 *            The TensorInfo object of the input
+	 * @return The converter
+	 */
+	public static InputConverter forValue(String key, String name, Object value, TensorInfo ti) {
+		DataType dtype = ti.getDtype();
+		InputConverter converter = of(value.getClass(), dtype);
+		if (converter == null) {
+			throw new TFException("Could not convert input key '" + key + "' (name: '" + name + "') value '" + value
+					+ "' (" + value.getClass().getName() + ") to Tensor (data type: " + dtype + ")");
+		}
+		return converter;
+	}
+
+	/**
+	 * Obtain the shared converter for a value class and a data type. The converter is created on first use.
+	 *
+	 * @param valueClass
+	 *            The value class
+	 * @param dtype
+	 *            The data type
+	 * @return The converter, or null if values of the class cannot be converted to the data type
+	 */
+	public static InputConverter of(Class<?> valueClass, DataType dtype) {
+		AtomicReferenceArray<InputConverter> converters = CONVERTERS.get(valueClass);
+		InputConverter converter = converters.get(dtype.ordinal());
+		if (converter == null) {
+			converter = create(valueClass, dtype);
+			if (converter != null && !converters.compareAndSet(dtype.ordinal(), null, converter)) {
+				converter = converters.get(dtype.ordinal());
+			}
+		}
+		return converter;
+	}
+
+	/**
+	 * Obtain the counts of the implicit conversions that have occurred.
+	 *
+	 * @return Mapping of conversion descriptions to counts, sorted by description
+	 */
+	public static Map<String, Long> implicitConversions() {
+		Map<String, Long> counts = new TreeMap<String, Long>();
+		for (Entry<String, AtomicLong> entry : IMPLICIT_CONVERSIONS.entrySet()) {
+			long count = entry.getValue().get();
+			if (count > 0) {
+				counts.put(entry.getKey(), count);
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * Reset the counts of the implicit conversions. The next occurrence of each implicit conversion is logged again.
+	 */
+	public static void resetImplicitConversions() {
+		for (AtomicLong count : IMPLICIT_CONVERSIONS.values()) {
+			count.set(0);
+		}
+	}
+
+	/**
+	 * Obtain the element kind of a class.
+	 *
+	 * @param type
+	 *            A wrapper class, a primitive class, or String
+	 * @return The kind, or null if the class is not supported
+	 */
+	static Kind kind(Class<?> type) {
+		if (type == Float.class || type == float.class) {
+			return Kind.FLOAT;
+		} else if (type == Double.class || type == double.class) {
+			return Kind.DOUBLE;
+		} else if (type == Integer.class || type == int.class) {
+			return Kind.INT;
+		} else if (type == Long.class || type == long.class) {
+			return Kind.LONG;
+		} else if (type == Byte.class || type == byte.class) {
+			return Kind.BYTE;
+		} else if (type == Boolean.class || type == boolean.class) {
+			return Kind.BOOLEAN;
+		} else if (type == String.class) {
+			return Kind.STRING;
+		}
+		return null;
+	}
+
+	/**
+	 * Obtain the element kind of the values of a data type.
+	 *
+	 * @param dtype
+	 *            The data type
+	 * @return The kind, or null if the data type is not supported
+	 */
+	static Kind targetKind(DataType dtype) {
+		switch (dtype) {
+		case DT_FLOAT:
+			return Kind.FLOAT;
+		case DT_DOUBLE:
+			return Kind.DOUBLE;
+		case DT_INT32:
+			return Kind.INT;
+		case DT_INT64:
+			return Kind.LONG;
+		case DT_UINT8:
+			return Kind.BYTE;
+		case DT_BOOL:
+			return Kind.BOOLEAN;
+		case DT_STRING:
+			return Kind.STRING;
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Obtain the Java class that represents a data type when creating Tensors.
+	 *
+	 * @param kind
+	 *            The element kind of the data type
+	 * @return The Java class, such as Float.class for DT_FLOAT and UInt8.class for DT_UINT8
+	 */
+	static Class<?> tensorType(Kind kind) {
+		switch (kind) {
+		case FLOAT:
+			return Float.class;
+		case DOUBLE:
+			return Double.class;
+		case INT:
+			return Integer.class;
+		case LONG:
+			return Long.class;
+		case BYTE:
+			return UInt8.class;
+		case BOOLEAN:
+			return Boolean.class;
+		default:
+			return String.class;
+		}
+	}
+
+	/**
+	 * Create a converter for a value class and a data type.
+	 *
+	 * @param valueClass
+	 *            The value class
+	 * @param dtype
+	 *            The data type
+	 * @return The converter, or null if values of the class cannot be converted to the data type
+	 */
+	static InputConverter create(Class<?> valueClass, DataType dtype) {
+		Kind target = targetKind(dtype);
+		if (target == null) {
+			return null;
+		}
+		boolean array = valueClass.isArray();
+		Class<?> elementClass = valueClass;
+		while (elementClass.isArray()) {
+			elementClass = elementClass.getComponentType();
+		}
+		Kind kind = kind(elementClass);
+		if (kind == null || (!array && elementClass.isPrimitive())) {
+			return null;
+		}
+		boolean boxed = array && !elementClass.isPrimitive() && kind != Kind.STRING;
+		Class<?> tensorType = tensorType(target);
+
+		if (!array) {
+			if (kind == target && target != Kind.STRING) {
+				return direct(valueClass, dtype, tensorType);
+			}
+			Function<Object, Object> conversion = scalarConversion(kind, target);
+			return conversion == null ? null : scalar(valueClass, dtype, tensorType, conversion);
+		}
+
+		if (target == Kind.STRING) {
+			if (kind == Kind.BYTE) {
+				return boxed ? toArray(valueClass, dtype, tensorType, byte.class, boxedDescription(kind))
+						: direct(valueClass, dtype, tensorType);
+			} else if (kind == Kind.STRING) {
+				return toStrings(valueClass, dtype, false, null);
+			}
+			return toStrings(valueClass, dtype, true, kind.name + " array to String array");
+		} else if (kind == target) {
+			return boxed ? toArray(valueClass, dtype, tensorType, target.elementType, boxedDescription(kind))
+					: direct(valueClass, dtype, tensorType);
+		}
+		String description = kind.name + " array to " + target.name + " array";
+		if (target == Kind.BYTE) {
+			description += " (for UInt8)";
+		}
+		return toArray(valueClass, dtype, tensorType, target.elementType, description);
+	}
+
+	/**
+	 * Obtain the description of the implicit conversion of a wrapper object array to a primitive array.
+	 *
+	 * @param kind
+	 *            The element kind
+	 * @return The description
+	 */
+	static String boxedDescription(Kind kind) {
+		return kind.boxedName + " object array to primitive " + kind.name + " array";
+	}
+
+	/**
+	 * Create a converter that passes values to Tensor.create() as is.
+	 *
+	 * @param valueClass
+	 *            The value class
+	 * @param dtype
+	 *            The data type
+	 * @param tensorType
+	 *            The Java class that represents the data type
+	 * @return The converter
+	 */
+	static InputConverter direct(Class<?> valueClass, DataType dtype, Class<?> tensorType) {
+		return new InputConverter(valueClass, dtype, tensorType, null) {
+			@Override
+			protected Tensor<?> create(Object value) {
+				return Tensor.create(value, this.tensorType);
+			}
+		};
+	}
+
+	/**
+	 * Create a converter that converts scalar values before creating Tensors.
+	 *
+	 * @param valueClass
+	 *            The value class
+	 * @param dtype
+	 *            The data type
+	 * @param tensorType
+	 *            The Java class that represents the data type
+	 * @param conversion
+	 *            The scalar conversion
+	 * @return The converter
+	 */
+	static InputConverter scalar(Class<?> valueClass, DataType dtype, Class<?> tensorType,
+			final Function<Object, Object> conversion) {
+		return new InputConverter(valueClass, dtype, tensorType, null) {
+			@Override
+			protected Tensor<?> create(Object value) {
+				return Tensor.create(conversion.apply(value), this.tensorType);
+			}
+		};
+	}
+
+	/**
+	 * Create a converter that converts arrays to primitive arrays of another element type before creating Tensors.
+	 *
+	 * @param valueClass
+	 *            The value class
+	 * @param dtype
+	 *            The data type
+	 * @param tensorType
+	 *            The Java class that represents the data type
+	 * @param elementType
+	 *            The primitive element type of the converted arrays
+	 * @param description
+	 *            Description of the implicit conversion
+	 * @return The converter
+	 */
+	static InputConverter toArray(Class<?> valueClass, DataType dtype, Class<?> tensorType,
+			final Class<?> elementType, String description) {
+		return new InputConverter(valueClass, dtype, tensorType, description) {
+			@Override
+			protected Tensor<?> create(Object value) {
+				return Tensor.create(ArrayUtil.convertArrayType(value, elementType), this.tensorType);
+			}
+		};
+	}
+
+	/**
+	 * Create a converter that encodes String arrays to String Tensors with the StringCodec.
+	 *
+	 * @param valueClass
+	 *            The value class
+	 * @param dtype
+	 *            The data type
+	 * @param toStrings
+	 *            true if the arrays are converted to String arrays first (for arrays of non-String values)
+	 * @param description
+	 *            Description of the implicit conversion, or null if there is none
+	 * @return The converter
+	 */
+	static InputConverter toStrings(Class<?> valueClass, DataType dtype, final boolean toStrings,
+			String description) {
+		return new InputConverter(valueClass, dtype, String.class, description) {
+			@Override
+			protected Tensor<?> create(Object value) {
+				return StringCodec.encode(toStrings ? ArrayUtil.convertArrayType(value, String.class) : value);
+			}
+		};
+	}
+
+	/**
+	 * Obtain the conversion of a scalar value of one element kind to the Tensor value of another element kind.
+	 *
+	 * @param kind
+	 *            The element kind of the value
+	 * @param target
+	 *            The element kind of the data type
+	 * @return The conversion, or null if the value cannot be converted
+	 */
+	static Function<Object, Object> scalarConversion(Kind kind, Kind target) {
+		switch (target) {
+		case FLOAT:
+			switch (kind) {
+			case INT:
+				return v -> TypeUtil.int_to_float((Integer) v);
+			case LONG:
+				return v -> TypeUtil.long_to_float((Long) v);
+			case DOUBLE:
+				return v -> TypeUtil.double_to_float((Double) v);
+			case STRING:
+				return v -> TypeUtil.String_to_float((String) v);
+			case BYTE:
+				return v -> TypeUtil.byte_unsigned_to_float((Byte) v);
+			case BOOLEAN:
+				return v -> TypeUtil.boolean_to_float((Boolean) v);
+			default:
+				return null;
+			}
+		case DOUBLE:
+			switch (kind) {
+			case INT:
+				return v -> TypeUtil.int_to_double((Integer) v);
+			case LONG:
+				return v -> TypeUtil.long_to_double((Long) v);
+			case FLOAT:
+				return v -> TypeUtil.float_to_double((Float) v);
+			case STRING:
+				return v -> TypeUtil.String_to_double((String) v);
+			case BYTE:
+				return v -> TypeUtil.byte_unsigned_to_double((Byte) v);
+			case BOOLEAN:
+				return v -> TypeUtil.boolean_to_double((Boolean) v);
+			default:
+				return null;
+			}
+		case LONG:
+			switch (kind) {
+			case INT:
+				return v -> TypeUtil.int_to_long((Integer) v);
+			case FLOAT:
+				return v -> TypeUtil.float_to_long((Float) v);
+			case DOUBLE:
+				return v -> TypeUtil.double_to_long((Double) v);
+			case STRING:
+				return v -> TypeUtil.String_to_long((String) v);
+			case BYTE:
+				return v -> TypeUtil.byte_unsigned_to_long((Byte) v);
+			case BOOLEAN:
+				return v -> TypeUtil.boolean_to_long((Boolean) v);
+			default:
+				return null;
+			}
+		case INT:
+			switch (kind) {
+			case LONG:
+				return v -> TypeUtil.long_to_int((Long) v);
+			case FLOAT:
+				return v -> TypeUtil.float_to_int((Float) v);
+			case DOUBLE:
+				return v -> TypeUtil.double_to_int((Double) v);
+			case STRING:
+				return v -> Integer.parseInt((String) v);
+			case BYTE:
+				return v -> TypeUtil.byte_unsigned_to_int((Byte) v);
+			case BOOLEAN:
+				return v -> TypeUtil.boolean_to_int((Boolean) v);
+			default:
+				return null;
+			}
+		case BYTE:
+			switch (kind) {
+			case INT:
+				return v -> TypeUtil.int_to_byte((Integer) v);
+			case LONG:
+				return v -> TypeUtil.long_to_byte((Long) v);
+			case FLOAT:
+				return v -> TypeUtil.float_to_byte((Float) v);
+			case DOUBLE:
+				return v -> TypeUtil.double_to_byte((Double) v);
+			case STRING:
+				return v -> TypeUtil.String_to_byte((String) v);
+			case BOOLEAN:
+				return v -> TypeUtil.boolean_to_byte((Boolean) v);
+			default:
+				return null;
+			}
+		case BOOLEAN:
+			switch (kind) {
+			case BYTE:
+				return v -> TypeUtil.byte_to_boolean((Byte) v);
+			case INT:
+				return v -> TypeUtil.int_to_boolean((Integer) v);
+			case LONG:
+				return v -> TypeUtil.long_to_boolean((Long) v);
+			case FLOAT:
+				return v -> TypeUtil.float_to_boolean((Float) v);
+			case DOUBLE:
+				return v -> TypeUtil.double_to_boolean((Double) v);
+			case STRING:
+				return v -> TypeUtil.String_to_boolean((String) v);
+			default:
+				return null;
+			}
+		case STRING:
+			switch (kind) {
+			case STRING:
+				return v -> ((String) v).getBytes(StandardCharsets.UTF_8);
+			case INT:
+				return v -> TypeUtil.int_to_String_bytes((Integer) v);
+			case LONG:
+				return v -> TypeUtil.long_to_String_bytes((Long) v);
+			case FLOAT:
+				return v -> TypeUtil.float_to_String_bytes((Float) v);
+			case DOUBLE:
+				return v -> TypeUtil.double_to_String_bytes((Double) v);
+			case BOOLEAN:
+				return v -> TypeUtil.boolean_to_String_bytes((Boolean) v);
+			default:
+				return null;
+			}
+		default:
+			return null;
+		}
+	}
+}
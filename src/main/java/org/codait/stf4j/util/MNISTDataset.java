@@ -0,0 +1,481 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import org.codait.stf4j.TFException;
+
+/**
+ * MNIST images (and optionally labels) backed by memory-mapped idx files. The idx headers are parsed to determine the
+ * number of images and the image dimensions. Pixels are read from the mapped files on demand, so the decoded data set
+ * is never held on the Java heap.
+ *
+ * Images can be accessed randomly or iterated over in batches. Batches are returned as flat buffers in row-major
+ * (image, row, column) order, which can be passed directly to TFModel.in(key, buffer, shape) or Tensor.create.
+ *
+ * Example:
+ *
+ * <pre>
+ * MNISTDataset dataset = new MNISTDataset(TEST_IMAGES, TEST_LABELS);
+ * while (dataset.hasNext()) {
+ * 	ByteBuffer batch = dataset.nextBatch(100);
+ * 	int[] labels = dataset.batchLabels();
+ * 	model.in("image", batch, dataset.batchShape(labels.length)).out("classes").run();
+ * }
+ * </pre>
+ *
+ * An MNISTDataset is not thread-safe for iteration; the random access methods can be called from several threads.
+ */
+public class MNISTDataset {
+
+	/**
+	 * Type code of unsigned byte data in an idx file header.
+	 */
+	public static final int IDX_UNSIGNED_BYTE = 0x08;
+
+	private final ByteBuffer pixels;
+	private final ByteBuffer labels;
+	private final int numImages;
+	private final int rows;
+	private final int cols;
+	private final int imageSize;
+
+	private int position = 0;
+	private int batchStart = 0;
+	private int batchCount = 0;
+
+	/**
+	 * Create MNISTDataset from an MNIST image data file.
+	 *
+	 * @param imageFile
+	 *            MNIST image data file (idx3-ubyte)
+	 * @throws IOException
+	 *             if problem occurs reading data file
+	 */
+	public MNISTDataset(String imageFile) throws IOException {
+		this(imageFile, null);
+	}
+
+	/**
+	 * Create MNISTDataset from an MNIST image data file and the corresponding label data file.
+	 *
+	 * @param imageFile
+	 *            MNIST image data file (idx3-ubyte)
+	 * @param labelFile
+	 *            MNIST label data file (idx1-ubyte), or null if there are no labels
+	 * @throws IOException
+	 *             if problem occurs reading data files
+	 */
+	public MNISTDataset(String imageFile, String labelFile) throws IOException {
+		ByteBuffer imageData = mapIdx(imageFile);
+		int[] imageDims = idxDimensions(imageFile, imageData, 3);
+		numImages = imageDims[0];
+		rows = imageDims[1];
+		cols = imageDims[2];
+		imageSize = rows * cols;
+		pixels = idxData(imageFile, imageData, imageDims);
+
+		if (labelFile == null) {
+			labels = null;
+		} else {
+			ByteBuffer labelData = mapIdx(labelFile);
+			int[] labelDims = idxDimensions(labelFile, labelData, 1);
+			if (labelDims[0] != numImages) {
+				throw new IOException("Number of labels (" + labelDims[0] + ") in '" + labelFile
+						+ "' does not match number of images (" + numImages + ")");
+			}
+			labels = idxData(labelFile, labelData, labelDims);
+		}
+	}
+
+	/**
+	 * Read all labels from an MNIST label data file.
+	 *
+	 * @param labelFile
+	 *            MNIST label data file (idx1-ubyte)
+	 * @return Labels (valued 0 through 9) as an int array
+	 * @throws IOException
+	 *             if problem occurs reading data file
+	 */
+	public static int[] readLabels(String labelFile) throws IOException {
+		ByteBuffer labelData = mapIdx(labelFile);
+		int[] labelDims = idxDimensions(labelFile, labelData, 1);
+		ByteBuffer data = idxData(labelFile, labelData, labelDims);
+		int[] labels = new int[labelDims[0]];
+		for (int i = 0; i < labels.length; i++) {
+			labels[i] = data.get(i);
+		}
+		return labels;
+	}
+
+	private static ByteBuffer mapIdx(String file) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("File '" + file + "' is too large to map");
+			}
+			return channel.map(MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.BIG_ENDIAN);
+		}
+	}
+
+	/**
+	 * Parse the header of an idx file: two zero bytes, the data type code, the number of dimensions, and the size of
+	 * each dimension as a big-endian int.
+	 */
+	private static int[] idxDimensions(String file, ByteBuffer data, int expectedDims) throws IOException {
+		if (data.limit() < 4) {
+			throw new IOException("File '" + file + "' is not an idx file");
+		}
+		int magic = data.getInt(0);
+		if ((magic >>> 16) != 0) {
+			throw new IOException("File '" + file + "' is not an idx file");
+		}
+		int type = (magic >>> 8) & 0xFF;
+		if (type != IDX_UNSIGNED_BYTE) {
+			throw new IOException("Unsupported idx data type 0x" + Integer.toHexString(type) + " in '" + file + "'");
+		}
+		int numDims = magic & 0xFF;
+		if (numDims != expectedDims) {
+			throw new IOException("Expected " + expectedDims + " dimensions in '" + file + "' but found " + numDims);
+		}
+		if (data.limit() < 4 + 4 * numDims) {
+			throw new IOException("Truncated idx header in '" + file + "'");
+		}
+		int[] dims = new int[numDims];
+		for (int i = 0; i < numDims; i++) {
+			dims[i] = data.getInt(4 + 4 * i);
+		}
+		return dims;
+	}
+
+	private static ByteBuffer idxData(String file, ByteBuffer data, int[] dims) throws IOException {
+		int offset = 4 + 4 * dims.length;
+		long length = 1;
+		for (int dim : dims) {
+			length *= dim;
+		}
+		if (data.limit() < offset + length) {
+			throw new IOException("File '" + file + "' contains " + (data.limit() - offset) + " data bytes but header "
+					+ "specifies " + length);
+		}
+		ByteBuffer d = data.duplicate();
+		d.position(offset);
+		d.limit((int) (offset + length));
+		return d.slice();
+	}
+
+	/**
+	 * Obtain the number of images.
+	 *
+	 * @return The number of images
+	 */
+	public int size() {
+		return numImages;
+	}
+
+	/**
+	 * Obtain the number of rows of each image.
+	 *
+	 * @return The number of rows
+	 */
+	public int rows() {
+		return rows;
+	}
+
+	/**
+	 * Obtain the number of columns of each image.
+	 *
+	 * @return The number of columns
+	 */
+	public int cols() {
+		return cols;
+	}
+
+	/**
+	 * Return true if the data set has labels, false otherwise.
+	 *
+	 * @return true if the data set has labels, false otherwise
+	 */
+	public boolean hasLabels() {
+		return labels != null;
+	}
+
+	/**
+	 * Obtain the shape of a batch of images, {@code [n, rows, cols]}.
+	 *
+	 * @param n
+	 *            The number of images in the batch
+	 * @return The batch shape
+	 */
+	public long[] batchShape(int n) {
+		return new long[] { n, rows, cols };
+	}
+
+	private void checkRange(int start, int n) {
+		if (start < 0 || n < 0 || start + n > numImages) {
+			throw new TFException(
+					"Images " + start + " to " + (start + n) + " are out of range (" + numImages + " images)");
+		}
+	}
+
+	/**
+	 * Obtain a pixel value.
+	 *
+	 * @param image
+	 *            The image number
+	 * @param row
+	 *            The row
+	 * @param col
+	 *            The column
+	 * @return The grayscale pixel value (0 to 255)
+	 */
+	public int pixel(int image, int row, int col) {
+		checkRange(image, 1);
+		return pixels.get(image * imageSize + row * cols + col) & 0xFF;
+	}
+
+	/**
+	 * Obtain an image as a 2-dimensional int array, as returned by MNISTUtil.getImages.
+	 *
+	 * @param image
+	 *            The image number
+	 * @return The image as a 2-dimensional int array
+	 */
+	public int[][] image(int image) {
+		checkRange(image, 1);
+		int[][] img = new int[rows][cols];
+		int offset = image * imageSize;
+		for (int r = 0; r < rows; r++) {
+			for (int c = 0; c < cols; c++) {
+				img[r][c] = pixels.get(offset++) & 0xFF;
+			}
+		}
+		return img;
+	}
+
+	/**
+	 * Obtain a label.
+	 *
+	 * @param image
+	 *            The image number
+	 * @return The label (valued 0 through 9)
+	 */
+	public int label(int image) {
+		checkRange(image, 1);
+		checkLabels();
+		return labels.get(image);
+	}
+
+	/**
+	 * Obtain the labels of a range of images.
+	 *
+	 * @param start
+	 *            The first image number
+	 * @param n
+	 *            The number of images
+	 * @return The labels as an int array
+	 */
+	public int[] labels(int start, int n) {
+		checkRange(start, n);
+		checkLabels();
+		int[] l = new int[n];
+		for (int i = 0; i < n; i++) {
+			l[i] = labels.get(start + i);
+		}
+		return l;
+	}
+
+	private void checkLabels() {
+		if (labels == null) {
+			throw new TFException("MNISTDataset does not have labels");
+		}
+	}
+
+	/**
+	 * Obtain the pixels of a range of images as unsigned bytes. The returned buffer is a read-only view of the mapped
+	 * image file, so no values are copied.
+	 *
+	 * @param start
+	 *            The first image number
+	 * @param n
+	 *            The number of images
+	 * @return The pixels as a ByteBuffer of n * rows * cols unsigned bytes
+	 */
+	public ByteBuffer images(int start, int n) {
+		checkRange(start, n);
+		ByteBuffer b = pixels.duplicate();
+		b.position(start * imageSize);
+		b.limit((start + n) * imageSize);
+		return b.slice();
+	}
+
+	/**
+	 * Obtain the pixels of a range of images as float values (0.0 to 255.0) in a new direct FloatBuffer in native byte
+	 * order. The buffer position is 0 and its limit is n * rows * cols.
+	 *
+	 * @param start
+	 *            The first image number
+	 * @param n
+	 *            The number of images
+	 * @return The pixels as a FloatBuffer
+	 */
+	public FloatBuffer floatImages(int start, int n) {
+		FloatBuffer dst = ByteBuffer.allocateDirect(n * imageSize * 4).order(ByteOrder.nativeOrder())
+				.asFloatBuffer();
+		floatImages(start, n, dst);
+		dst.flip();
+		return dst;
+	}
+
+	/**
+	 * Write the pixels of a range of images as float values (0.0 to 255.0) into a FloatBuffer, starting at the
+	 * buffer's current position. The buffer position is advanced by n * rows * cols.
+	 *
+	 * @param start
+	 *            The first image number
+	 * @param n
+	 *            The number of images
+	 * @param dst
+	 *            The destination buffer
+	 * @return The destination buffer
+	 */
+	public FloatBuffer floatImages(int start, int n, FloatBuffer dst) {
+		checkRange(start, n);
+		int length = n * imageSize;
+		if (dst.remaining() < length) {
+			throw new TFException("Destination buffer has " + dst.remaining() + " remaining elements but " + length
+					+ " are required");
+		}
+		int offset = start * imageSize;
+		for (int i = 0; i < length; i++) {
+			dst.put(pixels.get(offset + i) & 0xFF);
+		}
+		return dst;
+	}
+
+	/**
+	 * Return true if there are images that have not been returned by the batch iteration methods.
+	 *
+	 * @return true if there are more images, false otherwise
+	 */
+	public boolean hasNext() {
+		return position < numImages;
+	}
+
+	/**
+	 * Obtain the number of the next image of the batch iteration.
+	 *
+	 * @return The next image number
+	 */
+	public int position() {
+		return position;
+	}
+
+	/**
+	 * Reset the batch iteration to the first image.
+	 */
+	public void reset() {
+		position = 0;
+		batchStart = 0;
+		batchCount = 0;
+	}
+
+	private int advance(int n) {
+		if (n <= 0) {
+			throw new TFException("Batch size must be positive");
+		}
+		batchStart = position;
+		batchCount = Math.min(n, numImages - position);
+		position += batchCount;
+		return batchCount;
+	}
+
+	/**
+	 * Obtain the next batch of up to n images as unsigned bytes (see {@link #images(int, int)}). The last batch can
+	 * contain fewer than n images.
+	 *
+	 * @param n
+	 *            The maximum number of images
+	 * @return The pixels as a ByteBuffer
+	 */
+	public ByteBuffer nextBatch(int n) {
+		int count = advance(n);
+		return images(batchStart, count);
+	}
+
+	/**
+	 * Obtain the next batch of up to n images as float values (see {@link #floatImages(int, int)}). The last batch can
+	 * contain fewer than n images.
+	 *
+	 * @param n
+	 *            The maximum number of images
+	 * @return The pixels as a FloatBuffer
+	 */
+	public FloatBuffer nextFloatBatch(int n) {
+		int count = advance(n);
+		return floatImages(batchStart, count);
+	}
+
+	/**
+	 * Write the next batch of up to n images as float values into a reusable FloatBuffer. The buffer is cleared, filled,
+	 * and flipped, so its position is 0 and its limit is the number of values in the batch.
+	 *
+	 * @param n
+	 *            The maximum number of images
+	 * @param dst
+	 *            The destination buffer
+	 * @return The destination buffer
+	 */
+	public FloatBuffer nextFloatBatch(int n, FloatBuffer dst) {
+		int count = advance(n);
+		dst.clear();
+		floatImages(batchStart, count, dst);
+		dst.flip();
+		return dst;
+	}
+
+	/**
+	 * Obtain the number of images in the most recent batch.
+	 *
+	 * @return The number of images in the most recent batch
+	 */
+	public int batchSize() {
+		return batchCount;
+	}
+
+	/**
+	 * Obtain the labels of the most recent batch.
+	 *
+	 * @return The labels as an int array
+	 */
+	public int[] batchLabels() {
+		return labels(batchStart, batchCount);
+	}
+
+	@Override
+	public String toString() {
+		return "MNISTDataset (" + numImages + " images, " + rows + "x" + cols + (hasLabels() ? ", labels" : "")
+				+ ")";
+	}
+}
@@ -18,8 +18,6 @@ package org.codait.stf4j.util;
 
 import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 
 /**
  * Utility class for dealing with MNIST data in Java.
@@ -36,6 +34,9 @@ import java.nio.file.Paths;
  * MNISTUtil.displayMNISTImage(images[0]);
  * MNISTUtil.displayMNISTImageAsText(images[0]);
  * </pre>
+ *
+ * The get methods decode the whole data file into Java arrays. For large data sets, use {@link MNISTDataset}, which
+ * reads images from a memory-mapped file in batches.
  */
 public class MNISTUtil {
 
@@ -72,10 +73,10 @@ public class MNISTUtil {
 	 *             if problem occurs reading data file
 	 */
 	public static int[][][] getImages(String imageFile) throws IOException {
-		byte[] b = Files.readAllBytes(Paths.get(imageFile));
-		int[][][] images = new int[(b.length - 16) / 784][28][28];
-		for (int i = 0; i < b.length - 16; i++) {
-			images[i / 784][i % 784 / 28][i % 784 % 28] = b[i + 16] & 0xFF;
+		MNISTDataset dataset = new MNISTDataset(imageFile);
+		int[][][] images = new int[dataset.size()][][];
+		for (int i = 0; i < images.length; i++) {
+			images[i] = dataset.image(i);
 		}
 		return images;
 	}
@@ -90,12 +91,7 @@ public class MNISTUtil {
 	 *             if problem occurs reading data file
 	 */
 	public static int[] getLabels(String labelFile) throws IOException {
-		byte[] b = Files.readAllBytes(Paths.get(labelFile));
-		int[] labels = new int[b.length - 8];
-		for (int i = 0; i < labels.length; i++) {
-			labels[i] = b[i + 8];
-		}
-		return labels;
+		return MNISTDataset.readLabels(labelFile);
 	}
 
 	/**
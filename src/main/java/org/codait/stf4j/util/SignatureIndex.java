@@ -0,0 +1,218 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.util;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.codait.stf4j.TFException;
+import org.tensorflow.framework.MetaGraphDef;
+import org.tensorflow.framework.SignatureDef;
+import org.tensorflow.framework.TensorInfo;
+
+/**
+ * Index of the SignatureDef input and output keys of a MetaGraphDef. The TensorInfo object (name, data type, and
+ * shape) of each input and output key is obtained by map lookups rather than by scanning the SignatureDefs.
+ *
+ * If no SignatureDef key is specified, an input or output key is resolved to the first SignatureDef that contains the
+ * key, in the iteration order of the MetaGraphDef SignatureDef map. A SignatureIndex is immutable, so it can be shared
+ * between threads.
+ *
+ */
+public class SignatureIndex {
+
+	/**
+	 * Mapping of SignatureDef keys to input keys to TensorInfo objects.
+	 */
+	final Map<String, Map<String, TensorInfo>> inputs;
+	/**
+	 * Mapping of SignatureDef keys to output keys to TensorInfo objects.
+	 */
+	final Map<String, Map<String, TensorInfo>> outputs;
+	/**
+	 * Mapping of input keys to the TensorInfo objects of the first SignatureDef containing each input key.
+	 */
+	final Map<String, TensorInfo> firstInputs;
+	/**
+	 * Mapping of output keys to the TensorInfo objects of the first SignatureDef containing each output key.
+	 */
+	final Map<String, TensorInfo> firstOutputs;
+
+	/**
+	 * Create SignatureIndex for the SignatureDefs of a MetaGraphDef.
+	 *
+	 * @param metaGraphDef
+	 *            The MetaGraphDef object
+	 */
+	public SignatureIndex(MetaGraphDef metaGraphDef) {
+		Map<String, Map<String, TensorInfo>> in = new LinkedHashMap<String, Map<String, TensorInfo>>();
+		Map<String, Map<String, TensorInfo>> out = new LinkedHashMap<String, Map<String, TensorInfo>>();
+		Map<String, TensorInfo> firstIn = new LinkedHashMap<String, TensorInfo>();
+		Map<String, TensorInfo> firstOut = new LinkedHashMap<String, TensorInfo>();
+		for (Entry<String, SignatureDef> sdmEntry : metaGraphDef.getSignatureDefMap().entrySet()) {
+			SignatureDef sigDef = sdmEntry.getValue();
+			in.put(sdmEntry.getKey(), Collections.unmodifiableMap(new LinkedHashMap<String, TensorInfo>(sigDef
+					.getInputsMap())));
+			out.put(sdmEntry.getKey(), Collections.unmodifiableMap(new LinkedHashMap<String, TensorInfo>(sigDef
+					.getOutputsMap())));
+			for (Entry<String, TensorInfo> entry : sigDef.getInputsMap().entrySet()) {
+				if (!firstIn.containsKey(entry.getKey())) {
+					firstIn.put(entry.getKey(), entry.getValue());
+				}
+			}
+			for (Entry<String, TensorInfo> entry : sigDef.getOutputsMap().entrySet()) {
+				if (!firstOut.containsKey(entry.getKey())) {
+					firstOut.put(entry.getKey(), entry.getValue());
+				}
+			}
+		}
+		inputs = Collections.unmodifiableMap(in);
+		outputs = Collections.unmodifiableMap(out);
+		firstInputs = Collections.unmodifiableMap(firstIn);
+		firstOutputs = Collections.unmodifiableMap(firstOut);
+	}
+
+	/**
+	 * Obtain the TensorInfo object corresponding to an input key.
+	 *
+	 * @param signatureDefKey
+	 *            The SignatureDef key, or null to use the first SignatureDef containing the input key
+	 * @param inputKey
+	 *            The input key
+	 * @return The TensorInfo object corresponding to the input key
+	 */
+	public TensorInfo inputTensorInfo(String signatureDefKey, String inputKey) {
+		if (signatureDefKey == null) {
+			TensorInfo tensorInfo = firstInputs.get(inputKey);
+			if (tensorInfo == null) {
+				throw new TFException("Input key '" + inputKey + "' not found in MetaGraphDef");
+			}
+			return tensorInfo;
+		}
+		TensorInfo tensorInfo = signatureInputs(signatureDefKey).get(inputKey);
+		if (tensorInfo == null) {
+			throw new TFException("Input key '" + inputKey + "' for SignatureDef '" + signatureDefKey + "' not found");
+		}
+		return tensorInfo;
+	}
+
+	/**
+	 * Obtain the TensorInfo object corresponding to an output key.
+	 *
+	 * @param signatureDefKey
+	 *            The SignatureDef key, or null to use the first SignatureDef containing the output key
+	 * @param outputKey
+	 *            The output key
+	 * @return The TensorInfo object corresponding to the output key
+	 */
+	public TensorInfo outputTensorInfo(String signatureDefKey, String outputKey) {
+		if (signatureDefKey == null) {
+			TensorInfo tensorInfo = firstOutputs.get(outputKey);
+			if (tensorInfo == null) {
+				throw new TFException("Output key '" + outputKey + "' not found in MetaGraphDef");
+			}
+			return tensorInfo;
+		}
+		TensorInfo tensorInfo = signatureOutputs(signatureDefKey).get(outputKey);
+		if (tensorInfo == null) {
+			throw new TFException(
+					"Output key '" + outputKey + "' for SignatureDef '" + signatureDefKey + "' not found");
+		}
+		return tensorInfo;
+	}
+
+	/**
+	 * Obtain the input name corresponding to an input key.
+	 *
+	 * @param signatureDefKey
+	 *            The SignatureDef key, or null to use the first SignatureDef containing the input key
+	 * @param inputKey
+	 *            The input key
+	 * @return The input name corresponding to the input key
+	 */
+	public String inputName(String signatureDefKey, String inputKey) {
+		return inputTensorInfo(signatureDefKey, inputKey).getName();
+	}
+
+	/**
+	 * Obtain the output name corresponding to an output key.
+	 *
+	 * @param signatureDefKey
+	 *            The SignatureDef key, or null to use the first SignatureDef containing the output key
+	 * @param outputKey
+	 *            The output key
+	 * @return The output name corresponding to the output key
+	 */
+	public String outputName(String signatureDefKey, String outputKey) {
+		return outputTensorInfo(signatureDefKey, outputKey).getName();
+	}
+
+	/**
+	 * Obtain the mapping of input keys to TensorInfo objects of a SignatureDef.
+	 *
+	 * @param signatureDefKey
+	 *            The SignatureDef key
+	 * @return The mapping of input keys to TensorInfo objects
+	 */
+	public Map<String, TensorInfo> signatureInputs(String signatureDefKey) {
+		Map<String, TensorInfo> m = inputs.get(signatureDefKey);
+		if (m == null) {
+			throw new TFException("SignatureDef key '" + signatureDefKey + "' not found. Possible keys: "
+					+ signatureDefKeys().toString());
+		}
+		return m;
+	}
+
+	/**
+	 * Obtain the mapping of output keys to TensorInfo objects of a SignatureDef.
+	 *
+	 * @param signatureDefKey
+	 *            The SignatureDef key
+	 * @return The mapping of output keys to TensorInfo objects
+	 */
+	public Map<String, TensorInfo> signatureOutputs(String signatureDefKey) {
+		Map<String, TensorInfo> m = outputs.get(signatureDefKey);
+		if (m == null) {
+			throw new TFException("SignatureDef key '" + signatureDefKey + "' not found. Possible keys: "
+					+ signatureDefKeys().toString());
+		}
+		return m;
+	}
+
+	/**
+	 * Return true if the SignatureDef key exists, false otherwise.
+	 *
+	 * @param signatureDefKey
+	 *            The SignatureDef key
+	 * @return true if the SignatureDef key exists, false otherwise
+	 */
+	public boolean hasSignatureDef(String signatureDefKey) {
+		return inputs.containsKey(signatureDefKey);
+	}
+
+	/**
+	 * Obtain the SignatureDef keys.
+	 *
+	 * @return The SignatureDef keys
+	 */
+	public Set<String> signatureDefKeys() {
+		return inputs.keySet();
+	}
+}
@@ -0,0 +1,521 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.util;
+
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.codait.stf4j.TFException;
+import org.tensorflow.Tensor;
+
+/**
+ * Encoding of String arrays to String Tensors and decoding of String Tensors to String arrays, directly to and from
+ * the TensorFlow TF_STRING buffer layout (one uint64 offset per value, followed by the varint-length-prefixed value
+ * bytes). Unlike the conversion through multidimensional byte arrays, no intermediate byte array is created for each
+ * value, and strings consisting of ASCII characters (the common case for labels and identifiers) are copied
+ * character by character instead of going through the UTF-8 encoder and decoder. Other strings are encoded and
+ * decoded as UTF-8.
+ *
+ * When decoding, short values that occur repeatedly in a Tensor (such as the class labels of a classification
+ * output) are interned through a small dictionary, so each distinct label is decoded once per Tensor and the
+ * resulting array shares a single String object per label. The dictionary holds at most maxInterned values; once it
+ * is full, other values are decoded individually.
+ *
+ * <pre>
+ * Tensor&lt;String&gt; tensor = StringCodec.encode(new String[][] { { "a", "b" }, { "c", "d" } });
+ * String[][] s = (String[][]) StringCodec.DEFAULT.decode(tensor);
+ * </pre>
+ *
+ * A StringCodec has no mutable state (each decode() call uses its own dictionary), so it can be shared by threads.
+ *
+ */
+public class StringCodec {
+
+	/**
+	 * Default maximum number of distinct values interned per decoded Tensor.
+	 */
+	public static final int DEFAULT_MAX_INTERNED = 256;
+
+	/**
+	 * Maximum length in bytes of an interned value. Longer values are unlikely to be labels.
+	 */
+	public static final int MAX_INTERNED_LENGTH = 64;
+
+	/**
+	 * StringCodec with the default dictionary size.
+	 */
+	public static final StringCodec DEFAULT = new StringCodec(DEFAULT_MAX_INTERNED);
+
+	/**
+	 * Maximum number of distinct values interned per decoded Tensor (0 disables interning).
+	 */
+	final int maxInterned;
+
+	/**
+	 * Create a StringCodec.
+	 *
+	 * @param maxInterned
+	 *            Maximum number of distinct values interned per decoded Tensor (0 disables interning)
+	 */
+	public StringCodec(int maxInterned) {
+		if (maxInterned < 0) {
+			throw new TFException("Maximum number of interned values cannot be negative: " + maxInterned);
+		}
+		this.maxInterned = maxInterned;
+	}
+
+	/**
+	 * Obtain the maximum number of distinct values interned per decoded Tensor.
+	 *
+	 * @return The maximum number of interned values (0 if interning is disabled)
+	 */
+	public int maxInterned() {
+		return maxInterned;
+	}
+
+	/**
+	 * Encode a String or a multidimensional String array to a String Tensor with the shape of the array. The array
+	 * must be rectangular and cannot contain null values.
+	 *
+	 * @param value
+	 *            A String, or a String array with any number of dimensions
+	 * @return The String Tensor
+	 */
+	public static Tensor<String> encode(Object value) {
+		if (value instanceof String) {
+			return Tensor.create(((String) value).getBytes(StandardCharsets.UTF_8), String.class);
+		}
+		Class<?> type = value == null ? null : value.getClass();
+		int rank = 0;
+		while (type != null && type.isArray()) {
+			type = type.getComponentType();
+			rank++;
+		}
+		if (rank == 0 || type != String.class) {
+			throw new TFException("Cannot encode " + (value == null ? "null" : value.getClass().getName())
+					+ " to String Tensor");
+		}
+		long[] shape = new long[rank];
+		long count = 1;
+		Object level = value;
+		for (int d = 0; d < rank; d++) {
+			Object[] a = (Object[]) level;
+			shape[d] = a.length;
+			count *= a.length;
+			if (a.length == 0) {
+				break;
+			}
+			level = a[0];
+		}
+		if (count > Integer.MAX_VALUE) {
+			throw new TFException("Too many String values for a Tensor: " + count);
+		}
+		String[] strings = new String[(int) count];
+		flatten(value, shape, 0, strings, 0);
+		return encode(strings, shape);
+	}
+
+	/**
+	 * Encode String values in row-major order to a String Tensor.
+	 *
+	 * @param strings
+	 *            The values in row-major order (cannot contain null values)
+	 * @param shape
+	 *            The Tensor shape, whose element count must equal the number of values
+	 * @return The String Tensor
+	 */
+	public static Tensor<String> encode(String[] strings, long[] shape) {
+		long count = 1;
+		for (long d : shape) {
+			count *= d;
+		}
+		if (count != strings.length) {
+			throw new TFException("Shape " + Arrays.toString(shape) + " does not match " + strings.length
+					+ " String values");
+		}
+		int n = strings.length;
+		byte[][] utf8 = null;
+		long size = 8L * n;
+		for (int i = 0; i < n; i++) {
+			String s = strings[i];
+			if (s == null) {
+				throw new TFException("Cannot encode null String at index " + i);
+			}
+			int length = s.length();
+			if (!isAscii(s)) {
+				if (utf8 == null) {
+					utf8 = new byte[n][];
+				}
+				utf8[i] = s.getBytes(StandardCharsets.UTF_8);
+				length = utf8[i].length;
+			}
+			size += varintSize(length) + length;
+		}
+		if (size > Integer.MAX_VALUE) {
+			throw new TFException("String values too large for a Tensor: " + size + " bytes");
+		}
+		byte[] data = new byte[(int) size];
+		ByteBuffer offsets = ByteBuffer.wrap(data).order(ByteOrder.nativeOrder());
+		int dataStart = 8 * n;
+		int pos = dataStart;
+		for (int i = 0; i < n; i++) {
+			offsets.putLong(8 * i, pos - dataStart);
+			byte[] b = utf8 == null ? null : utf8[i];
+			if (b == null) {
+				String s = strings[i];
+				int length = s.length();
+				pos = putVarint(data, pos, length);
+				for (int j = 0; j < length; j++) {
+					data[pos++] = (byte) s.charAt(j);
+				}
+			} else {
+				pos = putVarint(data, pos, b.length);
+				System.arraycopy(b, 0, data, pos, b.length);
+				pos += b.length;
+			}
+		}
+		return Tensor.create(String.class, shape, ByteBuffer.wrap(data));
+	}
+
+	/**
+	 * Decode a String Tensor to a String (for a scalar Tensor) or to a multidimensional String array with the shape of
+	 * the Tensor.
+	 *
+	 * @param tensor
+	 *            The String Tensor
+	 * @return A String, or a String array with the number of dimensions of the Tensor
+	 */
+	public Object decode(Tensor<?> tensor) {
+		long[] shape = tensor.shape();
+		String[] flat = decodeFlat(tensor);
+		if (shape.length == 0) {
+			return flat[0];
+		}
+		Object array = Array.newInstance(String.class, ArrayUtil.lToI(shape));
+		unflatten(flat, array, shape, 0, 0);
+		return array;
+	}
+
+	/**
+	 * Decode the values of a String Tensor to a String array in row-major order.
+	 *
+	 * @param tensor
+	 *            The String Tensor
+	 * @return The values
+	 */
+	public String[] decodeFlat(Tensor<?> tensor) {
+		if (tensor.dataType() != org.tensorflow.DataType.STRING) {
+			throw new TFException("Cannot decode " + tensor.dataType() + " Tensor as String values");
+		}
+		int n = tensor.numElements();
+		String[] strings = new String[n];
+		if (n == 0) {
+			return strings;
+		}
+		ByteBuffer bb = TFUtil.tensorBuffer(tensor);
+		Decoder decoder = new Decoder(bb, n, maxInterned);
+		for (int i = 0; i < n; i++) {
+			strings[i] = decoder.decode(i);
+		}
+		return strings;
+	}
+
+	/**
+	 * Decode a value of a String Tensor from the Tensor buffer.
+	 *
+	 * @param bb
+	 *            The Tensor buffer, in native byte order
+	 * @param numElements
+	 *            The number of values of the Tensor
+	 * @param index
+	 *            The index of the value in row-major order
+	 * @return The value
+	 */
+	static String decode(ByteBuffer bb, long numElements, int index) {
+		return new Decoder(bb, numElements, 0).decode(index);
+	}
+
+	/**
+	 * Determine whether a String consists of ASCII characters only, in which case its UTF-8 encoding has one byte per
+	 * character.
+	 *
+	 * @param s
+	 *            The String
+	 * @return true if all characters are ASCII
+	 */
+	static boolean isAscii(String s) {
+		for (int i = 0; i < s.length(); i++) {
+			if (s.charAt(i) >= 0x80) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Obtain the number of bytes of the varint encoding of a length.
+	 *
+	 * @param length
+	 *            The length
+	 * @return The number of bytes
+	 */
+	static int varintSize(int length) {
+		int size = 1;
+		while ((length >>>= 7) != 0) {
+			size++;
+		}
+		return size;
+	}
+
+	/**
+	 * Write the varint encoding of a length.
+	 *
+	 * @param data
+	 *            The destination array
+	 * @param pos
+	 *            The position to write at
+	 * @param length
+	 *            The length
+	 * @return The position after the varint
+	 */
+	static int putVarint(byte[] data, int pos, int length) {
+		while ((length & ~0x7f) != 0) {
+			data[pos++] = (byte) ((length & 0x7f) | 0x80);
+			length >>>= 7;
+		}
+		data[pos++] = (byte) length;
+		return pos;
+	}
+
+	/**
+	 * Copy the values of a rectangular multidimensional String array to a flat array in row-major order.
+	 *
+	 * @param array
+	 *            The (sub)array
+	 * @param shape
+	 *            The shape of the whole array
+	 * @param dim
+	 *            The dimension of the (sub)array
+	 * @param dest
+	 *            The flat array
+	 * @param pos
+	 *            The position of the first value of the (sub)array in the flat array
+	 */
+	static void flatten(Object array, long[] shape, int dim, String[] dest, int pos) {
+		Object[] a = (Object[]) array;
+		if (a == null) {
+			throw new TFException("Cannot encode String array containing a null array at dimension " + dim);
+		} else if (a.length != shape[dim]) {
+			throw new TFException("Cannot encode non-rectangular String array: dimension " + dim + " has sizes "
+					+ shape[dim] + " and " + a.length);
+		}
+		if (dim == shape.length - 1) {
+			System.arraycopy(a, 0, dest, pos, a.length);
+			return;
+		}
+		int stride = 1;
+		for (int d = dim + 1; d < shape.length; d++) {
+			stride *= (int) shape[d];
+		}
+		for (int i = 0; i < a.length; i++) {
+			flatten(a[i], shape, dim + 1, dest, pos + i * stride);
+		}
+	}
+
+	/**
+	 * Copy values in row-major order to a multidimensional String array.
+	 *
+	 * @param flat
+	 *            The values in row-major order
+	 * @param array
+	 *            The (sub)array
+	 * @param shape
+	 *            The shape of the whole array
+	 * @param dim
+	 *            The dimension of the (sub)array
+	 * @param pos
+	 *            The position of the first value of the (sub)array in the flat array
+	 */
+	static void unflatten(String[] flat, Object array, long[] shape, int dim, int pos) {
+		Object[] a = (Object[]) array;
+		if (dim == shape.length - 1) {
+			System.arraycopy(flat, pos, a, 0, a.length);
+			return;
+		}
+		int stride = 1;
+		for (int d = dim + 1; d < shape.length; d++) {
+			stride *= (int) shape[d];
+		}
+		for (int i = 0; i < a.length; i++) {
+			unflatten(flat, a[i], shape, dim + 1, pos + i * stride);
+		}
+	}
+
+	/**
+	 * Decoder of the values of a single String Tensor buffer, with its dictionary of interned values.
+	 */
+	static class Decoder {
+
+		/**
+		 * The Tensor buffer, in native byte order.
+		 */
+		final ByteBuffer bb;
+		/**
+		 * Duplicate of the Tensor buffer used for bulk reads of value bytes.
+		 */
+		final ByteBuffer values;
+		/**
+		 * Buffer position of the value bytes (after the offsets).
+		 */
+		final int dataStart;
+		/**
+		 * Maximum number of interned values.
+		 */
+		final int maxInterned;
+		/**
+		 * Bytes of the interned values (open addressing hash table), or null if interning is disabled.
+		 */
+		final byte[][] keys;
+		/**
+		 * The interned values, at the positions of their bytes in keys.
+		 */
+		final String[] interned;
+		/**
+		 * Number of interned values.
+		 */
+		int size;
+		/**
+		 * Scratch array for value bytes.
+		 */
+		byte[] scratch = new byte[MAX_INTERNED_LENGTH];
+
+		/**
+		 * Create a Decoder.
+		 *
+		 * @param bb
+		 *            The Tensor buffer, in native byte order
+		 * @param numElements
+		 *            The number of values of the Tensor
+		 * @param maxInterned
+		 *            The maximum number of interned values (0 disables interning)
+		 */
+		Decoder(ByteBuffer bb, long numElements, int maxInterned) {
+			this.bb = bb;
+			this.values = bb.duplicate();
+			this.dataStart = (int) (8L * numElements);
+			this.maxInterned = Math.min(maxInterned, (int) Math.min(numElements / 2, Integer.MAX_VALUE));
+			if (this.maxInterned > 0) {
+				int capacity = Integer.highestOneBit(this.maxInterned * 2 - 1) << 1;
+				keys = new byte[capacity][];
+				interned = new String[capacity];
+			} else {
+				keys = null;
+				interned = null;
+			}
+		}
+
+		/**
+		 * Decode a value.
+		 *
+		 * @param index
+		 *            The index of the value in row-major order
+		 * @return The value
+		 */
+		String decode(int index) {
+			int pos = (int) (dataStart + bb.getLong(8 * index));
+			int length = 0;
+			for (int shift = 0;; shift += 7) {
+				byte b = bb.get(pos++);
+				length |= (b & 0x7f) << shift;
+				if (b >= 0) {
+					break;
+				}
+			}
+			if (length > scratch.length) {
+				scratch = new byte[Math.max(length, 2 * scratch.length)];
+			}
+			values.position(pos);
+			values.get(scratch, 0, length);
+			if (keys == null || length > MAX_INTERNED_LENGTH) {
+				return newString(scratch, length);
+			}
+			int hash = 1;
+			for (int i = 0; i < length; i++) {
+				hash = 31 * hash + scratch[i];
+			}
+			int mask = keys.length - 1;
+			for (int slot = (hash ^ (hash >>> 16)) & mask;; slot = (slot + 1) & mask) {
+				byte[] key = keys[slot];
+				if (key == null) {
+					String s = newString(scratch, length);
+					if (size < maxInterned) {
+						keys[slot] = Arrays.copyOf(scratch, length);
+						interned[slot] = s;
+						size++;
+					}
+					return s;
+				} else if (equal(key, scratch, length)) {
+					return interned[slot];
+				}
+			}
+		}
+
+		/**
+		 * Determine whether the bytes of an interned value equal the first length bytes of an array.
+		 *
+		 * @param key
+		 *            The bytes of the interned value
+		 * @param b
+		 *            The array
+		 * @param length
+		 *            The number of bytes to compare
+		 * @return true if the bytes are equal
+		 */
+		static boolean equal(byte[] key, byte[] b, int length) {
+			if (key.length != length) {
+				return false;
+			}
+			for (int i = 0; i < length; i++) {
+				if (key[i] != b[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Create a String from bytes, decoding ASCII bytes directly and other bytes as UTF-8.
+		 *
+		 * @param b
+		 *            The array
+		 * @param length
+		 *            The number of bytes
+		 * @return The String
+		 */
+		static String newString(byte[] b, int length) {
+			for (int i = 0; i < length; i++) {
+				if (b[i] < 0) {
+					return new String(b, 0, length, StandardCharsets.UTF_8);
+				}
+			}
+			return new String(b, 0, length, StandardCharsets.ISO_8859_1);
+		}
+	}
+}
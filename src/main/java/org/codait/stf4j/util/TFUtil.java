@@ -16,10 +16,20 @@
 
 package org.codait.stf4j.util;
 
+import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -74,27 +84,351 @@ public class TFUtil {
 		// Message: cannot copy Tensor with 0 dimensions into an object with 1
 		// byte[] b = tensor.copyTo(new byte[tensor.numBytes()]);
 
+		return tensorBuffer(tensor).get(0);
+	}
+
+	/**
+	 * The private Tensor buffer() method, or null if it could not be obtained.
+	 */
+	private static final Method TENSOR_BUFFER = tensorBufferMethod();
+
+	/**
+	 * Obtain the private Tensor buffer() method, which returns a view of the native Tensor memory in native byte order.
+	 * 
+	 * @return The method, or null if it could not be obtained
+	 */
+	private static Method tensorBufferMethod() {
 		try {
-			Method method = tensor.getClass().getDeclaredMethod("buffer");
+			Method method = Tensor.class.getDeclaredMethod("buffer");
 			method.setAccessible(true);
-			ByteBuffer bb = (ByteBuffer) method.invoke(tensor, new Object[] {});
-			return bb.get();
+			return method;
 		} catch (NoSuchMethodException e) {
-			log.error(e);
+			log.warn("Tensor buffer() method not found: " + e);
 		} catch (SecurityException e) {
-			log.error(e);
-		} catch (IllegalAccessException e) {
-			log.error(e);
-		} catch (IllegalArgumentException e) {
-			log.error(e);
-		} catch (InvocationTargetException e) {
-			log.error(e);
+			log.warn("Tensor buffer() method not accessible: " + e);
+		}
+		return null;
+	}
+
+	/**
+	 * Obtain the values of a Tensor as a ByteBuffer in native byte order. If possible, the buffer is a view of the
+	 * native Tensor memory obtained by the private Tensor buffer() method, so no values are copied. Otherwise, the
+	 * values of a numeric Tensor are copied to a new buffer.
+	 * 
+	 * @param tensor
+	 *            The Tensor
+	 * @return The buffer, positioned at the first value
+	 */
+	public static ByteBuffer tensorBuffer(Tensor<?> tensor) {
+		if (TENSOR_BUFFER != null) {
+			try {
+				return ((ByteBuffer) TENSOR_BUFFER.invoke(tensor)).order(ByteOrder.nativeOrder());
+			} catch (IllegalAccessException e) {
+				log.error(e);
+			} catch (InvocationTargetException e) {
+				log.error(e);
+			}
+		}
+		if (tensor.dataType() == org.tensorflow.DataType.STRING) {
+			throw new TFException("Could not obtain buffer of String Tensor");
+		}
+		ByteBuffer bb = ByteBuffer.allocate(tensor.numBytes()).order(ByteOrder.nativeOrder());
+		tensor.writeTo(bb);
+		bb.flip();
+		return bb;
+	}
+
+	/**
+	 * Obtain the first value (in row-major order) of a Tensor that has at least one dimension, without copying the
+	 * other values. The value is boxed according to the Tensor data type: Float, Double, Integer, Long, Byte (UINT8),
+	 * Boolean, or String (UTF-8 decoded).
+	 * 
+	 * @param tensor
+	 *            The Tensor
+	 * @return The first value of the Tensor
+	 */
+	public static Object firstElement(Tensor<?> tensor) {
+		if (tensor.numElements() == 0) {
+			throw new TFException("Cannot obtain first value of empty Tensor " + tensor);
+		}
+		ByteBuffer bb = tensorBuffer(tensor);
+		switch (tensor.dataType()) {
+		case FLOAT:
+			return bb.getFloat(0);
+		case DOUBLE:
+			return bb.getDouble(0);
+		case INT32:
+			return bb.getInt(0);
+		case INT64:
+			return bb.getLong(0);
+		case UINT8:
+			return bb.get(0);
+		case BOOL:
+			return bb.get(0) != 0;
+		case STRING:
+			return stringElement(tensor, bb, 0);
+		default:
+			throw new TFException("Unsupported data type: " + tensor.dataType());
+		}
+	}
+
+	/**
+	 * Decode a value of a String Tensor from the Tensor buffer. The buffer contains one uint64 offset per value,
+	 * followed by the varint-length-prefixed values (see StringCodec).
+	 * 
+	 * @param tensor
+	 *            The String Tensor
+	 * @param bb
+	 *            The Tensor buffer, obtained by tensorBuffer()
+	 * @param index
+	 *            The index of the value in row-major order
+	 * @return The value, decoded as UTF-8
+	 */
+	public static String stringElement(Tensor<?> tensor, ByteBuffer bb, int index) {
+		return StringCodec.decode(bb, tensor.numElements(), index);
+	}
+
+	/**
+	 * Concatenate Tensors along dimension 0. All Tensors must have the same data type, at least one dimension, and the
+	 * same sizes for all dimensions other than dimension 0.
+	 * 
+	 * @param tensors
+	 *            The Tensors to concatenate
+	 * @return A new Tensor containing the values of the Tensors
+	 */
+	public static Tensor<?> concatenate(List<Tensor<?>> tensors) {
+		if (tensors == null || tensors.isEmpty()) {
+			throw new TFException("At least one Tensor is needed for concatenation");
+		}
+		Tensor<?> first = tensors.get(0);
+		org.tensorflow.DataType dataType = first.dataType();
+		long[] shape = first.shape();
+		if (shape.length == 0) {
+			throw new TFException("Scalar Tensors cannot be concatenated along dimension 0");
+		}
+		long rows = 0;
+		int numBytes = 0;
+		for (Tensor<?> tensor : tensors) {
+			long[] s = tensor.shape();
+			if (tensor.dataType() != dataType || s.length != shape.length
+					|| !Arrays.equals(Arrays.copyOfRange(s, 1, s.length), Arrays.copyOfRange(shape, 1, shape.length))) {
+				throw new TFException("Cannot concatenate Tensor " + tensor + " with Tensor " + first);
+			}
+			rows += s[0];
+			numBytes += tensor.numBytes();
+		}
+		long[] resultShape = shape.clone();
+		resultShape[0] = rows;
+		if (dataType == org.tensorflow.DataType.STRING) {
+			Object result = Array.newInstance(byte.class, stringBytesShape(resultShape));
+			int row = 0;
+			for (Tensor<?> tensor : tensors) {
+				Object b = tensor.copyTo(Array.newInstance(byte.class, stringBytesShape(tensor.shape())));
+				int length = Array.getLength(b);
+				System.arraycopy(b, 0, result, row, length);
+				row += length;
+			}
+			return Tensor.create(result, String.class);
+		} else {
+			ByteBuffer bb = ByteBuffer.allocate(numBytes);
+			for (Tensor<?> tensor : tensors) {
+				tensor.writeTo(bb);
+			}
+			bb.flip();
+			return Tensor.create(tensorType(dataType), resultShape, bb);
+		}
+	}
+
+	/**
+	 * Split a Tensor along dimension 0 into new Tensors with the specified numbers of rows. The sum of the row counts
+	 * must equal the size of dimension 0 of the Tensor.
+	 * 
+	 * @param tensor
+	 *            The Tensor to split
+	 * @param rowCounts
+	 *            The number of rows (dimension 0 size) of each resulting Tensor
+	 * @return The new Tensors
+	 */
+	public static List<Tensor<?>> split(Tensor<?> tensor, int[] rowCounts) {
+		long[] shape = tensor.shape();
+		long totalRows = 0;
+		for (int rowCount : rowCounts) {
+			totalRows += rowCount;
+		}
+		if (shape.length == 0 || shape[0] != totalRows) {
+			throw new TFException("Cannot split Tensor " + tensor + " into " + Arrays.toString(rowCounts) + " rows");
+		}
+		List<Tensor<?>> tensors = new ArrayList<Tensor<?>>(rowCounts.length);
+		org.tensorflow.DataType dataType = tensor.dataType();
+		if (dataType == org.tensorflow.DataType.STRING) {
+			Object b = tensor.copyTo(Array.newInstance(byte.class, stringBytesShape(shape)));
+			int row = 0;
+			for (int rowCount : rowCounts) {
+				Object part = Array.newInstance(b.getClass().getComponentType(), rowCount);
+				System.arraycopy(b, row, part, 0, rowCount);
+				row += rowCount;
+				tensors.add(Tensor.create(part, String.class));
+			}
+		} else {
+			ByteBuffer bb = ByteBuffer.allocate(tensor.numBytes());
+			tensor.writeTo(bb);
+			int bytesPerRow = totalRows == 0 ? 0 : (int) (tensor.numBytes() / totalRows);
+			int position = 0;
+			for (int rowCount : rowCounts) {
+				long[] s = shape.clone();
+				s[0] = rowCount;
+				bb.limit(position + rowCount * bytesPerRow);
+				bb.position(position);
+				position += rowCount * bytesPerRow;
+				tensors.add(Tensor.create(tensorType(dataType), s, bb.slice()));
+			}
+		}
+		return tensors;
+	}
+
+	/**
+	 * Copy a Tensor of any shape, including a scalar Tensor.
+	 *
+	 * @param tensor
+	 *            The Tensor to copy
+	 * @return A new Tensor containing the values of the Tensor
+	 */
+	public static Tensor<?> copy(Tensor<?> tensor) {
+		if (tensor.numDimensions() > 0) {
+			return concatenate(Collections.<Tensor<?>> singletonList(tensor));
 		}
-		throw new TFException("Could not obtain byte scalar from UInt8 tensor");
+		if (tensor.dataType() == org.tensorflow.DataType.STRING) {
+			return Tensor.create(tensor.bytesValue(), String.class);
+		}
+		ByteBuffer bb = ByteBuffer.allocate(tensor.numBytes());
+		tensor.writeTo(bb);
+		bb.flip();
+		return Tensor.create(tensorType(tensor.dataType()), tensor.shape(), bb);
 	}
 
 	/**
-	 * Convert a Java object to its corresponding Tensor object.
+	 * Create a Tensor of zeros (or empty strings) with the data type and shape of a TensorInfo object, such as to warm
+	 * up a model. Dimensions of unknown size (-1) are replaced by unknownDimSize, and a shape of unknown rank is
+	 * treated as a scalar.
+	 *
+	 * @param ti
+	 *            The TensorInfo object
+	 * @param unknownDimSize
+	 *            The size of dimensions of unknown size
+	 * @return A new Tensor
+	 */
+	public static Tensor<?> syntheticTensor(TensorInfo ti, int unknownDimSize) {
+		TensorShapeProto tsp = ti.getTensorShape();
+		long[] shape = new long[tsp.getUnknownRank() ? 0 : tsp.getDimCount()];
+		long numElements = 1;
+		for (int i = 0; i < shape.length; i++) {
+			long size = tsp.getDim(i).getSize();
+			shape[i] = size < 0 ? unknownDimSize : size;
+			numElements *= shape[i];
+		}
+		DataType dtype = ti.getDtype();
+		int elementBytes;
+		switch (dtype) {
+		case DT_FLOAT:
+		case DT_INT32:
+			elementBytes = 4;
+			break;
+		case DT_DOUBLE:
+		case DT_INT64:
+			elementBytes = 8;
+			break;
+		case DT_UINT8:
+		case DT_BOOL:
+			elementBytes = 1;
+			break;
+		case DT_STRING:
+			if (shape.length == 0) {
+				return Tensor.create(new byte[0], String.class);
+			}
+			Object strings = Array.newInstance(byte[].class, ArrayUtil.lToI(shape));
+			fillEmptyStrings(strings);
+			return Tensor.create(strings, String.class);
+		default:
+			throw new TFException(
+					"Cannot create synthetic Tensor for '" + ti.getName() + "' with unsupported data type " + dtype);
+		}
+		ByteBuffer bb = ByteBuffer.allocate((int) (numElements * elementBytes));
+		return Tensor.create(tensorType(org.tensorflow.DataType.valueOf(dtype.name().substring(3))), shape, bb);
+	}
+
+	/**
+	 * Set every element of a multidimensional byte[] array to an empty byte array.
+	 *
+	 * @param array
+	 *            The multidimensional byte[] array
+	 */
+	private static void fillEmptyStrings(Object array) {
+		if (array instanceof byte[][]) {
+			Arrays.fill((byte[][]) array, new byte[0]);
+		} else {
+			for (Object element : (Object[]) array) {
+				fillEmptyStrings(element);
+			}
+		}
+	}
+
+	/**
+	 * Obtain the total number of bytes of a list of Tensors.
+	 *
+	 * @param tensors
+	 *            The Tensors
+	 * @return The sum of the numBytes() values of the Tensors
+	 */
+	public static long numBytes(List<Tensor<?>> tensors) {
+		long bytes = 0;
+		for (Tensor<?> tensor : tensors) {
+			bytes += tensor.numBytes();
+		}
+		return bytes;
+	}
+
+	/**
+	 * Obtain the shape of the multidimensional byte array that a String Tensor of the specified shape can be copied to.
+	 * 
+	 * @param shape
+	 *            The String Tensor shape
+	 * @return The multidimensional byte array shape, with a last dimension of 0 for the String bytes
+	 */
+	protected static int[] stringBytesShape(long[] shape) {
+		return Arrays.copyOf(ArrayUtil.lToI(shape), shape.length + 1);
+	}
+
+	/**
+	 * Obtain the Java class that represents a TensorFlow data type when creating Tensors.
+	 * 
+	 * @param dataType
+	 *            The TensorFlow data type
+	 * @return The corresponding Java class, such as Float.class for FLOAT
+	 */
+	public static Class<?> tensorType(org.tensorflow.DataType dataType) {
+		switch (dataType) {
+		case FLOAT:
+			return Float.class;
+		case DOUBLE:
+			return Double.class;
+		case INT32:
+			return Integer.class;
+		case INT64:
+			return Long.class;
+		case UINT8:
+			return UInt8.class;
+		case BOOL:
+			return Boolean.class;
+		case STRING:
+			return String.class;
+		default:
+			throw new TFException("Unsupported data type: " + dataType);
+		}
+	}
+
+	/**
+	 * Convert a Java object to its corresponding Tensor object. The conversion is performed by the shared
+	 * InputConverter for the class of the object and the data type of the input.
 	 * 
 	 * @param key
 	 *            The input key
@@ -107,476 +441,64 @@ public class TFUtil {
 	 * @return Data stored in a Tensor object
 	 */
 	public static Tensor<?> convertToTensor(String key, String name, Object value, TensorInfo ti) {
+		return InputConverter.forValue(key, name, value, ti).convert(value);
+	}
+
+	/**
+	 * Create a Tensor from the remaining values of a buffer and a shape. The values are copied directly from the buffer
+	 * (which can be a direct buffer) to the Tensor, without creating intermediate Java arrays. A FloatBuffer,
+	 * IntBuffer, LongBuffer, or DoubleBuffer has to match the data type of the input (DT_FLOAT, DT_INT32, DT_INT64, or
+	 * DT_DOUBLE). A ByteBuffer holds the raw bytes of the Tensor values in native byte order, so it can be used for any
+	 * data type, such as DT_UINT8 and DT_BOOL. The position of the buffer is not changed.
+	 * 
+	 * @param key
+	 *            The input key
+	 * @param name
+	 *            The input name
+	 * @param buffer
+	 *            The buffer containing the values
+	 * @param shape
+	 *            The Tensor shape
+	 * @param ti
+	 *            The TensorInfo object
+	 * @return Data stored in a Tensor object
+	 */
+	public static Tensor<?> convertBufferToTensor(String key, String name, Buffer buffer, long[] shape, TensorInfo ti) {
 		DataType dtype = ti.getDtype();
-		Tensor<?> tensor = null;
-		if (DataType.DT_FLOAT == dtype && isFloatType(value)) {
-			if (value instanceof Float) {
-				tensor = Tensor.create(value, Float.class);
-			} else if (isFloatObjectArray(value)) {
-				// to avoid: "cannot create non-scalar Tensors from arrays of boxed values"
-				log.warn("Implicitly converting Float object array to primitive float array");
-				Object floatArray = ArrayUtil.convertArrayType(value, float.class);
-				tensor = Tensor.create(floatArray, Float.class);
-			} else { // primitive float array
-				tensor = Tensor.create(value, Float.class);
-			}
-		} else if (DataType.DT_FLOAT == dtype && isIntType(value)) {
-			if (value instanceof Integer) {
-				float val = TypeUtil.int_to_float((int) value);
-				tensor = Tensor.create(val, Float.class);
-			} else {
-				log.warn("Implicitly converting integer array to float array");
-				Object floatArray = ArrayUtil.convertArrayType(value, float.class);
-				tensor = Tensor.create(floatArray, Float.class);
-			}
-		} else if (DataType.DT_FLOAT == dtype && isLongType(value)) {
-			if (value instanceof Long) {
-				float val = TypeUtil.long_to_float((long) value);
-				tensor = Tensor.create(val, Float.class);
-			} else {
-				log.warn("Implicitly converting long array to float array");
-				Object floatArray = ArrayUtil.convertArrayType(value, float.class);
-				tensor = Tensor.create(floatArray, Float.class);
-			}
-		} else if (DataType.DT_FLOAT == dtype && isDoubleType(value)) {
-			if (value instanceof Double) {
-				float val = TypeUtil.double_to_float((double) value);
-				tensor = Tensor.create(val, Float.class);
-			} else {
-				log.warn("Implicitly converting double array to float array");
-				Object floatArray = ArrayUtil.convertArrayType(value, float.class);
-				tensor = Tensor.create(floatArray, Float.class);
-			}
-		} else if (DataType.DT_FLOAT == dtype && isStringType(value)) {
-			if (value instanceof String) {
-				float val = TypeUtil.String_to_float((String) value);
-				tensor = Tensor.create(val, Float.class);
-			} else {
-				log.warn("Implicitly converting String array to float array");
-				Object floatArray = ArrayUtil.convertArrayType(value, float.class);
-				tensor = Tensor.create(floatArray, Float.class);
-			}
-		} else if (DataType.DT_FLOAT == dtype && isByteType(value)) {
-			if (value instanceof Byte) {
-				float val = TypeUtil.byte_unsigned_to_float((Byte) value);
-				tensor = Tensor.create(val, Float.class);
-			} else {
-				log.warn("Implicitly converting byte array to float array");
-				Object floatArray = ArrayUtil.convertArrayType(value, float.class);
-				tensor = Tensor.create(floatArray, Float.class);
-			}
-		} else if (DataType.DT_FLOAT == dtype && isBooleanType(value)) {
-			if (value instanceof Boolean) {
-				float val = TypeUtil.boolean_to_float((boolean) value);
-				tensor = Tensor.create(val, Float.class);
-			} else {
-				log.warn("Implicitly converting boolean array to float array");
-				Object floatArray = ArrayUtil.convertArrayType(value, float.class);
-				tensor = Tensor.create(floatArray, Float.class);
-			}
-			//////////////////////////////////////////////////////////////////////////////
-		} else if (DataType.DT_DOUBLE == dtype && isLongType(value)) {
-			if (value instanceof Long) {
-				double val = TypeUtil.long_to_double((long) value);
-				tensor = Tensor.create(val, Double.class);
-			} else {
-				log.warn("Implicitly converting long array to double array");
-				Object doubleArray = ArrayUtil.convertArrayType(value, double.class);
-				tensor = Tensor.create(doubleArray, Double.class);
-			}
-		} else if (DataType.DT_DOUBLE == dtype && isIntType(value)) {
-			if (value instanceof Integer) {
-				double val = TypeUtil.int_to_double((int) value);
-				tensor = Tensor.create(val, Double.class);
-			} else {
-				log.warn("Implicitly converting int array to double array");
-				Object doubleArray = ArrayUtil.convertArrayType(value, double.class);
-				tensor = Tensor.create(doubleArray, Double.class);
-			}
-		} else if (DataType.DT_DOUBLE == dtype && isFloatType(value)) {
-			if (value instanceof Float) {
-				double val = TypeUtil.float_to_double((float) value);
-				tensor = Tensor.create(val, Double.class);
-			} else {
-				log.warn("Implicitly converting float array to double array");
-				Object doubleArray = ArrayUtil.convertArrayType(value, double.class);
-				tensor = Tensor.create(doubleArray, Double.class);
-			}
-		} else if (DataType.DT_DOUBLE == dtype && isDoubleType(value)) {
-			if (value instanceof Double) {
-				tensor = Tensor.create(value, Double.class);
-			} else if (isDoubleObjectArray(value)) {
-				// to avoid: "cannot create non-scalar Tensors from arrays of boxed values"
-				log.warn("Implicitly converting Double object array to primitive double array");
-				Object doubleArray = ArrayUtil.convertArrayType(value, double.class);
-				tensor = Tensor.create(doubleArray, Double.class);
-			} else {
-				tensor = Tensor.create(value, Double.class);
-			}
-		} else if (DataType.DT_DOUBLE == dtype && isStringType(value)) {
-			if (value instanceof String) {
-				double val = TypeUtil.String_to_double((String) value);
-				tensor = Tensor.create(val, Double.class);
-			} else {
-				log.warn("Implicitly converting String array to double array");
-				Object doubleArray = ArrayUtil.convertArrayType(value, double.class);
-				tensor = Tensor.create(doubleArray, Double.class);
-			}
-		} else if (DataType.DT_DOUBLE == dtype && isByteType(value)) {
-			if (value instanceof Byte) {
-				double val = TypeUtil.byte_unsigned_to_double((byte) value);
-				tensor = Tensor.create(val, Double.class);
-			} else {
-				log.warn("Implicitly converting byte array to double array");
-				Object doubleArray = ArrayUtil.convertArrayType(value, double.class);
-				tensor = Tensor.create(doubleArray, Double.class);
-			}
-		} else if (DataType.DT_DOUBLE == dtype && isBooleanType(value)) {
-			if (value instanceof Boolean) {
-				double val = TypeUtil.boolean_to_double((boolean) value);
-				tensor = Tensor.create(val, Double.class);
-			} else {
-				log.warn("Implicitly converting boolean array to double array");
-				Object floatArray = ArrayUtil.convertArrayType(value, double.class);
-				tensor = Tensor.create(floatArray, Double.class);
-			}
-			//////////////////////////////////////////////////////////////////////////////
-		} else if (DataType.DT_INT64 == dtype && isLongType(value)) {
-			if (value instanceof Long) {
-				tensor = Tensor.create(value, Long.class);
-			} else if (isLongObjectArray(value)) {
-				// to avoid: "cannot create non-scalar Tensors from arrays of boxed values"
-				log.warn("Implicitly converting Long object array to primitive long array");
-				Object longArray = ArrayUtil.convertArrayType(value, long.class);
-				tensor = Tensor.create(longArray, Long.class);
-			} else {
-				tensor = Tensor.create(value, Long.class);
-			}
-		} else if (DataType.DT_INT64 == dtype && isIntType(value)) {
-			if (value instanceof Integer) {
-				long val = TypeUtil.int_to_long((int) value);
-				tensor = Tensor.create(val, Long.class);
-			} else {
-				log.warn("Implicitly converting int array to long array");
-				Object longArray = ArrayUtil.convertArrayType(value, long.class);
-				tensor = Tensor.create(longArray, Long.class);
-			}
-		} else if (DataType.DT_INT64 == dtype && isFloatType(value)) {
-			if (value instanceof Float) {
-				long val = TypeUtil.float_to_long((float) value);
-				tensor = Tensor.create(val, Long.class);
-			} else {
-				log.warn("Implicitly converting float array to long array");
-				Object longArray = ArrayUtil.convertArrayType(value, long.class);
-				tensor = Tensor.create(longArray, Long.class);
-			}
-		} else if (DataType.DT_INT64 == dtype && isDoubleType(value)) {
-			if (value instanceof Double) {
-				long val = TypeUtil.double_to_long((double) value);
-				tensor = Tensor.create(val, Long.class);
-			} else {
-				log.warn("Implicitly converting double array to long array");
-				Object longArray = ArrayUtil.convertArrayType(value, long.class);
-				tensor = Tensor.create(longArray, Long.class);
-			}
-		} else if (DataType.DT_INT64 == dtype && isStringType(value)) {
-			if (value instanceof String) {
-				long val = TypeUtil.String_to_long((String) value);
-				tensor = Tensor.create(val, Long.class);
-			} else {
-				log.warn("Implicitly converting String array to long array");
-				Object longArray = ArrayUtil.convertArrayType(value, long.class);
-				tensor = Tensor.create(longArray, Long.class);
-			}
-		} else if (DataType.DT_INT64 == dtype && isByteType(value)) {
-			if (value instanceof Byte) {
-				long val = TypeUtil.byte_unsigned_to_long((byte) value);
-				tensor = Tensor.create(val, Long.class);
-			} else {
-				log.warn("Implicitly converting byte array to long array");
-				Object longArray = ArrayUtil.convertArrayType(value, long.class);
-				tensor = Tensor.create(longArray, Long.class);
-			}
-		} else if (DataType.DT_INT64 == dtype && isBooleanType(value)) {
-			if (value instanceof Boolean) {
-				long val = TypeUtil.boolean_to_long((boolean) value);
-				tensor = Tensor.create(val, Long.class);
-			} else {
-				log.warn("Implicitly converting boolean array to long array");
-				Object longArray = ArrayUtil.convertArrayType(value, long.class);
-				tensor = Tensor.create(longArray, Long.class);
-			}
-			//////////////////////////////////////////////////////////////////////////////
-		} else if (DataType.DT_INT32 == dtype && isLongType(value)) {
-			if (value instanceof Long) {
-				int val = TypeUtil.long_to_int((long) value);
-				tensor = Tensor.create(val, Integer.class);
-			} else {
-				log.warn("Implicitly converting long array to int array");
-				Object intArray = ArrayUtil.convertArrayType(value, int.class);
-				tensor = Tensor.create(intArray, Integer.class);
-			}
-		} else if (DataType.DT_INT32 == dtype && isIntType(value)) {
-			if (value instanceof Integer) {
-				tensor = Tensor.create(value, Integer.class);
-			} else if (isIntegerObjectArray(value)) {
-				// to avoid: "cannot create non-scalar Tensors from arrays of boxed values"
-				log.warn("Implicitly converting Integer object array to primitive int array");
-				Object intArray = ArrayUtil.convertArrayType(value, int.class);
-				tensor = Tensor.create(intArray, Integer.class);
-			} else {
-				tensor = Tensor.create(value, Integer.class);
-			}
-		} else if (DataType.DT_INT32 == dtype && isFloatType(value)) {
-			if (value instanceof Float) {
-				int val = TypeUtil.float_to_int((float) value);
-				tensor = Tensor.create(val, Integer.class);
-			} else {
-				log.warn("Implicitly converting float array to int array");
-				Object intArray = ArrayUtil.convertArrayType(value, int.class);
-				tensor = Tensor.create(intArray, Integer.class);
-			}
-		} else if (DataType.DT_INT32 == dtype && isDoubleType(value)) {
-			if (value instanceof Double) {
-				int val = TypeUtil.double_to_int((double) value);
-				tensor = Tensor.create(val, Integer.class);
-			} else {
-				log.warn("Implicitly converting double array to int array");
-				Object intArray = ArrayUtil.convertArrayType(value, int.class);
-				tensor = Tensor.create(intArray, Integer.class);
-			}
-		} else if (DataType.DT_INT32 == dtype && isStringType(value)) {
-			if (value instanceof String) {
-				int val = Integer.parseInt((String) value);
-				tensor = Tensor.create(val, Integer.class);
-			} else {
-				log.warn("Implicitly converting String array to int array");
-				Object intArray = ArrayUtil.convertArrayType(value, int.class);
-				tensor = Tensor.create(intArray, Integer.class);
-			}
-		} else if (DataType.DT_INT32 == dtype && isByteType(value)) {
-			if (value instanceof Byte) {
-				int val = TypeUtil.byte_unsigned_to_int((byte) value);
-				tensor = Tensor.create(val, Integer.class);
-			} else {
-				log.warn("Implicitly converting byte array to int array");
-				Object intArray = ArrayUtil.convertArrayType(value, int.class);
-				tensor = Tensor.create(intArray, Integer.class);
-			}
-		} else if (DataType.DT_INT32 == dtype && isBooleanType(value)) {
-			if (value instanceof Boolean) {
-				int val = TypeUtil.boolean_to_int((boolean) value);
-				tensor = Tensor.create(val, Integer.class);
-			} else {
-				log.warn("Implicitly converting boolean array to int array");
-				Object intArray = ArrayUtil.convertArrayType(value, int.class);
-				tensor = Tensor.create(intArray, Integer.class);
-			}
-			//////////////////////////////////////////////////////////////////////////////
-		} else if (DataType.DT_UINT8 == dtype && isByteType(value)) {
-			if (value instanceof Byte) {
-				tensor = Tensor.create(value, UInt8.class);
-			} else if (isByteObjectArray(value)) {
-				// to avoid: "cannot create non-scalar Tensors from arrays of boxed values"
-				log.warn("Implicitly converting Byte object array to primitive byte array");
-				Object byteArray = ArrayUtil.convertArrayType(value, byte.class);
-				tensor = Tensor.create(byteArray, UInt8.class);
-			} else {
-				tensor = Tensor.create(value, UInt8.class);
-			}
-		} else if (DataType.DT_UINT8 == dtype && isIntType(value)) {
-			if (value instanceof Integer) {
-				byte val = TypeUtil.int_to_byte((int) value);
-				tensor = Tensor.create(val, UInt8.class);
-			} else {
-				log.warn("Implicitly converting int array to byte array (for UInt8)");
-				Object byteArray = ArrayUtil.convertArrayType(value, byte.class);
-				tensor = Tensor.create(byteArray, UInt8.class);
-			}
-		} else if (DataType.DT_UINT8 == dtype && isLongType(value)) {
-			if (value instanceof Long) {
-				byte val = TypeUtil.long_to_byte((long) value);
-				tensor = Tensor.create(val, UInt8.class);
-			} else {
-				log.warn("Implicitly converting long array to byte array (for UInt8)");
-				Object byteArray = ArrayUtil.convertArrayType(value, byte.class);
-				tensor = Tensor.create(byteArray, UInt8.class);
-			}
-		} else if (DataType.DT_UINT8 == dtype && isFloatType(value)) {
-			if (value instanceof Float) {
-				byte val = TypeUtil.float_to_byte((float) value);
-				tensor = Tensor.create(val, UInt8.class);
-			} else {
-				log.warn("Implicitly converting float array to byte array (for UInt8)");
-				Object byteArray = ArrayUtil.convertArrayType(value, byte.class);
-				tensor = Tensor.create(byteArray, UInt8.class);
-			}
-		} else if (DataType.DT_UINT8 == dtype && isDoubleType(value)) {
-			if (value instanceof Double) {
-				byte val = TypeUtil.double_to_byte((double) value);
-				tensor = Tensor.create(val, UInt8.class);
-			} else {
-				log.warn("Implicitly converting double array to byte array (for UInt8)");
-				Object byteArray = ArrayUtil.convertArrayType(value, byte.class);
-				tensor = Tensor.create(byteArray, UInt8.class);
-			}
-		} else if (DataType.DT_UINT8 == dtype && isStringType(value)) {
-			if (value instanceof String) {
-				byte val = TypeUtil.String_to_byte((String) value);
-				tensor = Tensor.create(val, UInt8.class);
-			} else {
-				log.warn("Implicitly converting String array to byte array (for UInt8)");
-				Object byteArray = ArrayUtil.convertArrayType(value, byte.class);
-				tensor = Tensor.create(byteArray, UInt8.class);
-			}
-		} else if (DataType.DT_UINT8 == dtype && isBooleanType(value)) {
-			if (value instanceof Boolean) {
-				byte val = TypeUtil.boolean_to_byte((boolean) value);
-				tensor = Tensor.create(val, UInt8.class);
-			} else {
-				log.warn("Implicitly converting boolean array to byte array (for UInt8)");
-				Object byteArray = ArrayUtil.convertArrayType(value, byte.class);
-				tensor = Tensor.create(byteArray, UInt8.class);
-			}
-			//////////////////////////////////////////////////////////////////////////////
-		} else if (DataType.DT_STRING == dtype && isByteArray(value)) {
-			if (isByteObjectArray(value)) {
-				log.warn("Implicitly converting Byte object array to primitive byte array");
-				Object byteArray = ArrayUtil.convertArrayType(value, byte.class);
-				tensor = Tensor.create(byteArray, String.class);
-			} else { // primitive byte array
-				tensor = Tensor.create(value, String.class);
-			}
-		} else if (DataType.DT_STRING == dtype && isStringType(value)) {
-			if (value instanceof String) {
-				tensor = Tensor.create(((String) value).getBytes(StandardCharsets.UTF_8), String.class);
-			} else {
-				log.warn("Implicitly converting String array to byte array");
-				Object byteArray = ArrayUtil.multidimStringsToMultidimBytes(value);
-				tensor = Tensor.create(byteArray, String.class);
-			}
-		} else if (DataType.DT_STRING == dtype && isIntType(value)) {
-			if (value instanceof Integer) {
-				byte[] b = TypeUtil.int_to_String_bytes((int) value);
-				tensor = Tensor.create(b, String.class);
-			} else {
-				log.warn("Implicitly converting int array to String array to byte array");
-				Object stringArray = ArrayUtil.convertArrayType(value, String.class);
-				Object byteArray = ArrayUtil.multidimStringsToMultidimBytes(stringArray);
-				tensor = Tensor.create(byteArray, String.class);
-			}
-		} else if (DataType.DT_STRING == dtype && isLongType(value)) {
-			if (value instanceof Long) {
-				byte[] b = TypeUtil.long_to_String_bytes((long) value);
-				tensor = Tensor.create(b, String.class);
-			} else {
-				log.warn("Implicitly converting long array to String array to byte array");
-				Object stringArray = ArrayUtil.convertArrayType(value, String.class);
-				Object byteArray = ArrayUtil.multidimStringsToMultidimBytes(stringArray);
-				tensor = Tensor.create(byteArray, String.class);
-			}
-		} else if (DataType.DT_STRING == dtype && isFloatType(value)) {
-			if (value instanceof Float) {
-				byte[] b = TypeUtil.float_to_String_bytes((float) value);
-				tensor = Tensor.create(b, String.class);
-			} else {
-				log.warn("Implicitly converting float array to String array to byte array");
-				Object stringArray = ArrayUtil.convertArrayType(value, String.class);
-				Object byteArray = ArrayUtil.multidimStringsToMultidimBytes(stringArray);
-				tensor = Tensor.create(byteArray, String.class);
-			}
-		} else if (DataType.DT_STRING == dtype && isDoubleType(value)) {
-			if (value instanceof Double) {
-				byte[] b = TypeUtil.double_to_String_bytes((double) value);
-				tensor = Tensor.create(b, String.class);
-			} else {
-				log.warn("Implicitly converting double array to String array to byte array");
-				Object stringArray = ArrayUtil.convertArrayType(value, String.class);
-				Object byteArray = ArrayUtil.multidimStringsToMultidimBytes(stringArray);
-				tensor = Tensor.create(byteArray, String.class);
-			}
-		} else if (DataType.DT_STRING == dtype && isBooleanType(value)) {
-			if (value instanceof Boolean) {
-				byte[] b = TypeUtil.boolean_to_String_bytes((boolean) value);
-				tensor = Tensor.create(b, String.class);
-			} else {
-				log.warn("Implicitly converting boolean array to String array to byte array");
-				Object stringArray = ArrayUtil.convertArrayType(value, String.class);
-				Object byteArray = ArrayUtil.multidimStringsToMultidimBytes(stringArray);
-				tensor = Tensor.create(byteArray, String.class);
-			}
-			//////////////////////////////////////////////////////////////////////////////
-		} else if (DataType.DT_BOOL == dtype && isBooleanType(value)) {
-			if (value instanceof Boolean) {
-				tensor = Tensor.create(value, Boolean.class);
-			} else if (isBooleanObjectArray(value)) {
-				// to avoid: "cannot create non-scalar Tensors from arrays of boxed values"
-				log.warn("Implicitly converting Boolean object array to primitive boolean array");
-				Object booleanArray = ArrayUtil.convertArrayType(value, boolean.class);
-				tensor = Tensor.create(booleanArray, Boolean.class);
-			} else {
-				tensor = Tensor.create(value, Boolean.class);
-			}
-		} else if (DataType.DT_BOOL == dtype && isByteType(value)) {
-			if (value instanceof Byte) {
-				boolean b = TypeUtil.byte_to_boolean((byte) value);
-				tensor = Tensor.create(b, Boolean.class);
-			} else {
-				log.warn("Implicitly converting byte array to boolean array");
-				Object booleanArray = ArrayUtil.convertArrayType(value, boolean.class);
-				tensor = Tensor.create(booleanArray, Boolean.class);
-			}
-		} else if (DataType.DT_BOOL == dtype && isIntType(value)) {
-			if (value instanceof Integer) {
-				boolean b = TypeUtil.int_to_boolean((int) value);
-				tensor = Tensor.create(b, Boolean.class);
-			} else {
-				log.warn("Implicitly converting int array to boolean array");
-				Object booleanArray = ArrayUtil.convertArrayType(value, boolean.class);
-				tensor = Tensor.create(booleanArray, Boolean.class);
-			}
-		} else if (DataType.DT_BOOL == dtype && isLongType(value)) {
-			if (value instanceof Long) {
-				boolean b = TypeUtil.long_to_boolean((long) value);
-				tensor = Tensor.create(b, Boolean.class);
-			} else {
-				log.warn("Implicitly converting long array to boolean array");
-				Object booleanArray = ArrayUtil.convertArrayType(value, boolean.class);
-				tensor = Tensor.create(booleanArray, Boolean.class);
-			}
-		} else if (DataType.DT_BOOL == dtype && isFloatType(value)) {
-			if (value instanceof Float) {
-				boolean b = TypeUtil.float_to_boolean((float) value);
-				tensor = Tensor.create(b, Boolean.class);
-			} else {
-				log.warn("Implicitly converting float array to boolean array");
-				Object booleanArray = ArrayUtil.convertArrayType(value, boolean.class);
-				tensor = Tensor.create(booleanArray, Boolean.class);
-			}
-		} else if (DataType.DT_BOOL == dtype && isDoubleType(value)) {
-			if (value instanceof Double) {
-				boolean b = TypeUtil.double_to_boolean((double) value);
-				tensor = Tensor.create(b, Boolean.class);
-			} else {
-				log.warn("Implicitly converting double array to boolean array");
-				Object booleanArray = ArrayUtil.convertArrayType(value, boolean.class);
-				tensor = Tensor.create(booleanArray, Boolean.class);
-			}
-		} else if (DataType.DT_BOOL == dtype && isStringType(value)) {
-			if (value instanceof String) {
-				boolean b = TypeUtil.String_to_boolean((String) value);
-				tensor = Tensor.create(b, Boolean.class);
-			} else {
-				log.warn("Implicitly converting String array to boolean array");
-				Object booleanArray = ArrayUtil.convertArrayType(value, boolean.class);
-				tensor = Tensor.create(booleanArray, Boolean.class);
-			}
+		DataType bufferType = null;
+		if (buffer instanceof FloatBuffer) {
+			bufferType = DataType.DT_FLOAT;
+		} else if (buffer instanceof IntBuffer) {
+			bufferType = DataType.DT_INT32;
+		} else if (buffer instanceof LongBuffer) {
+			bufferType = DataType.DT_INT64;
+		} else if (buffer instanceof DoubleBuffer) {
+			bufferType = DataType.DT_DOUBLE;
+		} else if (!(buffer instanceof ByteBuffer)) {
+			throw new TFException("Input key '" + key + "' (name: '" + name + "') buffer type "
+					+ buffer.getClass().getName() + " is not supported");
+		}
+		if (bufferType != null && bufferType != dtype) {
+			throw new TFException("Input key '" + key + "' (name: '" + name + "') buffer type "
+					+ buffer.getClass().getName() + " does not match data type " + dtype);
 		}
-		if (tensor == null) {
-			throw new TFException("Could not convert input key '" + key + "' (name: '" + name + "') value '" + value
-					+ "' (" + value.getClass().getName() + ") to Tensor (data type: " + dtype + ")");
+		try {
+			if (buffer instanceof FloatBuffer) {
+				return Tensor.create(shape, ((FloatBuffer) buffer).duplicate());
+			} else if (buffer instanceof IntBuffer) {
+				return Tensor.create(shape, ((IntBuffer) buffer).duplicate());
+			} else if (buffer instanceof LongBuffer) {
+				return Tensor.create(shape, ((LongBuffer) buffer).duplicate());
+			} else if (buffer instanceof DoubleBuffer) {
+				return Tensor.create(shape, ((DoubleBuffer) buffer).duplicate());
+			} else {
+				return Tensor.create(tensorType(org.tensorflow.DataType.valueOf(dtype.name().substring(3))), shape,
+						((ByteBuffer) buffer).duplicate());
+			}
+		} catch (IllegalArgumentException e) {
+			throw new TFException("Could not create Tensor for input key '" + key + "' (name: '" + name
+					+ "') with shape " + Arrays.toString(shape) + " from buffer: " + e.getMessage(), e);
 		}
-		return tensor;
 	}
 
 	/**
@@ -629,7 +551,7 @@ public class TFUtil {
 	 * @return The input name corresponding to the input key
 	 */
 	public static String inputKeyToName(String signatureDefKey, String inputKey, TFModel model) {
-		return inputKeyToName(signatureDefKey, inputKey, model.metaGraphDef());
+		return model.signatureIndex().inputName(signatureDefKey, inputKey);
 	}
 
 	/**
@@ -681,7 +603,7 @@ public class TFUtil {
 	 * @return The TensorInfo object corresponding to the input key
 	 */
 	public static TensorInfo inputKeyToTensorInfo(String signatureDefKey, String inputKey, TFModel model) {
-		return inputKeyToTensorInfo(signatureDefKey, inputKey, model.metaGraphDef());
+		return model.signatureIndex().inputTensorInfo(signatureDefKey, inputKey);
 	}
 
 	/**
@@ -954,7 +876,7 @@ public class TFUtil {
 	 * @return The output name corresponding to the output key
 	 */
 	public static String outputKeyToName(String signatureDefKey, String outputKey, TFModel model) {
-		return outputKeyToName(signatureDefKey, outputKey, model.metaGraphDef());
+		return model.signatureIndex().outputName(signatureDefKey, outputKey);
 	}
 
 	/**
@@ -990,7 +912,7 @@ public class TFUtil {
 	 * @return The TensorInfo object corresponding to the output key
 	 */
 	public static TensorInfo outputKeyToTensorInfo(String key, TFModel model) {
-		return outputKeyToTensorInfo(key, model.metaGraphDef());
+		return model.signatureIndex().outputTensorInfo(null, key);
 	}
 
 	/**
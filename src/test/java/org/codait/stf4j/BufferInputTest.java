@@ -0,0 +1,86 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tensorflow.framework.DataType;
+
+public class BufferInputTest {
+
+	protected static Logger log = LogManager.getLogger(BufferInputTest.class);
+
+	@Test
+	public void floatDirectBuffers() {
+		FloatBuffer fb1 = ByteBuffer.allocateDirect(4 * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+		fb1.put(new float[] { 1.0f, 2.0f, 3.0f, 4.0f }).flip();
+		FloatBuffer fb2 = FloatBuffer.wrap(new float[] { 10.0f, 20.0f, 30.0f, 40.0f });
+		try (TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_FLOAT))) {
+			float[][] output = (float[][]) model.sig("serving_default").in("input1", fb1, new long[] { 2, 2 })
+					.in("input2", fb2, new long[] { 2, 2 }).out("output").run().getFloatArrayMultidimensional("output");
+			Assert.assertArrayEquals(new float[] { 11.0f, 22.0f }, output[0], 0.0f);
+			Assert.assertArrayEquals(new float[] { 33.0f, 44.0f }, output[1], 0.0f);
+		}
+		// buffer positions are not changed
+		Assert.assertEquals(0, fb1.position());
+		Assert.assertEquals(0, fb2.position());
+	}
+
+	@Test
+	public void intBuffers() {
+		try (TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_INT32))) {
+			IntBuffer ib = IntBuffer.wrap(new int[] { 1, 2, 3 });
+			int[] output = model.sig("serving_default").in("input1", ib, new long[] { 3 })
+					.in("input2", new int[] { 4, 5, 6 }).out("output").run().getIntArray("output");
+			Assert.assertArrayEquals(new int[] { 5, 7, 9 }, output);
+		}
+	}
+
+	@Test
+	public void uint8ByteBuffers() {
+		ByteBuffer bb = ByteBuffer.allocateDirect(3);
+		bb.put(new byte[] { 1, 2, (byte) 200 }).flip();
+		try (TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_UINT8))) {
+			byte[] output = model.sig("serving_default").in("input1", bb, new long[] { 3 })
+					.in("input2", ByteBuffer.wrap(new byte[] { 1, 1, 1 }), new long[] { 3 }).out("output").run()
+					.getByteArray("output");
+			Assert.assertArrayEquals(new byte[] { 2, 3, (byte) 201 }, output);
+		}
+	}
+
+	@Test(expected = TFException.class)
+	public void bufferTypeMismatch() {
+		try (TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_FLOAT))) {
+			model.sig("serving_default").in("input1", LongBuffer.wrap(new long[] { 1L }), new long[] { 1 });
+		}
+	}
+
+	@Test(expected = TFException.class)
+	public void bufferShapeMismatch() {
+		try (TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_FLOAT))) {
+			model.sig("serving_default").in("input1", FloatBuffer.wrap(new float[] { 1.0f, 2.0f }), new long[] { 3 });
+		}
+	}
+}
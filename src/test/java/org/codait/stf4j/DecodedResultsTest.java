@@ -0,0 +1,132 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+package org.codait.stf4j;
+
+import java.util.Collections;
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tensorflow.Tensor;
+import org.tensorflow.framework.DataType;
+import org.tensorflow.framework.TensorInfo;
+
+public class DecodedResultsTest {
+
+	/**
+	 * TFResults for a single float output Tensor that counts the arrays decoded by its get methods.
+	 */
+	static class CountingResults extends TFResults {
+		int decodes;
+
+		CountingResults(Tensor<Float> tensor) {
+			super(null, "serving_default", Collections.singletonMap("output", "output:0"),
+					new HashMap<String, Object>(Collections.singletonMap("output:0", tensor)));
+		}
+
+		@Override
+		protected TensorInfo tensorInfo(String key) {
+			return TensorInfo.newBuilder().setName("output:0").setDtype(DataType.DT_FLOAT).build();
+		}
+
+		@Override
+		protected <T> T cache(String key, String getter, T value) {
+			decodes++;
+			return super.cache(key, getter, value);
+		}
+	}
+
+	@Test
+	public void arraysDecodedOnce() {
+		try (CountingResults results = new CountingResults(Tensor.create(new float[][] { { 4.0f, 6.0f } },
+				Float.class))) {
+			float[] f = results.getFloatArray("output");
+			Assert.assertArrayEquals(new float[] { 4.0f, 6.0f }, f, 0.0f);
+			Assert.assertEquals(1, results.decodes);
+			Assert.assertArrayEquals(f, results.getFloatArray("output"), 0.0f);
+			Assert.assertEquals(1, results.decodes);
+			float[][] md = (float[][]) results.getFloatArrayMultidimensional("output");
+			float[][] md2 = (float[][]) results.getFloatArrayMultidimensional("output");
+			Assert.assertArrayEquals(md[0], md2[0], 0.0f);
+			Assert.assertEquals(2, results.decodes);
+			int[] i = results.getIntArray("output");
+			Assert.assertArrayEquals(new int[] { 4, 6 }, i);
+			Assert.assertArrayEquals(i, results.getIntArray("output"));
+			Assert.assertEquals(3, results.decodes);
+			double[] d = results.getDoubleArray("output");
+			long[] l = results.getLongArray("output");
+			Assert.assertArrayEquals(d, results.getDoubleArray("output"), 0.0);
+			Assert.assertArrayEquals(l, results.getLongArray("output"));
+			Assert.assertEquals(5, results.decodes);
+		}
+	}
+
+	@Test
+	public void laterArraysAreCopies() {
+		try (CountingResults results = new CountingResults(Tensor.create(new float[][] { { 4.0f, 6.0f } },
+				Float.class))) {
+			float[] f = results.getFloatArray("output");
+			float[] f2 = results.getFloatArray("output");
+			Assert.assertNotSame(f, f2);
+			f2[0] = -1.0f;
+			Assert.assertArrayEquals(new float[] { 4.0f, 6.0f }, results.getFloatArray("output"), 0.0f);
+			results.getFloatArrayMultidimensional("output");
+			float[][] md = (float[][]) results.getFloatArrayMultidimensional("output");
+			md[0][1] = -1.0f;
+			float[][] md2 = (float[][]) results.getFloatArrayMultidimensional("output");
+			Assert.assertNotSame(md[0], md2[0]);
+			Assert.assertArrayEquals(new float[] { 4.0f, 6.0f }, md2[0], 0.0f);
+			Assert.assertEquals(2, results.decodes);
+		}
+	}
+
+	@Test
+	public void cacheFollowsModelOutputs() {
+		try (TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_INT64))) {
+			TFResults results = model.sig("serving_default").in("input1", new long[] { 1L })
+					.in("input2", new long[] { 2L }).out("output").run();
+			Assert.assertArrayEquals(new long[] { 3L }, results.getLongArray("output"));
+			results = model.in("input1", new long[] { 10L }).run();
+			Assert.assertArrayEquals(new long[] { 12L }, results.getLongArray("output"));
+		}
+	}
+
+	@Test
+	public void firstElementOfNonScalar() {
+		try (TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_FLOAT))) {
+			TFResults results = model.sig("serving_default").in("input1", new float[][] { { 1.5f, 2.0f } })
+					.in("input2", new float[][] { { 3.0f, 4.0f } }).out("output").run();
+			Assert.assertEquals(4.5f, results.getFloat("output"), 0.0f);
+			Assert.assertEquals(4.5, results.getDouble("output"), 0.0);
+			Assert.assertEquals(4L, results.getLong("output"));
+			Assert.assertTrue(results.getBoolean("output"));
+		}
+		try (TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_UINT8))) {
+			TFResults results = model.sig("serving_default").in("input1", new byte[] { (byte) 200, 1 })
+					.in("input2", new byte[] { 1, 1 }).out("output").run();
+			Assert.assertEquals(201, results.getInt("output"));
+		}
+	}
+
+	@Test
+	public void firstStringOfNonScalar() {
+		try (TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_STRING))) {
+			TFResults results = model.sig("serving_default").in("input1", new String[] { "hello", "a" })
+					.in("input2", new String[] { "wörld", "b" }).out("output").run();
+			Assert.assertEquals("hellowörld", results.getString("output"));
+		}
+	}
+}
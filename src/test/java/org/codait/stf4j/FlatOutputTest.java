@@ -0,0 +1,83 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tensorflow.framework.DataType;
+
+public class FlatOutputTest {
+
+	protected static Logger log = LogManager.getLogger(FlatOutputTest.class);
+
+	@Test
+	public void floatsIntoDirectBuffer() {
+		FloatBuffer dst = ByteBuffer.allocateDirect(8 * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+		dst.put(-1.0f);
+		try (TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_FLOAT))) {
+			TFResults results = model.sig("serving_default").in("input1", new float[][] { { 1.0f, 2.0f } })
+					.in("input2", new float[][] { { 3.0f, 4.0f } }).out("output").run();
+			long[] shape = results.getFloats("output", dst);
+			Assert.assertArrayEquals(new long[] { 1, 2 }, shape);
+			Assert.assertEquals(3, dst.position());
+			Assert.assertEquals(-1.0f, dst.get(0), 0.0f);
+			Assert.assertEquals(4.0f, dst.get(1), 0.0f);
+			Assert.assertEquals(6.0f, dst.get(2), 0.0f);
+		}
+	}
+
+	@Test
+	public void longsIntoArrayWithOffset() {
+		long[] dst = new long[5];
+		try (TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_INT64))) {
+			TFResults results = model.sig("serving_default").in("input1", new long[] { 1L, 2L, 3L })
+					.in("input2", new long[] { 10L, 20L, 30L }).out("output").run();
+			long[] shape = results.getLongs("output", dst, 2);
+			Assert.assertArrayEquals(new long[] { 3 }, shape);
+			Assert.assertArrayEquals(new long[] { 0L, 0L, 11L, 22L, 33L }, dst);
+			// converted from INT64
+			float[] f = new float[3];
+			results.getFloats("output", f, 0);
+			Assert.assertArrayEquals(new float[] { 11.0f, 22.0f, 33.0f }, f, 0.0f);
+		}
+	}
+
+	@Test
+	public void uint8BytesIntoArray() {
+		byte[] dst = new byte[2];
+		try (TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_UINT8))) {
+			TFResults results = model.sig("serving_default").in("input1", new byte[] { 1, (byte) 128 })
+					.in("input2", new byte[] { 2, 2 }).out("output").run();
+			results.getBytes("output", dst, 0);
+			Assert.assertArrayEquals(new byte[] { 3, (byte) 130 }, dst);
+		}
+	}
+
+	@Test(expected = TFException.class)
+	public void destinationTooSmall() {
+		try (TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_INT32))) {
+			model.sig("serving_default").in("input1", new int[] { 1, 2 }).in("input2", new int[] { 3, 4 })
+					.out("output").run().getInts("output", new int[1], 0);
+		}
+	}
+}
@@ -0,0 +1,132 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tensorflow.Tensor;
+import org.tensorflow.framework.DataType;
+
+public class PreparedRunTest {
+
+	protected static Logger log = LogManager.getLogger(PreparedRunTest.class);
+
+	private static final String[] INPUT_KEYS = new String[] { "input1", "input2" };
+	private static final String[] OUTPUT_KEYS = new String[] { "output" };
+
+	@Test
+	public void preparedRunScalarLongs() {
+		TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_INT64));
+		PreparedRun pr = model.prepare("serving_default", INPUT_KEYS, OUTPUT_KEYS);
+		Assert.assertEquals(3L, pr.run(1L, 2L).getLong("output"));
+		Assert.assertEquals(7L, pr.run(3L, 4L).getLong("output"));
+	}
+
+	@Test
+	public void preparedRunLongArraysImplicitConversion() {
+		TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_INT64));
+		PreparedRun pr = model.prepare("serving_default", INPUT_KEYS, OUTPUT_KEYS);
+		long[] result = pr.run(new int[] { 1, 2 }, new long[] { 3L, 4L }).getLongArray("output");
+		Assert.assertArrayEquals(new long[] { 4L, 6L }, result);
+	}
+
+	@Test
+	public void preparedRunTensorInput() {
+		TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_INT64));
+		PreparedRun pr = model.prepare("serving_default", INPUT_KEYS, OUTPUT_KEYS);
+		try (Tensor<Long> t = Tensor.create(5L, Long.class)) {
+			Assert.assertEquals(11L, pr.run(t, 6L).getLong("output"));
+			// caller-owned tensor is not closed by the prepared run
+			Assert.assertEquals(10L, pr.run(t, t).getLong("output"));
+		}
+	}
+
+	@Test
+	public void preparedRunIndependentOfModelState() {
+		TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_INT64));
+		PreparedRun pr = model.prepare("serving_default", INPUT_KEYS, OUTPUT_KEYS);
+		TFResults prResults = pr.run(1L, 2L);
+		long modelResult = model.sig("serving_default").in("input1", 10L).in("input2", 20L).out("output").run()
+				.getLong("output");
+		Assert.assertEquals(30L, modelResult);
+		Assert.assertEquals(3L, prResults.getLong("output"));
+	}
+
+	@Test
+	public void preparedRunConcurrent() throws Exception {
+		TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_INT64));
+		final PreparedRun pr = model.prepare("serving_default", INPUT_KEYS, OUTPUT_KEYS);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+			for (int t = 0; t < 8; t++) {
+				final long offset = t * 1000L;
+				futures.add(executor.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() {
+						for (long i = 0; i < 100; i++) {
+							long[] result = pr.run(new long[] { offset, i }, new long[] { i, offset })
+									.getLongArray("output");
+							if (result[0] != offset + i || result[1] != offset + i) {
+								return false;
+							}
+						}
+						return true;
+					}
+				}));
+			}
+			for (Future<Boolean> future : futures) {
+				Assert.assertTrue(future.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test(expected = TFException.class)
+	public void preparedRunMissingRequiredInputKey() {
+		TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_INT64));
+		model.prepare("serving_default", new String[] { "input1" }, OUTPUT_KEYS);
+	}
+
+	@Test(expected = TFException.class)
+	public void preparedRunBadOutputKey() {
+		TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_INT64));
+		model.prepare("serving_default", INPUT_KEYS, new String[] { "bad_output" });
+	}
+
+	@Test(expected = TFException.class)
+	public void preparedRunBadSignatureDefKey() {
+		TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_INT64));
+		model.prepare("bad_sig_def_key", INPUT_KEYS, OUTPUT_KEYS);
+	}
+
+	@Test(expected = TFException.class)
+	public void preparedRunWrongNumberOfInputs() {
+		TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_INT64));
+		model.prepare("serving_default", INPUT_KEYS, OUTPUT_KEYS).run(1L);
+	}
+}
@@ -0,0 +1,69 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tensorflow.framework.ConfigProto;
+import org.tensorflow.framework.DataType;
+
+public class TFModelConfigTest {
+
+	protected static Logger log = LogManager.getLogger(TFModelConfigTest.class);
+
+	private static ConfigProto config() {
+		return ConfigProto.newBuilder().setIntraOpParallelismThreads(1).setInterOpParallelismThreads(1)
+				.setUsePerSessionThreads(true).setAllowSoftPlacement(true).build();
+	}
+
+	@Test
+	public void configuredModelAddLongs() {
+		try (TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_INT64), config())) {
+			Assert.assertNotSame(model.model().session(), model.session());
+			Assert.assertEquals(1, model.config().getIntraOpParallelismThreads());
+			long output = model.sig("serving_default").in("input1", 1L).in("input2", 2L).out("output").run()
+					.getLong("output");
+			Assert.assertEquals(3L, output);
+		}
+	}
+
+	@Test
+	public void defaultModelSession() {
+		try (TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_INT64))) {
+			Assert.assertSame(model.model().session(), model.session());
+			Assert.assertNull(model.config());
+		}
+	}
+
+	@Test
+	public void variablesModelDefaultConfig() {
+		try (TFModel model = new TFModel(TestSavedModels.variablesModelDir())) {
+			float output = model.sig("serving_default").in("input", 1.0f).out("output").run().getFloat("output");
+			Assert.assertEquals(16.0f, output, 0.0f);
+		}
+	}
+
+	@Test
+	public void variablesModelRestoredWithConfig() {
+		try (TFModel model = new TFModel(TestSavedModels.variablesModelDir(), config())) {
+			float output = model.sig("serving_default").in("input", 1.0f).out("output").run().getFloat("output");
+			Assert.assertEquals(16.0f, output, 0.0f);
+		}
+	}
+}
@@ -0,0 +1,113 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.tensorflow.Tensor;
+import org.tensorflow.framework.DataType;
+
+public class TensorLifecycleTest {
+
+	protected static Logger log = LogManager.getLogger(TensorLifecycleTest.class);
+
+	private TFModel model = null;
+
+	@Before
+	public void init() {
+		model = new TFModel(TestSavedModels.addModelDir(DataType.DT_INT64)).sig("serving_default");
+	}
+
+	@After
+	public void after() {
+		model.close();
+	}
+
+	private static boolean isClosed(Tensor<?> tensor) {
+		try {
+			tensor.longValue();
+			return false;
+		} catch (NullPointerException e) {
+			return true;
+		}
+	}
+
+	@Test
+	public void runClosesPreviousOutputs() {
+		Tensor<?> output = model.in("input1", 1L).in("input2", 2L).out("output").run().getTensor("output");
+		Assert.assertFalse(isClosed(output));
+		Assert.assertEquals(7L, model.in("input1", 3L).in("input2", 4L).run().getLong("output"));
+		Assert.assertTrue(isClosed(output));
+	}
+
+	@Test
+	public void inClosesReplacedOwnedInput() {
+		model.in("input1", 1L).in("input2", 2L);
+		Tensor<?> input = (Tensor<?>) model.inputNameToValue.get("input1:0");
+		model.in("input1", 3L);
+		Assert.assertTrue(isClosed(input));
+		Assert.assertEquals(5L, model.out("output").run().getLong("output"));
+	}
+
+	@Test
+	public void callerTensorNotClosed() {
+		try (Tensor<Long> input = Tensor.create(5L, Long.class)) {
+			Assert.assertEquals(7L, model.in("input1", input).in("input2", 2L).out("output").run().getLong("output"));
+			model.in("input1", 1L);
+			Assert.assertFalse(isClosed(input));
+			model.clear();
+			Assert.assertFalse(isClosed(input));
+		}
+	}
+
+	@Test
+	public void clearClosesInputsAndOutputs() {
+		TFResults results = model.in("input1", 1L).in("input2", 2L).out("output").run();
+		Tensor<?> input = (Tensor<?>) model.inputNameToValue.get("input1:0");
+		Tensor<?> output = results.getTensor("output");
+		model.clear();
+		Assert.assertTrue(isClosed(input));
+		Assert.assertTrue(isClosed(output));
+	}
+
+	@Test
+	public void resultsTryWithResources() {
+		PreparedRun pr = model.prepare("serving_default", new String[] { "input1", "input2" },
+				new String[] { "output" });
+		Tensor<?> output;
+		try (TFResults results = pr.run(1L, 2L)) {
+			Assert.assertEquals(3L, results.getLong("output"));
+			output = results.getTensor("output");
+		}
+		Assert.assertTrue(isClosed(output));
+	}
+
+	@Test
+	public void modelTryWithResources() {
+		Tensor<?> output;
+		try (TFModel m = new TFModel(TestSavedModels.addModelDir(DataType.DT_INT64))) {
+			TFResults results = m.sig("serving_default").in("input1", 1L).in("input2", 2L).out("output").run();
+			Assert.assertEquals(3L, results.getLong("output"));
+			output = results.getTensor("output");
+		}
+		Assert.assertTrue(isClosed(output));
+	}
+}
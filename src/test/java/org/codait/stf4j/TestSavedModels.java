@@ -0,0 +1,259 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.tensorflow.Graph;
+import org.tensorflow.Operation;
+import org.tensorflow.Output;
+import org.tensorflow.Session;
+import org.tensorflow.Shape;
+import org.tensorflow.Tensor;
+import org.tensorflow.framework.CollectionDef;
+import org.tensorflow.framework.CollectionDef.NodeList;
+import org.tensorflow.framework.DataType;
+import org.tensorflow.framework.GraphDef;
+import org.tensorflow.framework.MetaGraphDef;
+import org.tensorflow.framework.MetaGraphDef.MetaInfoDef;
+import org.tensorflow.framework.SavedModel;
+import org.tensorflow.framework.SignatureDef;
+import org.tensorflow.framework.TensorInfo;
+import org.tensorflow.framework.TensorShapeProto;
+import org.tensorflow.util.SaverDef;
+
+/**
+ * Creates small SavedModels in temporary directories so that tests do not depend on the stf4j-test-models project.
+ * The "add" models mirror the simple_saved_models in stf4j-test-models: the "serving_default" SignatureDef has input
+ * keys "input1" and "input2" and output key "output", which is the result of an "add" operation.
+ *
+ * The "variables" model has a variable "v" that is restored from a checkpoint in the variables directory and a
+ * variable "w" that is initialized by the main op. Its "serving_default" SignatureDef has input key "input" and output
+ * key "output", which is v + w + input = 5 + 10 + input.
+ *
+ */
+public class TestSavedModels {
+
+	private static final Map<DataType, String> ADD_MODEL_DIRS = new HashMap<DataType, String>();
+	private static String variablesModelDir = null;
+
+	/**
+	 * Obtain the directory of a SavedModel that adds two inputs of the specified data type. The model is created once
+	 * per JVM.
+	 *
+	 * @param dtype
+	 *            The data type of the inputs and output
+	 * @return The SavedModel directory
+	 */
+	public static synchronized String addModelDir(DataType dtype) {
+		String dir = ADD_MODEL_DIRS.get(dtype);
+		if (dir == null) {
+			dir = createAddModel(dtype);
+			ADD_MODEL_DIRS.put(dtype, dir);
+		}
+		return dir;
+	}
+
+	private static String createAddModel(DataType dtype) {
+		org.tensorflow.DataType tfType = org.tensorflow.DataType.valueOf(dtype.name().substring("DT_".length()));
+		try (Graph graph = new Graph()) {
+			Output<?> input1 = graph.opBuilder("Placeholder", "input1").setAttr("dtype", tfType).build().output(0);
+			Output<?> input2 = graph.opBuilder("Placeholder", "input2").setAttr("dtype", tfType).build().output(0);
+			graph.opBuilder("Add", "add").addInput(input1).addInput(input2).build();
+
+			TensorShapeProto unknownShape = TensorShapeProto.newBuilder().setUnknownRank(true).build();
+			SignatureDef signatureDef = SignatureDef.newBuilder().setMethodName("tensorflow/serving/predict")
+					.putInputs("input1", tensorInfo("input1:0", dtype, unknownShape))
+					.putInputs("input2", tensorInfo("input2:0", dtype, unknownShape))
+					.putOutputs("output", tensorInfo("add:0", dtype, unknownShape)).build();
+			return writeSavedModel("add_" + dtype.name().toLowerCase(), graph, "serving_default", signatureDef);
+		}
+	}
+
+	/**
+	 * Obtain the directory of a SavedModel with variables and a main op. The model is created once per JVM.
+	 * 
+	 * @return The SavedModel directory
+	 */
+	public static synchronized String variablesModelDir() {
+		if (variablesModelDir == null) {
+			variablesModelDir = createVariablesModel();
+		}
+		return variablesModelDir;
+	}
+
+	private static String createVariablesModel() {
+		org.tensorflow.DataType f = org.tensorflow.DataType.FLOAT;
+		try (Graph graph = new Graph();
+				Tensor<Float> vValue = Tensor.create(5.0f, Float.class);
+				Tensor<Float> wValue = Tensor.create(10.0f, Float.class);
+				Tensor<String> names = Tensor.create(new byte[][] { "v".getBytes() }, String.class);
+				Tensor<String> slices = Tensor.create(new byte[][] { "".getBytes() }, String.class)) {
+			Output<?> v = variable(graph, "v", vValue);
+			Output<?> w = variable(graph, "w", wValue);
+			graph.opBuilder("NoOp", "main_op").addControlInput(graph.operation("w/Assign")).build();
+
+			Output<?> input = graph.opBuilder("Placeholder", "input").setAttr("dtype", f).build().output(0);
+			Output<?> vw = graph.opBuilder("Add", "add_vw").addInput(v).addInput(w).build().output(0);
+			graph.opBuilder("Add", "output").addInput(vw).addInput(input).build();
+
+			Output<?> filename = graph.opBuilder("Placeholder", "save/filename")
+					.setAttr("dtype", org.tensorflow.DataType.STRING).build().output(0);
+			Output<?> tensorNames = graph.opBuilder("Const", "save/tensor_names")
+					.setAttr("dtype", org.tensorflow.DataType.STRING).setAttr("value", names).build().output(0);
+			Output<?> shapesAndSlices = graph.opBuilder("Const", "save/shape_and_slices")
+					.setAttr("dtype", org.tensorflow.DataType.STRING).setAttr("value", slices).build().output(0);
+			graph.opBuilder("SaveV2", "save/SaveV2").addInput(filename).addInput(tensorNames)
+					.addInput(shapesAndSlices).addInputList(new Output<?>[] { v }).build();
+			Output<?> restored = graph.opBuilder("RestoreV2", "save/RestoreV2").addInput(filename)
+					.addInput(tensorNames).addInput(shapesAndSlices)
+					.setAttr("dtypes", new org.tensorflow.DataType[] { f }).build().output(0);
+			Operation restoreAssign = graph.opBuilder("Assign", "save/Assign").addInput(v).addInput(restored).build();
+			graph.opBuilder("NoOp", "save/restore_all").addControlInput(restoreAssign).build();
+
+			Path dir = Files.createTempDirectory("variables");
+			File variablesDir = new File(dir.toFile(), "variables");
+			dir.toFile().deleteOnExit();
+			variablesDir.mkdirs();
+			variablesDir.deleteOnExit();
+			String prefix = new File(variablesDir, "variables").getPath();
+			try (Session session = new Session(graph);
+					Tensor<String> prefixTensor = Tensor.create(prefix.getBytes(), String.class)) {
+				session.runner().addTarget("v/Assign").run();
+				session.runner().feed("save/filename", prefixTensor).addTarget("save/SaveV2").run();
+			}
+			for (File file : variablesDir.listFiles()) {
+				file.deleteOnExit();
+			}
+
+			TensorShapeProto scalarShape = TensorShapeProto.newBuilder().build();
+			SignatureDef signatureDef = SignatureDef.newBuilder().setMethodName("tensorflow/serving/predict")
+					.putInputs("input", tensorInfo("input:0", DataType.DT_FLOAT, scalarShape))
+					.putOutputs("output", tensorInfo("output:0", DataType.DT_FLOAT, scalarShape)).build();
+			SaverDef saverDef = SaverDef.newBuilder().setFilenameTensorName("save/filename:0")
+					.setRestoreOpName("save/restore_all").build();
+			MetaGraphDef metaGraphDef = MetaGraphDef.newBuilder()
+					.setMetaInfoDef(MetaInfoDef.newBuilder().addTags("serve"))
+					.setGraphDef(GraphDef.parseFrom(graph.toGraphDef())).setSaverDef(saverDef)
+					.putSignatureDef("serving_default", signatureDef)
+					.putCollectionDef("saved_model_main_op", CollectionDef.newBuilder()
+							.setNodeList(NodeList.newBuilder().addValue("main_op")).build())
+					.build();
+			writeSavedModel(dir.toFile(), metaGraphDef);
+			return dir.toString();
+		} catch (IOException e) {
+			throw new TFException("Could not write SavedModel", e);
+		}
+	}
+
+	private static Output<?> variable(Graph graph, String name, Tensor<Float> value) {
+		Output<?> variable = graph.opBuilder("VariableV2", name).setAttr("dtype", org.tensorflow.DataType.FLOAT)
+				.setAttr("shape", Shape.scalar()).build().output(0);
+		Output<?> initialValue = graph.opBuilder("Const", name + "/initial_value")
+				.setAttr("dtype", org.tensorflow.DataType.FLOAT).setAttr("value", value).build().output(0);
+		graph.opBuilder("Assign", name + "/Assign").addInput(variable).addInput(initialValue).build();
+		return variable;
+	}
+
+	/**
+	 * Create a TensorInfo object.
+	 *
+	 * @param name
+	 *            The tensor name
+	 * @param dtype
+	 *            The data type
+	 * @param shape
+	 *            The tensor shape
+	 * @return The TensorInfo object
+	 */
+	public static TensorInfo tensorInfo(String name, DataType dtype, TensorShapeProto shape) {
+		return TensorInfo.newBuilder().setName(name).setDtype(dtype).setTensorShape(shape).build();
+	}
+
+	/**
+	 * Write a graph and a SignatureDef as a SavedModel with tag "serve" to a new temporary directory.
+	 *
+	 * @param prefix
+	 *            Prefix of the temporary directory name
+	 * @param graph
+	 *            The graph
+	 * @param signatureDefKey
+	 *            The SignatureDef key
+	 * @param signatureDef
+	 *            The SignatureDef
+	 * @return The SavedModel directory
+	 */
+	public static String writeSavedModel(String prefix, Graph graph, String signatureDefKey,
+			SignatureDef signatureDef) {
+		try {
+			Path dir = Files.createTempDirectory(prefix);
+			writeSavedModel(dir.toFile(), graph, signatureDefKey, signatureDef);
+			return dir.toString();
+		} catch (IOException e) {
+			throw new TFException("Could not write SavedModel", e);
+		}
+	}
+
+	/**
+	 * Write a graph and a SignatureDef as a SavedModel with tag "serve" to the specified directory. The directory and
+	 * its contents are deleted when the JVM exits.
+	 *
+	 * @param dir
+	 *            The SavedModel directory
+	 * @param graph
+	 *            The graph
+	 * @param signatureDefKey
+	 *            The SignatureDef key
+	 * @param signatureDef
+	 *            The SignatureDef
+	 * @throws IOException
+	 *             if problem occurs writing the SavedModel
+	 */
+	public static void writeSavedModel(File dir, Graph graph, String signatureDefKey, SignatureDef signatureDef)
+			throws IOException {
+		MetaGraphDef metaGraphDef = MetaGraphDef.newBuilder().setMetaInfoDef(MetaInfoDef.newBuilder().addTags("serve"))
+				.setGraphDef(GraphDef.parseFrom(graph.toGraphDef())).putSignatureDef(signatureDefKey, signatureDef)
+				.build();
+		writeSavedModel(dir, metaGraphDef);
+	}
+
+	/**
+	 * Write a MetaGraphDef as a SavedModel to the specified directory. The directory and the SavedModel file are
+	 * deleted when the JVM exits.
+	 * 
+	 * @param dir
+	 *            The SavedModel directory
+	 * @param metaGraphDef
+	 *            The MetaGraphDef
+	 * @throws IOException
+	 *             if problem occurs writing the SavedModel
+	 */
+	public static void writeSavedModel(File dir, MetaGraphDef metaGraphDef) throws IOException {
+		SavedModel savedModel = SavedModel.newBuilder().setSavedModelSchemaVersion(1).addMetaGraphs(metaGraphDef)
+				.build();
+		dir.mkdirs();
+		dir.deleteOnExit();
+		File pb = new File(dir, "saved_model.pb");
+		Files.write(pb.toPath(), savedModel.toByteArray());
+		pb.deleteOnExit();
+	}
+}
@@ -0,0 +1,89 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.codait.stf4j.metrics.ModelMetrics;
+import org.codait.stf4j.metrics.WarmUpReport;
+import org.codait.stf4j.util.TFUtil;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tensorflow.Tensor;
+import org.tensorflow.framework.DataType;
+import org.tensorflow.framework.TensorShapeProto;
+import org.tensorflow.framework.TensorShapeProto.Dim;
+
+public class WarmUpTest {
+
+	protected static Logger log = LogManager.getLogger(WarmUpTest.class);
+
+	@Test
+	public void warmUpAddModel() {
+		ModelMetrics metrics = new ModelMetrics();
+		try (TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_FLOAT)).metrics(metrics)) {
+			WarmUpReport report = model.warmUp(3, 1);
+			log.debug(report);
+			Assert.assertTrue(report.errors().isEmpty());
+			Assert.assertEquals(3, report.runNanos("serving_default").length);
+			Assert.assertTrue(report.totalNanos() > 0);
+			Assert.assertTrue(metrics.signatures().isEmpty());
+
+			float result = model.sig("serving_default").in("input1", 1.0f).in("input2", 2.0f).out("output").run()
+					.getFloat("output");
+			Assert.assertEquals(3.0f, result, 0.0f);
+		}
+	}
+
+	@Test
+	public void warmUpVariablesModel() {
+		try (TFModel model = new TFModel(TestSavedModels.variablesModelDir())) {
+			WarmUpReport report = model.warmUp();
+			Assert.assertEquals(TFModel.DEFAULT_WARM_UP_ITERATIONS, report.runNanos("serving_default").length);
+		}
+	}
+
+	@Test
+	public void warmUpStringModel() {
+		try (TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_STRING))) {
+			WarmUpReport report = model.warmUp(1, 4);
+			Assert.assertTrue(report.errors().isEmpty());
+		}
+	}
+
+	@Test
+	public void syntheticTensorShape() {
+		TensorShapeProto shape = TensorShapeProto.newBuilder().addDim(Dim.newBuilder().setSize(-1))
+				.addDim(Dim.newBuilder().setSize(28)).build();
+		try (Tensor<?> tensor = TFUtil.syntheticTensor(
+				TestSavedModels.tensorInfo("image:0", DataType.DT_FLOAT, shape), 8)) {
+			Assert.assertArrayEquals(new long[] { 8, 28 }, tensor.shape());
+			Assert.assertEquals(8 * 28 * 4, tensor.numBytes());
+		}
+		try (Tensor<?> tensor = TFUtil.syntheticTensor(
+				TestSavedModels.tensorInfo("examples:0", DataType.DT_STRING, shape), 2)) {
+			Assert.assertArrayEquals(new long[] { 2, 28 }, tensor.shape());
+		}
+	}
+
+	@Test(expected = TFException.class)
+	public void invalidIterations() {
+		try (TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_FLOAT))) {
+			model.warmUp(0, 1);
+		}
+	}
+}
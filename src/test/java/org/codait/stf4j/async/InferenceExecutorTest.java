@@ -0,0 +1,141 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+package org.codait.stf4j.async;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.codait.stf4j.PreparedRun;
+import org.codait.stf4j.TFModel;
+import org.codait.stf4j.TFResults;
+import org.codait.stf4j.TestSavedModels;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.tensorflow.framework.DataType;
+
+public class InferenceExecutorTest {
+
+	private TFModel model = null;
+	private PreparedRun pr = null;
+	private InferenceExecutor executor = null;
+
+	@Before
+	public void init() {
+		model = new TFModel(TestSavedModels.addModelDir(DataType.DT_INT32)).sig("serving_default");
+		pr = model.prepare("serving_default", new String[] { "input1", "input2" }, new String[] { "output" });
+		executor = new InferenceExecutor(1, 1);
+	}
+
+	@After
+	public void after() {
+		executor.close();
+		model.close();
+	}
+
+	/**
+	 * Occupy the single thread of the executor until the returned latch is counted down.
+	 */
+	private CountDownLatch blockExecutor() throws InterruptedException {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		executor.pool.execute(() -> {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		started.await();
+		return release;
+	}
+
+	@Test
+	public void preparedRunAsync() throws Exception {
+		try (TFResults results = pr.runAsync(executor, 1, 2).get()) {
+			Assert.assertEquals(3, results.getInt("output"));
+		}
+	}
+
+	@Test
+	public void modelRunAsync() throws Exception {
+		Map<String, Object> inputs = new LinkedHashMap<String, Object>();
+		inputs.put("input2", new int[] { 10, 20 });
+		inputs.put("input1", new int[] { 1, 2 });
+		CompletableFuture<int[]> output = model.runAsync(executor, inputs, "output").thenApply(results -> {
+			try (TFResults r = results) {
+				return r.getIntArray("output");
+			}
+		});
+		Assert.assertArrayEquals(new int[] { 11, 22 }, output.get());
+	}
+
+	@Test
+	public void rejectWhenSaturated() throws Exception {
+		CountDownLatch release = blockExecutor();
+		CompletableFuture<TFResults> queued = pr.runAsync(executor, 1, 2);
+		CompletableFuture<TFResults> rejected = pr.runAsync(executor, 3, 4);
+		Assert.assertTrue(rejected.isCompletedExceptionally());
+		try {
+			rejected.get();
+			Assert.fail("Expected rejection");
+		} catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause() instanceof RejectedExecutionException);
+		}
+		release.countDown();
+		try (TFResults results = queued.get()) {
+			Assert.assertEquals(3, results.getInt("output"));
+		}
+	}
+
+	@Test
+	public void cancelQueuedRun() throws Exception {
+		CountDownLatch release = blockExecutor();
+		CompletableFuture<TFResults> queued = pr.runAsync(executor, 1, 2);
+		Assert.assertEquals(1, executor.queued());
+		Assert.assertTrue(queued.cancel(false));
+		Assert.assertEquals(0, executor.queued());
+		// the queue has room again
+		CompletableFuture<TFResults> next = pr.runAsync(executor, 5, 6);
+		release.countDown();
+		try (TFResults results = next.get()) {
+			Assert.assertEquals(11, results.getInt("output"));
+		}
+	}
+
+	@Test
+	public void closeCancelsQueuedRuns() throws Exception {
+		final CountDownLatch release = blockExecutor();
+		CompletableFuture<TFResults> queued = pr.runAsync(executor, 1, 2);
+		new Thread(() -> {
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException e) {
+				// release anyway
+			}
+			release.countDown();
+		}).start();
+		executor.close();
+		Assert.assertTrue(queued.isCancelled());
+		Assert.assertTrue(pr.runAsync(executor, 1, 2).isCompletedExceptionally());
+	}
+}
@@ -0,0 +1,209 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.codait.stf4j.TFException;
+import org.codait.stf4j.TFModel;
+import org.codait.stf4j.TFResults;
+import org.codait.stf4j.TestSavedModels;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.tensorflow.framework.DataType;
+
+public class TFBatcherTest {
+
+	protected static Logger log = LogManager.getLogger(TFBatcherTest.class);
+
+	private static final String[] INPUT_KEYS = new String[] { "input1", "input2" };
+	private static final String[] OUTPUT_KEYS = new String[] { "output" };
+
+	private TFModel model = null;
+	private TFBatcher batcher = null;
+
+	@Before
+	public void init() {
+		model = new TFModel(TestSavedModels.addModelDir(DataType.DT_INT64));
+	}
+
+	@After
+	public void after() {
+		if (batcher != null) {
+			batcher.close();
+		}
+	}
+
+	@Test
+	public void batcherSingleRequest() throws Exception {
+		batcher = new TFBatcher(model, "serving_default", INPUT_KEYS, OUTPUT_KEYS, 8, 1, TimeUnit.MILLISECONDS);
+		TFResults results = batcher.submit(new long[] { 1L }, new long[] { 2L }).get();
+		Assert.assertArrayEquals(new long[] { 3L }, results.getLongArray("output"));
+		Assert.assertEquals(1, batcher.stats().batches());
+		Assert.assertEquals(1, batcher.stats().rows());
+	}
+
+	@Test
+	public void batcherMultiRowRequests() throws Exception {
+		batcher = new TFBatcher(model, "serving_default", INPUT_KEYS, OUTPUT_KEYS, 8, 100, TimeUnit.MILLISECONDS);
+		Future<TFResults> f1 = batcher.submit(new long[] { 1L, 2L }, new long[] { 10L, 20L });
+		Future<TFResults> f2 = batcher.submit(new long[][] { { 3L } }, new long[][] { { 30L } });
+		Future<TFResults> f3 = batcher.submit(new long[] { 4L, 5L, 6L }, new long[] { 40L, 50L, 60L });
+		Assert.assertArrayEquals(new long[] { 11L, 22L }, f1.get().getLongArray("output"));
+		Assert.assertArrayEquals(new long[] { 33L }, ((long[][]) f2.get().getLongArrayMultidimensional("output"))[0]);
+		Assert.assertArrayEquals(new long[] { 44L, 55L, 66L }, f3.get().getLongArray("output"));
+		Assert.assertEquals(3, batcher.stats().requests());
+		Assert.assertEquals(6, batcher.stats().rows());
+	}
+
+	@Test
+	public void batcherConcurrentRequests() throws Exception {
+		batcher = new TFBatcher(model, "serving_default", INPUT_KEYS, OUTPUT_KEYS, 16, 2, TimeUnit.MILLISECONDS);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+			for (int t = 0; t < 8; t++) {
+				final long offset = t * 1000L;
+				futures.add(executor.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() throws Exception {
+						for (long i = 0; i < 50; i++) {
+							long[] result = batcher.submit(new long[] { offset }, new long[] { i }).get()
+									.getLongArray("output");
+							if (result.length != 1 || result[0] != offset + i) {
+								return false;
+							}
+						}
+						return true;
+					}
+				}));
+			}
+			for (Future<Boolean> future : futures) {
+				Assert.assertTrue(future.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+		BatchStats stats = batcher.stats();
+		log.debug(batcher);
+		Assert.assertEquals(400, stats.requests());
+		Assert.assertEquals(400, stats.rows());
+		Assert.assertEquals(0, stats.failedBatches());
+		long histogramTotal = 0;
+		for (long count : stats.batchSizeHistogram()) {
+			histogramTotal += count;
+		}
+		Assert.assertEquals(stats.batches(), histogramTotal);
+	}
+
+	@Test
+	public void batcherSplitsIncompatibleShapes() throws Exception {
+		batcher = new TFBatcher(model, "serving_default", INPUT_KEYS, OUTPUT_KEYS, 8, 50, TimeUnit.MILLISECONDS);
+		Future<TFResults> f1 = batcher.submit(new long[][] { { 1L, 2L } }, new long[][] { { 3L, 4L } });
+		Future<TFResults> f2 = batcher.submit(new long[][] { { 1L, 2L, 3L } }, new long[][] { { 1L, 1L, 1L } });
+		Assert.assertArrayEquals(new long[] { 4L, 6L },
+				((long[][]) f1.get().getLongArrayMultidimensional("output"))[0]);
+		Assert.assertArrayEquals(new long[] { 2L, 3L, 4L },
+				((long[][]) f2.get().getLongArrayMultidimensional("output"))[0]);
+		Assert.assertEquals(2, batcher.stats().batches());
+	}
+
+	@Test(expected = TFException.class)
+	public void batcherRejectsScalarInputs() {
+		batcher = new TFBatcher(model, "serving_default", INPUT_KEYS, OUTPUT_KEYS, 8, 1, TimeUnit.MILLISECONDS);
+		batcher.submit(1L, 2L);
+	}
+
+	@Test(expected = TFException.class)
+	public void batcherRejectsSubmitAfterClose() {
+		batcher = new TFBatcher(model, "serving_default", INPUT_KEYS, OUTPUT_KEYS, 8, 1, TimeUnit.MILLISECONDS);
+		batcher.close();
+		batcher.submit(new long[] { 1L }, new long[] { 2L });
+	}
+
+	@Test
+	public void batcherCloseWhileCollecting() throws Exception {
+		batcher = new TFBatcher(model, "serving_default", INPUT_KEYS, OUTPUT_KEYS, 8, 60, TimeUnit.SECONDS);
+		Future<TFResults> f1 = batcher.submit(new long[] { 1L }, new long[] { 2L });
+		Future<TFResults> f2 = batcher.submit(new long[] { 3L }, new long[] { 4L });
+		// give the worker time to start both requests and wait for more
+		Thread.sleep(200);
+		batcher.close();
+		Assert.assertArrayEquals(new long[] { 3L }, f1.get(10, TimeUnit.SECONDS).getLongArray("output"));
+		Assert.assertArrayEquals(new long[] { 7L }, f2.get(10, TimeUnit.SECONDS).getLongArray("output"));
+	}
+
+	@Test
+	public void batcherSubmitConcurrentWithClose() throws Exception {
+		for (int round = 0; round < 20; round++) {
+			final TFBatcher b = new TFBatcher(model, "serving_default", INPUT_KEYS, OUTPUT_KEYS, 4, 5,
+					TimeUnit.MILLISECONDS);
+			ExecutorService executor = Executors.newFixedThreadPool(4);
+			try {
+				List<Future<List<Future<TFResults>>>> submitters = new ArrayList<Future<List<Future<TFResults>>>>();
+				for (int t = 0; t < 4; t++) {
+					submitters.add(executor.submit(new Callable<List<Future<TFResults>>>() {
+						@Override
+						public List<Future<TFResults>> call() {
+							List<Future<TFResults>> accepted = new ArrayList<Future<TFResults>>();
+							for (long i = 0; i < 100; i++) {
+								try {
+									accepted.add(b.submit(new long[] { i }, new long[] { 1L }));
+								} catch (TFException e) {
+									break; // closed
+								}
+							}
+							return accepted;
+						}
+					}));
+				}
+				b.close();
+				for (Future<List<Future<TFResults>>> submitter : submitters) {
+					for (Future<TFResults> future : submitter.get()) {
+						Assert.assertEquals(1, future.get(10, TimeUnit.SECONDS).getLongArray("output").length);
+					}
+				}
+			} finally {
+				executor.shutdown();
+			}
+		}
+	}
+
+	@Test
+	public void batcherFailedBatch() throws Exception {
+		batcher = new TFBatcher(model, "serving_default", INPUT_KEYS, OUTPUT_KEYS, 8, 1, TimeUnit.MILLISECONDS);
+		// inputs with incompatible shapes fail in the add operation
+		Future<TFResults> f = batcher.submit(new long[][] { { 1L, 2L } }, new long[][] { { 1L, 2L, 3L } });
+		try {
+			f.get();
+			Assert.fail("Expected ExecutionException");
+		} catch (ExecutionException e) {
+			Assert.assertEquals(1, batcher.stats().failedBatches());
+		}
+	}
+}
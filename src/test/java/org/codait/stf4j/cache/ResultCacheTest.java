@@ -0,0 +1,173 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+package org.codait.stf4j.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import org.codait.stf4j.PreparedRun;
+import org.codait.stf4j.TFModel;
+import org.codait.stf4j.TFResults;
+import org.codait.stf4j.TestSavedModels;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.tensorflow.framework.DataType;
+
+public class ResultCacheTest {
+
+	/**
+	 * Size of a cached scalar INT32 output.
+	 */
+	private static final long ENTRY_BYTES = ResultCache.ENTRY_OVERHEAD + 4;
+
+	private TFModel model = null;
+
+	@Before
+	public void init() {
+		model = new TFModel(TestSavedModels.addModelDir(DataType.DT_INT32)).sig("serving_default");
+	}
+
+	@After
+	public void after() {
+		model.close();
+	}
+
+	private int add(int a, int b) {
+		return model.in("input1", a).in("input2", b).out("output").run().getInt("output");
+	}
+
+	@Test
+	public void hitAndMiss() {
+		ResultCache cache = new ResultCache(1024 * 1024);
+		model.cache(cache);
+		Assert.assertEquals(3, add(1, 2));
+		Assert.assertEquals(3, add(1, 2));
+		Assert.assertEquals(4, add(1, 3));
+		Assert.assertEquals(1, cache.hits());
+		Assert.assertEquals(2, cache.misses());
+		Assert.assertEquals(2, cache.size());
+		Assert.assertEquals(2 * ENTRY_BYTES, cache.bytes());
+		Assert.assertEquals(1.0 / 3, cache.hitRate(), 1e-9);
+	}
+
+	@Test
+	public void preparedRun() {
+		ResultCache cache = new ResultCache(1024 * 1024);
+		model.cache(cache);
+		PreparedRun pr = model.prepare("serving_default", new String[] { "input1", "input2" },
+				new String[] { "output" });
+		for (int i = 0; i < 3; i++) {
+			try (TFResults results = pr.run(5, 6)) {
+				Assert.assertEquals(11, results.getInt("output"));
+			}
+		}
+		Assert.assertEquals(2, cache.hits());
+		Assert.assertEquals(1, cache.misses());
+	}
+
+	@Test
+	public void inputOrderDoesNotMatter() {
+		ResultCache cache = new ResultCache(1024 * 1024);
+		model.cache(cache);
+		model.in("input1", 1).in("input2", 2).out("output").run();
+		model.clear();
+		model.sig("serving_default").in("input2", 2).in("input1", 1).out("output").run();
+		Assert.assertEquals(1, cache.hits());
+	}
+
+	@Test
+	public void otherSignatureNotCached() {
+		ResultCache cache = new ResultCache(1024 * 1024);
+		model.cache(cache, "other");
+		Assert.assertEquals(3, add(1, 2));
+		Assert.assertEquals(3, add(1, 2));
+		Assert.assertEquals(0, cache.hits());
+		Assert.assertEquals(0, cache.misses());
+		Assert.assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void lruEviction() {
+		ResultCache cache = new ResultCache(2 * ENTRY_BYTES);
+		model.cache(cache);
+		add(1, 1);
+		add(2, 2);
+		add(1, 1); // hit, so (2, 2) is least recently used
+		add(3, 3);
+		Assert.assertEquals(1, cache.evictions());
+		Assert.assertEquals(2, cache.size());
+		Assert.assertEquals(2, add(1, 1));
+		Assert.assertEquals(2, cache.hits());
+		Assert.assertEquals(4, add(2, 2));
+		Assert.assertEquals(2, cache.hits());
+	}
+
+	@Test
+	public void expiration() throws InterruptedException {
+		ResultCache cache = new ResultCache(1024 * 1024, 10, TimeUnit.MILLISECONDS, ResultCache.Policy.LRU);
+		model.cache(cache);
+		add(1, 2);
+		Thread.sleep(50);
+		Assert.assertEquals(3, add(1, 2));
+		Assert.assertEquals(0, cache.hits());
+		Assert.assertEquals(1, cache.expirations());
+		Assert.assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void tinyLfuAdmission() {
+		ResultCache cache = new ResultCache(2 * ENTRY_BYTES, 0, TimeUnit.SECONDS, ResultCache.Policy.TINY_LFU);
+		model.cache(cache);
+		for (int i = 0; i < 3; i++) {
+			add(1, 1);
+			add(2, 2);
+		}
+		Assert.assertEquals(4, cache.hits());
+		Assert.assertEquals(6, add(3, 3));
+		Assert.assertEquals(1, cache.rejections());
+		Assert.assertEquals(0, cache.evictions());
+		add(1, 1);
+		add(2, 2);
+		Assert.assertEquals(6, cache.hits());
+	}
+
+	@Test
+	public void hitsReturnIndependentTensors() {
+		ResultCache cache = new ResultCache(1024 * 1024);
+		model.cache(cache);
+		PreparedRun pr = model.prepare("serving_default", new String[] { "input1", "input2" },
+				new String[] { "output" });
+		pr.run(1, 2).close();
+		pr.run(1, 2).close();
+		try (TFResults results = pr.run(1, 2)) {
+			Assert.assertEquals(3, results.getInt("output"));
+		}
+		Assert.assertEquals(2, cache.hits());
+	}
+
+	@Test
+	public void closeInvalidates() {
+		ResultCache cache = new ResultCache(1024 * 1024);
+		model.cache(cache);
+		add(1, 2);
+		Assert.assertEquals(1, cache.size());
+		model.close();
+		Assert.assertEquals(0, cache.size());
+		Assert.assertEquals(0, cache.bytes());
+		model = new TFModel(TestSavedModels.addModelDir(DataType.DT_INT32));
+	}
+}
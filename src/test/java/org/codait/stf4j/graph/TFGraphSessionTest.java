@@ -0,0 +1,75 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.graph;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.codait.stf4j.TFModel;
+import org.codait.stf4j.TestSavedModels;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tensorflow.Session;
+import org.tensorflow.Tensor;
+import org.tensorflow.framework.ConfigProto;
+import org.tensorflow.framework.DataType;
+
+public class TFGraphSessionTest {
+
+	protected static Logger log = LogManager.getLogger(TFGraphSessionTest.class);
+
+	@Test
+	public void graphSessionReused() {
+		TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_INT64));
+		try (TFGraph graph = model.tfGraph(); Tensor<Long> t1 = Tensor.create(1L, Long.class);
+				Tensor<Long> t2 = Tensor.create(2L, Long.class)) {
+			Session session = graph.session();
+			for (int i = 0; i < 10; i++) {
+				long output = graph.input("input1", t1).input("input2", t2).output("add").run()
+						.getTensor("add", Long.class).longValue();
+				Assert.assertEquals(3L, output);
+			}
+			Assert.assertSame(session, graph.session());
+		}
+		// the model graph is not owned by the TFGraph, so the model can still be run
+		Assert.assertEquals(3L, model.in("input1", 1L).in("input2", 2L).out("output").run().getLong("output"));
+		model.close();
+	}
+
+	@Test
+	public void graphFromFileWithConfig() throws Exception {
+		byte[] graphDef;
+		try (TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_INT64))) {
+			graphDef = model.graph().toGraphDef();
+		}
+		File f = File.createTempFile("add_int64", ".pb");
+		f.deleteOnExit();
+		Files.write(f.toPath(), graphDef);
+
+		ConfigProto config = ConfigProto.newBuilder().setIntraOpParallelismThreads(1)
+				.setInterOpParallelismThreads(1).build();
+		try (TFGraph graph = new TFGraph(f.getPath(), config);
+				Tensor<Long> t1 = Tensor.create(new long[] { 1L, 2L }, Long.class);
+				Tensor<Long> t2 = Tensor.create(new long[] { 3L, 4L }, Long.class)) {
+			Tensor<Long> output = graph.input("input1", t1).input("input2", t2).output("add").run().getTensor("add",
+					Long.class);
+			Assert.assertArrayEquals(new long[] { 4L, 6L }, output.copyTo(new long[2]));
+		}
+	}
+}
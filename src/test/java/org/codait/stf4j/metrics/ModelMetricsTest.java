@@ -0,0 +1,125 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.metrics;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.codait.stf4j.PreparedRun;
+import org.codait.stf4j.TFModel;
+import org.codait.stf4j.TestSavedModels;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.tensorflow.framework.DataType;
+
+public class ModelMetricsTest {
+
+	protected static Logger log = LogManager.getLogger(ModelMetricsTest.class);
+
+	private TFModel model = null;
+
+	@Before
+	public void init() {
+		model = new TFModel(TestSavedModels.addModelDir(DataType.DT_FLOAT)).sig("serving_default");
+	}
+
+	@After
+	public void after() {
+		model.close();
+	}
+
+	@Test
+	public void modelRunMetrics() {
+		ModelMetrics metrics = new ModelMetrics();
+		model.metrics(metrics);
+		for (int i = 0; i < 3; i++) {
+			float[] result = model.in("input1", new float[] { 1.0f, 2.0f }).in("input2", new float[] { 3.0f, 4.0f })
+					.out("output").run().getFloatArray("output");
+			Assert.assertArrayEquals(new float[] { 4.0f, 6.0f }, result, 0.0f);
+		}
+		log.debug("Metrics:\n" + metrics);
+
+		SignatureMetrics sm = metrics.signatures().get("serving_default");
+		Assert.assertNotNull(sm);
+		Assert.assertEquals(6, sm.conversion().count());
+		Assert.assertEquals(3, sm.run().count());
+		Assert.assertEquals(3, sm.extraction().count());
+		Assert.assertEquals(6 * 8, sm.bytesConverted());
+		Assert.assertEquals(3 * 16, sm.bytesFed());
+		Assert.assertEquals(3 * 8, sm.bytesFetched());
+		Assert.assertTrue(sm.run().maxNanos() > 0);
+
+		metrics.reset();
+		Assert.assertTrue(metrics.signatures().isEmpty());
+	}
+
+	@Test
+	public void preparedRunMetrics() {
+		ModelMetrics metrics = new ModelMetrics();
+		PreparedRun pr = model.metrics(metrics).prepare("serving_default", new String[] { "input1", "input2" },
+				new String[] { "output" });
+		float[] dst = new float[1];
+		pr.run(1.0f, 2.0f).getFloats("output", dst, 0);
+		Assert.assertEquals(3.0f, dst[0], 0.0f);
+
+		SignatureMetrics sm = metrics.signature("serving_default");
+		Assert.assertEquals(2, sm.conversion().count());
+		Assert.assertEquals(1, sm.run().count());
+		Assert.assertEquals(1, sm.extraction().count());
+		Assert.assertEquals(8, sm.bytesFed());
+		Assert.assertEquals(4, sm.bytesFetched());
+	}
+
+	@Test
+	public void metricsDisabled() {
+		ModelMetrics metrics = new ModelMetrics();
+		model.metrics(metrics).metrics(null);
+		Assert.assertNull(model.metrics());
+		Assert.assertEquals(3.0f, model.in("input1", 1.0f).in("input2", 2.0f).out("output").run().getFloat("output"),
+				0.0f);
+		Assert.assertTrue(metrics.signatures().isEmpty());
+	}
+
+	@Test
+	public void histogramPercentiles() {
+		LatencyHistogram h = new LatencyHistogram();
+		Assert.assertEquals(0, h.percentileNanos(50));
+		for (long i = 1; i <= 1000; i++) {
+			h.record(i * 1000);
+		}
+		Assert.assertEquals(1000, h.count());
+		Assert.assertEquals(1000000, h.maxNanos());
+		Assert.assertEquals(500500.0, h.meanNanos(), 0.001);
+		long p50 = h.percentileNanos(50);
+		long p99 = h.percentileNanos(99);
+		Assert.assertTrue("p50 " + p50, p50 >= 500000 && p50 <= 500000 * 1.125);
+		Assert.assertTrue("p99 " + p99, p99 >= 990000 && p99 <= 1000000);
+		Assert.assertEquals(1000000, h.percentileNanos(100));
+	}
+
+	@Test
+	public void histogramBuckets() {
+		for (long value : new long[] { 0, 1, 7, 8, 9, 15, 16, 17, 1000, 123456789L, Long.MAX_VALUE }) {
+			int bucket = LatencyHistogram.bucket(value);
+			Assert.assertTrue(value <= LatencyHistogram.bucketUpperBound(bucket));
+			if (bucket > 0) {
+				Assert.assertTrue(value > LatencyHistogram.bucketUpperBound(bucket - 1));
+			}
+		}
+	}
+}
@@ -0,0 +1,132 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.metrics;
+
+import java.util.List;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.codait.stf4j.PreparedRun;
+import org.codait.stf4j.TFException;
+import org.codait.stf4j.TFModel;
+import org.codait.stf4j.TestSavedModels;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.tensorflow.framework.AllocatorMemoryUsed;
+import org.tensorflow.framework.DataType;
+import org.tensorflow.framework.DeviceStepStats;
+import org.tensorflow.framework.NodeExecStats;
+import org.tensorflow.framework.RunMetadata;
+import org.tensorflow.framework.StepStats;
+
+public class StepProfilerTest {
+
+	protected static Logger log = LogManager.getLogger(StepProfilerTest.class);
+
+	private TFModel model = null;
+
+	@Before
+	public void init() {
+		model = new TFModel(TestSavedModels.addModelDir(DataType.DT_FLOAT)).sig("serving_default");
+	}
+
+	@After
+	public void after() {
+		model.close();
+	}
+
+	@Test
+	public void profileModelRuns() {
+		StepProfiler profiler = new StepProfiler(2);
+		model.profile(profiler);
+		for (int i = 0; i < 5; i++) {
+			float result = model.in("input1", 1.0f).in("input2", 2.0f).out("output").run().getFloat("output");
+			Assert.assertEquals(3.0f, result, 0.0f);
+		}
+		log.debug("Profile:\n" + profiler);
+
+		Assert.assertEquals(5, profiler.runs());
+		Assert.assertEquals(3, profiler.tracedRuns());
+		Assert.assertNotNull(profiler.lastRunMetadata());
+		OpStats add = profiler.op("add");
+		Assert.assertNotNull(add);
+		Assert.assertEquals("Add", add.type());
+		Assert.assertEquals(3, add.count());
+
+		profiler.reset();
+		Assert.assertTrue(profiler.ops().isEmpty());
+		Assert.assertNull(profiler.lastRunMetadata());
+	}
+
+	@Test
+	public void profilePreparedRun() {
+		StepProfiler profiler = new StepProfiler();
+		PreparedRun pr = model.profile(profiler).prepare("serving_default", new String[] { "input1", "input2" },
+				new String[] { "output" });
+		Assert.assertEquals(5.0f, pr.run(2.0f, 3.0f).getFloat("output"), 0.0f);
+		Assert.assertEquals(1, profiler.tracedRuns());
+		Assert.assertNotNull(profiler.op("add"));
+	}
+
+	@Test
+	public void profilingDisabled() {
+		StepProfiler profiler = new StepProfiler();
+		model.profile(profiler).profile(null);
+		Assert.assertNull(model.profile());
+		Assert.assertEquals(3.0f, model.in("input1", 1.0f).in("input2", 2.0f).out("output").run().getFloat("output"),
+				0.0f);
+		Assert.assertEquals(0, profiler.runs());
+	}
+
+	@Test
+	public void recordStepStats() {
+		NodeExecStats matMul = NodeExecStats.newBuilder().setNodeName("dense/MatMul")
+				.setTimelineLabel("dense/MatMul = MatMul(x, w)").setAllEndRelMicros(40)
+				.addMemory(AllocatorMemoryUsed.newBuilder().setTotalBytes(1024).setPeakBytes(512)).build();
+		NodeExecStats relu = NodeExecStats.newBuilder().setNodeName("dense/Relu").setAllEndRelMicros(10).build();
+		DeviceStepStats cpu = DeviceStepStats.newBuilder().setDevice("/job:localhost/replica:0/task:0/device:CPU:0")
+				.addNodeStats(matMul).addNodeStats(relu).build();
+		DeviceStepStats stream = DeviceStepStats.newBuilder().setDevice("/device:GPU:0/stream:all")
+				.addNodeStats(matMul).build();
+		RunMetadata metadata = RunMetadata.newBuilder()
+				.setStepStats(StepStats.newBuilder().addDevStats(cpu).addDevStats(stream)).build();
+
+		StepProfiler profiler = new StepProfiler();
+		profiler.record(metadata, null);
+		profiler.record(metadata, null);
+
+		List<OpStats> ops = profiler.ops();
+		Assert.assertEquals(2, ops.size());
+		OpStats op = ops.get(0);
+		Assert.assertEquals("dense/MatMul", op.name());
+		Assert.assertEquals("MatMul", op.type());
+		Assert.assertEquals(2, op.count());
+		Assert.assertEquals(80, op.totalMicros());
+		Assert.assertEquals(40, op.maxMicros());
+		Assert.assertEquals(2048, op.totalBytes());
+		Assert.assertEquals(512, op.peakBytes());
+		Assert.assertNull(ops.get(1).type());
+		Assert.assertEquals(1, profiler.ops(1).size());
+	}
+
+	@Test(expected = TFException.class)
+	public void invalidSampleInterval() {
+		new StepProfiler(0);
+	}
+}
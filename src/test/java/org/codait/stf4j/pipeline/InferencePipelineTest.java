@@ -0,0 +1,207 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.pipeline;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.codait.stf4j.TFException;
+import org.codait.stf4j.TFModel;
+import org.codait.stf4j.TestSavedModels;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.tensorflow.Graph;
+import org.tensorflow.Output;
+import org.tensorflow.framework.DataType;
+import org.tensorflow.framework.GraphDef;
+import org.tensorflow.framework.MetaGraphDef;
+import org.tensorflow.framework.MetaGraphDef.MetaInfoDef;
+import org.tensorflow.framework.SignatureDef;
+import org.tensorflow.framework.TensorShapeProto;
+
+public class InferencePipelineTest {
+
+	protected static Logger log = LogManager.getLogger(InferencePipelineTest.class);
+
+	private static TFModel model = null;
+
+	/**
+	 * Model with a "parse" SignatureDef that converts the "inputs" strings to numbers ("number" output) and also returns
+	 * the strings ("text" output), and a "square" SignatureDef that squares the float "x" input.
+	 */
+	@BeforeClass
+	public static void init() throws IOException {
+		try (Graph graph = new Graph()) {
+			Output<?> inputs = graph.opBuilder("Placeholder", "inputs")
+					.setAttr("dtype", org.tensorflow.DataType.STRING).build().output(0);
+			graph.opBuilder("StringToNumber", "number").addInput(inputs)
+					.setAttr("out_type", org.tensorflow.DataType.FLOAT).build();
+			graph.opBuilder("Identity", "text").addInput(inputs).build();
+			Output<?> x = graph.opBuilder("Placeholder", "x").setAttr("dtype", org.tensorflow.DataType.FLOAT).build()
+					.output(0);
+			graph.opBuilder("Square", "square").addInput(x).build();
+
+			TensorShapeProto unknownShape = TensorShapeProto.newBuilder().setUnknownRank(true).build();
+			SignatureDef parse = SignatureDef.newBuilder()
+					.putInputs("inputs", TestSavedModels.tensorInfo("inputs:0", DataType.DT_STRING, unknownShape))
+					.putOutputs("number", TestSavedModels.tensorInfo("number:0", DataType.DT_FLOAT, unknownShape))
+					.putOutputs("text", TestSavedModels.tensorInfo("text:0", DataType.DT_STRING, unknownShape))
+					.build();
+			SignatureDef square = SignatureDef.newBuilder()
+					.putInputs("x", TestSavedModels.tensorInfo("x:0", DataType.DT_FLOAT, unknownShape))
+					.putOutputs("square", TestSavedModels.tensorInfo("square:0", DataType.DT_FLOAT, unknownShape))
+					.build();
+			MetaGraphDef metaGraphDef = MetaGraphDef.newBuilder()
+					.setMetaInfoDef(MetaInfoDef.newBuilder().addTags("serve"))
+					.setGraphDef(GraphDef.parseFrom(graph.toGraphDef())).putSignatureDef("parse", parse)
+					.putSignatureDef("square", square).build();
+			File dir = Files.createTempDirectory("pipeline").toFile();
+			TestSavedModels.writeSavedModel(dir, metaGraphDef);
+			model = new TFModel(dir.getPath());
+		}
+	}
+
+	@AfterClass
+	public static void cleanup() {
+		model.close();
+	}
+
+	@Test
+	public void stringLinesToFile() throws IOException {
+		File input = File.createTempFile("pipeline", ".txt");
+		File output = File.createTempFile("pipeline", ".csv");
+		input.deleteOnExit();
+		output.deleteOnExit();
+		List<String> lines = new ArrayList<String>();
+		for (int i = 0; i < 10; i++) {
+			lines.add(String.valueOf(i * 1.5));
+		}
+		Files.write(input.toPath(), lines, StandardCharsets.UTF_8);
+
+		PipelineStats stats = new InferencePipeline(model, "parse", "inputs", "number", "text").batchSize(3)
+				.queueCapacity(1).run(input.getPath(), output.getPath());
+		Assert.assertEquals(10, stats.rows());
+		Assert.assertEquals(4, stats.batches());
+
+		List<String> written = Files.readAllLines(output.toPath(), StandardCharsets.UTF_8);
+		Assert.assertEquals(10, written.size());
+		for (int i = 0; i < 10; i++) {
+			Assert.assertEquals((i * 1.5f) + "," + lines.get(i), written.get(i));
+		}
+	}
+
+	@Test
+	public void parsedFloatInput() throws IOException {
+		InputParser parser = new InputParser() {
+			@Override
+			public Object parse(String[] lines) {
+				float[][] values = new float[lines.length][];
+				for (int i = 0; i < lines.length; i++) {
+					String[] fields = lines[i].split(" ");
+					values[i] = new float[fields.length];
+					for (int j = 0; j < fields.length; j++) {
+						values[i][j] = Float.parseFloat(fields[j]);
+					}
+				}
+				return values;
+			}
+		};
+		StringWriter writer = new StringWriter();
+		new InferencePipeline(model, "square", "x", "square").parser(parser).delimiter(" ").batchSize(2)
+				.run(new BufferedReader(new StringReader("1 2\n3 4\n5 6\n")), writer);
+		Assert.assertEquals("1.0 4.0\n9.0 16.0\n25.0 36.0\n", writer.toString());
+	}
+
+	@Test
+	public void failedBatchStopsPipeline() throws IOException {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			sb.append(i == 50 ? "not a number" : String.valueOf(i)).append('\n');
+		}
+		StringWriter writer = new StringWriter();
+		try {
+			new InferencePipeline(model, "parse", "inputs", "number").batchSize(5).queueCapacity(1)
+					.run(new BufferedReader(new StringReader(sb.toString())), writer);
+			Assert.fail("Expected TFException");
+		} catch (TFException e) {
+			log.debug("Expected failure: " + e.getMessage());
+		}
+		Assert.assertTrue(writer.toString().startsWith("0.0\n1.0\n"));
+	}
+
+	@Test(timeout = 10000)
+	public void failedWriteStopsStages() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			sb.append(i).append('\n');
+		}
+		Writer writer = new Writer() {
+			@Override
+			public void write(char[] cbuf, int off, int len) throws IOException {
+				throw new IOException("disk full");
+			}
+
+			@Override
+			public void flush() {
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		try {
+			new InferencePipeline(model, "parse", "inputs", "number").batchSize(2).queueCapacity(1)
+					.run(new BufferedReader(new StringReader(sb.toString())), writer);
+			Assert.fail("Expected IOException");
+		} catch (IOException e) {
+			Assert.assertEquals("disk full", e.getMessage());
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void failedParseStopsStages() throws IOException {
+		InputParser parser = new InputParser() {
+			@Override
+			public Object parse(String[] lines) {
+				if (lines[0].equals("bad")) {
+					throw new TFException("cannot parse");
+				}
+				return lines;
+			}
+		};
+		StringWriter writer = new StringWriter();
+		try {
+			new InferencePipeline(model, "parse", "inputs", "number").parser(parser).batchSize(1).queueCapacity(1)
+					.run(new BufferedReader(new StringReader("1\n2\nbad\n4\n")), writer);
+			Assert.fail("Expected TFException");
+		} catch (TFException e) {
+			Assert.assertEquals("cannot parse", e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,126 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+package org.codait.stf4j.registry;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.codait.stf4j.TFException;
+import org.codait.stf4j.TestSavedModels;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.tensorflow.framework.DataType;
+
+public class ModelRegistryTest {
+
+	private File baseDir = null;
+	private ModelRegistry registry = null;
+
+	@Before
+	public void init() throws IOException {
+		baseDir = Files.createTempDirectory("registry").toFile();
+		baseDir.deleteOnExit();
+		addVersion(1);
+		registry = new ModelRegistry();
+	}
+
+	@After
+	public void after() {
+		registry.close();
+	}
+
+	private void addVersion(long version) throws IOException {
+		File versionDir = new File(baseDir, Long.toString(version));
+		versionDir.mkdirs();
+		versionDir.deleteOnExit();
+		File pb = new File(versionDir, "saved_model.pb");
+		Files.copy(new File(TestSavedModels.addModelDir(DataType.DT_FLOAT), "saved_model.pb").toPath(), pb.toPath());
+		pb.deleteOnExit();
+	}
+
+	private float add(ModelHandle handle) {
+		return handle.model().prepare("serving_default", new String[] { "input1", "input2" },
+				new String[] { "output" }).run(1.0f, 2.0f).getFloat("output");
+	}
+
+	@Test
+	public void sharedModel() {
+		try (ModelHandle h1 = registry.acquire(baseDir.getPath());
+				ModelHandle h2 = registry.acquire(baseDir.getPath() + File.separator + ".")) {
+			Assert.assertSame(h1.model(), h2.model());
+			Assert.assertEquals(1, h1.version());
+			Assert.assertEquals(3.0f, add(h1), 0.0f);
+			Assert.assertEquals(3, h1.loaded.refs.get());
+		}
+		Assert.assertEquals(1, registry.version(baseDir.getPath(), "serve"));
+	}
+
+	@Test
+	public void unversionedModel() {
+		String dir = TestSavedModels.addModelDir(DataType.DT_FLOAT);
+		try (ModelHandle handle = registry.acquire(dir)) {
+			Assert.assertEquals(0, handle.version());
+			Assert.assertEquals(3.0f, add(handle), 0.0f);
+		}
+	}
+
+	@Test
+	public void hotReload() throws IOException {
+		ModelHandle old = registry.acquire(baseDir.getPath());
+		Assert.assertEquals(0, registry.refresh());
+
+		addVersion(2);
+		Assert.assertEquals(1, registry.refresh());
+		try (ModelHandle handle = registry.acquire(baseDir.getPath())) {
+			Assert.assertEquals(2, handle.version());
+			Assert.assertNotSame(old.model(), handle.model());
+		}
+
+		// the old version keeps serving until its handle is closed
+		Assert.assertEquals(3.0f, add(old), 0.0f);
+		LoadedModel loaded = old.loaded;
+		old.close();
+		Assert.assertEquals(0, loaded.refs.get());
+		Assert.assertFalse(loaded.retain());
+		old.close();
+		Assert.assertEquals(0, loaded.refs.get());
+	}
+
+	@Test
+	public void closeRegistry() {
+		ModelHandle handle = registry.acquire(baseDir.getPath());
+		registry.close();
+		Assert.assertEquals(3.0f, add(handle), 0.0f);
+		handle.close();
+		Assert.assertEquals(0, handle.loaded.refs.get());
+	}
+
+	@Test(expected = TFException.class)
+	public void acquireAfterClose() {
+		registry.close();
+		registry.acquire(baseDir.getPath());
+	}
+
+	@Test(expected = TFException.class)
+	public void noSavedModel() throws IOException {
+		File empty = Files.createTempDirectory("empty").toFile();
+		empty.deleteOnExit();
+		registry.acquire(empty.getPath());
+	}
+}
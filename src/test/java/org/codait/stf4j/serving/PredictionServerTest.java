@@ -0,0 +1,253 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+package org.codait.stf4j.serving;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.codait.stf4j.TFException;
+import org.codait.stf4j.TFModel;
+import org.codait.stf4j.TestSavedModels;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.tensorflow.framework.DataType;
+
+public class PredictionServerTest {
+
+	private static TFModel floatModel = null;
+	private static TFModel intModel = null;
+	private static TFModel stringModel = null;
+	private static PredictionServer server = null;
+
+	@BeforeClass
+	public static void init() throws IOException {
+		floatModel = new TFModel(TestSavedModels.addModelDir(DataType.DT_FLOAT));
+		intModel = new TFModel(TestSavedModels.addModelDir(DataType.DT_INT32));
+		stringModel = new TFModel(TestSavedModels.addModelDir(DataType.DT_STRING));
+		server = new PredictionServer(0, 2).model("add_float", floatModel).model("add_int", intModel)
+				.model("add_string", stringModel).start();
+	}
+
+	@AfterClass
+	public static void after() {
+		server.close();
+		floatModel.close();
+		intModel.close();
+		stringModel.close();
+	}
+
+	private static Response request(String method, String path, String body) throws IOException {
+		URL url = new URL("http://localhost:" + server.port() + path);
+		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		connection.setRequestMethod(method);
+		if (body != null) {
+			connection.setDoOutput(true);
+			try (OutputStream out = connection.getOutputStream()) {
+				out.write(body.getBytes(StandardCharsets.UTF_8));
+			}
+		}
+		Response response = new Response();
+		response.status = connection.getResponseCode();
+		InputStream in = response.status < 400 ? connection.getInputStream() : connection.getErrorStream();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1024];
+		int n;
+		while ((n = in.read(buffer)) > 0) {
+			bytes.write(buffer, 0, n);
+		}
+		in.close();
+		response.contentType = connection.getContentType();
+		response.json = (Map<?, ?>) Json.parse(new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+		return response;
+	}
+
+	private static Response predict(String model, String body) throws IOException {
+		return request("POST", "/v1/models/" + model + ":predict", body);
+	}
+
+	private static class Response {
+		int status;
+		String contentType;
+		Map<?, ?> json;
+	}
+
+	@Test
+	public void instancesNamedInputs() throws IOException {
+		Response response = predict("add_float",
+				"{\"instances\": [{\"input1\": 1.5, \"input2\": 2}, {\"input1\": -1, \"input2\": 0.25}]}");
+		Assert.assertEquals(200, response.status);
+		Assert.assertEquals("application/json", response.contentType);
+		List<?> predictions = (List<?>) response.json.get("predictions");
+		Assert.assertEquals(2, predictions.size());
+		Assert.assertEquals(3.5, ((Number) predictions.get(0)).doubleValue(), 0.0);
+		Assert.assertEquals(-0.75, ((Number) predictions.get(1)).doubleValue(), 0.0);
+	}
+
+	@Test
+	public void instancesVectors() throws IOException {
+		Response response = predict("add_int", "{\"signature_name\": \"serving_default\", \"instances\": ["
+				+ "{\"input1\": [1, 2], \"input2\": [10, 20]}, {\"input1\": [3, 4], \"input2\": [30, 40]}]}");
+		Assert.assertEquals(200, response.status);
+		List<?> predictions = (List<?>) response.json.get("predictions");
+		Assert.assertEquals(2, predictions.size());
+		Assert.assertEquals(11L, ((List<?>) predictions.get(0)).get(0));
+		Assert.assertEquals(22L, ((List<?>) predictions.get(0)).get(1));
+		Assert.assertEquals(33L, ((List<?>) predictions.get(1)).get(0));
+		Assert.assertEquals(44L, ((List<?>) predictions.get(1)).get(1));
+	}
+
+	@Test
+	public void columnarInputs() throws IOException {
+		Response response = predict("add_int", "{\"inputs\": {\"input1\": [[1, 2], [3, 4]], \"input2\": 5}}");
+		Assert.assertEquals(200, response.status);
+		List<?> outputs = (List<?>) response.json.get("outputs");
+		Assert.assertEquals(2, outputs.size());
+		Assert.assertEquals(6L, ((List<?>) outputs.get(0)).get(0));
+		Assert.assertEquals(9L, ((List<?>) outputs.get(1)).get(1));
+	}
+
+	@Test
+	public void columnarScalars() throws IOException {
+		Response response = predict("add_int", "{\"inputs\": {\"input1\": 2, \"input2\": 3}}");
+		Assert.assertEquals(200, response.status);
+		Assert.assertEquals(5L, response.json.get("outputs"));
+	}
+
+	@Test
+	public void strings() throws IOException {
+		Response response = predict("add_string",
+				"{\"inputs\": {\"input1\": [\"héllo \", \"a\"], \"input2\": [{\"b64\": \"d29ybGQ=\"}, \"b\"]}}");
+		Assert.assertEquals(200, response.status);
+		List<?> outputs = (List<?>) response.json.get("outputs");
+		Assert.assertEquals("héllo world", outputs.get(0));
+		Assert.assertEquals("ab", outputs.get(1));
+	}
+
+	@Test
+	public void unknownModel() throws IOException {
+		Response response = predict("missing", "{\"instances\": [1]}");
+		Assert.assertEquals(404, response.status);
+		Assert.assertTrue(response.json.get("error").toString().contains("missing"));
+	}
+
+	@Test
+	public void unknownSignature() throws IOException {
+		Response response = predict("add_int", "{\"signature_name\": \"nope\", \"inputs\": {}}");
+		Assert.assertEquals(400, response.status);
+		Assert.assertTrue(response.json.get("error").toString().contains("nope"));
+	}
+
+	@Test
+	public void missingInput() throws IOException {
+		Response response = predict("add_int", "{\"instances\": [{\"input1\": 1}]}");
+		Assert.assertEquals(400, response.status);
+		Assert.assertTrue(response.json.get("error").toString().contains("input2"));
+	}
+
+	@Test
+	public void raggedInput() throws IOException {
+		Response response = predict("add_int", "{\"inputs\": {\"input1\": [[1, 2], [3]], \"input2\": 1}}");
+		Assert.assertEquals(400, response.status);
+	}
+
+	@Test
+	public void invalidJson() throws IOException {
+		Response response = predict("add_int", "{\"inputs\": ");
+		Assert.assertEquals(400, response.status);
+		Assert.assertTrue(response.json.containsKey("error"));
+	}
+
+	@Test
+	public void deeplyNestedJson() throws IOException {
+		StringBuilder sb = new StringBuilder("{\"inputs\": {\"input1\": ");
+		for (int i = 0; i < 100000; i++) {
+			sb.append('[');
+		}
+		Response response = predict("add_int", sb.toString());
+		Assert.assertEquals(400, response.status);
+		Assert.assertTrue(response.json.get("error").toString().contains("nested"));
+	}
+
+	@Test
+	public void nestingWithinLimit() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < Json.MAX_DEPTH; i++) {
+			sb.append('[');
+		}
+		for (int i = 0; i < Json.MAX_DEPTH; i++) {
+			sb.append(']');
+		}
+		Assert.assertTrue(Json.parse(sb.toString()) instanceof List);
+	}
+
+	@Test(expected = TFException.class)
+	public void bodyTooLarge() throws IOException {
+		PredictionServer.readBody(new ByteArrayInputStream(new byte[10000]), 9999);
+	}
+
+	@Test
+	public void getNotAllowed() throws IOException {
+		Response response = request("GET", "/v1/models/add_int:predict", null);
+		Assert.assertEquals(405, response.status);
+	}
+
+	@Test
+	public void unknownPath() throws IOException {
+		Response response = request("POST", "/v1/models/add_int:classify", "{}");
+		Assert.assertEquals(404, response.status);
+	}
+
+	@Test
+	public void concurrentRequests() throws Exception {
+		Thread[] threads = new Thread[8];
+		final int[] failures = new int[1];
+		for (int t = 0; t < threads.length; t++) {
+			final int value = t;
+			threads[t] = new Thread(() -> {
+				try {
+					for (int i = 0; i < 10; i++) {
+						Response response = predict("add_int",
+								"{\"inputs\": {\"input1\": " + value + ", \"input2\": " + i + "}}");
+						if (response.status != 200 || ((Long) response.json.get("outputs")) != value + i) {
+							synchronized (failures) {
+								failures[0]++;
+							}
+						}
+					}
+				} catch (IOException e) {
+					synchronized (failures) {
+						failures[0]++;
+					}
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		Assert.assertEquals(0, failures[0]);
+	}
+}
@@ -0,0 +1,222 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+package org.codait.stf4j.serving;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.codait.stf4j.TFException;
+import org.codait.stf4j.TFModel;
+import org.codait.stf4j.TFResults;
+import org.codait.stf4j.TestSavedModels;
+import org.codait.stf4j.util.TFUtil;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.tensorflow.Tensor;
+import org.tensorflow.framework.DataType;
+
+public class RemoteTFModelTest {
+
+	private static TFModel floatModel = null;
+	private static TFModel intModel = null;
+	private static TFModel stringModel = null;
+	private static TensorServer server = null;
+
+	@BeforeClass
+	public static void init() throws Exception {
+		floatModel = new TFModel(TestSavedModels.addModelDir(DataType.DT_FLOAT));
+		intModel = new TFModel(TestSavedModels.addModelDir(DataType.DT_INT32));
+		stringModel = new TFModel(TestSavedModels.addModelDir(DataType.DT_STRING));
+		server = new TensorServer(0, 2).model("add_float", floatModel).model("add_int", intModel)
+				.model("add_string", stringModel).start();
+	}
+
+	@AfterClass
+	public static void after() {
+		server.close();
+		floatModel.close();
+		intModel.close();
+		stringModel.close();
+	}
+
+	private static RemoteTFModel remote(String name) {
+		return new RemoteTFModel("localhost", server.port(), name);
+	}
+
+	@Test
+	public void floatScalars() {
+		try (RemoteTFModel model = remote("add_float")) {
+			float result = model.sig("serving_default").in("input1", 1.5f).in("input2", 2.0f).out("output").run()
+					.getFloat("output");
+			Assert.assertEquals(3.5f, result, 0.0f);
+		}
+	}
+
+	@Test
+	public void intArrays() {
+		try (RemoteTFModel model = remote("add_int")) {
+			TFResults results = model.in("input1", new int[][] { { 1, 2 }, { 3, 4 } })
+					.in("input2", new int[][] { { 10, 20 }, { 30, 40 } }).out("output").run();
+			Assert.assertArrayEquals(new int[] { 11, 22, 33, 44 }, results.getIntArray("output"));
+			Assert.assertArrayEquals(new long[] { 2, 2 }, results.getTensor("output").shape());
+		}
+	}
+
+	@Test
+	public void bufferInput() {
+		try (RemoteTFModel model = remote("add_float")) {
+			FloatBuffer fb = FloatBuffer.wrap(new float[] { 1.0f, 2.0f, 3.0f });
+			TFResults results = model.in("input1", fb, new long[] { 3 }).in("input2", 0.5f).out("output").run();
+			Assert.assertArrayEquals(new float[] { 1.5f, 2.5f, 3.5f }, results.getFloatArray("output"), 0.0f);
+		}
+	}
+
+	@Test
+	public void strings() {
+		try (RemoteTFModel model = remote("add_string")) {
+			TFResults results = model.in("input1", new String[] { "héllo ", "a" }).in("input2", "world")
+					.out("output").run();
+			Assert.assertArrayEquals(new String[] { "héllo world", "aworld" }, results.getStringArray("output"));
+		}
+	}
+
+	@Test
+	public void tensorInput() {
+		try (RemoteTFModel model = remote("add_int"); Tensor<Integer> tensor = Tensor.create(5, Integer.class)) {
+			Assert.assertEquals(7, model.in("input1", tensor).in("input2", 2).out("output").run().getInt("output"));
+			Assert.assertEquals(5, tensor.intValue());
+		}
+	}
+
+	@Test
+	public void pipelinedRequests() {
+		try (RemoteTFModel model = new RemoteTFModel(new InetSocketAddress("localhost", server.port()), "add_int",
+				1)) {
+			model.out("output");
+			List<CompletableFuture<TFResults>> futures = new ArrayList<CompletableFuture<TFResults>>();
+			for (int i = 0; i < 100; i++) {
+				futures.add(model.in("input1", i).in("input2", 1000).runAsync());
+			}
+			for (int i = 0; i < futures.size(); i++) {
+				try (TFResults results = futures.get(i).join()) {
+					Assert.assertEquals(1000 + i, results.getInt("output"));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void multipleConnections() throws Exception {
+		try (RemoteTFModel model = remote("add_int")) {
+			model.in("input1", 1).in("input2", 2).out("output");
+			for (int i = 0; i < 10; i++) {
+				Assert.assertEquals(3, model.run().getInt("output"));
+			}
+		}
+	}
+
+	@Test(expected = TFException.class)
+	public void unknownModel() {
+		try (RemoteTFModel model = remote("missing")) {
+			model.in("input1", 1);
+		}
+	}
+
+	@Test(expected = TFException.class)
+	public void unknownSignature() {
+		try (RemoteTFModel model = remote("add_int")) {
+			model.sig("missing");
+		}
+	}
+
+	@Test
+	public void missingInput() {
+		try (RemoteTFModel model = remote("add_int")) {
+			model.in("input1", 1).out("output").run();
+			Assert.fail("Expected TFException");
+		} catch (TFException e) {
+			Assert.assertTrue(e.getMessage().contains("input2"));
+		}
+	}
+
+	@Test
+	public void mismatchedDataType() {
+		try (RemoteTFModel model = remote("add_int"); Tensor<Float> tensor = Tensor.create(1.0f, Float.class)) {
+			model.in("input1", tensor).in("input2", 2).out("output").run();
+			Assert.fail("Expected TFException");
+		} catch (TFException e) {
+			Assert.assertTrue(e.getMessage().contains("FLOAT"));
+		}
+	}
+
+	@Test
+	public void wireTensorByteOrder() {
+		float[][] values = new float[][] { { 1.0f, -2.5f }, { Float.MAX_VALUE, Float.MIN_VALUE } };
+		for (ByteOrder order : new ByteOrder[] { ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN }) {
+			try (Tensor<Float> tensor = Tensor.create(values, Float.class)) {
+				ByteBuffer frame = ByteBuffer.allocate((int) WireProtocol.tensorBytes(tensor)).order(order);
+				frame.put((byte) WireProtocol.dataTypeNumber(tensor.dataType()));
+				frame.put((byte) 2);
+				frame.putLong(2).putLong(2);
+				frame.putInt(tensor.numBytes());
+				WireProtocol.copyValues(TFUtil.tensorBuffer(tensor), frame, tensor.dataType(), 4);
+				frame.flip();
+				try (Tensor<?> decoded = WireProtocol.getTensor(frame)) {
+					float[][] copy = new float[2][2];
+					decoded.expect(Float.class).copyTo(copy);
+					Assert.assertArrayEquals(values[0], copy[0], 0.0f);
+					Assert.assertArrayEquals(values[1], copy[1], 0.0f);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void wireStringTensorByteOrder() {
+		byte[][] values = new byte[][] { "a".getBytes(), "bcd".getBytes(), new byte[0] };
+		for (ByteOrder order : new ByteOrder[] { ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN }) {
+			try (Tensor<String> tensor = Tensor.create(values, String.class)) {
+				ByteBuffer frame = ByteBuffer.allocate((int) WireProtocol.tensorBytes(tensor)).order(order);
+				frame.put((byte) WireProtocol.dataTypeNumber(tensor.dataType()));
+				frame.put((byte) 1);
+				frame.putLong(3);
+				frame.putInt(tensor.numBytes());
+				WireProtocol.copyValues(TFUtil.tensorBuffer(tensor), frame, tensor.dataType(), 3);
+				frame.flip();
+				try (Tensor<?> decoded = WireProtocol.getTensor(frame)) {
+					byte[][] copy = new byte[3][];
+					decoded.expect(String.class).copyTo(copy);
+					Assert.assertArrayEquals(values, copy);
+				}
+			}
+		}
+	}
+
+	@Test(expected = TFException.class)
+	public void wireTensorInvalidByteCount() {
+		ByteBuffer frame = ByteBuffer.allocate(32).order(ByteOrder.LITTLE_ENDIAN);
+		frame.put((byte) DataType.DT_FLOAT.getNumber()).put((byte) 1).putLong(3).putInt(8).putLong(0);
+		frame.flip();
+		WireProtocol.getTensor(frame);
+	}
+}
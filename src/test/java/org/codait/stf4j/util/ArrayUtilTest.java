@@ -16,6 +16,8 @@
 
 package org.codait.stf4j.util;
 
+import java.lang.reflect.Array;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.log4j.LogManager;
@@ -824,4 +826,83 @@ public class ArrayUtilTest {
 		String[] result = (String[]) ArrayUtil.firstDimensionValuesOfMultidimArray(s);
 		Assert.assertArrayEquals(new String[] { "one", "ten", "nineteen" }, result);
 	}
+
+	private static final Class<?>[] PRIMITIVES = new Class<?>[] { boolean.class, byte.class, int.class, long.class,
+			float.class, double.class };
+
+	private static Object sample3dArray(Class<?> type) {
+		double[] values = new double[] { 0, 1, -1, 127, 128, 255, -129, 3.7, -3.7, 1e10, -1e10, Double.NaN };
+		Object d = Array.newInstance(double.class, 2, 3, values.length);
+		for (int i = 0; i < 2; i++) {
+			for (int j = 0; j < 3; j++) {
+				double[] row = ((double[][][]) d)[i][j];
+				for (int k = 0; k < values.length; k++) {
+					row[k] = values[k] * (i + 1) + j;
+				}
+			}
+		}
+		if (type == boolean.class) {
+			boolean[][][] b = new boolean[2][3][values.length];
+			for (int i = 0; i < 2; i++) {
+				for (int j = 0; j < 3; j++) {
+					for (int k = 0; k < values.length; k++) {
+						b[i][j][k] = (i + j + k) % 2 == 0;
+					}
+				}
+			}
+			return b;
+		}
+		Object result = Array.newInstance(type, 2, 3, values.length);
+		ArrayUtil.copyArrayValsReflectively(d, result);
+		return result;
+	}
+
+	@Test
+	public void convertArrayTypeMatchesReflectiveConversion() {
+		for (Class<?> origType : PRIMITIVES) {
+			Object orig = sample3dArray(origType);
+			for (Class<?> destType : PRIMITIVES) {
+				if (origType == byte.class && destType != boolean.class && destType != byte.class) {
+					continue; // reflective conversion relies on Array.set widening, checked separately
+				}
+				Object expected = Array.newInstance(destType, ArrayUtil.getArrayDimensions(orig));
+				ArrayUtil.copyArrayValsReflectively(orig, expected);
+				Object actual = ArrayUtil.convertArrayType(orig, destType);
+				Assert.assertTrue(origType + " to " + destType,
+						Arrays.deepEquals(new Object[] { expected }, new Object[] { actual }));
+			}
+		}
+	}
+
+	@Test
+	public void convertByteArrayTypeWidening() {
+		byte[][] b = new byte[][] { { -128, -1, 0, 1, 127 } };
+		Assert.assertArrayEquals(new int[] { -128, -1, 0, 1, 127 },
+				((int[][]) ArrayUtil.convertArrayType(b, int.class))[0]);
+		Assert.assertArrayEquals(new long[] { -128L, -1L, 0L, 1L, 127L },
+				((long[][]) ArrayUtil.convertArrayType(b, long.class))[0]);
+		Assert.assertArrayEquals(new float[] { -128f, -1f, 0f, 1f, 127f },
+				((float[][]) ArrayUtil.convertArrayType(b, float.class))[0], 0.0f);
+		Assert.assertArrayEquals(new double[] { -128d, -1d, 0d, 1d, 127d },
+				((double[][]) ArrayUtil.convertArrayType(b, double.class))[0], 0.0d);
+	}
+
+	@Test
+	public void convertUnsignedArrayTypeMatchesReflectiveConversion() {
+		byte[][][] orig = (byte[][][]) sample3dArray(byte.class);
+		for (Class<?> destType : new Class<?>[] { byte.class, int.class, long.class, float.class, double.class }) {
+			Object expected = Array.newInstance(destType, ArrayUtil.getArrayDimensions(orig));
+			ArrayUtil.copyUnsignedArrayValsReflectively(orig, expected);
+			Object actual = ArrayUtil.convertUnsignedArrayType(orig, destType);
+			Assert.assertTrue("byte to " + destType,
+					Arrays.deepEquals(new Object[] { expected }, new Object[] { actual }));
+		}
+	}
+
+	@Test
+	public void convertArrayTypeObjectArraysUseReflection() {
+		Assert.assertNull(ArrayConverter.forArrays(new Integer[] { 1 }, new float[1], false));
+		float[] f = (float[]) ArrayUtil.convertArrayType(new Integer[] { 1, 2 }, float.class);
+		Assert.assertArrayEquals(new float[] { 1.0f, 2.0f }, f, 0.0f);
+	}
 }
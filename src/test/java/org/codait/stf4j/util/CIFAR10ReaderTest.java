@@ -0,0 +1,112 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.codait.stf4j.util.CIFAR10Util.DimOrder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CIFAR10ReaderTest {
+
+	private static final int NUM_IMAGES = 5;
+
+	private String batchBinFile = null;
+
+	@Before
+	public void init() throws IOException {
+		byte[] b = new byte[NUM_IMAGES * CIFAR10Reader.RECORD_SIZE];
+		new Random(3).nextBytes(b);
+		for (int i = 0; i < NUM_IMAGES; i++) {
+			b[i * CIFAR10Reader.RECORD_SIZE] = (byte) i;
+		}
+		// constant image, where the adjusted standard deviation is used
+		for (int j = 1; j < CIFAR10Reader.RECORD_SIZE; j++) {
+			b[3 * CIFAR10Reader.RECORD_SIZE + j] = 7;
+		}
+		File file = File.createTempFile("cifar", ".bin");
+		file.deleteOnExit();
+		Files.write(file.toPath(), b);
+		batchBinFile = file.getPath();
+	}
+
+	private void checkReader(DimOrder dimOrder, boolean standardize) throws IOException {
+		float[][][][] expected = standardize ? CIFAR10Util.getPreprocessedImages(batchBinFile, dimOrder)
+				: CIFAR10Util.getImages(batchBinFile, dimOrder);
+		int image = 0;
+		try (CIFAR10Reader reader = new CIFAR10Reader(batchBinFile, dimOrder, 2, standardize)) {
+			Assert.assertEquals(NUM_IMAGES, reader.numImages());
+			while (reader.hasNext()) {
+				FloatBuffer images = reader.next();
+				int n = reader.batchSize();
+				Assert.assertEquals(n * CIFAR10Reader.IMAGE_SIZE, images.remaining());
+				Assert.assertEquals(n, reader.shape()[0]);
+				int[] labels = reader.labels();
+				for (int i = 0; i < n; i++) {
+					Assert.assertEquals(image, labels[i]);
+					float[] actual = new float[CIFAR10Reader.IMAGE_SIZE];
+					images.get(actual);
+					Assert.assertArrayEquals(flatten(expected[image]), actual, 1.0e-5f);
+					image++;
+				}
+			}
+		}
+		Assert.assertEquals(NUM_IMAGES, image);
+	}
+
+	private static float[] flatten(float[][][] f) {
+		float[] flat = new float[f.length * f[0].length * f[0][0].length];
+		int i = 0;
+		for (float[][] a : f) {
+			for (float[] b : a) {
+				for (float c : b) {
+					flat[i++] = c;
+				}
+			}
+		}
+		return flat;
+	}
+
+	@Test
+	public void standardizedRowsColsChannels() throws IOException {
+		checkReader(DimOrder.ROWS_COLS_CHANNELS, true);
+	}
+
+	@Test
+	public void standardizedChannelsRowsCols() throws IOException {
+		checkReader(DimOrder.CHANNELS_ROWS_COLS, true);
+	}
+
+	@Test
+	public void rawRowsColsChannels() throws IOException {
+		checkReader(DimOrder.ROWS_COLS_CHANNELS, false);
+	}
+
+	@Test(expected = IOException.class)
+	public void truncatedFile() throws IOException {
+		File file = File.createTempFile("cifar", ".bin");
+		file.deleteOnExit();
+		Files.write(file.toPath(), new byte[CIFAR10Reader.RECORD_SIZE + 1]);
+		new CIFAR10Reader(file.getPath(), DimOrder.ROWS_COLS_CHANNELS, 10, true).close();
+	}
+}
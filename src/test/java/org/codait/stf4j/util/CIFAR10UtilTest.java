@@ -0,0 +1,76 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.codait.stf4j.util.CIFAR10Util.DimOrder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CIFAR10UtilTest {
+
+	// more images than CIFAR10Util.ImageRangeTask.IMAGES_PER_TASK, so that the work is split
+	private static final int NUM_IMAGES = 50;
+
+	private String batchBinFile = null;
+	private ForkJoinPool pool = null;
+
+	@Before
+	public void init() throws IOException {
+		byte[] b = new byte[NUM_IMAGES * 3073];
+		new Random(5).nextBytes(b);
+		File file = File.createTempFile("cifar", ".bin");
+		file.deleteOnExit();
+		Files.write(file.toPath(), b);
+		batchBinFile = file.getPath();
+		pool = new ForkJoinPool(4);
+	}
+
+	@After
+	public void cleanup() {
+		pool.shutdown();
+	}
+
+	@Test
+	public void parallelGetImagesIdentical() throws IOException {
+		for (DimOrder dimOrder : DimOrder.values()) {
+			float[][][][] sequential = CIFAR10Util.getImages(batchBinFile, dimOrder);
+			float[][][][] parallel = CIFAR10Util.getImages(batchBinFile, dimOrder, pool);
+			Assert.assertEquals(NUM_IMAGES, parallel.length);
+			Assert.assertTrue(Arrays.deepEquals(sequential, parallel));
+		}
+	}
+
+	@Test
+	public void parallelPreprocessingIdentical() throws IOException {
+		for (DimOrder dimOrder : DimOrder.values()) {
+			float[][][][] sequential = CIFAR10Util.getPreprocessedImages(batchBinFile, dimOrder);
+			Assert.assertTrue(
+					Arrays.deepEquals(sequential, CIFAR10Util.getPreprocessedImages(batchBinFile, dimOrder, pool)));
+			float[][][][] images = CIFAR10Util.getImages(batchBinFile, dimOrder);
+			Assert.assertTrue(Arrays.deepEquals(sequential, CIFAR10Util.preprocessImages(images, pool)));
+		}
+	}
+}
@@ -0,0 +1,141 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.codait.stf4j.TFException;
+import org.codait.stf4j.simple.BooleanLogicTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tensorflow.Tensor;
+import org.tensorflow.framework.DataType;
+import org.tensorflow.framework.TensorInfo;
+
+public class InputConverterTest {
+
+	protected static Logger log = LogManager.getLogger(InputConverterTest.class);
+
+	private static TensorInfo tensorInfo(DataType dtype) {
+		return TensorInfo.newBuilder().setName("input:0").setDtype(dtype).build();
+	}
+
+	@Test
+	public void sharedConverter() {
+		InputConverter c1 = InputConverter.of(float[][].class, DataType.DT_FLOAT);
+		InputConverter c2 = InputConverter.of(float[][].class, DataType.DT_FLOAT);
+		Assert.assertNotNull(c1);
+		Assert.assertSame(c1, c2);
+		Assert.assertNotSame(c1, InputConverter.of(float[][].class, DataType.DT_DOUBLE));
+		Assert.assertNotSame(c1, InputConverter.of(float[].class, DataType.DT_FLOAT));
+	}
+
+	@Test
+	public void accepts() {
+		InputConverter c = InputConverter.of(int[].class, DataType.DT_INT32);
+		Assert.assertTrue(c.accepts(new int[] { 1 }, DataType.DT_INT32));
+		Assert.assertFalse(c.accepts(new int[][] { { 1 } }, DataType.DT_INT32));
+		Assert.assertFalse(c.accepts(new int[] { 1 }, DataType.DT_INT64));
+		Assert.assertSame(c,
+				InputConverter.forValue(c, "key", "input:0", new int[] { 2 }, tensorInfo(DataType.DT_INT32)));
+	}
+
+	@Test
+	public void implicitConversionDescriptions() {
+		Assert.assertNull(InputConverter.of(float[].class, DataType.DT_FLOAT).implicitConversion());
+		Assert.assertNull(InputConverter.of(Integer.class, DataType.DT_FLOAT).implicitConversion());
+		Assert.assertEquals("Float object array to primitive float array",
+				InputConverter.of(Float[][].class, DataType.DT_FLOAT).implicitConversion());
+		Assert.assertEquals("int array to float array",
+				InputConverter.of(int[].class, DataType.DT_FLOAT).implicitConversion());
+		Assert.assertEquals("long array to byte array (for UInt8)",
+				InputConverter.of(Long[].class, DataType.DT_UINT8).implicitConversion());
+		Assert.assertNull(InputConverter.of(String[].class, DataType.DT_STRING).implicitConversion());
+		Assert.assertEquals("double array to String array",
+				InputConverter.of(double[].class, DataType.DT_STRING).implicitConversion());
+		Assert.assertNull(InputConverter.of(byte[][].class, DataType.DT_STRING).implicitConversion());
+	}
+
+	@Test
+	public void unsupported() {
+		Assert.assertNull(InputConverter.of(Byte.class, DataType.DT_STRING));
+		Assert.assertNull(InputConverter.of(Object[].class, DataType.DT_FLOAT));
+		Assert.assertNull(InputConverter.of(Character.class, DataType.DT_INT32));
+		Assert.assertNull(InputConverter.of(float.class, DataType.DT_FLOAT));
+		Assert.assertNull(InputConverter.of(float[].class, DataType.DT_HALF));
+	}
+
+	@Test(expected = TFException.class)
+	public void unsupportedValue() {
+		InputConverter.forValue("key", "input:0", new Object(), tensorInfo(DataType.DT_FLOAT));
+	}
+
+	@Test
+	public void convertPrimitiveArray() {
+		float[][] value = new float[][] { { 1.0f, 2.0f }, { 3.0f, 4.0f } };
+		try (Tensor<?> t = InputConverter.of(value.getClass(), DataType.DT_FLOAT).convert(value)) {
+			Assert.assertEquals(org.tensorflow.DataType.FLOAT, t.dataType());
+			Assert.assertArrayEquals(new long[] { 2, 2 }, t.shape());
+			float[][] copy = t.copyTo(new float[2][2]);
+			Assert.assertArrayEquals(value[1], copy[1], 0.0f);
+		}
+	}
+
+	@Test
+	public void convertScalar() {
+		try (Tensor<?> t = InputConverter.of(Integer.class, DataType.DT_INT64).convert(7)) {
+			Assert.assertEquals(org.tensorflow.DataType.INT64, t.dataType());
+			Assert.assertEquals(7L, t.longValue());
+		}
+		try (Tensor<?> t = InputConverter.of(String.class, DataType.DT_STRING).convert("abc")) {
+			Assert.assertEquals("abc", new String(t.bytesValue(), StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	public void convertBoxedArray() {
+		Integer[] value = new Integer[] { 1, 2, 3 };
+		try (Tensor<?> t = InputConverter.of(value.getClass(), DataType.DT_INT32).convert(value)) {
+			Assert.assertEquals(org.tensorflow.DataType.INT32, t.dataType());
+			Assert.assertArrayEquals(new int[] { 1, 2, 3 }, t.copyTo(new int[3]));
+		}
+	}
+
+	@Test
+	public void countImplicitConversions() {
+		InputConverter c = InputConverter.of(Double[].class, DataType.DT_DOUBLE);
+		String description = c.implicitConversion();
+		Long before = InputConverter.implicitConversions().get(description);
+		for (int i = 0; i < 3; i++) {
+			c.convert(new Double[] { 1.0, 2.0 }).close();
+		}
+		Map<String, Long> counts = InputConverter.implicitConversions();
+		Assert.assertEquals((before == null ? 0 : before) + 3, (long) counts.get(description));
+	}
+
+	@Test
+	public void sameAsConvertToTensor() {
+		String[] value = new String[] { "true", "false", "true" };
+		TensorInfo ti = tensorInfo(DataType.DT_BOOL);
+		try (Tensor<?> t = TFUtil.convertToTensor("key", "input:0", value, ti)) {
+			BooleanLogicTest.assertArrayEquals(new boolean[] { true, false, true }, t.copyTo(new boolean[3]));
+		}
+	}
+}
@@ -0,0 +1,132 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.file.Files;
+
+import org.codait.stf4j.TFException;
+import org.codait.stf4j.TFModel;
+import org.codait.stf4j.TestSavedModels;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.tensorflow.framework.DataType;
+
+public class MNISTDatasetTest {
+
+	private static final int NUM_IMAGES = 5;
+	private static final int ROWS = 3;
+	private static final int COLS = 2;
+
+	private String imageFile = null;
+	private String labelFile = null;
+
+	@Before
+	public void init() throws IOException {
+		ByteBuffer images = ByteBuffer.allocate(16 + NUM_IMAGES * ROWS * COLS);
+		images.putInt(0x00000803).putInt(NUM_IMAGES).putInt(ROWS).putInt(COLS);
+		for (int i = 0; i < NUM_IMAGES * ROWS * COLS; i++) {
+			images.put((byte) (i * 10));
+		}
+		imageFile = write("images", images.array());
+
+		ByteBuffer labels = ByteBuffer.allocate(8 + NUM_IMAGES);
+		labels.putInt(0x00000801).putInt(NUM_IMAGES);
+		for (int i = 0; i < NUM_IMAGES; i++) {
+			labels.put((byte) (9 - i));
+		}
+		labelFile = write("labels", labels.array());
+	}
+
+	private static String write(String prefix, byte[] bytes) throws IOException {
+		File file = File.createTempFile(prefix, ".idx");
+		file.deleteOnExit();
+		Files.write(file.toPath(), bytes);
+		return file.getPath();
+	}
+
+	@Test
+	public void headerAndRandomAccess() throws IOException {
+		MNISTDataset dataset = new MNISTDataset(imageFile, labelFile);
+		Assert.assertEquals(NUM_IMAGES, dataset.size());
+		Assert.assertEquals(ROWS, dataset.rows());
+		Assert.assertEquals(COLS, dataset.cols());
+		Assert.assertArrayEquals(new int[] { 60, 70 }, dataset.image(1)[0]);
+		// pixel values are unsigned
+		Assert.assertEquals(220, dataset.pixel(3, 2, 0));
+		Assert.assertEquals(7, dataset.label(2));
+	}
+
+	@Test
+	public void batchIteration() throws IOException {
+		MNISTDataset dataset = new MNISTDataset(imageFile, labelFile);
+		ByteBuffer batch = dataset.nextBatch(2);
+		Assert.assertEquals(2 * ROWS * COLS, batch.remaining());
+		Assert.assertArrayEquals(new int[] { 9, 8 }, dataset.batchLabels());
+
+		FloatBuffer floats = FloatBuffer.allocate(2 * ROWS * COLS);
+		dataset.nextFloatBatch(2, floats);
+		Assert.assertEquals(2 * ROWS * COLS, floats.limit());
+		Assert.assertEquals(120.0f, floats.get(0), 0.0f);
+
+		FloatBuffer last = dataset.nextFloatBatch(2);
+		Assert.assertEquals(1, dataset.batchSize());
+		Assert.assertEquals(ROWS * COLS, last.remaining());
+		Assert.assertEquals(240.0f, last.get(0), 0.0f);
+		Assert.assertArrayEquals(new int[] { 5 }, dataset.batchLabels());
+		Assert.assertFalse(dataset.hasNext());
+
+		dataset.reset();
+		Assert.assertTrue(dataset.hasNext());
+	}
+
+	@Test
+	public void utilMatchesDataset() throws IOException {
+		int[][][] images = MNISTUtil.getImages(imageFile);
+		Assert.assertEquals(NUM_IMAGES, images.length);
+		Assert.assertEquals(280 & 0xFF, images[4][2][0]);
+		Assert.assertArrayEquals(new int[] { 9, 8, 7, 6, 5 }, MNISTUtil.getLabels(labelFile));
+	}
+
+	@Test
+	public void uint8BatchAsModelInput() throws IOException {
+		MNISTDataset dataset = new MNISTDataset(imageFile);
+		try (TFModel model = new TFModel(TestSavedModels.addModelDir(DataType.DT_UINT8))) {
+			ByteBuffer batch = dataset.nextBatch(NUM_IMAGES);
+			long[] shape = dataset.batchShape(NUM_IMAGES);
+			byte[] output = new byte[NUM_IMAGES * ROWS * COLS];
+			long[] outputShape = model.sig("serving_default").in("input1", batch, shape).in("input2", batch, shape)
+					.out("output").run().getBytes("output", output, 0);
+			Assert.assertArrayEquals(shape, outputShape);
+			Assert.assertEquals(20, output[1]);
+		}
+	}
+
+	@Test(expected = TFException.class)
+	public void noLabels() throws IOException {
+		new MNISTDataset(imageFile).label(0);
+	}
+
+	@Test(expected = IOException.class)
+	public void wrongNumberOfDimensions() throws IOException {
+		new MNISTDataset(labelFile);
+	}
+}
@@ -0,0 +1,81 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.util;
+
+import org.codait.stf4j.TFException;
+import org.codait.stf4j.TestSavedModels;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.tensorflow.framework.DataType;
+import org.tensorflow.framework.MetaGraphDef;
+import org.tensorflow.framework.SignatureDef;
+import org.tensorflow.framework.TensorShapeProto;
+
+public class SignatureIndexTest {
+
+	private MetaGraphDef metaGraphDef = null;
+	private SignatureIndex index = null;
+
+	@Before
+	public void init() {
+		TensorShapeProto shape = TensorShapeProto.newBuilder().setUnknownRank(true).build();
+		SignatureDef sig1 = SignatureDef.newBuilder()
+				.putInputs("input", TestSavedModels.tensorInfo("x1:0", DataType.DT_FLOAT, shape))
+				.putOutputs("output", TestSavedModels.tensorInfo("y1:0", DataType.DT_FLOAT, shape)).build();
+		SignatureDef sig2 = SignatureDef.newBuilder()
+				.putInputs("input", TestSavedModels.tensorInfo("x2:0", DataType.DT_INT32, shape))
+				.putInputs("other", TestSavedModels.tensorInfo("z2:0", DataType.DT_INT32, shape))
+				.putOutputs("output", TestSavedModels.tensorInfo("y2:0", DataType.DT_INT64, shape)).build();
+		metaGraphDef = MetaGraphDef.newBuilder().putSignatureDef("sig1", sig1).putSignatureDef("sig2", sig2).build();
+		index = new SignatureIndex(metaGraphDef);
+	}
+
+	@Test
+	public void signatureSpecificLookups() {
+		Assert.assertEquals("x1:0", index.inputName("sig1", "input"));
+		Assert.assertEquals("x2:0", index.inputName("sig2", "input"));
+		Assert.assertEquals(DataType.DT_INT64, index.outputTensorInfo("sig2", "output").getDtype());
+		Assert.assertEquals("y1:0", index.outputName("sig1", "output"));
+		Assert.assertEquals(2, index.signatureInputs("sig2").size());
+	}
+
+	@Test
+	public void noSignatureMatchesTFUtil() {
+		for (String key : new String[] { "input", "other" }) {
+			Assert.assertEquals(TFUtil.inputKeyToTensorInfo(null, key, metaGraphDef),
+					index.inputTensorInfo(null, key));
+		}
+		Assert.assertEquals(TFUtil.outputKeyToTensorInfo("output", metaGraphDef), index.outputTensorInfo(null, "output"));
+		Assert.assertEquals(TFUtil.outputKeyToName(null, "output", metaGraphDef), index.outputName(null, "output"));
+	}
+
+	@Test(expected = TFException.class)
+	public void badInputKeyForSignature() {
+		index.inputTensorInfo("sig1", "other");
+	}
+
+	@Test(expected = TFException.class)
+	public void badOutputKey() {
+		index.outputTensorInfo(null, "bad_output");
+	}
+
+	@Test(expected = TFException.class)
+	public void badSignatureDefKey() {
+		index.inputName("bad_sig", "input");
+	}
+}
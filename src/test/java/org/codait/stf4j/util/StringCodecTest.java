@@ -0,0 +1,148 @@
+// ------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ------------------------------------------------------------------------
+
+package org.codait.stf4j.util;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.codait.stf4j.TFException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tensorflow.Tensor;
+
+public class StringCodecTest {
+
+	protected static Logger log = LogManager.getLogger(StringCodecTest.class);
+
+	@Test
+	public void encodeMatchesByteArrays() {
+		String[][] s = new String[][] { { "cat", "dog" }, { "Grüße", "" } };
+		try (Tensor<String> t1 = StringCodec.encode(s);
+				Tensor<String> t2 = Tensor.create(ArrayUtil.multidimStringsToMultidimBytes(s), String.class)) {
+			Assert.assertArrayEquals(t2.shape(), t1.shape());
+			Assert.assertEquals(t2.numBytes(), t1.numBytes());
+			byte[][][] b = t1.copyTo(new byte[2][2][0]);
+			Assert.assertEquals("Grüße", new String(b[1][0], StandardCharsets.UTF_8));
+			Assert.assertEquals(0, b[1][1].length);
+		}
+	}
+
+	@Test
+	public void roundTrip() {
+		String[][][] s = new String[][][] { { { "a", "bb" }, { "ccc", "日本語" } },
+				{ { "x", "y" }, { "é", "z" } } };
+		try (Tensor<String> t = StringCodec.encode(s)) {
+			Assert.assertArrayEquals(new long[] { 2, 2, 2 }, t.shape());
+			String[][][] d = (String[][][]) StringCodec.DEFAULT.decode(t);
+			Assert.assertArrayEquals(s, d);
+		}
+	}
+
+	@Test
+	public void decodeByteArrayTensor() {
+		String[] s = new String[] { "alpha", "beta", "gamma", "ünïcödé" };
+		try (Tensor<String> t = Tensor.create(ArrayUtil.multidimStringsToMultidimBytes(s), String.class)) {
+			Assert.assertArrayEquals(s, StringCodec.DEFAULT.decodeFlat(t));
+		}
+	}
+
+	@Test
+	public void longValues() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			sb.append((char) ('a' + i % 26));
+		}
+		String[] s = new String[] { sb.toString(), "short", sb.toString() };
+		try (Tensor<String> t = StringCodec.encode(s)) {
+			Assert.assertArrayEquals(s, StringCodec.DEFAULT.decodeFlat(t));
+		}
+	}
+
+	@Test
+	public void internRepeatedLabels() {
+		String[] s = new String[1000];
+		for (int i = 0; i < s.length; i++) {
+			s[i] = (i % 3 == 0) ? "positive" : "negative";
+		}
+		try (Tensor<String> t = StringCodec.encode(s)) {
+			String[] d = StringCodec.DEFAULT.decodeFlat(t);
+			Assert.assertArrayEquals(s, d);
+			Assert.assertSame(d[0], d[3]);
+			Assert.assertSame(d[1], d[2]);
+			String[] n = new StringCodec(0).decodeFlat(t);
+			Assert.assertArrayEquals(s, n);
+			Assert.assertNotSame(n[0], n[3]);
+		}
+	}
+
+	@Test
+	public void dictionaryFull() {
+		String[] s = new String[] { "a", "b", "c", "a", "b", "c" };
+		try (Tensor<String> t = StringCodec.encode(s)) {
+			String[] d = new StringCodec(1).decodeFlat(t);
+			Assert.assertArrayEquals(s, d);
+			Assert.assertSame(d[0], d[3]);
+			Assert.assertNotSame(d[1], d[4]);
+		}
+	}
+
+	@Test
+	public void emptyArray() {
+		try (Tensor<String> t = StringCodec.encode(new String[2][0])) {
+			Assert.assertArrayEquals(new long[] { 2, 0 }, t.shape());
+			String[][] d = (String[][]) StringCodec.DEFAULT.decode(t);
+			Assert.assertEquals(2, d.length);
+			Assert.assertEquals(0, d[0].length);
+		}
+	}
+
+	@Test
+	public void scalar() {
+		try (Tensor<String> t = StringCodec.encode("hello")) {
+			Assert.assertEquals(0, t.numDimensions());
+			Assert.assertEquals("hello", StringCodec.DEFAULT.decode(t));
+		}
+	}
+
+	@Test(expected = TFException.class)
+	public void nonRectangular() {
+		StringCodec.encode(new String[][] { { "a", "b" }, { "c" } });
+	}
+
+	@Test(expected = TFException.class)
+	public void nullValue() {
+		StringCodec.encode(new String[] { "a", null });
+	}
+
+	@Test(expected = TFException.class)
+	public void notStrings() {
+		StringCodec.encode(new int[] { 1, 2 });
+	}
+
+	@Test
+	public void varint() {
+		byte[] b = new byte[5];
+		Assert.assertEquals(1, StringCodec.putVarint(b, 0, 127));
+		Assert.assertEquals(1, StringCodec.varintSize(127));
+		Assert.assertEquals(2, StringCodec.putVarint(b, 0, 128));
+		Assert.assertEquals(2, StringCodec.varintSize(128));
+		Assert.assertEquals((byte) 0x80, b[0]);
+		Assert.assertEquals((byte) 0x01, b[1]);
+		Assert.assertEquals(3, StringCodec.varintSize(1 << 14));
+	}
+}